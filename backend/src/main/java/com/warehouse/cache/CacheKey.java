@@ -0,0 +1,128 @@
+package com.warehouse.cache;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 结构化缓存键：按目标方法与参数比较，哈希值在创建时计算，两级缓存的L1与回源合并直接以其为键。
+ * 字符串形式（Redis键、失效广播与标签索引使用）按参数类型带前缀、字符串带长度，
+ * null 与字符串 "null"、含分隔符的字符串之间不会混淆；编码只在首次使用时生成一次。
+ * <p>
+ * 编码格式：[查询范围|]目标:参数1:参数2...，参数编码为
+ * null → ~，Integer → i数值，Long → l数值，布尔 → t/f，枚举 → e类名#常量名，
+ * 字符串 → s长度=内容，其他 → o类名#长度=toString。类型不同的参数编码不同，与equals一致。
+ */
+public final class CacheKey {
+
+    private final String scope;
+
+    private final String target;
+
+    private final Object[] params;
+
+    private final int hash;
+
+    // 惰性生成的字符串编码，参数不可变时多线程重复生成的结果相同
+    private String encoded;
+
+    private CacheKey(String scope, String target, Object[] params) {
+        this.scope = scope;
+        this.target = target;
+        this.params = params;
+        int h = Objects.hashCode(scope);
+        h = 31 * h + target.hashCode();
+        h = 31 * h + Arrays.hashCode(params);
+        this.hash = h;
+    }
+
+    /**
+     * @param target 目标标识，通常为 类名:方法名
+     */
+    public static CacheKey of(String target, Object... params) {
+        return of(null, target, params);
+    }
+
+    /**
+     * @param scope 查询范围标签，编码时放在最前并以 ProductCacheInvalidator.SCOPE_SEPARATOR 分隔，可为null
+     */
+    public static CacheKey of(String scope, String target, Object... params) {
+        return new CacheKey(scope, target, params != null ? params.clone() : new Object[0]);
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CacheKey)) {
+            return false;
+        }
+        CacheKey that = (CacheKey) other;
+        return hash == that.hash
+                && target.equals(that.target)
+                && Objects.equals(scope, that.scope)
+                && Arrays.equals(params, that.params);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * 稳定的字符串编码，同一组参数在各节点、各次启动间相同
+     */
+    @Override
+    public String toString() {
+        String result = encoded;
+        if (result == null) {
+            result = encode();
+            encoded = result;
+        }
+        return result;
+    }
+
+    private String encode() {
+        int capacity = target.length() + (scope != null ? scope.length() + 1 : 0) + params.length * 8;
+        StringBuilder sb = new StringBuilder(capacity);
+        if (scope != null) {
+            sb.append(scope).append(ProductCacheInvalidator.SCOPE_SEPARATOR);
+        }
+        sb.append(target);
+        for (Object param : params) {
+            sb.append(':');
+            appendParam(sb, param);
+        }
+        return sb.toString();
+    }
+
+    private static void appendParam(StringBuilder sb, Object param) {
+        if (param == null) {
+            sb.append('~');
+        } else if (param instanceof Integer) {
+            sb.append('i').append(((Integer) param).intValue());
+        } else if (param instanceof Long) {
+            sb.append('l').append(((Long) param).longValue());
+        } else if (param instanceof Boolean) {
+            sb.append((Boolean) param ? 't' : 'f');
+        } else if (param instanceof Enum) {
+            sb.append('e').append(((Enum<?>) param).getDeclaringClass().getName()).append('#')
+                    .append(((Enum<?>) param).name());
+        } else if (param instanceof String) {
+            String value = (String) param;
+            sb.append('s').append(value.length()).append('=').append(value);
+        } else {
+            String value = String.valueOf(param);
+            sb.append('o').append(param.getClass().getName()).append('#')
+                    .append(value.length()).append('=').append(value);
+        }
+    }
+}
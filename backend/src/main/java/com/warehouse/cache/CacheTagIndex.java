@@ -0,0 +1,127 @@
+package com.warehouse.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 缓存标签索引：在Redis中为每个标签维护一个缓存键集合，各节点共享。
+ * 标签集合的存活时间不短于缓存条目，集合中残留已过期的键不影响正确性。
+ */
+@Component
+public class CacheTagIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheTagIndex.class);
+
+    private static final String TAG_PREFIX = "warehouse:cache:tags:";
+
+    private static final int POP_BATCH = 500;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${app.cache.tag-ttl-minutes:20}")
+    private long tagTtlMinutes;
+
+    /**
+     * 为缓存注册标签提取，之后写入该缓存的条目都会记录标签
+     */
+    public void registerTagger(String cacheName, CacheTagger tagger) {
+        if (!(cacheManager instanceof TwoLevelCacheManager)) {
+            logger.warn("缓存管理器不支持写入监听，缓存 {} 不记录标签", cacheName);
+            return;
+        }
+        ((TwoLevelCacheManager) cacheManager).addPutListener(cacheName,
+                (key, value) -> tag(cacheName, key, tagger.tags(key, value)));
+    }
+
+    /**
+     * 记录缓存键所属的标签（一次管道提交）
+     */
+    public void tag(String cacheName, Object key, Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        String member = String.valueOf(key);
+        long ttlSeconds = tagTtlMinutes * 60;
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String tag : tags) {
+                    String tagKey = tagKey(cacheName, tag);
+                    stringConnection.sAdd(tagKey, member);
+                    stringConnection.expire(tagKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // 标签写入失败时该条目只能等待过期，直接移除以免读到无法失效的数据
+            logger.warn("缓存标签写入失败，移除缓存条目：{}:{}, 原因：{}", cacheName, member, e.getMessage());
+            evictQuietly(cacheName, key);
+        }
+    }
+
+    /**
+     * 立即清除带有任一标签的缓存条目。标签集合用SPOP取出，清除期间新写入的条目保留在集合中。
+     * 先作废进行中的回源：其结果可能读自变更前，写入后才记录标签，SPOP取不到。
+     */
+    public void invalidate(String cacheName, Collection<String> tags) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (cacheManager instanceof TwoLevelCacheManager) {
+            ((TwoLevelCacheManager) cacheManager).invalidateLoads(cacheName);
+        }
+        int evicted = 0;
+        try {
+            for (String tag : tags) {
+                String tagKey = tagKey(cacheName, tag);
+                List<String> keys;
+                while ((keys = redisTemplate.opsForSet().pop(tagKey, POP_BATCH)) != null && !keys.isEmpty()) {
+                    for (String key : keys) {
+                        cache.evictIfPresent(key);
+                    }
+                    evicted += keys.size();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("按标签失效缓存失败，清空缓存 {}：{}", cacheName, e.getMessage());
+            try {
+                cache.clear();
+            } catch (Exception clearException) {
+                logger.error("清空缓存 {} 失败", cacheName, clearException);
+            }
+            return;
+        }
+        logger.debug("按标签失效缓存：缓存={}, 标签={}, 清除条目={}", cacheName, tags, evicted);
+    }
+
+    private void evictQuietly(String cacheName, Object key) {
+        try {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evictIfPresent(key);
+            }
+        } catch (Exception e) {
+            logger.error("移除缓存条目失败：{}:{}", cacheName, key, e);
+        }
+    }
+
+    private static String tagKey(String cacheName, String tag) {
+        return TAG_PREFIX + cacheName + ":" + tag;
+    }
+}
@@ -0,0 +1,12 @@
+package com.warehouse.cache;
+
+import java.util.Collection;
+
+/**
+ * 缓存标签提取：写入缓存时根据键与值给出该条目依赖的标签，按标签失效时一并清除
+ */
+@FunctionalInterface
+public interface CacheTagger {
+
+    Collection<String> tags(Object key, Object value);
+}
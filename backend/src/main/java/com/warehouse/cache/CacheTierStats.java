@@ -0,0 +1,127 @@
+package com.warehouse.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两级缓存统计：分层命中、L1容量淘汰、主动失效、回源加载耗时与合并回源、提前刷新次数
+ */
+public class CacheTierStats {
+
+    private final LongAdder l1Hits = new LongAdder();
+
+    private final LongAdder l2Hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder earlyRefreshes = new LongAdder();
+
+    private final LongAdder loadNanos = new LongAdder();
+
+    private final LongAccumulator maxLoadNanos = new LongAccumulator(Long::max, 0);
+
+    public void recordL1Hit() {
+        l1Hits.increment();
+    }
+
+    public void recordL2Hit() {
+        l2Hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * L1超出容量淘汰一个条目
+     */
+    public void recordEviction() {
+        evictions.increment();
+    }
+
+    /**
+     * 主动失效（evict/clear），不含其他节点广播引起的本地失效
+     */
+    public void recordInvalidation() {
+        invalidations.increment();
+    }
+
+    /**
+     * 一次回源加载：从未命中到写入缓存的耗时
+     */
+    public void recordLoad(long nanos) {
+        loads.increment();
+        loadNanos.add(nanos);
+        maxLoadNanos.accumulate(nanos);
+    }
+
+    /**
+     * 并发未命中等待了同一次回源，没有重复回源
+     */
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    /**
+     * 条目到期前提前回源
+     */
+    public void recordEarlyRefresh() {
+        earlyRefreshes.increment();
+    }
+
+    /**
+     * 统计快照。L1命中率按全部请求计算，L2命中率按穿透到L2的请求计算。
+     */
+    public Map<String, Object> snapshot(int l1Size) {
+        long l1 = l1Hits.sum();
+        long l2 = l2Hits.sum();
+        long miss = misses.sum();
+        long requests = l1 + l2 + miss;
+        long loadCount = loads.sum();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", requests);
+        snapshot.put("l1Hits", l1);
+        snapshot.put("l2Hits", l2);
+        snapshot.put("misses", miss);
+        snapshot.put("l1HitRate", ratio(l1, requests));
+        snapshot.put("l2HitRate", ratio(l2, l2 + miss));
+        snapshot.put("hitRate", ratio(l1 + l2, requests));
+        snapshot.put("l1Size", l1Size);
+        snapshot.put("evictions", evictions.sum());
+        snapshot.put("invalidations", invalidations.sum());
+        snapshot.put("loads", loadCount);
+        snapshot.put("avgLoadMillis", loadCount == 0 ? 0.0 : loadNanos.sum() / 1_000_000.0 / loadCount);
+        snapshot.put("maxLoadMillis", maxLoadNanos.get() / 1_000_000.0);
+        snapshot.put("coalesced", coalesced.sum());
+        snapshot.put("earlyRefreshes", earlyRefreshes.sum());
+        return snapshot;
+    }
+
+    public void reset() {
+        l1Hits.reset();
+        l2Hits.reset();
+        misses.reset();
+        evictions.reset();
+        invalidations.reset();
+        loads.reset();
+        loadNanos.reset();
+        maxLoadNanos.reset();
+        coalesced.reset();
+        earlyRefreshes.reset();
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0.0 : (double) part / total;
+    }
+}
@@ -0,0 +1,16 @@
+package com.warehouse.cache;
+
+/**
+ * 缓存值编码。实现类注册为Spring Bean后即可在配置中按名称为缓存选用。
+ */
+public interface CacheValueCodec {
+
+    /**
+     * 编码名称，对应配置 app.cache.caches.{缓存名}.codec
+     */
+    String getName();
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] bytes);
+}
@@ -0,0 +1,22 @@
+package com.warehouse.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存预热健康检查，加入就绪探针分组：关键缓存预热完成前报告 OUT_OF_SERVICE
+ */
+@Component("cacheWarmup")
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmupService.isCriticalWarm() ? Health.up() : Health.outOfService();
+        return builder.withDetails(cacheWarmupService.getProgress()).build();
+    }
+}
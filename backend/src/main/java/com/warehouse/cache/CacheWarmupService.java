@@ -0,0 +1,229 @@
+package com.warehouse.cache;
+
+import com.warehouse.config.AppCacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存预热服务：应用就绪后与定时并行执行已启用的预热任务，记录每个任务的进度。
+ * 所有关键任务至少成功一次后才报告就绪（见 CacheWarmupHealthIndicator），之后的定时预热失败不影响就绪状态。
+ */
+@Service
+public class CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    @Autowired(required = false)
+    private List<CacheWarmupTask> tasks = Collections.emptyList();
+
+    @Autowired
+    private AppCacheProperties cacheProperties;
+
+    private ExecutorService executor;
+
+    // 任务名 -> 最近一次执行状态
+    private final Map<String, TaskStatus> statuses = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private volatile int total;
+
+    private volatile boolean criticalWarm;
+
+    private volatile LocalDateTime lastStartedAt;
+
+    private volatile LocalDateTime lastFinishedAt;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, cacheProperties.getWarmup().getThreads()), r -> {
+            Thread thread = new Thread(r, "cache-warmup-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (CacheWarmupTask task : tasks) {
+            statuses.put(task.getName(), new TaskStatus(isCritical(task)));
+        }
+        // 关闭预热或没有关键任务时不阻塞就绪
+        criticalWarm = !cacheProperties.getWarmup().isEnabled()
+                || statuses.values().stream().noneMatch(status -> status.critical);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 应用就绪后异步预热，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (cacheProperties.getWarmup().isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * 定时预热：重新加载已过期或被清空的缓存，已缓存的只读取
+     */
+    @Scheduled(fixedDelayString = "${app.cache.warmup.interval-ms:600000}",
+               initialDelayString = "${app.cache.warmup.interval-ms:600000}")
+    public void scheduledWarmUp() {
+        if (cacheProperties.getWarmup().isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * 并行执行已启用的预热任务，上一轮未结束时不重复执行
+     *
+     * @return 本轮执行结束的future；已有一轮在执行时返回null
+     */
+    public CompletableFuture<Void> warmUp() {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("缓存预热正在执行，跳过本次触发");
+            return null;
+        }
+        List<CacheWarmupTask> enabledTasks = new ArrayList<>();
+        for (CacheWarmupTask task : tasks) {
+            if (isEnabled(task)) {
+                enabledTasks.add(task);
+            }
+        }
+        total = enabledTasks.size();
+        completed.set(0);
+        lastStartedAt = LocalDateTime.now();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (CacheWarmupTask task : enabledTasks) {
+            TaskStatus status = statuses.get(task.getName());
+            status.state = "PENDING";
+            futures.add(CompletableFuture.runAsync(() -> execute(task, status), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((result, ex) -> {
+                    lastFinishedAt = LocalDateTime.now();
+                    running.set(false);
+                    logger.info("缓存预热完成：{}个任务，关键缓存{}", total, criticalWarm ? "已就绪" : "未就绪");
+                });
+    }
+
+    private void execute(CacheWarmupTask task, TaskStatus status) {
+        status.state = "RUNNING";
+        long start = System.currentTimeMillis();
+        try {
+            task.run();
+            status.state = "SUCCEEDED";
+            status.succeededOnce = true;
+            status.error = null;
+        } catch (Exception e) {
+            status.state = "FAILED";
+            status.error = e.getMessage();
+            logger.warn("缓存预热任务{}失败：{}", task.getName(), e.getMessage());
+        } finally {
+            status.durationMs = System.currentTimeMillis() - start;
+            status.finishedAt = LocalDateTime.now();
+            completed.incrementAndGet();
+            refreshCriticalWarm();
+        }
+    }
+
+    private void refreshCriticalWarm() {
+        if (criticalWarm) {
+            return;
+        }
+        synchronized (statuses) {
+            criticalWarm = statuses.values().stream()
+                    .allMatch(status -> !status.critical || status.succeededOnce);
+        }
+        if (criticalWarm) {
+            logger.info("关键缓存预热完成，应用可以接收流量");
+        }
+    }
+
+    /**
+     * 关键缓存是否已预热（所有启用的关键任务至少成功一次）
+     */
+    public boolean isCriticalWarm() {
+        return criticalWarm;
+    }
+
+    /**
+     * 预热进度：本轮完成数/总数与各任务状态
+     */
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("running", running.get());
+        progress.put("completed", completed.get());
+        progress.put("total", total);
+        progress.put("criticalWarm", criticalWarm);
+        progress.put("lastStartedAt", lastStartedAt);
+        progress.put("lastFinishedAt", lastFinishedAt);
+
+        Map<String, Object> taskProgress = new LinkedHashMap<>();
+        synchronized (statuses) {
+            statuses.forEach((name, status) -> taskProgress.put(name, status.toMap()));
+        }
+        progress.put("tasks", taskProgress);
+        return progress;
+    }
+
+    private boolean isEnabled(CacheWarmupTask task) {
+        AppCacheProperties.WarmupTaskSpec spec = cacheProperties.getWarmup().getTasks().get(task.getName());
+        return spec == null || spec.isEnabled();
+    }
+
+    /**
+     * 未启用的任务不作为关键任务，否则永远无法就绪
+     */
+    private boolean isCritical(CacheWarmupTask task) {
+        AppCacheProperties.WarmupTaskSpec spec = cacheProperties.getWarmup().getTasks().get(task.getName());
+        return spec != null && spec.isEnabled() && spec.isCritical();
+    }
+
+    private static class TaskStatus {
+        final boolean critical;
+        volatile String state = "IDLE";
+        volatile boolean succeededOnce;
+        volatile String error;
+        volatile long durationMs;
+        volatile LocalDateTime finishedAt;
+
+        TaskStatus(boolean critical) {
+            this.critical = critical;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("state", state);
+            map.put("critical", critical);
+            map.put("durationMs", durationMs);
+            map.put("finishedAt", finishedAt);
+            map.put("error", error);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.warehouse.cache;
+
+/**
+ * 缓存预热任务：调用带缓存的查询方法，缓存未命中时回源写入，已命中时只读取。
+ * 注册为Spring Bean后由 CacheWarmupService 在启动时与定时并行执行，
+ * 是否启用、是否关键由 app.cache.warmup.tasks.{任务名} 配置。
+ */
+public class CacheWarmupTask {
+
+    private final String name;
+
+    private final Runnable action;
+
+    public CacheWarmupTask(String name, Runnable action) {
+        this.name = name;
+        this.action = action;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void run() {
+        action.run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.warehouse.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按指定编码序列化缓存值，编码后超过阈值时GZIP压缩。
+ * 读取时按GZIP魔数识别是否压缩；无法解码的旧格式条目按未命中处理，随后被新值覆盖。
+ */
+public class CodecRedisSerializer implements RedisSerializer<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodecRedisSerializer.class);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final CacheValueCodec codec;
+
+    private final int compressionThreshold;
+
+    /**
+     * @param compressionThreshold 压缩阈值（字节），不大于0时不压缩
+     */
+    public CodecRedisSerializer(CacheValueCodec codec, int compressionThreshold) {
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        byte[] bytes = codec.encode(value);
+        if (compressionThreshold > 0 && bytes.length > compressionThreshold) {
+            return gzip(bytes);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return codec.decode(isGzip(bytes) ? gunzip(bytes) : bytes);
+        } catch (SerializationException e) {
+            logger.warn("缓存值无法解码，按未命中处理：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isGzip(byte[] bytes) {
+        return bytes.length > 2 && bytes[0] == (byte) 0x1f && bytes[1] == (byte) 0x8b;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new SerializationException("缓存值压缩失败", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+        byte[] buffer = new byte[8192];
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            int read;
+            while ((read = gzip.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new SerializationException("缓存值解压失败", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,127 @@
+package com.warehouse.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 进程内L1缓存：按访问顺序淘汰的有界LRU，条目写入后超过存活时间即失效。
+ * 存活时间同时限制了丢失失效广播时本地副本的最长陈旧时间。
+ * 超出容量淘汰的条目通知给淘汰监听（用于统计），监听在锁内调用，不得阻塞。
+ * 条目按key的equals/hashCode查找；key不是字符串时另记其字符串编码，供失效广播按编码丢弃。
+ */
+public class LocalCache {
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final Runnable evictionListener;
+
+    private final Map<Object, Entry> entries;
+
+    // 字符串编码 -> key，只记录非字符串key
+    private final Map<String, Object> keysByEncoding = new HashMap<>();
+
+    public LocalCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, null);
+    }
+
+    public LocalCache(int maxEntries, long ttlMillis, Runnable evictionListener) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.evictionListener = evictionListener;
+        this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() <= LocalCache.this.maxEntries) {
+                    return false;
+                }
+                unindex(eldest.getKey(), eldest.getValue());
+                if (LocalCache.this.evictionListener != null) {
+                    LocalCache.this.evictionListener.run();
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return 缓存值；不存在或已过期时返回null
+     */
+    public synchronized Object get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * @param encodedKey key的字符串编码，与Redis键及失效广播一致
+     */
+    public synchronized void put(Object key, String encodedKey, Object value) {
+        entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis, encodedKey));
+        if (!encodedKey.equals(key)) {
+            keysByEncoding.put(encodedKey, key);
+        }
+    }
+
+    public synchronized void evict(Object key) {
+        remove(key);
+    }
+
+    /**
+     * 按字符串编码丢弃条目（其他节点的失效广播）
+     */
+    public synchronized void evictEncoded(String encodedKey) {
+        Object key = keysByEncoding.get(encodedKey);
+        remove(key != null ? key : encodedKey);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysByEncoding.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    private void remove(Object key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key, entry);
+        }
+    }
+
+    private void unindex(Object key, Entry entry) {
+        if (!entry.encodedKey.equals(key)) {
+            keysByEncoding.remove(entry.encodedKey);
+        }
+    }
+
+    private static class Entry {
+        final Object value;
+        final long expiresAt;
+        final String encodedKey;
+
+        Entry(Object value, long expiresAt, String encodedKey) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.encodedKey = encodedKey;
+        }
+    }
+}
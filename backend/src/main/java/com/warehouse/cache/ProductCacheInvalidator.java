@@ -0,0 +1,121 @@
+package com.warehouse.cache;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.dto.ProductListDTO;
+import com.warehouse.event.StockChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 商品分页缓存的定向失效。每个缓存页带两类标签：
+ * 1. 页内每个商品的 product:{id}，库存或商品信息变更只清除包含该商品的页；
+ * 2. 查询范围 category:{分类ID}（不按分类筛选时为 category:*），新增、删除或改变分类等
+ *    可能改变页内成员与总数的变更，只清除对应分类及不限分类的页。
+ * 失效在事务提交后执行，避免并发读取把提交前的旧数据重新写入缓存；
+ * 提交前已开始、提交后才写入的回源尚未记录标签，由 {@link CacheTagIndex#invalidate} 作废其结果。
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    public static final String CACHE_NAME = "products";
+
+    /**
+     * 缓存键中查询范围标签与其余部分的分隔符
+     */
+    public static final char SCOPE_SEPARATOR = '|';
+
+    private static final String ALL_CATEGORIES = "*";
+
+    @Autowired
+    private CacheTagIndex cacheTagIndex;
+
+    @PostConstruct
+    public void init() {
+        cacheTagIndex.registerTagger(CACHE_NAME, ProductCacheInvalidator::tags);
+    }
+
+    public static String scopeTag(Integer categoryId) {
+        return "category:" + (categoryId != null ? categoryId.toString() : ALL_CATEGORIES);
+    }
+
+    public static String productTag(Integer productId) {
+        return "product:" + productId;
+    }
+
+    /**
+     * 缓存页的标签：键前缀中的查询范围加页内商品
+     */
+    static Collection<String> tags(Object key, Object value) {
+        List<String> tags = new ArrayList<>();
+        String keyString = String.valueOf(key);
+        int separator = keyString.indexOf(SCOPE_SEPARATOR);
+        if (separator > 0) {
+            tags.add(keyString.substring(0, separator));
+        }
+        if (value instanceof PageResult && ((PageResult<?>) value).getRecords() != null) {
+            for (Object record : ((PageResult<?>) value).getRecords()) {
+                if (record instanceof ProductListDTO && ((ProductListDTO) record).getId() != null) {
+                    tags.add(productTag(((ProductListDTO) record).getId()));
+                }
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * 商品库存变更：只清除包含该商品的缓存页
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        cacheTagIndex.invalidate(CACHE_NAME, Collections.singletonList(productTag(event.getProductId())));
+    }
+
+    /**
+     * 商品信息变更但不影响查询结果成员（如价格、图片）
+     */
+    public void evictProduct(Integer productId) {
+        invalidateAfterCommit(Collections.singletonList(productTag(productId)));
+    }
+
+    /**
+     * 商品新增、删除或影响筛选的字段变更：清除包含该商品的页、所涉分类的页以及不限分类的页
+     * @param categoryIds 变更前后的分类ID（可为空）
+     */
+    public void evictProductScope(Integer productId, Integer... categoryIds) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (productId != null) {
+            tags.add(productTag(productId));
+        }
+        tags.add(scopeTag(null));
+        for (Integer categoryId : categoryIds) {
+            if (categoryId != null) {
+                tags.add(scopeTag(categoryId));
+            }
+        }
+        invalidateAfterCommit(tags);
+    }
+
+    private void invalidateAfterCommit(Collection<String> tags) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheTagIndex.invalidate(CACHE_NAME, tags);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheTagIndex.invalidate(CACHE_NAME, tags);
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.warehouse.cache;
+
+/**
+ * 开启提前刷新的缓存条目：缓存值连同到期时间与回源耗时一起存储，各节点据此计算提前刷新的概率。
+ * 类不能声明为final，否则缓存编码不写入类型信息，无法还原。
+ */
+public class RefreshableValue {
+
+    private Object value;
+
+    private long expiresAt;
+
+    private long loadMillis;
+
+    private RefreshableValue() {
+        // 供缓存编码反序列化
+    }
+
+    public RefreshableValue(Object value, long expiresAt, long loadMillis) {
+        this.value = value;
+        this.expiresAt = expiresAt;
+        this.loadMillis = loadMillis;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+}
@@ -0,0 +1,364 @@
+package com.warehouse.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 两级缓存：进程内L1在前，Redis（L2）在后。
+ * 读取先查L1，未命中再查L2并回填L1；写入与失效同时作用于两级，并广播给其他节点丢弃各自的L1副本。
+ * L1直接返回共享对象，调用方不得修改缓存返回的对象。
+ * 回源耗时按同一线程内未命中到写入同一key的间隔统计，覆盖@Cacheable先查后写的调用方式。
+ * L1与进行中的回源直接以 {@link CacheKey} 为键（使用其预先计算的哈希），L1命中时不生成字符串编码；
+ * 其他类型的key按字符串形式存放。字符串编码只用于Redis键与失效广播。
+ * <p>
+ * 通过 get(key, valueLoader)（@Cacheable(sync = true)）读取时：
+ * 本节点同一key的并发未命中只回源一次，其余请求等待同一结果；回源期间该key被失效、
+ * 或该缓存按标签失效时结果不写入缓存。
+ * 开启提前刷新（beta &gt; 0）的缓存按XFetch算法在条目到期前以递增的概率提前回源，
+ * 访问越频繁、回源越慢的key越早刷新，刷新期间其他请求继续读取当前值。
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+
+    private final Cache redisCache;
+
+    private final LocalCache localCache;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final CacheTierStats stats;
+
+    private final double earlyRefreshBeta;
+
+    // 当前线程最近一次未命中的key与时间，写入同一key时记为一次回源
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    // 进行中的回源：本地key -> 回源结果
+    private final ConcurrentHashMap<Object, InFlightLoad> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param earlyRefreshBeta 提前刷新系数，不大于0时不提前刷新
+     */
+    public TwoLevelCache(String name, Cache redisCache, LocalCache localCache,
+                         TwoLevelCacheManager cacheManager, CacheTierStats stats, double earlyRefreshBeta) {
+        super(false);
+        this.name = name;
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.cacheManager = cacheManager;
+        this.stats = stats;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return unwrap(lookupStored(key, localKey(key)));
+    }
+
+    /**
+     * 读取存储的条目（开启提前刷新时为 RefreshableValue）
+     */
+    private Object lookupStored(Object key, Object localKey) {
+        Object value = localCache.get(localKey);
+        if (value != null) {
+            stats.recordL1Hit();
+            pendingLoad.remove();
+            return value;
+        }
+
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            stats.recordL2Hit();
+            pendingLoad.remove();
+            localCache.put(localKey, encodedKey(key), wrapper.get());
+            return wrapper.get();
+        }
+        stats.recordMiss();
+        pendingLoad.set(new PendingLoad(localKey, System.nanoTime()));
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object localKey = localKey(key);
+        Object stored = lookupStored(key, localKey);
+        if (stored != null) {
+            if (shouldRefreshEarly(stored)) {
+                InFlightLoad load = new InFlightLoad();
+                if (inFlight.putIfAbsent(localKey, load) == null) {
+                    stats.recordEarlyRefresh();
+                    try {
+                        return (T) load(key, localKey, load, valueLoader);
+                    } catch (ValueRetrievalException e) {
+                        // 条目尚未到期，提前刷新失败时继续使用当前值
+                        logger.warn("缓存{}提前刷新失败，继续使用当前值：{}", name, e.getMessage());
+                    }
+                }
+            }
+            return (T) unwrap(stored);
+        }
+
+        pendingLoad.remove();
+        InFlightLoad load = new InFlightLoad();
+        InFlightLoad existing = inFlight.putIfAbsent(localKey, load);
+        if (existing != null) {
+            stats.recordCoalesced();
+            return (T) await(existing, key, valueLoader);
+        }
+        // 未命中后、登记回源前，上一次回源可能刚好完成并写入了L1
+        Object loaded = localCache.get(localKey);
+        if (loaded != null) {
+            inFlight.remove(localKey, load);
+            load.future.complete(unwrap(loaded));
+            return (T) unwrap(loaded);
+        }
+        return (T) load(key, localKey, load, valueLoader);
+    }
+
+    private Object load(Object key, Object localKey, InFlightLoad load, Callable<?> valueLoader) {
+        try {
+            long start = System.nanoTime();
+            Object value;
+            try {
+                value = valueLoader.call();
+            } catch (Throwable ex) {
+                load.future.completeExceptionally(ex);
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+            long loadNanos = System.nanoTime() - start;
+            stats.recordLoad(loadNanos);
+            if (!load.invalidated) {
+                store(key, localKey, value, loadNanos);
+                // 写入前后之间发生的失效同样不能保留该结果
+                if (load.invalidated) {
+                    redisCache.evict(key);
+                    localCache.evict(localKey);
+                }
+            }
+            load.future.complete(value);
+            return value;
+        } finally {
+            inFlight.remove(localKey, load);
+        }
+    }
+
+    private Object await(InFlightLoad load, Object key, Callable<?> valueLoader) {
+        try {
+            return load.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expiry 时提前回源，delta为上次回源耗时
+     */
+    private boolean shouldRefreshEarly(Object stored) {
+        if (earlyRefreshBeta <= 0 || !(stored instanceof RefreshableValue)) {
+            return false;
+        }
+        RefreshableValue entry = (RefreshableValue) stored;
+        if (entry.getLoadMillis() <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = -entry.getLoadMillis() * earlyRefreshBeta * Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.getExpiresAt();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object localKey = localKey(key);
+        store(key, localKey, value, completeLoad(localKey));
+    }
+
+    private void store(Object key, Object localKey, Object value, long loadNanos) {
+        Object stored = wrap(value, loadNanos);
+        String encodedKey = encodedKey(key);
+        redisCache.put(key, stored);
+        localCache.put(localKey, encodedKey, stored);
+        cacheManager.publishEvict(name, encodedKey);
+        cacheManager.onPut(name, key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object localKey = localKey(key);
+        String encodedKey = encodedKey(key);
+        Object stored = wrap(value, completeLoad(localKey));
+        ValueWrapper existing = redisCache.putIfAbsent(key, stored);
+        if (existing != null && existing.get() != null) {
+            localCache.put(localKey, encodedKey, existing.get());
+            return toValueWrapper(unwrap(existing.get()));
+        }
+        localCache.put(localKey, encodedKey, stored);
+        cacheManager.publishEvict(name, encodedKey);
+        cacheManager.onPut(name, key, value);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        // 按标签失效时传入的是字符串编码，本地副本可能以CacheKey存放，统一按编码丢弃
+        String encodedKey = encodedKey(key);
+        markInvalidated(encodedKey);
+        redisCache.evict(key);
+        localCache.evictEncoded(encodedKey);
+        stats.recordInvalidation();
+        cacheManager.publishEvict(name, encodedKey);
+    }
+
+    @Override
+    public void clear() {
+        invalidateLoads();
+        redisCache.clear();
+        localCache.clear();
+        stats.recordInvalidation();
+        cacheManager.publishClear(name);
+    }
+
+    /**
+     * 收到其他节点的失效广播时只丢弃本地副本，广播中的key为字符串编码
+     */
+    void evictLocal(String encodedKey) {
+        markInvalidated(encodedKey);
+        localCache.evictEncoded(encodedKey);
+    }
+
+    void clearLocal() {
+        invalidateLoads();
+        localCache.clear();
+    }
+
+    /**
+     * 作废本节点进行中的全部回源，其结果不写入缓存
+     */
+    void invalidateLoads() {
+        inFlight.values().forEach(load -> load.invalidated = true);
+    }
+
+    public CacheTierStats getStats() {
+        return stats;
+    }
+
+    public int getLocalSize() {
+        return localCache.size();
+    }
+
+    public int getLocalMaxEntries() {
+        return localCache.getMaxEntries();
+    }
+
+    public long getLocalTtlMillis() {
+        return localCache.getTtlMillis();
+    }
+
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    /**
+     * Redis条目的存活时间，L2不是Redis缓存或未设置时返回null
+     */
+    public Duration getTtl() {
+        if (redisCache instanceof RedisCache) {
+            Duration ttl = ((RedisCache) redisCache).getCacheConfiguration().getTtl();
+            return ttl.isZero() ? null : ttl;
+        }
+        return null;
+    }
+
+    /**
+     * 作废该key进行中的回源。进行中的回源只有并发未命中的少数几个，逐个比较编码
+     */
+    private void markInvalidated(String encodedKey) {
+        inFlight.forEach((localKey, load) -> {
+            if (encodedKey.equals(encodedKey(localKey))) {
+                load.invalidated = true;
+            }
+        });
+    }
+
+    /**
+     * 开启提前刷新时记录到期时间与回源耗时；L2没有存活时间时按L1存活时间计算
+     */
+    private Object wrap(Object value, long loadNanos) {
+        if (earlyRefreshBeta <= 0) {
+            return value;
+        }
+        Duration ttl = getTtl();
+        long ttlMillis = ttl != null ? ttl.toMillis() : localCache.getTtlMillis();
+        return new RefreshableValue(value, System.currentTimeMillis() + ttlMillis, loadNanos / 1_000_000);
+    }
+
+    private static Object unwrap(Object stored) {
+        return stored instanceof RefreshableValue ? ((RefreshableValue) stored).getValue() : stored;
+    }
+
+    /**
+     * @return 当前线程对该key的回源耗时（纳秒），不是回源写入时返回0
+     */
+    private long completeLoad(Object localKey) {
+        PendingLoad pending = pendingLoad.get();
+        if (pending != null && pending.localKey.equals(localKey)) {
+            pendingLoad.remove();
+            long nanos = System.nanoTime() - pending.startNanos;
+            stats.recordLoad(nanos);
+            return nanos;
+        }
+        return 0;
+    }
+
+    /**
+     * CacheKey按自身的equals/hashCode比较，其他key按字符串形式比较（与Redis键一致）
+     */
+    private static Object localKey(Object key) {
+        return key instanceof CacheKey ? key : encodedKey(key);
+    }
+
+    private static String encodedKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private static class PendingLoad {
+        final Object localKey;
+        final long startNanos;
+
+        PendingLoad(Object localKey, long startNanos) {
+            this.localKey = localKey;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private static class InFlightLoad {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        volatile boolean invalidated;
+    }
+}
@@ -0,0 +1,204 @@
+package com.warehouse.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * 两级缓存管理器：每个缓存由有界的进程内L1与Redis缓存（L2）组成。
+ * 写入与失效通过Redis发布/订阅广播，其他节点收到后丢弃对应的L1条目；本节点发出的消息忽略。
+ * 事务内的写入与失效在提交后执行，与原Redis缓存管理器行为一致。
+ * L1容量与存活时间可按缓存名单独设置，未设置的缓存使用构造时的默认值。
+ */
+public class TwoLevelCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "warehouse:cache:invalidation";
+
+    private static final String EVICT = "E";
+
+    private static final String CLEAR = "C";
+
+    private static final String LOADS = "L";
+
+    private final CacheManager redisCacheManager;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final int l1MaxEntries;
+
+    private final long l1TtlMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> twoLevelCaches = new ConcurrentHashMap<>();
+
+    private final Map<String, BiConsumer<Object, Object>> putListeners = new ConcurrentHashMap<>();
+
+    private final Map<String, LocalCacheSpec> localCacheSpecs = new ConcurrentHashMap<>();
+
+    private final Map<String, Double> earlyRefreshBetas = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager, StringRedisTemplate redisTemplate,
+                                int l1MaxEntries, long l1TtlMillis) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.l1MaxEntries = l1MaxEntries;
+        this.l1TtlMillis = l1TtlMillis;
+        setTransactionAware(true);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+        return twoLevelCaches.computeIfAbsent(name, n -> {
+            LocalCacheSpec spec = localCacheSpecs.getOrDefault(n, new LocalCacheSpec(l1MaxEntries, l1TtlMillis));
+            CacheTierStats stats = new CacheTierStats();
+            return new TwoLevelCache(n, redisCache,
+                    new LocalCache(spec.maxEntries, spec.ttlMillis, stats::recordEviction), this, stats,
+                    earlyRefreshBetas.getOrDefault(n, 0.0));
+        });
+    }
+
+    /**
+     * 单独设置缓存的L1容量与存活时间，需在缓存首次使用前设置
+     */
+    public void setLocalCacheSpec(String cacheName, int maxEntries, long ttlMillis) {
+        localCacheSpecs.put(cacheName, new LocalCacheSpec(maxEntries, ttlMillis));
+    }
+
+    /**
+     * 开启缓存的提前刷新（XFetch系数beta，通常取1），需在缓存首次使用前设置。
+     * 仅对 @Cacheable(sync = true) 的读取生效。
+     */
+    public void setEarlyRefresh(String cacheName, double beta) {
+        earlyRefreshBetas.put(cacheName, beta);
+    }
+
+    /**
+     * 各缓存的统计与生效配置，按缓存名排序
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new TreeMap<>();
+        twoLevelCaches.forEach((name, cache) -> statistics.put(name, statisticsOf(cache)));
+        return statistics;
+    }
+
+    /**
+     * 单个缓存的统计与生效配置，缓存尚未使用时返回null
+     */
+    public Map<String, Object> getStatistics(String cacheName) {
+        TwoLevelCache cache = twoLevelCaches.get(cacheName);
+        return cache != null ? statisticsOf(cache) : null;
+    }
+
+    private Map<String, Object> statisticsOf(TwoLevelCache cache) {
+        Map<String, Object> snapshot = cache.getStats().snapshot(cache.getLocalSize());
+        Duration ttl = cache.getTtl();
+        snapshot.put("ttlSeconds", ttl != null ? ttl.getSeconds() : null);
+        snapshot.put("l1MaxEntries", cache.getLocalMaxEntries());
+        snapshot.put("l1TtlSeconds", cache.getLocalTtlMillis() / 1000);
+        snapshot.put("earlyRefreshBeta", cache.getEarlyRefreshBeta());
+        return snapshot;
+    }
+
+    public void resetStatistics() {
+        twoLevelCaches.values().forEach(cache -> cache.getStats().reset());
+    }
+
+    /**
+     * 注册缓存写入监听（如记录缓存标签），在条目写入两级缓存后调用
+     */
+    public void addPutListener(String cacheName, BiConsumer<Object, Object> listener) {
+        putListeners.put(cacheName, listener);
+    }
+
+    void onPut(String cacheName, Object key, Object value) {
+        BiConsumer<Object, Object> listener = putListeners.get(cacheName);
+        if (listener != null) {
+            listener.accept(key, value);
+        }
+    }
+
+    /**
+     * 作废缓存进行中的回源并广播给其他节点。回源结果写入后才记录标签，
+     * 按标签失效时取不到这些键，只能阻止其写入。
+     */
+    public void invalidateLoads(String cacheName) {
+        TwoLevelCache cache = twoLevelCaches.get(cacheName);
+        if (cache != null) {
+            cache.invalidateLoads();
+        }
+        publish(LOADS + "|" + nodeId + "|" + cacheName);
+    }
+
+    void publishEvict(String cacheName, String encodedKey) {
+        publish(EVICT + "|" + nodeId + "|" + cacheName + "|" + encodedKey);
+    }
+
+    void publishClear(String cacheName) {
+        publish(CLEAR + "|" + nodeId + "|" + cacheName);
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // 广播失败时其他节点的L1副本最迟在存活时间到期后失效
+            logger.warn("缓存失效广播发送失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[1])) {
+            return;
+        }
+        TwoLevelCache cache = twoLevelCaches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[0])) {
+            cache.clearLocal();
+        } else if (LOADS.equals(parts[0])) {
+            cache.invalidateLoads();
+        } else if (EVICT.equals(parts[0]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    private static class LocalCacheSpec {
+        final int maxEntries;
+        final long ttlMillis;
+
+        LocalCacheSpec(int maxEntries, long ttlMillis) {
+            this.maxEntries = maxEntries;
+            this.ttlMillis = ttlMillis;
+        }
+    }
+}
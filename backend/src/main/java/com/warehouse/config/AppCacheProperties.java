@@ -0,0 +1,127 @@
+package com.warehouse.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存配置（app.cache），按缓存名单独配置，未配置的缓存使用默认值
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cache")
+public class AppCacheProperties {
+
+    /**
+     * Redis条目默认存活时间
+     */
+    private Duration defaultTtl = Duration.ofMinutes(15);
+
+    /**
+     * 进程内L1默认配置
+     */
+    private LocalTier l1 = new LocalTier();
+
+    /**
+     * 默认的缓存值编码
+     */
+    private String defaultCodec = "json";
+
+    /**
+     * 编码后超过该大小（字节）的缓存值压缩存储，不大于0时不压缩
+     */
+    private int compressionThresholdBytes = 4096;
+
+    /**
+     * 缓存名 -> 单独配置
+     */
+    private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+    /**
+     * 缓存预热
+     */
+    private Warmup warmup = new Warmup();
+
+    @Data
+    public static class LocalTier {
+
+        /**
+         * 每个缓存的L1最大条目数
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * L1条目存活时间（秒），限制丢失失效广播时的陈旧时间
+         */
+        private long ttlSeconds = 60;
+    }
+
+    @Data
+    public static class Warmup {
+
+        /**
+         * 是否在启动时与定时预热（定时间隔为 interval-ms）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 并行执行预热任务的线程数
+         */
+        private int threads = 4;
+
+        /**
+         * 预热的商品列表页数（不带筛选条件的前几页）
+         */
+        private int productPages = 3;
+
+        /**
+         * 预热的商品列表每页条数，与列表接口默认值一致
+         */
+        private int productPageSize = 10;
+
+        /**
+         * 任务名 -> 任务配置，未配置的任务启用且非关键
+         */
+        private Map<String, WarmupTaskSpec> tasks = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class WarmupTaskSpec {
+
+        private boolean enabled = true;
+
+        /**
+         * 关键任务至少成功一次后应用才报告就绪
+         */
+        private boolean critical;
+    }
+
+    @Data
+    public static class CacheSpec {
+
+        /**
+         * 缓存值编码（json/smile），为空时使用默认编码
+         */
+        private String codec;
+
+        /**
+         * Redis条目存活时间，为空时使用默认值；L1存活时间不超过该值
+         */
+        private Duration ttl;
+
+        /**
+         * L1最大条目数，为空时使用默认值
+         */
+        private Integer maxEntries;
+
+        /**
+         * 提前刷新系数（XFetch beta，通常取1），为空或不大于0时不提前刷新；
+         * 仅对 @Cacheable(sync = true) 的读取生效
+         */
+        private Double earlyRefreshBeta;
+    }
+}
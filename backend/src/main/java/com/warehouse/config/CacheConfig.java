@@ -5,7 +5,10 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
+import com.warehouse.cache.CacheValueCodec;
+import com.warehouse.cache.CodecRedisSerializer;
+import com.warehouse.cache.JacksonCacheCodec;
+import com.warehouse.cache.TwoLevelCacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,14 +16,20 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Redis缓存配置类
+ * 缓存配置类：进程内L1缓存在前，Redis缓存作为L2
  *
  * @author Warehouse System
  */
@@ -58,37 +67,100 @@ public class CacheConfig {
     }
 
     /**
-     * 配置缓存管理器
+     * 配置缓存管理器：进程内L1在前，Redis缓存作为L2
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // 配置序列化（解决乱码的问题）
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                // 设置key的序列化方式
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                // 设置value的序列化方式
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(createJacksonSerializer()))
-                // 不缓存null值
-                .disableCachingNullValues()
-                // 设置缓存的默认过期时间：15分钟
-                .entryTtl(Duration.ofMinutes(15));
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             AppCacheProperties cacheProperties,
+                                             List<CacheValueCodec> codecs) {
+        AppCacheProperties.LocalTier l1 = cacheProperties.getL1();
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                redisCacheManager(connectionFactory, cacheProperties, codecs),
+                stringRedisTemplate, l1.getMaxEntries(), l1.getTtlSeconds() * 1000);
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .transactionAware()
-                .build();
+        // 单独配置的缓存：L1容量按配置，L1存活时间不超过Redis条目的存活时间
+        cacheProperties.getCaches().forEach((name, spec) -> {
+            int maxEntries = spec.getMaxEntries() != null ? spec.getMaxEntries() : l1.getMaxEntries();
+            long ttlMillis = l1.getTtlSeconds() * 1000;
+            if (spec.getTtl() != null) {
+                ttlMillis = Math.min(ttlMillis, spec.getTtl().toMillis());
+            }
+            cacheManager.setLocalCacheSpec(name, maxEntries, ttlMillis);
+            if (spec.getEarlyRefreshBeta() != null) {
+                cacheManager.setEarlyRefresh(name, spec.getEarlyRefreshBeta());
+            }
+        });
+        return cacheManager;
     }
 
     /**
-     * 创建Jackson序列化器
+     * 缓存值编码：json 与原格式一致，smile 为紧凑的二进制格式；可声明其他 CacheValueCodec Bean 扩展
      */
-    private Jackson2JsonRedisSerializer<Object> createJacksonSerializer() {
-        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(Object.class);
-        ObjectMapper om = new ObjectMapper();
-        om.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        om.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-        om.registerModule(new JavaTimeModule());
-        jackson2JsonRedisSerializer.setObjectMapper(om);
-        return jackson2JsonRedisSerializer;
+    @Bean
+    public CacheValueCodec jsonCacheCodec() {
+        return JacksonCacheCodec.json();
+    }
+
+    @Bean
+    public CacheValueCodec smileCacheCodec() {
+        return JacksonCacheCodec.smile();
+    }
+
+    /**
+     * 订阅缓存失效广播，丢弃本节点对应的L1条目
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Redis缓存管理器（L2），事务同步由两级缓存管理器统一处理。
+     * 缓存值编码与存活时间按缓存名配置，未单独配置的缓存使用默认值。
+     */
+    private RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                                AppCacheProperties cacheProperties,
+                                                List<CacheValueCodec> codecs) {
+        Map<String, CacheValueCodec> codecsByName = new HashMap<>();
+        for (CacheValueCodec codec : codecs) {
+            codecsByName.put(codec.getName(), codec);
+        }
+
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(cacheConfiguration(codecsByName, cacheProperties.getDefaultCodec(),
+                        cacheProperties.getCompressionThresholdBytes(), cacheProperties.getDefaultTtl()));
+        cacheProperties.getCaches().forEach((name, spec) -> {
+            String codec = spec.getCodec() != null ? spec.getCodec() : cacheProperties.getDefaultCodec();
+            Duration ttl = spec.getTtl() != null ? spec.getTtl() : cacheProperties.getDefaultTtl();
+            builder.withCacheConfiguration(name, cacheConfiguration(codecsByName, codec,
+                    cacheProperties.getCompressionThresholdBytes(), ttl));
+        });
+
+        RedisCacheManager redisCacheManager = builder.build();
+        redisCacheManager.afterPropertiesSet();
+        return redisCacheManager;
+    }
+
+    private RedisCacheConfiguration cacheConfiguration(Map<String, CacheValueCodec> codecsByName,
+                                                       String codecName, int compressionThreshold, Duration ttl) {
+        CacheValueCodec codec = codecsByName.get(codecName);
+        if (codec == null) {
+            throw new IllegalArgumentException("未知的缓存编码：" + codecName);
+        }
+        return RedisCacheConfiguration.defaultCacheConfig()
+                // 设置key的序列化方式
+                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
+                // 设置value的序列化方式
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new CodecRedisSerializer(codec, compressionThreshold)))
+                // 不缓存null值
+                .disableCachingNullValues()
+                // 设置缓存的过期时间
+                .entryTtl(ttl);
     }
-}
\ No newline at end of file
+}
@@ -1,44 +1,47 @@
 package com.warehouse.config;
 
+import com.warehouse.cache.CacheKey;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 自定义缓存Key生成器
- * 用于商品列表查询的缓存Key生成
+ * 用于商品、出入库等列表查询的缓存Key生成，生成结构化的 CacheKey（类名:方法名 + 参数），
+ * 字符串形式见 CacheKey 的编码说明。
  *
  * @author Warehouse System
  */
 @Component
 public class CacheKeyGenerator implements KeyGenerator {
 
+    // 目标类 -> 方法 -> 类名:方法名，避免每次生成Key时拼接（继承的方法在不同子类中名称不同）
+    private final Map<Class<?>, Map<Method, String>> targetNames = new ConcurrentHashMap<>();
+
     @Override
     public Object generate(Object target, Method method, Object... params) {
-        StringBuilder sb = new StringBuilder();
-
-        // 添加类名和方法名
-        sb.append(target.getClass().getSimpleName()).append(":");
-        sb.append(method.getName()).append(":");
+        return generate(null, target, method, params);
+    }
 
-        // 添加参数值
-        if (params != null && params.length > 0) {
-            Arrays.stream(params).forEach(param -> {
-                if (param != null) {
-                    sb.append(param).append(":");
-                } else {
-                    sb.append("null:");
-                }
-            });
+    /**
+     * @param scope 查询范围标签，可为null
+     */
+    public CacheKey generate(String scope, Object target, Method method, Object... params) {
+        Class<?> targetClass = AopUtils.getTargetClass(target);
+        // 先get再写入：命中时不分配捕获lambda，也不进入computeIfAbsent的加锁路径
+        Map<Method, String> names = targetNames.get(targetClass);
+        if (names == null) {
+            names = targetNames.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
         }
-
-        // 移除最后的冒号
-        if (sb.charAt(sb.length() - 1) == ':') {
-            sb.setLength(sb.length() - 1);
+        String targetName = names.get(method);
+        if (targetName == null) {
+            targetName = targetClass.getSimpleName() + ":" + method.getName();
+            names.putIfAbsent(method, targetName);
         }
-
-        return sb.toString();
+        return CacheKey.of(scope, targetName, params);
     }
-}
\ No newline at end of file
+}
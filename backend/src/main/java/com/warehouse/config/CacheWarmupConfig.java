@@ -0,0 +1,54 @@
+package com.warehouse.config;
+
+import com.warehouse.cache.CacheWarmupTask;
+import com.warehouse.common.Result;
+import com.warehouse.service.CategoryService;
+import com.warehouse.service.ProductService;
+import com.warehouse.service.SupplierService;
+import com.warehouse.service.SystemConfigService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 缓存预热任务：基础资料列表与不带筛选条件的前几页商品列表
+ */
+@Configuration
+public class CacheWarmupConfig {
+
+    @Bean
+    public CacheWarmupTask categoriesWarmupTask(CategoryService categoryService) {
+        return new CacheWarmupTask("categories", () -> requireSuccess(categoryService.getAllCategories()));
+    }
+
+    @Bean
+    public CacheWarmupTask suppliersWarmupTask(SupplierService supplierService) {
+        return new CacheWarmupTask("suppliers", () -> requireSuccess(supplierService.getAllSuppliers()));
+    }
+
+    @Bean
+    public CacheWarmupTask systemConfigsWarmupTask(SystemConfigService systemConfigService) {
+        return new CacheWarmupTask("systemConfigs", () -> requireSuccess(systemConfigService.getAllConfigs()));
+    }
+
+    /**
+     * 参数与列表接口不带筛选条件时一致，生成相同的缓存key
+     */
+    @Bean
+    public CacheWarmupTask productsWarmupTask(ProductService productService, AppCacheProperties cacheProperties) {
+        return new CacheWarmupTask("products", () -> {
+            AppCacheProperties.Warmup warmup = cacheProperties.getWarmup();
+            for (int page = 1; page <= warmup.getProductPages(); page++) {
+                productService.getProducts(null, null, null, null, null, null, page, warmup.getProductPageSize());
+            }
+        });
+    }
+
+    /**
+     * 这些查询捕获异常后返回错误结果，预热时视为失败
+     */
+    private static void requireSuccess(Result<?> result) {
+        if (result == null || result.getCode() == null || result.getCode() != 200) {
+            throw new RuntimeException(result != null ? result.getMessage() : "查询结果为空");
+        }
+    }
+}
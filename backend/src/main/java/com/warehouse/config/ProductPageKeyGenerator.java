@@ -0,0 +1,28 @@
+package com.warehouse.config;
+
+import com.warehouse.cache.ProductCacheInvalidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * 商品分页查询的缓存Key生成器
+ * 在通用Key前加上查询范围（分类）标签，用于按分类定向失效；键的字符串形式为 范围标签|类名:方法名:参数...
+ * 仅用于 ProductService.getProducts，第3个参数为分类ID。
+ */
+@Component
+public class ProductPageKeyGenerator implements KeyGenerator {
+
+    private static final int CATEGORY_ID_INDEX = 2;
+
+    @Autowired
+    private CacheKeyGenerator cacheKeyGenerator;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        Integer categoryId = (Integer) params[CATEGORY_ID_INDEX];
+        return cacheKeyGenerator.generate(ProductCacheInvalidator.scopeTag(categoryId), target, method, params);
+    }
+}
@@ -0,0 +1,12 @@
+package com.warehouse.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定时任务配置，启用库存快照等周期性任务。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -60,6 +60,7 @@ public class SecurityConfig {
                 .authorizeRequests()
                 .antMatchers("/auth/**").permitAll()
                 .antMatchers("/files/**").permitAll()  // 允许文件访问
+                .antMatchers("/actuator/health/**").permitAll()  // 存活与就绪探针
 //                .antMatchers("/reports/**").permitAll()  // 允许报表接口无需认证访问
                 .anyRequest().authenticated()
                 .and()
@@ -1,26 +1,50 @@
 package com.warehouse.config;
 
+import com.warehouse.interceptor.IdempotencyInterceptor;
 import com.warehouse.interceptor.OperationLogInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.lang.NonNull;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * WebMvc 统一配置类
  * 包含：拦截器注册、类型转换器配置等
+ * <p>
+ * spring.jpa.open-in-view 已关闭，改为在此注册 OpenEntityManagerInView 并排除报表与导出下载：
+ * 请求内绑定的EntityManager会一直占用首次查询取得的数据库连接，下载期间分批读取时连接无法归还。
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    /**
+     * 边下载边分批读取的接口，每批查询在各自的只读事务中完成并立即归还连接
+     */
+    private static final String[] STREAMING_PATHS = {
+            "/reports/**",
+            "/products/export",
+            "/inbounds/export",
+            "/outbounds/export"
+    };
+
     @Autowired
     private StringToLocalDateTimeConverter stringToLocalDateTimeConverter;
 
     @Autowired
     private OperationLogInterceptor operationLogInterceptor;
 
+    @Autowired
+    private IdempotencyInterceptor idempotencyInterceptor;
+
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
     @Override
     public void addFormatters(@NonNull FormatterRegistry registry) {
         // 注册字符串到LocalDateTime的类型转换器
@@ -39,6 +63,13 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/api/auth/register",  // 排除注册接口
                         "/api/error"           // 排除错误处理
                 );
+
+        // 幂等拦截器：只处理 @Idempotent 标记的接口
+        registry.addInterceptor(idempotencyInterceptor);
+
+        // 视图渲染期间保持EntityManager（延迟加载的关联），报表与导出下载除外
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(STREAMING_PATHS);
     }
 }
 
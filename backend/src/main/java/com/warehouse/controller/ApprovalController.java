@@ -2,10 +2,13 @@ package com.warehouse.controller;
 
 import com.warehouse.common.PageResult;
 import com.warehouse.common.Result;
+import com.warehouse.dto.BulkApprovalRequest;
+import com.warehouse.dto.BulkApprovalResult;
 import com.warehouse.entity.ApprovalRecord;
 import com.warehouse.enums.ApprovalStatus;
 import com.warehouse.enums.BusinessType;
 import com.warehouse.service.ApprovalService;
+import com.warehouse.service.InboundService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +28,9 @@ public class ApprovalController {
     @Autowired
     private ApprovalService approvalService;
 
+    @Autowired
+    private InboundService inboundService;
+
     @GetMapping("/pending")
     public Result<PageResult<ApprovalRecord>> getPendingApprovals(
             @RequestParam(defaultValue = "1") Integer page,
@@ -106,6 +112,32 @@ public class ApprovalController {
         }
     }
 
+    @PostMapping("/bulk-approve")
+    public Result<BulkApprovalResult> bulkApprove(@RequestBody BulkApprovalRequest request) {
+        try {
+            return Result.success(bulkDecide(request, ApprovalStatus.APPROVED));
+        } catch (Exception e) {
+            return Result.error("Bulk approval failed: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/bulk-reject")
+    public Result<BulkApprovalResult> bulkReject(@RequestBody BulkApprovalRequest request) {
+        try {
+            return Result.success(bulkDecide(request, ApprovalStatus.REJECTED));
+        } catch (Exception e) {
+            return Result.error("Bulk rejection failed: " + e.getMessage());
+        }
+    }
+
+    private BulkApprovalResult bulkDecide(BulkApprovalRequest request, ApprovalStatus decision) {
+        BusinessType businessType = BusinessType.valueOf(request.getBusinessType());
+        if (businessType != BusinessType.INBOUND) {
+            throw new RuntimeException("暂只支持入库单批量审批");
+        }
+        return inboundService.bulkApproveInbounds(request.getBusinessIds(), decision, request.getApprovalRemark());
+    }
+
     @GetMapping("/{id}")
     public Result<ApprovalRecord> getApprovalDetail(@PathVariable Integer id) {
         try {
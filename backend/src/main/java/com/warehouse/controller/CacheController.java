@@ -0,0 +1,63 @@
+package com.warehouse.controller;
+
+import com.warehouse.cache.CacheWarmupService;
+import com.warehouse.cache.TwoLevelCacheManager;
+import com.warehouse.common.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 缓存管理控制器，查看各缓存的命中、淘汰与回源耗时统计及生效的容量与存活时间，查看与触发缓存预热。
+ * 权限要求：系统管理员(ADMIN)
+ */
+@RestController
+@RequestMapping("/cache")
+@CrossOrigin
+public class CacheController {
+    @Autowired
+    private TwoLevelCacheManager cacheManager;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Map<String, Object>>> getStatistics() {
+        return Result.success(cacheManager.getStatistics());
+    }
+
+    @GetMapping("/stats/{cacheName}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Object>> getStatistics(@PathVariable String cacheName) {
+        Map<String, Object> statistics = cacheManager.getStatistics(cacheName);
+        if (statistics == null) {
+            return Result.error("缓存不存在或尚未使用");
+        }
+        return Result.success(statistics);
+    }
+
+    @PostMapping("/stats/reset")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Void> resetStatistics() {
+        cacheManager.resetStatistics();
+        return Result.success(null);
+    }
+
+    @GetMapping("/warmup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Object>> getWarmupProgress() {
+        return Result.success(cacheWarmupService.getProgress());
+    }
+
+    @PostMapping("/warmup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Map<String, Object>> warmUp() {
+        if (cacheWarmupService.warmUp() == null) {
+            return Result.error("缓存预热正在执行");
+        }
+        return Result.success(cacheWarmupService.getProgress());
+    }
+}
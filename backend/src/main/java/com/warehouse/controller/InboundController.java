@@ -2,17 +2,19 @@ package com.warehouse.controller;
 
 import com.warehouse.common.PageResult;
 import com.warehouse.common.Result;
+import com.warehouse.dto.InboundListDTO;
 import com.warehouse.entity.ApprovalRecord;
 import com.warehouse.entity.Inbound;
+import com.warehouse.interceptor.Idempotent;
 import com.warehouse.service.ApprovalService;
 import com.warehouse.service.InboundService;
+import com.warehouse.util.DownloadUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,14 +32,14 @@ public class InboundController {
     private ApprovalService approvalService;
 
     @GetMapping
-    public Result<PageResult<Inbound>> getInbounds(
+    public Result<PageResult<InboundListDTO>> getInbounds(
             @RequestParam(required = false)  LocalDateTime startDate,
             @RequestParam(required = false)  LocalDateTime endDate,
             @RequestParam(required = false) Integer productId,
             @RequestParam(required = false) Integer supplierId,
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer size) {
-        PageResult<Inbound> result = inboundService.getInbounds(
+        PageResult<InboundListDTO> result = inboundService.getInbounds(
                 startDate, endDate, productId, supplierId, page, size);
         return Result.success(result);
     }
@@ -49,6 +51,7 @@ public class InboundController {
     }
 
     @PostMapping
+    @Idempotent
     public Result<Inbound> createInbound(@RequestBody Inbound inbound) {
         Inbound created = inboundService.createInbound(inbound);
         return Result.success(created);
@@ -64,20 +67,12 @@ public class InboundController {
      * 导出入库记录到Excel
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportToExcel(
+    public void exportToExcel(
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate) {
-        try {
-            byte[] data = inboundService.exportToExcel(startDate, endDate);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "inbounds.xlsx");
-
-            return ResponseEntity.ok().headers(headers).body(data);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) {
+        DownloadUtil.writeAttachment(response, MediaType.APPLICATION_OCTET_STREAM_VALUE, "inbounds.xlsx",
+                out -> inboundService.exportToExcel(startDate, endDate, out));
     }
 
     /**
@@ -0,0 +1,47 @@
+package com.warehouse.controller;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.common.Result;
+import com.warehouse.entity.InboundDocument;
+import com.warehouse.interceptor.Idempotent;
+import com.warehouse.service.InboundDocumentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 多行入库单接口控制器，一次请求提交整张入库单。
+ * 单行入库仍使用 /inbounds 接口。
+ */
+@RestController
+@RequestMapping("/inbound-documents")
+@CrossOrigin
+public class InboundDocumentController {
+    @Autowired
+    private InboundDocumentService inboundDocumentService;
+
+    @GetMapping
+    public Result<PageResult<InboundDocument>> getInboundDocuments(
+            @RequestParam(required = false) LocalDateTime startDate,
+            @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(required = false) Integer supplierId,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        PageResult<InboundDocument> result = inboundDocumentService.getInboundDocuments(
+                startDate, endDate, supplierId, page, size);
+        return Result.success(result);
+    }
+
+    @GetMapping("/{id}")
+    public Result<InboundDocument> getInboundDocumentById(@PathVariable Integer id) {
+        return Result.success(inboundDocumentService.getInboundDocumentById(id));
+    }
+
+    @PostMapping
+    @Idempotent
+    public Result<InboundDocument> createInboundDocument(@RequestBody InboundDocument document) {
+        InboundDocument created = inboundDocumentService.createInboundDocument(document);
+        return Result.success(created);
+    }
+}
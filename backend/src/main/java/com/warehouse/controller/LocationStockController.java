@@ -0,0 +1,30 @@
+package com.warehouse.controller;
+
+import com.warehouse.common.Result;
+import com.warehouse.entity.LocationStock;
+import com.warehouse.service.LocationStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * 库位库存控制器，按库位查商品或按商品查库位。
+ */
+@RestController
+@RequestMapping("/location-stocks")
+@CrossOrigin
+public class LocationStockController {
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @GetMapping("/by-location/{locationId}")
+    public Result<List<LocationStock>> getStocksByLocation(@PathVariable Integer locationId) {
+        return Result.success(locationStockService.getStocksByLocation(locationId));
+    }
+
+    @GetMapping("/by-product/{productId}")
+    public Result<List<LocationStock>> getStocksByProduct(@PathVariable Integer productId) {
+        return Result.success(locationStockService.getStocksByProduct(productId));
+    }
+}
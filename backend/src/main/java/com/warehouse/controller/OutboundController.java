@@ -2,19 +2,21 @@ package com.warehouse.controller;
 
 import com.warehouse.common.PageResult;
 import com.warehouse.common.Result;
+import com.warehouse.dto.OutboundListDTO;
 import com.warehouse.entity.Outbound;
+import com.warehouse.interceptor.Idempotent;
 import com.warehouse.service.OutboundService;
+import com.warehouse.util.DownloadUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
 
 /**
- * 出库接口控制器，处理出库单的增删查。
+ * 出库接口控制器，处理出库单的增删查与待审批出库。
  */
 @RestController
 @RequestMapping("/outbounds")
@@ -24,14 +26,14 @@ public class OutboundController {
     private OutboundService outboundService;
 
     @GetMapping
-    public Result<PageResult<Outbound>> getOutbounds(
+    public Result<PageResult<OutboundListDTO>> getOutbounds(
             @RequestParam(required = false)  LocalDateTime startDate,
             @RequestParam(required = false)  LocalDateTime endDate,
             @RequestParam(required = false) Integer productId,
             @RequestParam(required = false) Integer customerId,
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer size) {
-        PageResult<Outbound> result = outboundService.getOutbounds(
+        PageResult<OutboundListDTO> result = outboundService.getOutbounds(
                 startDate, endDate, productId, customerId, page, size);
         return Result.success(result);
     }
@@ -43,11 +45,70 @@ public class OutboundController {
     }
 
     @PostMapping
+    @Idempotent
     public Result<Outbound> createOutbound(@RequestBody Outbound outbound) {
         Outbound created = outboundService.createOutbound(outbound);
         return Result.success(created);
     }
 
+    /**
+     * 创建待审批出库单：预留库存并提交审批
+     */
+    @PostMapping("/pending")
+    @Idempotent
+    public Result<Outbound> createPendingOutbound(@RequestBody Outbound outbound) {
+        try {
+            return Result.success(outboundService.createPendingOutbound(outbound));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 审批通过出库
+     */
+    @PostMapping("/{id}/approve")
+    public Result<Void> approveOutbound(
+            @PathVariable Integer id,
+            @RequestBody(required = false) String approvalRemark) {
+        try {
+            outboundService.approveOutbound(id, approvalRemark);
+            return Result.success(null);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 审批拒绝出库
+     */
+    @PostMapping("/{id}/reject")
+    public Result<Void> rejectOutbound(
+            @PathVariable Integer id,
+            @RequestBody(required = false) String approvalRemark) {
+        try {
+            outboundService.rejectOutbound(id, approvalRemark);
+            return Result.success(null);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 取消出库审批
+     */
+    @PostMapping("/{id}/cancel-approval")
+    public Result<Void> cancelApproval(
+            @PathVariable Integer id,
+            @RequestBody(required = false) String remark) {
+        try {
+            outboundService.cancelOutboundApproval(id, remark);
+            return Result.success(null);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     public Result<Void> deleteOutbound(@PathVariable Integer id) {
         outboundService.deleteOutbound(id);
@@ -58,20 +119,12 @@ public class OutboundController {
      * 导出出库记录到Excel
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportToExcel(
+    public void exportToExcel(
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate) {
-        try {
-            byte[] data = outboundService.exportToExcel(startDate, endDate);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "outbounds.xlsx");
-
-            return ResponseEntity.ok().headers(headers).body(data);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) {
+        DownloadUtil.writeAttachment(response, MediaType.APPLICATION_OCTET_STREAM_VALUE, "outbounds.xlsx",
+                out -> outboundService.exportToExcel(startDate, endDate, out));
     }
 }
 
@@ -0,0 +1,47 @@
+package com.warehouse.controller;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.common.Result;
+import com.warehouse.entity.OutboundDocument;
+import com.warehouse.interceptor.Idempotent;
+import com.warehouse.service.OutboundDocumentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 多行出库单接口控制器，一次请求提交整张出库单。
+ * 单行出库仍使用 /outbounds 接口。
+ */
+@RestController
+@RequestMapping("/outbound-documents")
+@CrossOrigin
+public class OutboundDocumentController {
+    @Autowired
+    private OutboundDocumentService outboundDocumentService;
+
+    @GetMapping
+    public Result<PageResult<OutboundDocument>> getOutboundDocuments(
+            @RequestParam(required = false) LocalDateTime startDate,
+            @RequestParam(required = false) LocalDateTime endDate,
+            @RequestParam(required = false) Integer customerId,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        PageResult<OutboundDocument> result = outboundDocumentService.getOutboundDocuments(
+                startDate, endDate, customerId, page, size);
+        return Result.success(result);
+    }
+
+    @GetMapping("/{id}")
+    public Result<OutboundDocument> getOutboundDocumentById(@PathVariable Integer id) {
+        return Result.success(outboundDocumentService.getOutboundDocumentById(id));
+    }
+
+    @PostMapping
+    @Idempotent
+    public Result<OutboundDocument> createOutboundDocument(@RequestBody OutboundDocument document) {
+        OutboundDocument created = outboundDocumentService.createOutboundDocument(document);
+        return Result.success(created);
+    }
+}
@@ -3,15 +3,16 @@ package com.warehouse.controller;
 import com.warehouse.common.PageResult;
 import com.warehouse.common.Result;
 import com.warehouse.dto.ImageUploadResponse;
+import com.warehouse.dto.ProductListDTO;
 import com.warehouse.entity.Product;
 import com.warehouse.service.ProductService;
+import com.warehouse.util.DownloadUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletResponse;
 import java.util.List;
 
 /**
@@ -25,7 +26,7 @@ public class ProductController {
     private ProductService productService;
 
     @GetMapping
-    public Result<PageResult<Product>> getProducts(
+    public Result<PageResult<ProductListDTO>> getProducts(
             @RequestParam(required = false) String code,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) Integer categoryId,
@@ -34,7 +35,7 @@ public class ProductController {
             @RequestParam(required = false) Integer maxStockQty,
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "10") Integer size) {
-        PageResult<Product> result = productService.getProducts(
+        PageResult<ProductListDTO> result = productService.getProducts(
                 code, name, categoryId, status, minStockQty, maxStockQty, page, size);
         return Result.success(result);
     }
@@ -73,18 +74,9 @@ public class ProductController {
      * 导出商品数据到Excel
      */
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportToExcel() {
-        try {
-            byte[] data = productService.exportToExcel();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", "products.xlsx");
-
-            return ResponseEntity.ok().headers(headers).body(data);
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
+    public void exportToExcel(HttpServletResponse response) {
+        DownloadUtil.writeAttachment(response, MediaType.APPLICATION_OCTET_STREAM_VALUE, "products.xlsx",
+                productService::exportToExcel);
     }
 
     /**
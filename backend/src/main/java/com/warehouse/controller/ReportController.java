@@ -1,103 +1,255 @@
 package com.warehouse.controller;
 
+import com.warehouse.common.PageResult;
+import com.warehouse.common.Result;
+import com.warehouse.dto.DailyStockRollupDTO;
+import com.warehouse.dto.MovementSummaryDTO;
+import com.warehouse.dto.ReportJobDTO;
+import com.warehouse.entity.User;
+import com.warehouse.enums.ReportGroupBy;
+import com.warehouse.enums.ReportType;
+import com.warehouse.service.DailyStockRollupService;
+import com.warehouse.service.ReportJobService;
 import com.warehouse.service.ReportService;
+import com.warehouse.service.UserService;
+import com.warehouse.util.DownloadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
- * 报表控制器，提供各类PDF报表生成接口
+ * 报表控制器，提供各类PDF报表生成接口。
+ * 报表边生成边写入响应流，不在内存中缓存整个文件；大报表可提交为后台任务，完成后下载。
  */
 @RestController
 @RequestMapping("/reports")
 @CrossOrigin
 public class ReportController {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DailyStockRollupService dailyStockRollupService;
+
     /**
      * 生成库存报表PDF
      */
     @GetMapping("/stock/pdf")
-    public ResponseEntity<byte[]> generateStockReportPdf() {
-        try {
-            byte[] data = reportService.generateStockReport();
+    public void generateStockReportPdf(HttpServletResponse response) {
+        writePdf(response, "stock_report.pdf", reportService::writeStockReport);
+    }
+
+    /**
+     * 生成入库统计报表PDF
+     */
+    @GetMapping("/inbound/pdf")
+    public void generateInboundReportPdf(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) {
+        writePdf(response, "inbound_report.pdf", out -> reportService.writeInboundReport(startDate, endDate, out));
+    }
+
+    /**
+     * 生成出库统计报表PDF
+     */
+    @GetMapping("/outbound/pdf")
+    public void generateOutboundReportPdf(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) {
+        writePdf(response, "outbound_report.pdf", out -> reportService.writeOutboundReport(startDate, endDate, out));
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "stock_report.pdf");
+    /**
+     * 生成低库存报表PDF
+     */
+    @GetMapping("/low-stock/pdf")
+    public void generateLowStockReportPdf(HttpServletResponse response) {
+        writePdf(response, "low_stock_report.pdf", reportService::writeLowStockReport);
+    }
 
-            return ResponseEntity.ok().headers(headers).body(data);
+    /**
+     * 入库汇总：按商品、供应商或日/周/月汇总单数与数量
+     */
+    @GetMapping("/inbound/summary")
+    public Result<List<MovementSummaryDTO>> getInboundSummary(
+            @RequestParam(defaultValue = "PRODUCT") ReportGroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate) {
+        try {
+            return Result.success(reportService.summarizeInbound(groupBy, startDate, endDate));
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
+            logger.error("获取入库汇总失败", e);
+            return Result.error(e.getMessage());
         }
     }
 
     /**
-     * 生成入库统计报表PDF
+     * 出库汇总：按商品、客户或日/周/月汇总单数与数量
      */
-    @GetMapping("/inbound/pdf")
-    public ResponseEntity<byte[]> generateInboundReportPdf(
+    @GetMapping("/outbound/summary")
+    public Result<List<MovementSummaryDTO>> getOutboundSummary(
+            @RequestParam(defaultValue = "PRODUCT") ReportGroupBy groupBy,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate) {
         try {
-            byte[] data = reportService.generateInboundReport(startDate, endDate);
+            return Result.success(reportService.summarizeOutbound(groupBy, startDate, endDate));
+        } catch (Exception e) {
+            logger.error("获取出库汇总失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "inbound_report.pdf");
+    /**
+     * 生成入库汇总报表PDF
+     */
+    @GetMapping("/inbound/summary/pdf")
+    public void generateInboundSummaryPdf(
+            @RequestParam(defaultValue = "PRODUCT") ReportGroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) {
+        writePdf(response, "inbound_summary.pdf",
+                out -> reportService.writeInboundSummaryReport(groupBy, startDate, endDate, out));
+    }
+
+    /**
+     * 生成出库汇总报表PDF
+     */
+    @GetMapping("/outbound/summary/pdf")
+    public void generateOutboundSummaryPdf(
+            @RequestParam(defaultValue = "PRODUCT") ReportGroupBy groupBy,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate,
+            HttpServletResponse response) {
+        writePdf(response, "outbound_summary.pdf",
+                out -> reportService.writeOutboundSummaryReport(groupBy, startDate, endDate, out));
+    }
 
-            return ResponseEntity.ok().headers(headers).body(data);
+    /**
+     * 库存日报：按日期范围查询商品每日入库、出库、调整数量及日终库存
+     */
+    @GetMapping("/daily-stock")
+    public Result<PageResult<DailyStockRollupDTO>> getDailyStock(
+            @RequestParam(required = false) Integer productId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate startDate,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate endDate,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "100") Integer size) {
+        try {
+            return Result.success(reportService.getDailyStock(productId, startDate, endDate, page, size));
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
+            logger.error("获取库存日报失败", e);
+            return Result.error(e.getMessage());
         }
     }
 
     /**
-     * 生成出库统计报表PDF
+     * 由库存流水重建每日库存汇总（后台并行执行）
      */
-    @GetMapping("/outbound/pdf")
-    public ResponseEntity<byte[]> generateOutboundReportPdf(
+    @PostMapping("/daily-stock/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<Void> backfillDailyStock() {
+        if (dailyStockRollupService.backfill() == null) {
+            return Result.error("每日库存汇总回填正在执行，请稍后再试");
+        }
+        return Result.success("已开始回填每日库存汇总", null);
+    }
+
+    /**
+     * 提交报表任务，报表在后台生成，完成后通过 /reports/jobs/{jobId}/file 下载
+     */
+    @PostMapping("/jobs")
+    public Result<ReportJobDTO> submitReportJob(
+            @RequestParam ReportType type,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime endDate) {
         try {
-            byte[] data = reportService.generateOutboundReport(startDate, endDate);
+            ReportJobDTO job = reportJobService.submit(currentUserId(), type, startDate, endDate);
+            return Result.success("报表任务已提交", job);
+        } catch (Exception e) {
+            logger.error("提交报表任务失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "outbound_report.pdf");
+    /**
+     * 当前用户的报表任务
+     */
+    @GetMapping("/jobs")
+    public Result<List<ReportJobDTO>> getReportJobs() {
+        try {
+            return Result.success(reportJobService.getJobs(currentUserId()));
+        } catch (Exception e) {
+            logger.error("获取报表任务列表失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
 
-            return ResponseEntity.ok().headers(headers).body(data);
+    /**
+     * 报表任务状态与进度
+     */
+    @GetMapping("/jobs/{jobId}")
+    public Result<ReportJobDTO> getReportJob(@PathVariable String jobId) {
+        try {
+            return Result.success(reportJobService.getJob(currentUserId(), jobId));
         } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
+            return Result.error(e.getMessage());
         }
     }
 
     /**
-     * 生成低库存报表PDF
+     * 下载已完成的报表文件
      */
-    @GetMapping("/low-stock/pdf")
-    public ResponseEntity<byte[]> generateLowStockReportPdf() {
+    @GetMapping("/jobs/{jobId}/file")
+    public ResponseEntity<Resource> downloadReportJobFile(@PathVariable String jobId) {
+        Integer userId = currentUserId();
+        Path file;
+        ReportJobDTO job;
         try {
-            byte[] data = reportService.generateLowStockReport();
+            job = reportJobService.getJob(userId, jobId);
+            file = reportJobService.getJobFile(userId, jobId);
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.builder("attachment").filename(job.getType().getFileName()).build().toString())
+                .body(new FileSystemResource(file));
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "low_stock_report.pdf");
+    private Integer currentUserId() {
+        User currentUser = userService.getCurrentUser();
+        return currentUser != null ? currentUser.getId() : null;
+    }
 
-            return ResponseEntity.ok().headers(headers).body(data);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
-        }
+    private static void writePdf(HttpServletResponse response, String filename, DownloadUtil.ContentWriter writer) {
+        DownloadUtil.writeAttachment(response, MediaType.APPLICATION_PDF_VALUE, filename, writer);
     }
 }
@@ -0,0 +1,40 @@
+package com.warehouse.controller;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.common.Result;
+import com.warehouse.entity.StockMovement;
+import com.warehouse.service.StockLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 库存流水控制器，提供流水查询与历史时点库存查询。
+ */
+@RestController
+@RequestMapping("/stock-movements")
+@CrossOrigin
+public class StockMovementController {
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @GetMapping
+    public Result<PageResult<StockMovement>> getMovements(
+            @RequestParam Integer productId,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "10") Integer size) {
+        PageResult<StockMovement> result = stockLedgerService.getMovements(productId, page, size);
+        return Result.success(result);
+    }
+
+    /**
+     * 查询商品在指定时间点的库存
+     */
+    @GetMapping("/stock-as-of")
+    public Result<Integer> getStockAsOf(
+            @RequestParam Integer productId,
+            @RequestParam LocalDateTime time) {
+        return Result.success(stockLedgerService.getStockAsOf(productId, time));
+    }
+}
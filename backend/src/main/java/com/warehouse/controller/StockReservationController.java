@@ -0,0 +1,43 @@
+package com.warehouse.controller;
+
+import com.warehouse.common.Result;
+import com.warehouse.entity.StockReservation;
+import com.warehouse.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 库存预留控制器，查询商品可用库存（现有库存减去生效中的预留）。
+ */
+@RestController
+@RequestMapping("/stock-reservations")
+@CrossOrigin
+public class StockReservationController {
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @GetMapping("/availability/{productId}")
+    public Result<Map<String, Object>> getAvailability(@PathVariable Integer productId) {
+        try {
+            int onHandQty = stockReservationService.getOnHandQty(productId);
+            int reservedQty = stockReservationService.getReservedQty(productId);
+            Map<String, Object> availability = new HashMap<>();
+            availability.put("productId", productId);
+            availability.put("onHandQty", onHandQty);
+            availability.put("reservedQty", reservedQty);
+            availability.put("availableQty", onHandQty - reservedQty);
+            return Result.success(availability);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    @GetMapping("/by-product/{productId}")
+    public Result<List<StockReservation>> getActiveReservations(@PathVariable Integer productId) {
+        return Result.success(stockReservationService.getActiveReservations(productId));
+    }
+}
@@ -2,6 +2,7 @@ package com.warehouse.controller;
 
 import com.warehouse.common.PageResult;
 import com.warehouse.common.Result;
+import com.warehouse.dto.WarehouseLocationListDTO;
 import com.warehouse.dto.WarehouseLocationStatisticsDTO;
 import com.warehouse.entity.WarehouseLocation;
 import com.warehouse.service.WarehouseLocationService;
@@ -37,7 +38,7 @@ public class WarehouseLocationController {
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSE_KEEPER')")
-    public Result<PageResult<WarehouseLocation>> getWarehouseLocations(
+    public Result<PageResult<WarehouseLocationListDTO>> getWarehouseLocations(
             @RequestParam(required = false) Integer warehouseId,
             @RequestParam(required = false) Integer status,
             @RequestParam(required = false) String keyword,
@@ -47,11 +48,11 @@ public class WarehouseLocationController {
         logger.info("分页查询仓库位置，仓库ID: {}, 状态: {}, 关键字: {}, 页码: {}, 大小: {}",
                    warehouseId, status, keyword, page, size);
 
-        Result<PageResult<WarehouseLocation>> result = warehouseLocationService.getWarehouseLocations(
+        PageResult<WarehouseLocationListDTO> result = warehouseLocationService.getWarehouseLocations(
                 warehouseId, status, keyword, page, size);
 
         logOperation("查询仓库位置列表", "warehouseId=" + warehouseId + ", status=" + status + ", keyword=" + keyword);
-        return result;
+        return Result.success("查询仓库位置列表成功", result);
     }
 
     /**
@@ -59,15 +60,15 @@ public class WarehouseLocationController {
      */
     @GetMapping("/warehouse/{warehouseId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSE_KEEPER')")
-    public Result<List<WarehouseLocation>> getLocationsByWarehouse(
+    public Result<List<WarehouseLocationListDTO>> getLocationsByWarehouse(
             @PathVariable @NotNull Integer warehouseId) {
 
         logger.info("根据仓库ID获取位置列表，仓库ID: {}", warehouseId);
 
-        Result<List<WarehouseLocation>> result = warehouseLocationService.getLocationsByWarehouse(warehouseId);
+        List<WarehouseLocationListDTO> locations = warehouseLocationService.getLocationsByWarehouse(warehouseId);
 
         logOperation("查询仓库位置列表", "warehouseId=" + warehouseId);
-        return result;
+        return Result.success("获取仓库位置列表成功", locations);
     }
 
     /**
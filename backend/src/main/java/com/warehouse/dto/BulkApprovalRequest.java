@@ -0,0 +1,27 @@
+package com.warehouse.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量审批请求DTO
+ */
+@Data
+public class BulkApprovalRequest {
+
+    /**
+     * 业务类型（目前支持 INBOUND）
+     */
+    private String businessType;
+
+    /**
+     * 业务单据ID列表
+     */
+    private List<Integer> businessIds;
+
+    /**
+     * 审批意见
+     */
+    private String approvalRemark;
+}
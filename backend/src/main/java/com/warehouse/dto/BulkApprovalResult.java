@@ -0,0 +1,41 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量审批结果DTO，分别列出成功与失败的单据
+ */
+@Data
+public class BulkApprovalResult {
+
+    /**
+     * 处理成功的业务单据ID
+     */
+    private List<Integer> succeeded = new ArrayList<>();
+
+    /**
+     * 处理失败的业务单据及原因
+     */
+    private List<Failure> failed = new ArrayList<>();
+
+    public void addSuccess(Integer businessId) {
+        succeeded.add(businessId);
+    }
+
+    public void addFailure(Integer businessId, String reason) {
+        failed.add(new Failure(businessId, reason));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private Integer businessId;
+        private String reason;
+    }
+}
@@ -0,0 +1,24 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 库存日报行：商品当日入库、出库、调整数量及日终库存
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyStockRollupDTO {
+    private Integer productId;
+    private String productCode;
+    private String productName;
+    private LocalDate date;
+    private Integer inboundQty;
+    private Integer outboundQty;
+    private Integer adjustQty;
+    private Integer closingQty;
+}
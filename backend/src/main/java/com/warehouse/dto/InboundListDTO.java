@@ -0,0 +1,51 @@
+package com.warehouse.dto;
+
+import com.warehouse.enums.ApprovalStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 入库列表项：商品、供应商、操作人与审批人只含展示所需字段
+ */
+@Data
+@NoArgsConstructor
+public class InboundListDTO {
+
+    private Integer id;
+    private String inboundNo;
+    private ProductRefDTO product;
+    private Integer quantity;
+    private NamedRefDTO supplier;
+    private LocalDateTime inboundDate;
+    private UserRefDTO operator;
+    private String remark;
+    private ApprovalStatus approvalStatus;
+    private UserRefDTO approver;
+    private LocalDateTime approvalTime;
+    private String approvalRemark;
+    private LocalDateTime createdAt;
+
+    public InboundListDTO(Integer id, String inboundNo,
+                          Integer productId, String productCode, String productName, String productUnit,
+                          Integer quantity, Integer supplierId, String supplierName, LocalDateTime inboundDate,
+                          Integer operatorId, String operatorUsername, String operatorRealName, String remark,
+                          ApprovalStatus approvalStatus,
+                          Integer approverId, String approverUsername, String approverRealName,
+                          LocalDateTime approvalTime, String approvalRemark, LocalDateTime createdAt) {
+        this.id = id;
+        this.inboundNo = inboundNo;
+        this.product = ProductRefDTO.of(productId, productCode, productName, productUnit);
+        this.quantity = quantity;
+        this.supplier = NamedRefDTO.of(supplierId, supplierName);
+        this.inboundDate = inboundDate;
+        this.operator = UserRefDTO.of(operatorId, operatorUsername, operatorRealName);
+        this.remark = remark;
+        this.approvalStatus = approvalStatus;
+        this.approver = UserRefDTO.of(approverId, approverUsername, approverRealName);
+        this.approvalTime = approvalTime;
+        this.approvalRemark = approvalRemark;
+        this.createdAt = createdAt;
+    }
+}
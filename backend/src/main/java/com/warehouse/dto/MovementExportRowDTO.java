@@ -0,0 +1,26 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 出入库Excel导出行：入库时往来方为供应商，出库时为客户
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementExportRowDTO {
+
+    private Integer id;
+    private String documentNo;
+    private String productCode;
+    private String productName;
+    private Integer quantity;
+    private String partnerName;
+    private LocalDateTime date;
+    private String operatorName;
+    private String remark;
+}
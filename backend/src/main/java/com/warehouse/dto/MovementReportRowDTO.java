@@ -0,0 +1,24 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 出入库报表行：入库时往来方为供应商，出库时为客户
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovementReportRowDTO {
+
+    private Integer id;
+    private String documentNo;
+    private String productCode;
+    private String productName;
+    private Integer quantity;
+    private LocalDateTime date;
+    private String partnerName;
+}
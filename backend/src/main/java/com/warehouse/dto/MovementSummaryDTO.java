@@ -0,0 +1,53 @@
+package com.warehouse.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 出入库汇总行：按商品、往来单位或时间段汇总的单数与数量
+ */
+@Data
+@NoArgsConstructor
+public class MovementSummaryDTO {
+
+    /**
+     * 商品、供应商或客户ID，按时间段汇总时为null
+     */
+    private Integer groupId;
+    private String groupCode;
+    private String groupName;
+
+    /**
+     * 时间段：按日 yyyy-MM-dd，按周 yyyy-Www（ISO周），按月 yyyy-MM
+     */
+    private String period;
+
+    private long recordCount;
+    private long totalQuantity;
+
+    /**
+     * 按商品汇总
+     */
+    public MovementSummaryDTO(Integer groupId, String groupCode, String groupName, Long recordCount, Long totalQuantity) {
+        this.groupId = groupId;
+        this.groupCode = groupCode;
+        this.groupName = groupName;
+        this.recordCount = recordCount != null ? recordCount : 0;
+        this.totalQuantity = totalQuantity != null ? totalQuantity : 0;
+    }
+
+    /**
+     * 按往来单位汇总
+     */
+    public MovementSummaryDTO(Integer groupId, String groupName, Long recordCount, Long totalQuantity) {
+        this(groupId, null, groupName, recordCount, totalQuantity);
+    }
+
+    public static MovementSummaryDTO ofPeriod(String period, long recordCount, long totalQuantity) {
+        MovementSummaryDTO dto = new MovementSummaryDTO();
+        dto.setPeriod(period);
+        dto.setRecordCount(recordCount);
+        dto.setTotalQuantity(totalQuantity);
+        return dto;
+    }
+}
@@ -0,0 +1,24 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 列表中引用的关联对象（分类、供应商、客户、仓库），只含ID与名称
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NamedRefDTO {
+
+    private Integer id;
+    private String name;
+
+    /**
+     * 关联为空（左连接未匹配）时返回null
+     */
+    public static NamedRefDTO of(Integer id, String name) {
+        return id != null ? new NamedRefDTO(id, name) : null;
+    }
+}
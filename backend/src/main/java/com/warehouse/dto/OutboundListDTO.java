@@ -0,0 +1,51 @@
+package com.warehouse.dto;
+
+import com.warehouse.enums.ApprovalStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 出库列表项：商品、客户、操作人与审批人只含展示所需字段
+ */
+@Data
+@NoArgsConstructor
+public class OutboundListDTO {
+
+    private Integer id;
+    private String outboundNo;
+    private ProductRefDTO product;
+    private Integer quantity;
+    private NamedRefDTO customer;
+    private LocalDateTime outboundDate;
+    private UserRefDTO operator;
+    private String remark;
+    private ApprovalStatus approvalStatus;
+    private UserRefDTO approver;
+    private LocalDateTime approvalTime;
+    private String approvalRemark;
+    private LocalDateTime createdAt;
+
+    public OutboundListDTO(Integer id, String outboundNo,
+                           Integer productId, String productCode, String productName, String productUnit,
+                           Integer quantity, Integer customerId, String customerName, LocalDateTime outboundDate,
+                           Integer operatorId, String operatorUsername, String operatorRealName, String remark,
+                           ApprovalStatus approvalStatus,
+                           Integer approverId, String approverUsername, String approverRealName,
+                           LocalDateTime approvalTime, String approvalRemark, LocalDateTime createdAt) {
+        this.id = id;
+        this.outboundNo = outboundNo;
+        this.product = ProductRefDTO.of(productId, productCode, productName, productUnit);
+        this.quantity = quantity;
+        this.customer = NamedRefDTO.of(customerId, customerName);
+        this.outboundDate = outboundDate;
+        this.operator = UserRefDTO.of(operatorId, operatorUsername, operatorRealName);
+        this.remark = remark;
+        this.approvalStatus = approvalStatus;
+        this.approver = UserRefDTO.of(approverId, approverUsername, approverRealName);
+        this.approvalTime = approvalTime;
+        this.approvalRemark = approvalRemark;
+        this.createdAt = createdAt;
+    }
+}
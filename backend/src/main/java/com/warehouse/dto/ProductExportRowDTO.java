@@ -0,0 +1,28 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品Excel导出行
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductExportRowDTO {
+
+    private Integer id;
+    private String code;
+    private String name;
+    private String categoryName;
+    private String supplierName;
+    private BigDecimal price;
+    private Integer stockQty;
+    private Integer minStock;
+    private String unit;
+    private String barcode;
+    private Integer status;
+}
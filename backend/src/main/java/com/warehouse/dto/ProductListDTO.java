@@ -0,0 +1,51 @@
+package com.warehouse.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品列表项：列表页与下拉选择所需字段，分类、供应商只含ID与名称，不含描述与审计字段。
+ * 由 ProductRepository 的构造器投影直接查询，也是商品分页缓存的值。
+ */
+@Data
+@NoArgsConstructor
+public class ProductListDTO {
+
+    private Integer id;
+    private String code;
+    private String name;
+    private NamedRefDTO category;
+    private NamedRefDTO supplier;
+    private BigDecimal price;
+    private Integer stockQty;
+    private Integer minStock;
+    private Boolean lowStock;
+    private String unit;
+    private String barcode;
+    private String imageUrl;
+    private Integer status;
+    private Long version;
+
+    public ProductListDTO(Integer id, String code, String name,
+                          Integer categoryId, String categoryName,
+                          Integer supplierId, String supplierName,
+                          BigDecimal price, Integer stockQty, Integer minStock, Boolean lowStock,
+                          String unit, String barcode, String imageUrl, Integer status, Long version) {
+        this.id = id;
+        this.code = code;
+        this.name = name;
+        this.category = NamedRefDTO.of(categoryId, categoryName);
+        this.supplier = NamedRefDTO.of(supplierId, supplierName);
+        this.price = price;
+        this.stockQty = stockQty;
+        this.minStock = minStock;
+        this.lowStock = lowStock;
+        this.unit = unit;
+        this.barcode = barcode;
+        this.imageUrl = imageUrl;
+        this.status = status;
+        this.version = version;
+    }
+}
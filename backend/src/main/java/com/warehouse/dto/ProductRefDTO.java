@@ -0,0 +1,23 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 出入库列表中引用的商品
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRefDTO {
+
+    private Integer id;
+    private String code;
+    private String name;
+    private String unit;
+
+    public static ProductRefDTO of(Integer id, String code, String name, String unit) {
+        return id != null ? new ProductRefDTO(id, code, name, unit) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.warehouse.dto;
+
+import com.warehouse.enums.ReportJobStatus;
+import com.warehouse.enums.ReportType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报表任务状态
+ */
+@Data
+@NoArgsConstructor
+public class ReportJobDTO {
+
+    private String jobId;
+    private ReportType type;
+    private ReportJobStatus status;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    /**
+     * 已写出行数与总行数，总行数在开始生成时统计
+     */
+    private long rowsWritten;
+    private long totalRows;
+
+    /**
+     * 进度百分比，完成时为100
+     */
+    private int progress;
+
+    private long fileSize;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /**
+     * 过期时间，之后文件被删除、任务不可查询
+     */
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,25 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 库存报表行：分类、供应商只取名称
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReportRowDTO {
+
+    private Integer id;
+    private String code;
+    private String name;
+    private String categoryName;
+    private String supplierName;
+    private BigDecimal price;
+    private Integer stockQty;
+    private Integer minStock;
+}
@@ -0,0 +1,22 @@
+package com.warehouse.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 列表中引用的用户（操作人、审批人），不含密码、手机号等字段
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRefDTO {
+
+    private Integer id;
+    private String username;
+    private String realName;
+
+    public static UserRefDTO of(Integer id, String username, String realName) {
+        return id != null ? new UserRefDTO(id, username, realName) : null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.warehouse.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 仓库位置列表项：仓库只含ID与名称
+ */
+@Data
+@NoArgsConstructor
+public class WarehouseLocationListDTO {
+
+    private Integer id;
+    private NamedRefDTO warehouse;
+    private String rackNumber;
+    private String shelfLevel;
+    private String binNumber;
+    private String description;
+    private Integer status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public WarehouseLocationListDTO(Integer id, Integer warehouseId, String warehouseName,
+                                    String rackNumber, String shelfLevel, String binNumber,
+                                    String description, Integer status,
+                                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.warehouse = NamedRefDTO.of(warehouseId, warehouseName);
+        this.rackNumber = rackNumber;
+        this.shelfLevel = shelfLevel;
+        this.binNumber = binNumber;
+        this.description = description;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+}
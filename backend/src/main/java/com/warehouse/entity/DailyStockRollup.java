@@ -0,0 +1,49 @@
+package com.warehouse.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 商品每日库存汇总实体，每个商品每天一行，随库存流水增量维护。
+ * closingQty 为当日最后一条流水（lastMovementId）的变更后库存。
+ */
+@Entity
+@Table(name = "daily_stock_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rollup_product_date", columnNames = {"product_id", "rollup_date"})
+}, indexes = {
+        @Index(name = "idx_rollup_date_product", columnList = "rollup_date, product_id")
+})
+@Data
+public class DailyStockRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "inbound_qty", nullable = false)
+    private Integer inboundQty = 0;
+
+    @Column(name = "outbound_qty", nullable = false)
+    private Integer outboundQty = 0;
+
+    @Column(name = "adjust_qty", nullable = false)
+    private Integer adjustQty = 0;
+
+    @Column(name = "closing_qty", nullable = false)
+    private Integer closingQty;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.warehouse.entity;
+
+import lombok.Data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 单据号序列，每个节点按块租用序列值（hi/lo），next_value 为下一个未分配的值。
+ */
+@Entity
+@Table(name = "document_sequence")
+@Data
+public class DocumentSequence {
+
+    @Id
+    @Column(name = "sequence_name", length = 20)
+    private String sequenceName;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
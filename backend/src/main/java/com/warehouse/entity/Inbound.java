@@ -32,6 +32,13 @@ public class Inbound extends BaseAuditEntity {
     @JoinColumn(name = "supplier_id")
     private Supplier supplier;
 
+    /**
+     * 库位（可选），指定时同步维护库位库存
+     */
+    @ManyToOne
+    @JoinColumn(name = "location_id")
+    private WarehouseLocation location;
+
     @Column(name = "inbound_date", nullable = false)
     private LocalDateTime inboundDate;
 
@@ -0,0 +1,46 @@
+package com.warehouse.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 库位库存实体，记录每个库位上每个商品的数量。
+ * 唯一索引 (location_id, product_id) 支持按库位查询，(product_id, location_id) 支持按商品查库位。
+ * 商品总库存仍由 Product.stockQty 增量维护，库位库存之和不超过总库存（未指定库位的库存不计入）。
+ */
+@Entity
+@Table(name = "location_stock",
+        uniqueConstraints = @UniqueConstraint(name = "uk_location_product", columnNames = {"location_id", "product_id"}),
+        indexes = @Index(name = "idx_location_stock_product", columnList = "product_id, location_id"))
+@Data
+public class LocationStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "location_id", nullable = false)
+    private Integer locationId;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "location_id", insertable = false, updatable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "fieldHandler"})
+    private WarehouseLocation location;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", insertable = false, updatable = false)
+    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "fieldHandler"})
+    private Product product;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
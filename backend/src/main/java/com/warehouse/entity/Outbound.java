@@ -32,6 +32,13 @@ public class Outbound extends BaseAuditEntity {
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
+    /**
+     * 库位（可选），指定时同步维护库位库存
+     */
+    @ManyToOne
+    @JoinColumn(name = "location_id")
+    private WarehouseLocation location;
+
     @Column(name = "outbound_date", nullable = false)
     private LocalDateTime outboundDate;
 
@@ -0,0 +1,70 @@
+package com.warehouse.entity;
+
+import com.warehouse.enums.ApprovalStatus;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多行出库单表头，一张单据包含多条出库明细。
+ */
+@Entity
+@Table(name = "outbound_document")
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class OutboundDocument extends BaseAuditEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "document_no", nullable = false, unique = true, length = 50)
+    private String documentNo;
+
+    @ManyToOne
+    @JoinColumn(name = "customer_id")
+    private Customer customer;
+
+    @Column(name = "outbound_date", nullable = false)
+    private LocalDateTime outboundDate;
+
+    @ManyToOne
+    @JoinColumn(name = "operator_id")
+    private User operator;
+
+    @Column(length = 255)
+    private String remark;
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount = 0;
+
+    @Column(name = "total_quantity", nullable = false)
+    private Integer totalQuantity = 0;
+
+    @Column(name = "approval_status", length = 20)
+    @Enumerated(EnumType.STRING)
+    private ApprovalStatus approvalStatus = ApprovalStatus.DRAFT;
+
+    @ManyToOne
+    @JoinColumn(name = "approver_id")
+    private User approver;
+
+    @Column(name = "approval_time")
+    private LocalDateTime approvalTime;
+
+    /**
+     * 明细行，由服务层单独批量保存和加载
+     */
+    @Transient
+    private List<OutboundDocumentLine> lines = new ArrayList<>();
+
+    @PrePersist
+    protected void onCreate() {
+        super.onCreate();
+        if (outboundDate == null) {
+            outboundDate = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.warehouse.entity;
+
+import lombok.Data;
+import javax.persistence.*;
+
+/**
+ * 多行出库单明细。
+ * 主键使用表生成器按块分配，使明细可以走JDBC批量插入（IDENTITY主键会禁用批量插入）。
+ */
+@Entity
+@Table(name = "outbound_document_line", indexes = {
+        @Index(name = "idx_outbound_line_document", columnList = "document_id, line_no"),
+        @Index(name = "idx_outbound_line_product", columnList = "product_id")
+})
+@Data
+public class OutboundDocumentLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "outbound_document_line_id")
+    @TableGenerator(name = "outbound_document_line_id", table = "id_generator",
+            pkColumnName = "gen_name", valueColumnName = "gen_value",
+            pkColumnValue = "outbound_document_line", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false)
+    private Integer documentId;
+
+    @Column(name = "line_no", nullable = false)
+    private Integer lineNo;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", insertable = false, updatable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(length = 255)
+    private String remark;
+}
@@ -8,7 +8,9 @@ import java.math.BigDecimal;
  * 商品实体，存储商品基本属性及库存信息。
  */
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_low_stock", columnList = "low_stock")
+})
 @Data
 public class Product extends BaseVersionEntity {
     @Id
@@ -32,12 +34,22 @@ public class Product extends BaseVersionEntity {
     @Column(precision = 10, scale = 2)
     private BigDecimal price = BigDecimal.ZERO;
 
-    @Column(name = "stock_qty")
+    /**
+     * 库存数量只允许通过 StockMutationService 的原子增量SQL修改，
+     * 实体保存时不回写该列，避免覆盖并发的库存变更。
+     */
+    @Column(name = "stock_qty", updatable = false)
     private Integer stockQty = 0;
 
     @Column(name = "min_stock")
     private Integer minStock = 0;
 
+    /**
+     * 低库存标记（stock_qty <= min_stock，未设置最低库存时不算低库存），库存变更跨越阈值时由 LowStockService 增量维护
+     */
+    @Column(name = "low_stock", updatable = false)
+    private Boolean lowStock = false;
+
     @Column(length = 20)
     private String unit = "件";
 
@@ -52,5 +64,10 @@ public class Product extends BaseVersionEntity {
 
     @Column(columnDefinition = "TINYINT DEFAULT 1")
     private Integer status = 1;
-}
 
+    @PrePersist
+    protected void onCreate() {
+        super.onCreate();
+        lowStock = stockQty != null && minStock != null && stockQty <= minStock;
+    }
+}
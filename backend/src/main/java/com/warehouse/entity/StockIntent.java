@@ -0,0 +1,53 @@
+package com.warehouse.entity;
+
+import com.warehouse.enums.StockMovementType;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 库存变更意图（热点商品写后合并模式）。
+ * 与业务单据在同一事务中提交，后台合并写入商品库存与库存流水后删除；
+ * 进程崩溃后未删除的意图会在重启时重新应用。
+ */
+@Entity
+@Table(name = "stock_intent", indexes = {
+        @Index(name = "idx_intent_product_id", columnList = "product_id")
+})
+@Data
+public class StockIntent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(name = "movement_type", nullable = false, length = 30)
+    @Enumerated(EnumType.STRING)
+    private StockMovementType movementType;
+
+    /**
+     * 带符号的变更数量
+     */
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "business_id")
+    private Integer businessId;
+
+    @Column(name = "operator_id")
+    private Integer operatorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.warehouse.entity;
+
+import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.StockMovementType;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 库存流水实体（只追加），每次库存变更写入一条记录。
+ * quantity 为带符号的变更量，balanceAfter 为变更后的库存。
+ */
+@Entity
+@Table(name = "stock_movement", indexes = {
+        @Index(name = "idx_movement_product_id", columnList = "product_id, id"),
+        @Index(name = "idx_movement_product_time", columnList = "product_id, created_at"),
+        @Index(name = "idx_movement_business", columnList = "business_type, business_id")
+})
+@Data
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, updatable = false)
+    private Integer productId;
+
+    @Column(name = "movement_type", nullable = false, length = 30, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private StockMovementType movementType;
+
+    @Column(nullable = false, updatable = false)
+    private Integer quantity;
+
+    @Column(name = "balance_after", nullable = false, updatable = false)
+    private Integer balanceAfter;
+
+    @Column(name = "business_type", length = 20, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private BusinessType businessType;
+
+    @Column(name = "business_id")
+    private Integer businessId;
+
+    @Column(name = "operator_id", updatable = false)
+    private Integer operatorId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
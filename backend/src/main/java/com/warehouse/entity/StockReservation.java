@@ -0,0 +1,68 @@
+package com.warehouse.entity;
+
+import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.ReservationStatus;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 库存预留：待审批出库单占用的库存。
+ * 生效中的预留同时保存在内存索引中，持久化仅用于重启后恢复；到期未处理的预留自动过期。
+ */
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_reservation_business", columnList = "business_type,business_id"),
+        @Index(name = "idx_reservation_status_expires", columnList = "status,expires_at")
+})
+@Data
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "business_type", nullable = false, length = 30)
+    @Enumerated(EnumType.STRING)
+    private BusinessType businessType;
+
+    @Column(name = "business_id", nullable = false)
+    private Integer businessId;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "operator_id")
+    private Integer operatorId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    /**
+     * 乐观锁：审批消耗与定时过期并发时只有一方生效
+     */
+    @Version
+    @Column(name = "version")
+    private Long version = 0L;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.warehouse.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 库存快照实体，记录某一时刻商品库存及已包含的最后一条流水ID。
+ */
+@Entity
+@Table(name = "stock_snapshot", indexes = {
+        @Index(name = "idx_snapshot_product_time", columnList = "product_id, snapshot_time"),
+        @Index(name = "idx_snapshot_last_movement", columnList = "last_movement_id")
+})
+@Data
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Column(name = "stock_qty", nullable = false)
+    private Integer stockQty;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private Long lastMovementId;
+
+    @Column(name = "snapshot_time", nullable = false)
+    private LocalDateTime snapshotTime;
+}
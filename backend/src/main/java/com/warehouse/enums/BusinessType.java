@@ -6,7 +6,9 @@ package com.warehouse.enums;
 public enum BusinessType {
     INBOUND("入库"),
     OUTBOUND("出库"),
-    STOCK_ADJUSTMENT("库存调整");
+    STOCK_ADJUSTMENT("库存调整"),
+    INBOUND_DOCUMENT("多行入库单"),
+    OUTBOUND_DOCUMENT("多行出库单");
 
     private final String description;
 
@@ -0,0 +1,29 @@
+package com.warehouse.enums;
+
+/**
+ * 出入库汇总报表的汇总维度
+ */
+public enum ReportGroupBy {
+    PRODUCT("按商品"),
+    PARTNER("按往来单位"),
+    DAY("按日"),
+    WEEK("按周"),
+    MONTH("按月");
+
+    private final String description;
+
+    ReportGroupBy(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 是否按时间段汇总
+     */
+    public boolean isPeriod() {
+        return this == DAY || this == WEEK || this == MONTH;
+    }
+}
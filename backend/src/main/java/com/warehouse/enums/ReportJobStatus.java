@@ -0,0 +1,25 @@
+package com.warehouse.enums;
+
+/**
+ * 报表任务状态枚举
+ */
+public enum ReportJobStatus {
+    QUEUED("排队中"),
+    RUNNING("生成中"),
+    SUCCEEDED("已完成"),
+    FAILED("失败");
+
+    private final String description;
+
+    ReportJobStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
@@ -0,0 +1,38 @@
+package com.warehouse.enums;
+
+/**
+ * 报表类型枚举
+ */
+public enum ReportType {
+    STOCK("库存报表", "stock_report.pdf"),
+    INBOUND("入库统计报表", "inbound_report.pdf"),
+    OUTBOUND("出库统计报表", "outbound_report.pdf"),
+    LOW_STOCK("低库存预警报表", "low_stock_report.pdf");
+
+    private final String description;
+
+    private final String fileName;
+
+    ReportType(String description, String fileName) {
+        this.description = description;
+        this.fileName = fileName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * 下载时的文件名
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * 是否支持按时间范围统计
+     */
+    public boolean isDateRanged() {
+        return this == INBOUND || this == OUTBOUND;
+    }
+}
@@ -0,0 +1,21 @@
+package com.warehouse.enums;
+
+/**
+ * 库存预留状态枚举
+ */
+public enum ReservationStatus {
+    ACTIVE("生效中"),
+    CONSUMED("已出库"),
+    RELEASED("已释放"),
+    EXPIRED("已过期");
+
+    private final String description;
+
+    ReservationStatus(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,31 @@
+package com.warehouse.enums;
+
+/**
+ * 库存流水类型枚举
+ */
+public enum StockMovementType {
+    INBOUND("入库", BusinessType.INBOUND),
+    INBOUND_REVERSAL("入库冲销", BusinessType.INBOUND),
+    OUTBOUND("出库", BusinessType.OUTBOUND),
+    OUTBOUND_REVERSAL("出库冲销", BusinessType.OUTBOUND),
+    ADJUSTMENT_INCREASE("调整增加", BusinessType.STOCK_ADJUSTMENT),
+    ADJUSTMENT_DECREASE("调整减少", BusinessType.STOCK_ADJUSTMENT),
+    INBOUND_DOCUMENT("多行单据入库", BusinessType.INBOUND_DOCUMENT),
+    OUTBOUND_DOCUMENT("多行单据出库", BusinessType.OUTBOUND_DOCUMENT);
+
+    private final String description;
+    private final BusinessType businessType;
+
+    StockMovementType(String description, BusinessType businessType) {
+        this.description = description;
+        this.businessType = businessType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public BusinessType getBusinessType() {
+        return businessType;
+    }
+}
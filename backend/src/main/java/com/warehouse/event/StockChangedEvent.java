@@ -0,0 +1,17 @@
+package com.warehouse.event;
+
+/**
+ * 商品库存已变更事件，在库存变更的事务中发布，监听方在事务提交后处理。
+ */
+public class StockChangedEvent {
+
+    private final Integer productId;
+
+    public StockChangedEvent(Integer productId) {
+        this.productId = productId;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+}
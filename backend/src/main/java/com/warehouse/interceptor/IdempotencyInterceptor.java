@@ -0,0 +1,125 @@
+package com.warehouse.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.warehouse.common.Result;
+import com.warehouse.service.IdempotencyService;
+import com.warehouse.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 幂等请求拦截器（处理 {@link Idempotent} 标记的接口）
+ * 请求前：已完成的键直接回放首次响应，处理中的键返回409，否则占用该键；
+ * 响应写出前：保存成功的响应；请求结束仍未保存（异常或业务失败）时释放该键。
+ */
+@ControllerAdvice
+public class IdempotencyInterceptor implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyInterceptor.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final String KEY_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".key";
+
+    private static final String COMPLETED_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".completed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod) || !((HandlerMethod) handler).hasMethodAnnotation(Idempotent.class)) {
+            return true;
+        }
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+            return true;
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeJson(response, HttpServletResponse.SC_BAD_REQUEST,
+                    objectMapper.writeValueAsString(Result.error(400, "Idempotency-Key 长度不能超过" + MAX_KEY_LENGTH)));
+            return false;
+        }
+
+        // 按用户和接口隔离，不同用户或接口使用相同的键互不影响
+        String key = UserContext.getCurrentUserId() + ":" + request.getMethod() + ":"
+                + request.getRequestURI() + ":" + idempotencyKey.trim();
+
+        String stored = idempotencyService.find(key);
+        if (stored == null && idempotencyService.tryClaim(key)) {
+            request.setAttribute(KEY_ATTRIBUTE, key);
+            return true;
+        }
+        if (stored == null || IdempotencyService.PENDING.equals(stored)) {
+            writeJson(response, HttpServletResponse.SC_CONFLICT,
+                    objectMapper.writeValueAsString(Result.error(409, "请求正在处理中，请勿重复提交")));
+            return false;
+        }
+
+        logger.debug("幂等请求回放：{}", key);
+        response.setHeader("Idempotent-Replayed", "true");
+        writeJson(response, HttpServletResponse.SC_OK, stored);
+        return false;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        String key = (String) request.getAttribute(KEY_ATTRIBUTE);
+        if (key != null && request.getAttribute(COMPLETED_ATTRIBUTE) == null) {
+            idempotencyService.release(key);
+        }
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(Idempotent.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        String key = (String) servletRequest.getAttribute(KEY_ATTRIBUTE);
+        if (key == null || !(body instanceof Result) || !Integer.valueOf(200).equals(((Result<?>) body).getCode())) {
+            return body;
+        }
+        try {
+            idempotencyService.complete(key, objectMapper.writeValueAsString(body));
+            servletRequest.setAttribute(COMPLETED_ATTRIBUTE, Boolean.TRUE);
+        } catch (Exception e) {
+            logger.warn("保存幂等响应失败：{}", e.getMessage());
+        }
+        return body;
+    }
+
+    private void writeJson(HttpServletResponse response, int status, String json) throws Exception {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(json);
+    }
+}
@@ -0,0 +1,15 @@
+package com.warehouse.interceptor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记支持 Idempotency-Key 请求头的创建接口。
+ * 同一用户携带相同键重复提交时直接返回首次的响应，不再执行业务逻辑。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+}
@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -102,4 +103,10 @@ public interface ApprovalRecordRepository extends JpaRepository<ApprovalRecord,
      * 根据流程ID查找记录
      */
     List<ApprovalRecord> findByFlowIdOrderBySubmitTimeDesc(String flowId);
-}
\ No newline at end of file
+
+    /**
+     * 批量查找指定业务的审批记录（批量审批时一次加载）
+     */
+    List<ApprovalRecord> findByBusinessIdInAndBusinessTypeAndApprovalStatus(
+            Collection<Integer> businessIds, BusinessType businessType, ApprovalStatus approvalStatus);
+}
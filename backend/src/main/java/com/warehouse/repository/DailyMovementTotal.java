@@ -0,0 +1,17 @@
+package com.warehouse.repository;
+
+/**
+ * 出入库按日汇总的投影行，按周、按月汇总由按日结果合并
+ */
+public interface DailyMovementTotal {
+
+    Integer getPeriodYear();
+
+    Integer getPeriodMonth();
+
+    Integer getPeriodDay();
+
+    Long getRecordCount();
+
+    Long getTotalQuantity();
+}
@@ -0,0 +1,92 @@
+package com.warehouse.repository;
+
+import com.warehouse.dto.DailyStockRollupDTO;
+import com.warehouse.entity.DailyStockRollup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 商品每日库存汇总数据访问接口。
+ * 写入均为原生SQL，调用方需持有对应商品的行锁（库存变更语句或回填时的加锁查询）。
+ */
+@Repository
+public interface DailyStockRollupRepository extends JpaRepository<DailyStockRollup, Long> {
+
+    /**
+     * 将一条流水累加到当日汇总，当日汇总行不存在时插入，日终库存取流水ID最大的一条。
+     * 单条语句完成插入或累加，不先UPDATE再INSERT：并发首笔写入在同一间隙上各持间隙锁后互相等待插入会死锁。
+     * closing_qty 须在 last_movement_id 之前赋值，比较的是更新前的 last_movement_id。
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "daily_stock_rollup"))
+    @Query(value = "INSERT INTO daily_stock_rollup (product_id, rollup_date, inbound_qty, outbound_qty, adjust_qty, " +
+                   "closing_qty, last_movement_id, updated_at) VALUES (:productId, :rollupDate, :inboundQty, " +
+                   ":outboundQty, :adjustQty, :closingQty, :movementId, :now) " +
+                   "ON DUPLICATE KEY UPDATE inbound_qty = inbound_qty + VALUES(inbound_qty), " +
+                   "outbound_qty = outbound_qty + VALUES(outbound_qty), adjust_qty = adjust_qty + VALUES(adjust_qty), " +
+                   "closing_qty = CASE WHEN last_movement_id < VALUES(last_movement_id) " +
+                   "THEN VALUES(closing_qty) ELSE closing_qty END, " +
+                   "last_movement_id = GREATEST(last_movement_id, VALUES(last_movement_id)), " +
+                   "updated_at = VALUES(updated_at)", nativeQuery = true)
+    int accumulate(@Param("productId") Integer productId, @Param("rollupDate") LocalDate rollupDate,
+                   @Param("inboundQty") int inboundQty, @Param("outboundQty") int outboundQty,
+                   @Param("adjustQty") int adjustQty, @Param("closingQty") int closingQty,
+                   @Param("movementId") Long movementId, @Param("now") LocalDateTime now);
+
+    /**
+     * 回填前删除商品ID区间内的汇总（回填逐个商品调用，区间首尾相同）
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "daily_stock_rollup"))
+    @Query(value = "DELETE FROM daily_stock_rollup WHERE product_id BETWEEN :fromProductId AND :toProductId",
+           nativeQuery = true)
+    int deleteByProductRange(@Param("fromProductId") Integer fromProductId,
+                             @Param("toProductId") Integer toProductId);
+
+    /**
+     * 由库存流水重新生成商品ID区间内的每日汇总，日终库存取每天最后一条流水的变更后库存
+     * @return 生成的汇总行数
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "daily_stock_rollup"))
+    @Query(value = "INSERT INTO daily_stock_rollup (product_id, rollup_date, inbound_qty, outbound_qty, adjust_qty, " +
+                   "closing_qty, last_movement_id, updated_at) " +
+                   "SELECT g.product_id, g.rollup_date, g.inbound_qty, g.outbound_qty, g.adjust_qty, " +
+                   "m.balance_after, g.last_movement_id, :now FROM (" +
+                   "SELECT product_id, CAST(created_at AS DATE) AS rollup_date, " +
+                   "SUM(CASE WHEN business_type IN ('INBOUND', 'INBOUND_DOCUMENT') THEN quantity ELSE 0 END) AS inbound_qty, " +
+                   "SUM(CASE WHEN business_type IN ('OUTBOUND', 'OUTBOUND_DOCUMENT') THEN -quantity ELSE 0 END) AS outbound_qty, " +
+                   "SUM(CASE WHEN business_type = 'STOCK_ADJUSTMENT' THEN quantity ELSE 0 END) AS adjust_qty, " +
+                   "MAX(id) AS last_movement_id FROM stock_movement " +
+                   "WHERE product_id BETWEEN :fromProductId AND :toProductId " +
+                   "GROUP BY product_id, CAST(created_at AS DATE)) g " +
+                   "JOIN stock_movement m ON m.id = g.last_movement_id", nativeQuery = true)
+    int rebuildProductRange(@Param("fromProductId") Integer fromProductId,
+                            @Param("toProductId") Integer toProductId,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * 库存日报：每个商品每天至多一行
+     */
+    @Query(value = "SELECT new com.warehouse.dto.DailyStockRollupDTO(r.productId, p.code, p.name, r.rollupDate, " +
+                   "r.inboundQty, r.outboundQty, r.adjustQty, r.closingQty) " +
+                   "FROM DailyStockRollup r LEFT JOIN Product p ON p.id = r.productId " +
+                   "WHERE (:productId IS NULL OR r.productId = :productId) " +
+                   "AND r.rollupDate BETWEEN :startDate AND :endDate ORDER BY r.rollupDate, r.productId",
+           countQuery = "SELECT COUNT(r) FROM DailyStockRollup r WHERE (:productId IS NULL OR r.productId = :productId) " +
+                        "AND r.rollupDate BETWEEN :startDate AND :endDate")
+    Page<DailyStockRollupDTO> findDailyRows(@Param("productId") Integer productId,
+                                            @Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate,
+                                            Pageable pageable);
+}
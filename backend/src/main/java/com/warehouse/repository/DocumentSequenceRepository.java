@@ -0,0 +1,30 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.DocumentSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+
+/**
+ * 单据号序列数据访问接口
+ */
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, String> {
+
+    /**
+     * 将序列推进一个块（序列不存在时从1开始创建），执行后持有该行锁直到事务结束
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "document_sequence"))
+    @Query(value = "INSERT INTO document_sequence (sequence_name, next_value) VALUES (:name, 1 + :blockSize) " +
+                   "ON DUPLICATE KEY UPDATE next_value = next_value + :blockSize", nativeQuery = true)
+    int advance(@Param("name") String name, @Param("blockSize") long blockSize);
+
+    @Query(value = "SELECT next_value FROM document_sequence WHERE sequence_name = :name", nativeQuery = true)
+    Long findNextValue(@Param("name") String name);
+}
@@ -0,0 +1,15 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.InboundDocumentLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * 多行入库单明细仓储接口。
+ */
+@Repository
+public interface InboundDocumentLineRepository extends JpaRepository<InboundDocumentLine, Long> {
+
+    List<InboundDocumentLine> findByDocumentIdOrderByLineNo(Integer documentId);
+}
@@ -0,0 +1,25 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.InboundDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+/**
+ * 多行入库单仓储接口。
+ */
+@Repository
+public interface InboundDocumentRepository extends BaseRepository<InboundDocument, Integer> {
+
+    @Query("SELECT d FROM InboundDocument d WHERE d.isDeleted = 0 AND " +
+           "(:startDate IS NULL OR d.inboundDate >= :startDate) AND " +
+           "(:endDate IS NULL OR d.inboundDate <= :endDate) AND " +
+           "(:supplierId IS NULL OR d.supplier.id = :supplierId)")
+    Page<InboundDocument> findActiveByConditions(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate,
+                                                 @Param("supplierId") Integer supplierId,
+                                                 Pageable pageable);
+}
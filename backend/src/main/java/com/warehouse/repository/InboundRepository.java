@@ -1,5 +1,9 @@
 package com.warehouse.repository;
 
+import com.warehouse.dto.InboundListDTO;
+import com.warehouse.dto.MovementExportRowDTO;
+import com.warehouse.dto.MovementReportRowDTO;
+import com.warehouse.dto.MovementSummaryDTO;
 import com.warehouse.entity.Inbound;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -15,19 +20,89 @@ import java.util.List;
 @Repository
 public interface InboundRepository extends BaseRepository<Inbound, Integer> {
 
-    @Query("SELECT i FROM Inbound i WHERE i.isDeleted = 0 AND " +
+    // 列表投影：关联对象只取展示字段，不加载完整的商品、供应商与用户实体
+    @Query(value = "SELECT new com.warehouse.dto.InboundListDTO(i.id, i.inboundNo, p.id, p.code, p.name, p.unit, " +
+           "i.quantity, s.id, s.name, i.inboundDate, op.id, op.username, op.realName, i.remark, i.approvalStatus, " +
+           "ap.id, ap.username, ap.realName, i.approvalTime, i.approvalRemark, i.createdAt) " +
+           "FROM Inbound i JOIN i.product p LEFT JOIN i.supplier s LEFT JOIN i.operator op LEFT JOIN i.approver ap " +
+           "WHERE i.isDeleted = 0 AND " +
+           "(:startDate IS NULL OR i.inboundDate >= :startDate) AND " +
+           "(:endDate IS NULL OR i.inboundDate <= :endDate) AND " +
+           "(:productId IS NULL OR i.product.id = :productId) AND " +
+           "(:supplierId IS NULL OR i.supplier.id = :supplierId)",
+           countQuery = "SELECT COUNT(i) FROM Inbound i WHERE i.isDeleted = 0 AND " +
            "(:startDate IS NULL OR i.inboundDate >= :startDate) AND " +
            "(:endDate IS NULL OR i.inboundDate <= :endDate) AND " +
            "(:productId IS NULL OR i.product.id = :productId) AND " +
            "(:supplierId IS NULL OR i.supplier.id = :supplierId)")
-    Page<Inbound> findActiveByConditions(@Param("startDate") LocalDateTime startDate,
-                                         @Param("endDate") LocalDateTime endDate,
-                                         @Param("productId") Integer productId,
-                                         @Param("supplierId") Integer supplierId,
-                                         Pageable pageable);
+    Page<InboundListDTO> findActiveListByConditions(@Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate,
+                                                    @Param("productId") Integer productId,
+                                                    @Param("supplierId") Integer supplierId,
+                                                    Pageable pageable);
 
     List<Inbound> findByInboundDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * 报表按ID分批读取：从 afterId 之后取一批，时间范围为null时不限，
+     * 每批是独立的短查询，不持有连接等待客户端下载
+     */
+    @Query("SELECT new com.warehouse.dto.MovementReportRowDTO(i.id, i.inboundNo, p.code, p.name, i.quantity, " +
+           "i.inboundDate, s.name) FROM Inbound i LEFT JOIN i.product p LEFT JOIN i.supplier s " +
+           "WHERE i.id > :afterId AND (:startDate IS NULL OR i.inboundDate BETWEEN :startDate AND :endDate) " +
+           "ORDER BY i.id")
+    List<MovementReportRowDTO> findReportRowsAfter(@Param("afterId") Integer afterId,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   Pageable pageable);
+
+    @Query("SELECT COUNT(i) FROM Inbound i WHERE (:startDate IS NULL OR i.inboundDate BETWEEN :startDate AND :endDate)")
+    long countReportRows(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 汇总报表按商品汇总：在数据库中分组，每个商品只返回一行
+     */
+    @Query("SELECT new com.warehouse.dto.MovementSummaryDTO(p.id, p.code, p.name, COUNT(i), SUM(i.quantity)) " +
+           "FROM Inbound i JOIN i.product p " +
+           "WHERE (:startDate IS NULL OR i.inboundDate BETWEEN :startDate AND :endDate) " +
+           "GROUP BY p.id, p.code, p.name ORDER BY SUM(i.quantity) DESC")
+    List<MovementSummaryDTO> summarizeByProduct(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 按供应商汇总，未指定供应商的记录汇总为ID为null的一组
+     */
+    @Query("SELECT new com.warehouse.dto.MovementSummaryDTO(s.id, s.name, COUNT(i), SUM(i.quantity)) " +
+           "FROM Inbound i LEFT JOIN i.supplier s " +
+           "WHERE (:startDate IS NULL OR i.inboundDate BETWEEN :startDate AND :endDate) " +
+           "GROUP BY s.id, s.name ORDER BY SUM(i.quantity) DESC")
+    List<MovementSummaryDTO> summarizeBySupplier(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 按日汇总，按周、按月汇总由按日结果合并
+     */
+    @Query("SELECT YEAR(i.inboundDate) AS periodYear, MONTH(i.inboundDate) AS periodMonth, " +
+           "DAY(i.inboundDate) AS periodDay, COUNT(i) AS recordCount, SUM(i.quantity) AS totalQuantity " +
+           "FROM Inbound i WHERE (:startDate IS NULL OR i.inboundDate BETWEEN :startDate AND :endDate) " +
+           "GROUP BY YEAR(i.inboundDate), MONTH(i.inboundDate), DAY(i.inboundDate) " +
+           "ORDER BY YEAR(i.inboundDate), MONTH(i.inboundDate), DAY(i.inboundDate)")
+    List<DailyMovementTotal> summarizeByDay(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Excel导出按ID分批读取，条件同 findReportRowsAfter
+     */
+    @Query("SELECT new com.warehouse.dto.MovementExportRowDTO(i.id, i.inboundNo, p.code, p.name, i.quantity, " +
+           "s.name, i.inboundDate, op.username, i.remark) FROM Inbound i LEFT JOIN i.product p " +
+           "LEFT JOIN i.supplier s LEFT JOIN i.operator op " +
+           "WHERE i.id > :afterId AND (:startDate IS NULL OR i.inboundDate BETWEEN :startDate AND :endDate) " +
+           "ORDER BY i.id")
+    List<MovementExportRowDTO> findExportRowsAfter(@Param("afterId") Integer afterId,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   Pageable pageable);
+
     @Query("SELECT i FROM Inbound i WHERE i.isDeleted = 0 AND i.inboundDate BETWEEN :startDate AND :endDate")
     List<Inbound> findActiveByInboundDateBetween(@Param("startDate") LocalDateTime startDate,
                                                  @Param("endDate") LocalDateTime endDate);
@@ -49,5 +124,13 @@ public interface InboundRepository extends BaseRepository<Inbound, Integer> {
 
     @Query("SELECT i FROM Inbound i WHERE i.isDeleted = 0 AND i.operator.id = :operatorId")
     List<Inbound> findActiveByOperatorId(@Param("operatorId") Integer operatorId);
-}
 
+    /**
+     * 批量加载入库单及其关联对象（批量审批时一次查询）
+     */
+    @Query("SELECT DISTINCT i FROM Inbound i LEFT JOIN FETCH i.product p " +
+           "LEFT JOIN FETCH p.category LEFT JOIN FETCH p.supplier " +
+           "LEFT JOIN FETCH i.supplier LEFT JOIN FETCH i.operator LEFT JOIN FETCH i.approver LEFT JOIN FETCH i.location " +
+           "WHERE i.id IN :ids AND i.isDeleted = 0")
+    List<Inbound> findActiveByIdInWithAssociations(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,57 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.LocationStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+/**
+ * 库位库存数据访问接口
+ */
+@Repository
+public interface LocationStockRepository extends JpaRepository<LocationStock, Integer> {
+
+    /**
+     * 库位上的全部商品库存
+     */
+    @Query("SELECT ls FROM LocationStock ls JOIN FETCH ls.product JOIN FETCH ls.location " +
+           "WHERE ls.locationId = :locationId AND ls.quantity > 0 ORDER BY ls.productId")
+    List<LocationStock> findByLocationId(@Param("locationId") Integer locationId);
+
+    /**
+     * 存放某商品的全部库位
+     */
+    @Query("SELECT ls FROM LocationStock ls JOIN FETCH ls.location JOIN FETCH ls.product " +
+           "WHERE ls.productId = :productId AND ls.quantity > 0 ORDER BY ls.locationId")
+    List<LocationStock> findByProductId(@Param("productId") Integer productId);
+
+    /**
+     * 增加库位库存，记录不存在时插入
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "location_stock"))
+    @Query(value = "INSERT INTO location_stock (location_id, product_id, quantity, updated_at) " +
+                   "VALUES (:locationId, :productId, :quantity, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), updated_at = NOW()",
+           nativeQuery = true)
+    int increaseStock(@Param("locationId") Integer locationId, @Param("productId") Integer productId,
+                      @Param("quantity") int quantity);
+
+    /**
+     * 条件扣减库位库存
+     * @return 受影响行数，0表示库位上没有该商品或数量不足
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "location_stock"))
+    @Query(value = "UPDATE location_stock SET quantity = quantity - :quantity, updated_at = NOW() " +
+                   "WHERE location_id = :locationId AND product_id = :productId AND quantity >= :quantity",
+           nativeQuery = true)
+    int decreaseStockIfSufficient(@Param("locationId") Integer locationId, @Param("productId") Integer productId,
+                                  @Param("quantity") int quantity);
+}
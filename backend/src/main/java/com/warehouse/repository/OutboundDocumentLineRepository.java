@@ -0,0 +1,15 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.OutboundDocumentLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * 多行出库单明细仓储接口。
+ */
+@Repository
+public interface OutboundDocumentLineRepository extends JpaRepository<OutboundDocumentLine, Long> {
+
+    List<OutboundDocumentLine> findByDocumentIdOrderByLineNo(Integer documentId);
+}
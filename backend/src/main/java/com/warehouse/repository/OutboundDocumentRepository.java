@@ -0,0 +1,25 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.OutboundDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+/**
+ * 多行出库单仓储接口。
+ */
+@Repository
+public interface OutboundDocumentRepository extends BaseRepository<OutboundDocument, Integer> {
+
+    @Query("SELECT d FROM OutboundDocument d WHERE d.isDeleted = 0 AND " +
+           "(:startDate IS NULL OR d.outboundDate >= :startDate) AND " +
+           "(:endDate IS NULL OR d.outboundDate <= :endDate) AND " +
+           "(:customerId IS NULL OR d.customer.id = :customerId)")
+    Page<OutboundDocument> findActiveByConditions(@Param("startDate") LocalDateTime startDate,
+                                                  @Param("endDate") LocalDateTime endDate,
+                                                  @Param("customerId") Integer customerId,
+                                                  Pageable pageable);
+}
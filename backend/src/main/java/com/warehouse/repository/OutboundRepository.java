@@ -1,5 +1,9 @@
 package com.warehouse.repository;
 
+import com.warehouse.dto.MovementExportRowDTO;
+import com.warehouse.dto.MovementReportRowDTO;
+import com.warehouse.dto.MovementSummaryDTO;
+import com.warehouse.dto.OutboundListDTO;
 import com.warehouse.entity.Outbound;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,19 +19,88 @@ import java.util.List;
 @Repository
 public interface OutboundRepository extends BaseRepository<Outbound, Integer> {
 
-    @Query("SELECT o FROM Outbound o WHERE o.isDeleted = 0 AND " +
+    // 列表投影：关联对象只取展示字段，不加载完整的商品、客户与用户实体
+    @Query(value = "SELECT new com.warehouse.dto.OutboundListDTO(o.id, o.outboundNo, p.id, p.code, p.name, p.unit, " +
+           "o.quantity, c.id, c.name, o.outboundDate, op.id, op.username, op.realName, o.remark, o.approvalStatus, " +
+           "ap.id, ap.username, ap.realName, o.approvalTime, o.approvalRemark, o.createdAt) " +
+           "FROM Outbound o JOIN o.product p LEFT JOIN o.customer c LEFT JOIN o.operator op LEFT JOIN o.approver ap " +
+           "WHERE o.isDeleted = 0 AND " +
+           "(:startDate IS NULL OR o.outboundDate >= :startDate) AND " +
+           "(:endDate IS NULL OR o.outboundDate <= :endDate) AND " +
+           "(:productId IS NULL OR o.product.id = :productId) AND " +
+           "(:customerId IS NULL OR o.customer.id = :customerId)",
+           countQuery = "SELECT COUNT(o) FROM Outbound o WHERE o.isDeleted = 0 AND " +
            "(:startDate IS NULL OR o.outboundDate >= :startDate) AND " +
            "(:endDate IS NULL OR o.outboundDate <= :endDate) AND " +
            "(:productId IS NULL OR o.product.id = :productId) AND " +
            "(:customerId IS NULL OR o.customer.id = :customerId)")
-    Page<Outbound> findActiveByConditions(@Param("startDate") LocalDateTime startDate,
-                                          @Param("endDate") LocalDateTime endDate,
-                                          @Param("productId") Integer productId,
-                                          @Param("customerId") Integer customerId,
-                                          Pageable pageable);
+    Page<OutboundListDTO> findActiveListByConditions(@Param("startDate") LocalDateTime startDate,
+                                                     @Param("endDate") LocalDateTime endDate,
+                                                     @Param("productId") Integer productId,
+                                                     @Param("customerId") Integer customerId,
+                                                     Pageable pageable);
 
     List<Outbound> findByOutboundDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * 报表按ID分批读取，见 InboundRepository#findReportRowsAfter
+     */
+    @Query("SELECT new com.warehouse.dto.MovementReportRowDTO(o.id, o.outboundNo, p.code, p.name, o.quantity, " +
+           "o.outboundDate, c.name) FROM Outbound o LEFT JOIN o.product p LEFT JOIN o.customer c " +
+           "WHERE o.id > :afterId AND (:startDate IS NULL OR o.outboundDate BETWEEN :startDate AND :endDate) " +
+           "ORDER BY o.id")
+    List<MovementReportRowDTO> findReportRowsAfter(@Param("afterId") Integer afterId,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   Pageable pageable);
+
+    @Query("SELECT COUNT(o) FROM Outbound o WHERE (:startDate IS NULL OR o.outboundDate BETWEEN :startDate AND :endDate)")
+    long countReportRows(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 汇总报表按商品汇总：在数据库中分组，每个商品只返回一行
+     */
+    @Query("SELECT new com.warehouse.dto.MovementSummaryDTO(p.id, p.code, p.name, COUNT(o), SUM(o.quantity)) " +
+           "FROM Outbound o JOIN o.product p " +
+           "WHERE (:startDate IS NULL OR o.outboundDate BETWEEN :startDate AND :endDate) " +
+           "GROUP BY p.id, p.code, p.name ORDER BY SUM(o.quantity) DESC")
+    List<MovementSummaryDTO> summarizeByProduct(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 按客户汇总，未指定客户的记录汇总为ID为null的一组
+     */
+    @Query("SELECT new com.warehouse.dto.MovementSummaryDTO(c.id, c.name, COUNT(o), SUM(o.quantity)) " +
+           "FROM Outbound o LEFT JOIN o.customer c " +
+           "WHERE (:startDate IS NULL OR o.outboundDate BETWEEN :startDate AND :endDate) " +
+           "GROUP BY c.id, c.name ORDER BY SUM(o.quantity) DESC")
+    List<MovementSummaryDTO> summarizeByCustomer(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * 按日汇总，按周、按月汇总由按日结果合并
+     */
+    @Query("SELECT YEAR(o.outboundDate) AS periodYear, MONTH(o.outboundDate) AS periodMonth, " +
+           "DAY(o.outboundDate) AS periodDay, COUNT(o) AS recordCount, SUM(o.quantity) AS totalQuantity " +
+           "FROM Outbound o WHERE (:startDate IS NULL OR o.outboundDate BETWEEN :startDate AND :endDate) " +
+           "GROUP BY YEAR(o.outboundDate), MONTH(o.outboundDate), DAY(o.outboundDate) " +
+           "ORDER BY YEAR(o.outboundDate), MONTH(o.outboundDate), DAY(o.outboundDate)")
+    List<DailyMovementTotal> summarizeByDay(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Excel导出按ID分批读取，条件同 findReportRowsAfter
+     */
+    @Query("SELECT new com.warehouse.dto.MovementExportRowDTO(o.id, o.outboundNo, p.code, p.name, o.quantity, " +
+           "c.name, o.outboundDate, op.username, o.remark) FROM Outbound o LEFT JOIN o.product p " +
+           "LEFT JOIN o.customer c LEFT JOIN o.operator op " +
+           "WHERE o.id > :afterId AND (:startDate IS NULL OR o.outboundDate BETWEEN :startDate AND :endDate) " +
+           "ORDER BY o.id")
+    List<MovementExportRowDTO> findExportRowsAfter(@Param("afterId") Integer afterId,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   Pageable pageable);
+
     @Query("SELECT o FROM Outbound o WHERE o.isDeleted = 0 AND o.outboundDate BETWEEN :startDate AND :endDate")
     List<Outbound> findActiveByOutboundDateBetween(@Param("startDate") LocalDateTime startDate,
                                                    @Param("endDate") LocalDateTime endDate);
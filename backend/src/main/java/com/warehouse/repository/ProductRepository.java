@@ -1,12 +1,18 @@
 package com.warehouse.repository;
 
+import com.warehouse.dto.ProductExportRowDTO;
+import com.warehouse.dto.ProductListDTO;
+import com.warehouse.dto.StockReportRowDTO;
 import com.warehouse.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,27 +33,65 @@ public interface ProductRepository extends BaseRepository<Product, Integer> {
     @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Product p WHERE p.code = :code AND p.isDeleted = 0")
     boolean existsActiveByCode(@Param("code") String code);
 
+    // 全部商品编号（含已删除，编号唯一约束同样覆盖已删除商品），用于重建编号过滤器
+    @Query("SELECT p.code FROM Product p")
+    List<String> findAllCodes();
+
     Page<Product> findByNameContaining(String name, Pageable pageable);
 
     @Query("SELECT p FROM Product p WHERE p.isDeleted = 0 AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     Page<Product> findActiveByNameContaining(@Param("name") String name, Pageable pageable);
 
-    // 根据条件查询（添加逻辑删除过滤）
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = 0 AND " +
+    // 列表投影：只查询列表所需的列，分类与供应商通过左连接取名称
+    @Query(value = "SELECT new com.warehouse.dto.ProductListDTO(p.id, p.code, p.name, c.id, c.name, s.id, s.name, " +
+           "p.price, p.stockQty, p.minStock, p.lowStock, p.unit, p.barcode, p.imageUrl, p.status, p.version) " +
+           "FROM Product p LEFT JOIN p.category c LEFT JOIN p.supplier s WHERE p.isDeleted = 0 AND " +
+           "(:code IS NULL OR p.code LIKE CONCAT('%', :code, '%')) AND " +
+           "(:name IS NULL OR p.name LIKE CONCAT('%', :name, '%')) AND " +
+           "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+           "(:status IS NULL OR p.status = :status)",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isDeleted = 0 AND " +
            "(:code IS NULL OR p.code LIKE CONCAT('%', :code, '%')) AND " +
            "(:name IS NULL OR p.name LIKE CONCAT('%', :name, '%')) AND " +
            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
            "(:status IS NULL OR p.status = :status)")
-    Page<Product> findActiveByConditions(@Param("code") String code,
-                                   @Param("name") String name,
-                                   @Param("categoryId") Integer categoryId,
-                                   @Param("status") Integer status,
-                                   Pageable pageable);
-
-    // 库存预警查询
-    @Query("SELECT p FROM Product p WHERE p.isDeleted = 0 AND p.stockQty <= p.minStock AND p.status = 1")
+    Page<ProductListDTO> findActiveListByConditions(@Param("code") String code,
+                                                    @Param("name") String name,
+                                                    @Param("categoryId") Integer categoryId,
+                                                    @Param("status") Integer status,
+                                                    Pageable pageable);
+
+    // 库存预警查询：只读取带低库存标记的商品，不扫描全表
+    @Query("SELECT p FROM Product p WHERE p.lowStock = true AND p.isDeleted = 0 AND p.status = 1")
     List<Product> findActiveLowStockProducts();
 
+    /**
+     * 库存报表按ID分批读取：从 afterId 之后取一批
+     */
+    @Query("SELECT new com.warehouse.dto.StockReportRowDTO(p.id, p.code, p.name, c.name, s.name, p.price, " +
+           "p.stockQty, p.minStock) FROM Product p LEFT JOIN p.category c LEFT JOIN p.supplier s " +
+           "WHERE p.id > :afterId ORDER BY p.id")
+    List<StockReportRowDTO> findStockReportRowsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    /**
+     * 低库存报表按ID分批读取，条件同 findActiveLowStockProducts
+     */
+    @Query("SELECT new com.warehouse.dto.StockReportRowDTO(p.id, p.code, p.name, c.name, s.name, p.price, " +
+           "p.stockQty, p.minStock) FROM Product p LEFT JOIN p.category c LEFT JOIN p.supplier s " +
+           "WHERE p.id > :afterId AND p.lowStock = true AND p.isDeleted = 0 AND p.status = 1 ORDER BY p.id")
+    List<StockReportRowDTO> findLowStockReportRowsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.lowStock = true AND p.isDeleted = 0 AND p.status = 1")
+    long countActiveLowStockProducts();
+
+    /**
+     * Excel导出按ID分批读取
+     */
+    @Query("SELECT new com.warehouse.dto.ProductExportRowDTO(p.id, p.code, p.name, c.name, s.name, p.price, " +
+           "p.stockQty, p.minStock, p.unit, p.barcode, p.status) FROM Product p " +
+           "LEFT JOIN p.category c LEFT JOIN p.supplier s WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductExportRowDTO> findExportRowsAfter(@Param("afterId") Integer afterId, Pageable pageable);
+
     // 根据供应商查找商品
     @Query("SELECT p FROM Product p WHERE p.isDeleted = 0 AND p.supplier.id = :supplierId")
     List<Product> findActiveBySupplierId(@Param("supplierId") Integer supplierId);
@@ -66,7 +110,98 @@ public interface ProductRepository extends BaseRepository<Product, Integer> {
      * @param imageUrl 图片URL
      */
     @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
     @Query(value = "UPDATE product SET image_url = :imageUrl WHERE id = :productId AND is_deleted = 0", nativeQuery = true)
     void updateImageUrl(@Param("productId") Integer productId, @Param("imageUrl") String imageUrl);
-}
 
+    /**
+     * 原子增加库存
+     * @param productId 商品ID
+     * @param quantity 增加数量
+     * @return 受影响行数
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET stock_qty = stock_qty + :quantity WHERE id = :productId", nativeQuery = true)
+    int increaseStock(@Param("productId") Integer productId, @Param("quantity") int quantity);
+
+    /**
+     * 条件扣减库存：仅当扣除预留后的可用库存足够时才扣减
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @param reservedQty 其他单据预留的数量
+     * @return 受影响行数，0表示商品不存在或库存不足
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET stock_qty = stock_qty - :quantity WHERE id = :productId AND stock_qty - :reservedQty >= :quantity", nativeQuery = true)
+    int decreaseStockIfSufficient(@Param("productId") Integer productId, @Param("quantity") int quantity,
+                                  @Param("reservedQty") int reservedQty);
+
+    /**
+     * 按带符号的合并增量更新库存（热点商品写后合并时使用，可用量已在内存中校验）
+     * @return 受影响行数
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET stock_qty = stock_qty + :delta WHERE id = :productId", nativeQuery = true)
+    int applyStockDelta(@Param("productId") Integer productId, @Param("delta") int delta);
+
+    /**
+     * 读取库存变更后的库存水位（库存、最低库存及当前低库存标记）
+     */
+    @Query(value = "SELECT stock_qty AS stockQty, min_stock AS minStock, low_stock AS lowStock " +
+                   "FROM product WHERE id = :productId", nativeQuery = true)
+    StockLevel findStockLevelById(@Param("productId") Integer productId);
+
+    /**
+     * 更新低库存标记
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET low_stock = :lowStock WHERE id = :productId", nativeQuery = true)
+    int updateLowStock(@Param("productId") Integer productId, @Param("lowStock") boolean lowStock);
+
+    /**
+     * 修改最低库存后按当前库存重新计算低库存标记
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET low_stock = (min_stock IS NOT NULL AND stock_qty <= min_stock) " +
+                   "WHERE id = :productId",
+           nativeQuery = true)
+    int refreshLowStock(@Param("productId") Integer productId);
+
+    /**
+     * 校正全部商品的低库存标记
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "product"))
+    @Query(value = "UPDATE product SET low_stock = (min_stock IS NOT NULL AND stock_qty <= min_stock) " +
+                   "WHERE low_stock IS NULL OR low_stock <> (min_stock IS NOT NULL AND stock_qty <= min_stock)",
+           nativeQuery = true)
+    int rebuildLowStockFlags();
+
+    /**
+     * 直接读取数据库中的当前库存（绕过持久化上下文中的旧值）
+     */
+    @Query(value = "SELECT stock_qty FROM product WHERE id = :productId", nativeQuery = true)
+    Integer findStockQtyById(@Param("productId") Integer productId);
+
+    /**
+     * 锁定商品行并读取当前库存，等待进行中的库存变更提交后返回（库存预留、扣减校验与每日汇总回填时使用）
+     */
+    @Query(value = "SELECT stock_qty FROM product WHERE id = :productId FOR UPDATE", nativeQuery = true)
+    Integer lockStockQtyById(@Param("productId") Integer productId);
+
+    /**
+     * 库存水位投影
+     */
+    interface StockLevel {
+        Integer getStockQty();
+
+        Integer getMinStock();
+
+        Boolean getLowStock();
+    }
+}
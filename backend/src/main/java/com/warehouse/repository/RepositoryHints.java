@@ -0,0 +1,15 @@
+package com.warehouse.repository;
+
+/**
+ * 仓储查询提示
+ */
+final class RepositoryHints {
+
+    /**
+     * 原生写SQL涉及的表。未声明时Hibernate无法判断影响范围，执行后会清空全部二级缓存区域。
+     */
+    static final String NATIVE_SPACES = "org.hibernate.query.native.spaces";
+
+    private RepositoryHints() {
+    }
+}
@@ -0,0 +1,37 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.StockIntent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 库存变更意图数据访问接口
+ */
+@Repository
+public interface StockIntentRepository extends JpaRepository<StockIntent, Long> {
+
+    /**
+     * 按提交顺序加锁读取待应用的意图，避免多个刷写任务重复应用
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockIntent> findTop1000ByOrderByIdAsc();
+
+    /**
+     * 商品库存加上尚未应用的意图，即热点商品的实际可用库存（单条语句保证读取一致）
+     */
+    @Query(value = "SELECT p.stock_qty + COALESCE((SELECT SUM(i.quantity) FROM stock_intent i " +
+                   "WHERE i.product_id = p.id), 0) FROM product p WHERE p.id = :productId", nativeQuery = true)
+    Integer findStockQtyIncludingIntents(@Param("productId") Integer productId);
+
+    @Modifying
+    @Query("DELETE FROM StockIntent i WHERE i.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,55 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.StockMovement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 库存流水数据访问接口
+ */
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * 按商品分页查询流水（最新在前）
+     */
+    Page<StockMovement> findByProductIdOrderByIdDesc(Integer productId, Pageable pageable);
+
+    /**
+     * 查询商品的第一条流水，用于推算期初库存
+     */
+    Optional<StockMovement> findFirstByProductIdOrderByIdAsc(Integer productId);
+
+    /**
+     * 汇总快照之后、指定时间之前的流水变更量
+     */
+    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM StockMovement m " +
+           "WHERE m.productId = :productId AND m.id > :afterMovementId AND m.createdAt <= :asOf")
+    Long sumQuantityAfter(@Param("productId") Integer productId,
+                          @Param("afterMovementId") Long afterMovementId,
+                          @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * 有流水的商品ID范围，用于每日汇总回填分段
+     */
+    @Query("SELECT MIN(m.productId) FROM StockMovement m")
+    Integer findMinProductId();
+
+    @Query("SELECT MAX(m.productId) FROM StockMovement m")
+    Integer findMaxProductId();
+
+    /**
+     * 商品ID区间内有流水的商品，回填时逐个重建
+     */
+    @Query("SELECT DISTINCT m.productId FROM StockMovement m " +
+           "WHERE m.productId BETWEEN :fromId AND :toId ORDER BY m.productId")
+    List<Integer> findProductIdsBetween(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
+}
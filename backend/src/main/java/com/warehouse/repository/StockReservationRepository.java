@@ -0,0 +1,24 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.StockReservation;
+import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 库存预留数据访问接口
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByStatus(ReservationStatus status);
+
+    List<StockReservation> findByStatusAndExpiresAtBefore(ReservationStatus status, LocalDateTime time);
+
+    List<StockReservation> findByBusinessTypeAndBusinessIdAndStatus(BusinessType businessType, Integer businessId,
+                                                                   ReservationStatus status);
+}
@@ -0,0 +1,45 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 库存快照数据访问接口
+ */
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    /**
+     * 查找指定时间之前最近的一次快照
+     */
+    Optional<StockSnapshot> findFirstByProductIdAndSnapshotTimeLessThanEqualOrderBySnapshotTimeDesc(
+            Integer productId, LocalDateTime snapshotTime);
+
+    /**
+     * 已生成快照覆盖到的最大流水ID
+     */
+    @Query("SELECT COALESCE(MAX(s.lastMovementId), 0) FROM StockSnapshot s")
+    Long findMaxLastMovementId();
+
+    /**
+     * 为指定流水ID之后发生过变动的商品生成快照，库存取各商品最后一条流水的变更后库存
+     * @return 生成的快照数量
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = RepositoryHints.NATIVE_SPACES, value = "stock_snapshot"))
+    @Query(value = "INSERT INTO stock_snapshot (product_id, stock_qty, last_movement_id, snapshot_time) " +
+                   "SELECT m.product_id, m.balance_after, m.id, :snapshotTime FROM stock_movement m " +
+                   "JOIN (SELECT product_id, MAX(id) AS max_id FROM stock_movement WHERE id > :fromMovementId " +
+                   "GROUP BY product_id) latest ON m.id = latest.max_id", nativeQuery = true)
+    int insertSnapshotsSince(@Param("fromMovementId") Long fromMovementId,
+                             @Param("snapshotTime") LocalDateTime snapshotTime);
+}
@@ -1,5 +1,6 @@
 package com.warehouse.repository;
 
+import com.warehouse.dto.WarehouseLocationListDTO;
 import com.warehouse.entity.WarehouseLocation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -41,6 +42,25 @@ public interface WarehouseLocationRepository extends BaseRepository<WarehouseLoc
     @Query("SELECT wl FROM WarehouseLocation wl WHERE wl.warehouse.id = :warehouseId AND wl.isDeleted = 0")
     Page<WarehouseLocation> findActiveByWarehouseId(@Param("warehouseId") Integer warehouseId, Pageable pageable);
 
+    /**
+     * 位置列表投影，仓库只取ID与名称；不指定仓库时查询全部未删除的位置
+     */
+    @Query(value = "SELECT new com.warehouse.dto.WarehouseLocationListDTO(wl.id, w.id, w.name, wl.rackNumber, " +
+           "wl.shelfLevel, wl.binNumber, wl.description, wl.status, wl.createdAt, wl.updatedAt) " +
+           "FROM WarehouseLocation wl JOIN wl.warehouse w " +
+           "WHERE wl.isDeleted = 0 AND (:warehouseId IS NULL OR w.id = :warehouseId)",
+           countQuery = "SELECT COUNT(wl) FROM WarehouseLocation wl " +
+           "WHERE wl.isDeleted = 0 AND (:warehouseId IS NULL OR wl.warehouse.id = :warehouseId)")
+    Page<WarehouseLocationListDTO> findActiveListByWarehouseId(@Param("warehouseId") Integer warehouseId,
+                                                               Pageable pageable);
+
+    @Query("SELECT new com.warehouse.dto.WarehouseLocationListDTO(wl.id, w.id, w.name, wl.rackNumber, " +
+           "wl.shelfLevel, wl.binNumber, wl.description, wl.status, wl.createdAt, wl.updatedAt) " +
+           "FROM WarehouseLocation wl JOIN wl.warehouse w " +
+           "WHERE wl.isDeleted = 0 AND w.id = :warehouseId AND wl.status = :status")
+    List<WarehouseLocationListDTO> findActiveListByWarehouseIdAndStatus(@Param("warehouseId") Integer warehouseId,
+                                                                        @Param("status") Integer status);
+
     /**
      * 根据仓库ID、货架号、层号、货位号查找位置
      */
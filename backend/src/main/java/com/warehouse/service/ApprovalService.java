@@ -13,11 +13,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -144,6 +149,58 @@ public class ApprovalService {
         return approvalRecord;
     }
 
+    /**
+     * 批量审批（通过或拒绝）：一次加载全部待审批记录并批量保存，
+     * 事务提交后按提交人推送一条汇总通知，而不是逐条推送。
+     * @return 业务ID -> 更新后的审批记录；没有待审批记录的业务不在结果中
+     */
+    public Map<Integer, ApprovalRecord> decideAll(Collection<Integer> businessIds, BusinessType businessType,
+                                                  ApprovalStatus decision, String approvalRemark) {
+        if (decision != ApprovalStatus.APPROVED && decision != ApprovalStatus.REJECTED) {
+            throw new RuntimeException("批量审批只支持通过或拒绝");
+        }
+        Integer currentUserId = UserContext.getCurrentUserId();
+        User currentUser = userRepository.findById(currentUserId)
+                .orElseThrow(() -> new RuntimeException("当前用户不存在"));
+
+        // 同一业务存在多条待审批记录时取最新提交的一条，与单条审批保持一致
+        Map<Integer, ApprovalRecord> latestByBusiness = new HashMap<>();
+        for (ApprovalRecord record : approvalRecordRepository.findByBusinessIdInAndBusinessTypeAndApprovalStatus(
+                businessIds, businessType, ApprovalStatus.PENDING)) {
+            ApprovalRecord existing = latestByBusiness.get(record.getBusinessId());
+            if (existing == null || (record.getSubmitTime() != null && existing.getSubmitTime() != null
+                    && record.getSubmitTime().isAfter(existing.getSubmitTime()))) {
+                latestByBusiness.put(record.getBusinessId(), record);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ApprovalRecord record : latestByBusiness.values()) {
+            record.setApprovalStatus(decision);
+            record.setApproverId(currentUserId);
+            record.setApprover(currentUser);
+            record.setApprovalTime(now);
+            record.setApprovalRemark(approvalRemark);
+        }
+        List<ApprovalRecord> saved = approvalRecordRepository.saveAll(latestByBusiness.values());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    webSocketService.notifyBulkApprovalResult(saved);
+                }
+            });
+        } else {
+            webSocketService.notifyBulkApprovalResult(saved);
+        }
+
+        log.info("用户 {} 批量{}了 {} 业务 {} 条",
+                currentUserId, decision.getDescription(), businessType.getDescription(), saved.size());
+
+        return latestByBusiness;
+    }
+
     /**
      * 取消审批
      */
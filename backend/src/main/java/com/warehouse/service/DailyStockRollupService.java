@@ -0,0 +1,193 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockMovement;
+import com.warehouse.repository.DailyStockRollupRepository;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 商品每日库存汇总服务：每条库存流水在同一事务中累加到商品当日的汇总行，
+ * 按日期范围的报表每个商品每天只读一行，不再重复汇总历史流水。
+ * 已有流水由回填任务按商品ID分段并行生成，段内逐个商品在各自的短事务中、只持该商品的行锁重建，
+ * 与该商品的实时写入互斥，不阻塞其他商品的库存变更。
+ */
+@Service
+public class DailyStockRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyStockRollupService.class);
+
+    @Autowired
+    private DailyStockRollupRepository dailyStockRollupRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.stock.rollup.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${app.stock.rollup.backfill-threads:4}")
+    private int backfillThreads;
+
+    @Value("${app.stock.rollup.backfill-chunk-size:200}")
+    private int backfillChunkSize;
+
+    private ExecutorService executor;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, backfillThreads), r -> {
+            Thread thread = new Thread(r, "rollup-backfill-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 将一条库存流水累加到当日汇总，需在库存变更的同一事务中调用（调用方已持有商品行锁）
+     */
+    @Transactional
+    public void apply(StockMovement movement) {
+        int quantity = movement.getQuantity();
+        int inboundQty = 0;
+        int outboundQty = 0;
+        int adjustQty = 0;
+        switch (movement.getMovementType().getBusinessType()) {
+            case INBOUND:
+            case INBOUND_DOCUMENT:
+                // 入库冲销为负数，直接抵减当日入库
+                inboundQty = quantity;
+                break;
+            case OUTBOUND:
+            case OUTBOUND_DOCUMENT:
+                outboundQty = -quantity;
+                break;
+            default:
+                adjustQty = quantity;
+                break;
+        }
+
+        dailyStockRollupRepository.accumulate(movement.getProductId(), movement.getCreatedAt().toLocalDate(),
+                inboundQty, outboundQty, adjustQty, movement.getBalanceAfter(), movement.getId(), LocalDateTime.now());
+    }
+
+    /**
+     * 应用就绪后，汇总表为空而已有流水时异步回填（升级后首次启动）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (backfillOnStartup && dailyStockRollupRepository.count() == 0
+                && stockMovementRepository.findMinProductId() != null) {
+            backfill();
+        }
+    }
+
+    /**
+     * 由库存流水重建全部每日汇总：按商品ID分段，多个线程并行，每个商品一个事务
+     *
+     * @return 回填结束的future，结果为生成的汇总行数；已有回填在执行时返回null
+     */
+    public CompletableFuture<Integer> backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            logger.debug("每日库存汇总回填正在执行，跳过本次触发");
+            return null;
+        }
+        Integer minProductId = stockMovementRepository.findMinProductId();
+        Integer maxProductId = stockMovementRepository.findMaxProductId();
+        if (minProductId == null) {
+            backfilling.set(false);
+            return CompletableFuture.completedFuture(0);
+        }
+
+        long start = System.currentTimeMillis();
+        int chunkSize = Math.max(1, backfillChunkSize);
+        AtomicInteger rows = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (long from = minProductId; from <= maxProductId; from += chunkSize) {
+            int fromId = (int) from;
+            int toId = (int) Math.min(maxProductId, from + chunkSize - 1);
+            futures.add(CompletableFuture.runAsync(() -> rows.addAndGet(rebuild(fromId, toId)), executor));
+        }
+        logger.info("开始回填每日库存汇总：商品ID {}-{}，共{}段", minProductId, maxProductId, futures.size());
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((result, ex) -> {
+                    backfilling.set(false);
+                    if (ex != null) {
+                        logger.error("每日库存汇总回填失败", ex);
+                    } else {
+                        logger.info("每日库存汇总回填完成：{}行，耗时{}ms", rows.get(),
+                                System.currentTimeMillis() - start);
+                    }
+                })
+                .thenApply(result -> rows.get());
+    }
+
+    /**
+     * 是否有回填正在执行
+     */
+    public boolean isBackfilling() {
+        return backfilling.get();
+    }
+
+    /**
+     * 重建一段商品的每日汇总，逐个商品提交
+     */
+    private int rebuild(int fromProductId, int toProductId) {
+        int rows = 0;
+        for (Integer productId : stockMovementRepository.findProductIdsBetween(fromProductId, toProductId)) {
+            rows += rebuildProduct(productId);
+        }
+        return rows;
+    }
+
+    /**
+     * 重建单个商品的每日汇总。先锁定该商品行，期间该商品的库存变更等待重建提交，
+     * 已提交的流水全部计入重建结果，之后的流水按增量继续累加。
+     */
+    private int rebuildProduct(Integer productId) {
+        Integer rows = transactionTemplate.execute(status -> {
+            productRepository.lockStockQtyById(productId);
+            dailyStockRollupRepository.deleteByProductRange(productId, productId);
+            return dailyStockRollupRepository.rebuildProductRange(productId, productId, LocalDateTime.now());
+        });
+        return rows != null ? rows : 0;
+    }
+}
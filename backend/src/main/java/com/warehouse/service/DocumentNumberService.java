@@ -0,0 +1,61 @@
+package com.warehouse.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单据号生成服务：按前缀维护序列，每个节点从数据库租用一块连续序列值后在内存中分配，
+ * 同一节点生成的单号单调递增，仅在块用完时访问数据库。
+ * 单号格式：前缀 + 10位序列号，例如 IN0000001024。
+ */
+@Service
+public class DocumentNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentNumberService.class);
+
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
+
+    @Value("${app.document-number.block-size:100}")
+    private long blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * 生成下一个单号
+     * @param prefix 单号前缀（同时作为序列名），如 IN、OUT
+     */
+    public String nextNumber(String prefix) {
+        return prefix + String.format("%010d", nextValue(prefix));
+    }
+
+    /**
+     * 分配下一个序列值
+     */
+    public long nextValue(String sequenceName) {
+        Block block = blocks.computeIfAbsent(sequenceName, k -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                long start = documentSequenceService.leaseBlock(sequenceName, blockSize);
+                block.next = start;
+                block.limit = start + blockSize;
+                logger.debug("租用单据号序列块：序列={}, 范围=[{}, {})", sequenceName, block.next, block.limit);
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * 当前节点持有的序列块，字段由块对象锁保护
+     */
+    private static class Block {
+        long next;
+        long limit;
+    }
+}
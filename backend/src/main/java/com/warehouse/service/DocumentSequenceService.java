@@ -0,0 +1,27 @@
+package com.warehouse.service;
+
+import com.warehouse.repository.DocumentSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 单据号序列块租用，独立事务提交，不受调用方事务回滚影响。
+ */
+@Service
+public class DocumentSequenceService {
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    /**
+     * 租用一个序列块
+     * @return 块的起始值（包含），块范围为 [起始值, 起始值 + blockSize)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long leaseBlock(String name, long blockSize) {
+        documentSequenceRepository.advance(name, blockSize);
+        return documentSequenceRepository.findNextValue(name) - blockSize;
+    }
+}
@@ -0,0 +1,329 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockIntent;
+import com.warehouse.entity.StockMovement;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.StockIntentRepository;
+import com.warehouse.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 热点商品库存写后合并。
+ * 指定的热点商品不再逐笔更新 product 行，而是：
+ * 1. 在内存计数器（分段锁保护）中校验并预占可用库存，同步返回变更后库存；
+ * 2. 在调用方事务中写入库存意图，随业务单据一起提交，保证持久；
+ * 3. 后台每隔几毫秒把已提交的意图合并写入库存与流水。
+ * 内存计数器只在本进程内有效，仅适用于单实例部署。
+ */
+@Service
+public class HotStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockService.class);
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private StockIntentRepository stockIntentRepository;
+
+    @Autowired
+    private StockIntentFlushService stockIntentFlushService;
+
+    @Value("${app.stock.hot-product-ids:}")
+    private String hotProductIdsConfig;
+
+    @Value("${app.stock.hot-flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    private final Set<Integer> hotProductIds = ConcurrentHashMap.newKeySet();
+
+    private final Map<Integer, HotCounter> counters = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    // 启动时置为true，先重放崩溃前已提交但未应用的意图
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+    private final Object flushLock = new Object();
+
+    private ScheduledExecutorService flusher;
+
+    public HotStockService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (hotProductIdsConfig != null) {
+            for (String id : hotProductIdsConfig.split(",")) {
+                if (!id.trim().isEmpty()) {
+                    hotProductIds.add(Integer.valueOf(id.trim()));
+                }
+            }
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hot-stock-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, 0, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("热点商品库存写后合并：热点商品={}, 刷写间隔={}ms", hotProductIds, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public boolean isHot(Integer productId) {
+        return hotProductIds.contains(productId);
+    }
+
+    /**
+     * 将商品设为热点商品。需在该商品没有进行中的库存变更时调用（如启动时或维护窗口）。
+     */
+    public void registerHotProduct(Integer productId) {
+        hotProductIds.add(productId);
+    }
+
+    /**
+     * 增加热点商品库存。新增数量在事务提交后才计入可扣减库存，避免扣减依赖可能回滚的入库。
+     * @return 未落库的库存流水（id为空），balanceAfter 为变更后库存
+     */
+    public StockMovement increaseStock(Integer productId, int quantity, StockMovementType type, Integer businessId) {
+        HotCounter counter;
+        int balanceAfter;
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            counter = counterFor(productId);
+            counter.balance += quantity;
+            counter.pendingIncrease += quantity;
+            counter.inFlight++;
+            balanceAfter = counter.balance;
+        } finally {
+            lock.unlock();
+        }
+
+        final HotCounter target = counter;
+        afterCompletion(productId, target, () -> {
+            target.pendingIncrease -= quantity;
+        }, () -> {
+            target.balance -= quantity;
+            target.pendingIncrease -= quantity;
+        });
+        return saveIntent(productId, type, quantity, balanceAfter, businessId);
+    }
+
+    /**
+     * 尝试扣减热点商品库存，扣减量立即从可用库存中预占，事务回滚时归还。
+     * @param reservedQty 其他单据预留的数量，不可扣减
+     * @return 未落库的库存流水（id为空）；库存不足时返回null
+     */
+    public StockMovement tryDecreaseStock(Integer productId, int quantity, StockMovementType type,
+                                         Integer businessId, int reservedQty) {
+        HotCounter counter;
+        int balanceAfter;
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            counter = counterFor(productId);
+            if (counter.stale) {
+                // 计数器可能少计了状态未知事务的扣减，核对前不允许扣减
+                throw new RuntimeException("商品库存正在核对，请稍后重试");
+            }
+            if (counter.balance - counter.pendingIncrease - reservedQty < quantity) {
+                return null;
+            }
+            counter.balance -= quantity;
+            counter.inFlight++;
+            balanceAfter = counter.balance;
+        } finally {
+            lock.unlock();
+        }
+
+        final HotCounter target = counter;
+        afterCompletion(productId, target, () -> {
+        }, () -> {
+            target.balance += quantity;
+        });
+        return saveIntent(productId, type, -quantity, balanceAfter, businessId);
+    }
+
+    /**
+     * 热点商品当前可扣减的库存（不含未提交的增加量）
+     */
+    public int getStockQty(Integer productId) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            HotCounter counter = counterFor(productId);
+            return counter.balance - counter.pendingIncrease;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 立即把已提交的意图全部写入数据库
+     * @return 应用的意图数量
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            int total = 0;
+            int applied;
+            do {
+                applied = stockIntentFlushService.flushPendingIntents();
+                total += applied;
+            } while (applied > 0);
+            return total;
+        }
+    }
+
+    private void flushQuietly() {
+        if (!dirty.compareAndSet(true, false)) {
+            return;
+        }
+        try {
+            int applied = flush();
+            if (applied > 0) {
+                logger.debug("热点商品库存合并写入 {} 条意图", applied);
+            }
+        } catch (Exception e) {
+            dirty.set(true);
+            logger.error("热点商品库存合并写入失败，将在下次重试", e);
+        }
+    }
+
+    private StockMovement saveIntent(Integer productId, StockMovementType type, int quantity,
+                                     int balanceAfter, Integer businessId) {
+        Integer operatorId = UserContext.getCurrentUserId();
+
+        StockIntent intent = new StockIntent();
+        intent.setProductId(productId);
+        intent.setMovementType(type);
+        intent.setQuantity(quantity);
+        intent.setBusinessId(businessId);
+        intent.setOperatorId(operatorId);
+        stockIntentRepository.save(intent);
+
+        StockMovement movement = new StockMovement();
+        movement.setProductId(productId);
+        movement.setMovementType(type);
+        movement.setQuantity(quantity);
+        movement.setBalanceAfter(balanceAfter);
+        movement.setBusinessType(type.getBusinessType());
+        movement.setBusinessId(businessId);
+        movement.setOperatorId(operatorId);
+        return movement;
+    }
+
+    /**
+     * 事务结束后更新内存计数器：提交时通知后台刷写，回滚时撤销预占。
+     * 状态未知时计数器标记为待核对：其他进行中的事务仍持有该计数器，此时重新加载会漏掉它们已预占的扣减，
+     * 因此等进行中的事务全部结束后再丢弃计数器，由数据库库存加已提交意图重新加载，期间拒绝扣减。
+     */
+    private void afterCompletion(Integer productId, HotCounter target, Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            withLock(productId, () -> complete(productId, target, onCommit));
+            dirty.set(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    withLock(productId, () -> complete(productId, target, onCommit));
+                    dirty.set(true);
+                } else if (status == STATUS_ROLLED_BACK) {
+                    withLock(productId, () -> complete(productId, target, onRollback));
+                } else {
+                    logger.warn("热点商品库存事务状态未知，进行中的变更结束后重新加载计数器：商品ID={}", productId);
+                    withLock(productId, () -> {
+                        target.stale = true;
+                        complete(productId, target, () -> {
+                        });
+                    });
+                    dirty.set(true);
+                }
+            }
+        });
+    }
+
+    /**
+     * 应用事务结果并结束一次进行中的变更；待核对的计数器在最后一个变更结束时丢弃。调用方需持有分段锁。
+     */
+    private void complete(Integer productId, HotCounter target, Runnable action) {
+        action.run();
+        target.inFlight--;
+        if (target.stale && target.inFlight == 0) {
+            counters.remove(productId, target);
+            logger.info("热点商品计数器已核对，下次使用时重新加载：商品ID={}", productId);
+        }
+    }
+
+    private void withLock(Integer productId, Runnable action) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 获取商品计数器，首次使用时由数据库库存加未应用意图初始化。调用方需持有分段锁。
+     */
+    private HotCounter counterFor(Integer productId) {
+        HotCounter counter = counters.get(productId);
+        if (counter == null) {
+            Integer stockQty = stockIntentRepository.findStockQtyIncludingIntents(productId);
+            if (stockQty == null) {
+                throw new RuntimeException("商品不存在");
+            }
+            counter = new HotCounter();
+            counter.balance = stockQty;
+            counters.put(productId, counter);
+        }
+        return counter;
+    }
+
+    private ReentrantLock stripeFor(Integer productId) {
+        return stripes[(productId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /**
+     * 热点商品内存计数器，字段由所在分段锁保护
+     */
+    private static class HotCounter {
+        // 逻辑库存：已提交与进行中的变更都已计入
+        int balance;
+        // 尚未提交的增加量，不可用于扣减
+        int pendingIncrease;
+        // 已计入但事务尚未结束的变更数
+        int inFlight;
+        // 有事务状态未知，等待进行中的变更结束后重新加载
+        boolean stale;
+    }
+}
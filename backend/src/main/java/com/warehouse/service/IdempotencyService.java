@@ -0,0 +1,155 @@
+package com.warehouse.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 幂等键存储：Redis 为主存储，Redis 不可用时退化为本地内存。
+ * 本地存储同时缓存已完成的响应，重放请求通常无需访问 Redis；
+ * 本地条目数有上限（LRU淘汰）并按过期时间失效。
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String KEY_PREFIX = "idempotency:";
+
+    /**
+     * 处理中占位值
+     */
+    public static final String PENDING = "__PENDING__";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.pending-timeout-seconds:30}")
+    private long pendingTimeoutSeconds;
+
+    @Value("${app.idempotency.local-max-entries:10000}")
+    private int localMaxEntries;
+
+    private final Map<String, LocalEntry> localStore = new LinkedHashMap<String, LocalEntry>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LocalEntry> eldest) {
+            return size() > localMaxEntries;
+        }
+    };
+
+    /**
+     * 查询幂等键对应的记录
+     * @return 已完成请求的响应JSON、处理中时为 {@link #PENDING}、不存在时为null
+     */
+    public String find(String key) {
+        String local = getLocal(key);
+        if (local != null) {
+            return local;
+        }
+        try {
+            Object value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (value != null && !PENDING.equals(value)) {
+                putLocal(key, value.toString(), TimeUnit.HOURS.toMillis(ttlHours));
+            }
+            return value != null ? value.toString() : null;
+        } catch (Exception e) {
+            logger.warn("Redis不可用，幂等键仅使用本地存储：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 占用幂等键，同一时间只有一个请求能占用成功
+     */
+    public boolean tryClaim(String key) {
+        long pendingMillis = TimeUnit.SECONDS.toMillis(pendingTimeoutSeconds);
+        try {
+            Boolean claimed = redisTemplate.opsForValue()
+                    .setIfAbsent(KEY_PREFIX + key, PENDING, pendingTimeoutSeconds, TimeUnit.SECONDS);
+            if (!Boolean.TRUE.equals(claimed)) {
+                return false;
+            }
+            putLocal(key, PENDING, pendingMillis);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Redis不可用，幂等键仅使用本地存储：{}", e.getMessage());
+            return putLocalIfAbsent(key, PENDING, pendingMillis);
+        }
+    }
+
+    /**
+     * 保存首次请求的响应
+     */
+    public void complete(String key, String responseJson) {
+        putLocal(key, responseJson, TimeUnit.HOURS.toMillis(ttlHours));
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, responseJson, ttlHours, TimeUnit.HOURS);
+        } catch (Exception e) {
+            logger.warn("Redis不可用，幂等响应仅保存在本地：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 请求失败时释放幂等键，允许客户端重试
+     */
+    public void release(String key) {
+        synchronized (localStore) {
+            localStore.remove(key);
+        }
+        try {
+            redisTemplate.delete(KEY_PREFIX + key);
+        } catch (Exception e) {
+            logger.warn("Redis不可用，幂等键仅从本地释放：{}", e.getMessage());
+        }
+    }
+
+    private String getLocal(String key) {
+        synchronized (localStore) {
+            LocalEntry entry = localStore.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireAt < System.currentTimeMillis()) {
+                localStore.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private void putLocal(String key, String value, long ttlMillis) {
+        synchronized (localStore) {
+            localStore.put(key, new LocalEntry(value, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private boolean putLocalIfAbsent(String key, String value, long ttlMillis) {
+        synchronized (localStore) {
+            if (getLocal(key) != null) {
+                return false;
+            }
+            putLocal(key, value, ttlMillis);
+            return true;
+        }
+    }
+
+    private static class LocalEntry {
+        private final String value;
+        private final long expireAt;
+
+        LocalEntry(String value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
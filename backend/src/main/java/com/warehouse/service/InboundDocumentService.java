@@ -0,0 +1,126 @@
+package com.warehouse.service;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.entity.InboundDocument;
+import com.warehouse.entity.InboundDocumentLine;
+import com.warehouse.entity.User;
+import com.warehouse.enums.ApprovalStatus;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.InboundDocumentLineRepository;
+import com.warehouse.repository.InboundDocumentRepository;
+import com.warehouse.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多行入库单服务：单据创建、审批与入库在同一事务内完成，
+ * 明细批量插入，库存按商品合并后每个商品只更新一次。
+ */
+@Service
+public class InboundDocumentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InboundDocumentService.class);
+
+    @Autowired
+    private InboundDocumentRepository inboundDocumentRepository;
+
+    @Autowired
+    private InboundDocumentLineRepository inboundDocumentLineRepository;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Transactional
+    public InboundDocument createInboundDocument(InboundDocument document) {
+        List<InboundDocumentLine> lines = document.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new RuntimeException("入库明细不能为空");
+        }
+
+        // 校验明细并按商品合并数量
+        Map<Integer, Integer> quantityByProduct = new HashMap<>();
+        int totalQuantity = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            InboundDocumentLine line = lines.get(i);
+            if (line.getProductId() == null && line.getProduct() != null) {
+                line.setProductId(line.getProduct().getId());
+            }
+            if (line.getProductId() == null) {
+                throw new RuntimeException("第" + (i + 1) + "行：商品ID不能为空");
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new RuntimeException("第" + (i + 1) + "行：数量必须大于0");
+            }
+            line.setProduct(null);
+            line.setLineNo(i + 1);
+            quantityByProduct.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            totalQuantity += line.getQuantity();
+        }
+
+        // 处理供应商：如果 supplier 为空对象（只有实例但没有 ID），则设为 null
+        if (document.getSupplier() != null && document.getSupplier().getId() == null) {
+            document.setSupplier(null);
+        }
+
+        // 操作员即审批人：单据创建时直接审批通过
+        User operator = null;
+        Integer currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId != null && currentUserId > 0) {
+            operator = new User();
+            operator.setId(currentUserId);
+        }
+        document.setOperator(operator);
+        document.setApprover(operator);
+        document.setApprovalStatus(ApprovalStatus.APPROVED);
+        document.setApprovalTime(LocalDateTime.now());
+
+        document.setDocumentNo(documentNumberService.nextNumber("IND"));
+        document.setLineCount(lines.size());
+        document.setTotalQuantity(totalQuantity);
+
+        InboundDocument saved = inboundDocumentRepository.save(document);
+
+        // 明细批量插入（在下一次库存更新前统一flush）
+        for (InboundDocumentLine line : lines) {
+            line.setDocumentId(saved.getId());
+        }
+        inboundDocumentLineRepository.saveAll(lines);
+
+        // 每个商品一次合并后的库存增量
+        stockMutationService.increaseStockBatch(quantityByProduct, StockMovementType.INBOUND_DOCUMENT, saved.getId());
+
+        saved.setLines(lines);
+        logger.info("多行入库单 {} 已创建并入库：明细{}行，涉及商品{}个，总数量{}",
+                saved.getDocumentNo(), lines.size(), quantityByProduct.size(), totalQuantity);
+        return saved;
+    }
+
+    public PageResult<InboundDocument> getInboundDocuments(LocalDateTime startDate, LocalDateTime endDate,
+                                                           Integer supplierId, Integer page, Integer size) {
+        Pageable pageable = PageRequest.of(page - 1, size);
+        Page<InboundDocument> documentPage = inboundDocumentRepository.findActiveByConditions(
+                startDate, endDate, supplierId, pageable);
+        return new PageResult<>(documentPage.getTotalElements(), documentPage.getContent());
+    }
+
+    public InboundDocument getInboundDocumentById(Integer id) {
+        InboundDocument document = inboundDocumentRepository.findActiveById(id)
+                .orElseThrow(() -> new RuntimeException("入库单不存在"));
+        document.setLines(inboundDocumentLineRepository.findByDocumentIdOrderByLineNo(id));
+        return document;
+    }
+}
@@ -1,20 +1,28 @@
 package com.warehouse.service;
 
 import com.warehouse.common.PageResult;
+import com.warehouse.dto.BulkApprovalResult;
+import com.warehouse.dto.InboundListDTO;
+import com.warehouse.dto.MovementExportRowDTO;
 import com.warehouse.entity.ApprovalRecord;
 import com.warehouse.entity.Inbound;
 import com.warehouse.entity.Product;
 import com.warehouse.entity.User;
+import com.warehouse.entity.WarehouseLocation;
 import com.warehouse.enums.ApprovalStatus;
 import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.StockMovementType;
 import com.warehouse.repository.InboundRepository;
 import com.warehouse.repository.ProductRepository;
 import com.warehouse.util.UserContext;
+import com.warehouse.util.BatchIterator;
 import com.warehouse.util.ExcelUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,10 +30,15 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 入库业务服务，负责入库单操作及库存同步。
@@ -41,13 +54,26 @@ public class InboundService {
     @Autowired
     private ApprovalService approvalService;
 
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
     private static final Logger logger = LoggerFactory.getLogger(InboundService.class);
 
+    // Excel导出每批读取的行数
+    @Value("${app.export.batch-size:1000}")
+    private int exportBatchSize = 1000;
+
     /**
      * 创建入库单（草稿状态）
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
+    @CacheEvict(value = "inbounds", allEntries = true)
     public Inbound createInbound(Inbound inbound) {
         if (inbound.getProduct() == null) {
             throw new RuntimeException("商品信息不能为空");
@@ -80,9 +106,13 @@ public class InboundService {
             inbound.setSupplier(null);
         }
 
+        // 库位可选，处理方式同供应商
+        if (inbound.getLocation() != null && inbound.getLocation().getId() == null) {
+            inbound.setLocation(null);
+        }
+
         // 生成入库单号
-        String inboundNo = "IN" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) +
-                          UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String inboundNo = documentNumberService.nextNumber("IN");
         inbound.setInboundNo(inboundNo);
 
         // 设置默认状态为草稿
@@ -95,6 +125,7 @@ public class InboundService {
      * 提交入库审批
      */
     @Transactional
+    @CacheEvict(value = "inbounds", allEntries = true)
     public void submitForApproval(Integer inboundId, String remark) {
         // 验证入库单ID
         if (inboundId == null) {
@@ -122,7 +153,7 @@ public class InboundService {
      * 审批通过入库单（执行实际入库）
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
+    @CacheEvict(value = "inbounds", allEntries = true)
     public void approveInbound(Integer inboundId, String approvalRemark) {
         Inbound inbound = inboundRepository.findById(inboundId)
                 .orElseThrow(() -> new RuntimeException("入库单不存在"));
@@ -143,8 +174,12 @@ public class InboundService {
         // 实际更新库存
         Product product = inbound.getProduct();
         if (product != null) {
-            product.setStockQty(product.getStockQty() + inbound.getQuantity());
-            productRepository.save(product);
+            stockMutationService.increaseStock(product.getId(), inbound.getQuantity(),
+                    StockMovementType.INBOUND, inbound.getId());
+            if (inbound.getLocation() != null) {
+                locationStockService.increaseStock(inbound.getLocation().getId(), product.getId(),
+                        inbound.getQuantity());
+            }
         }
 
         inboundRepository.save(inbound);
@@ -156,6 +191,7 @@ public class InboundService {
      * 审批拒绝入库单
      */
     @Transactional
+    @CacheEvict(value = "inbounds", allEntries = true)
     public void rejectInbound(Integer inboundId, String approvalRemark) {
         Inbound inbound = inboundRepository.findById(inboundId)
                 .orElseThrow(() -> new RuntimeException("入库单不存在"));
@@ -178,10 +214,114 @@ public class InboundService {
         logger.info("入库单 {} 审批拒绝", inboundId);
     }
 
+    /**
+     * 批量审批入库单（通过或拒绝）
+     * 入库单与审批记录各一次查询加载，审批通过的库存按商品合并后每个商品只更新一次；
+     * 不满足条件的单据（含商品已删除、库位已禁用）在更新库存前记为失败，不影响其余单据。
+     */
+    @Transactional
+    @CacheEvict(value = "inbounds", allEntries = true)
+    public BulkApprovalResult bulkApproveInbounds(List<Integer> inboundIds, ApprovalStatus decision,
+                                                  String approvalRemark) {
+        if (inboundIds == null || inboundIds.isEmpty()) {
+            throw new RuntimeException("入库单ID列表不能为空");
+        }
+        Set<Integer> ids = new LinkedHashSet<>(inboundIds);
+        BulkApprovalResult result = new BulkApprovalResult();
+
+        Map<Integer, Inbound> inboundById = new HashMap<>();
+        for (Inbound inbound : inboundRepository.findActiveByIdInWithAssociations(ids)) {
+            inboundById.put(inbound.getId(), inbound);
+        }
+
+        List<Integer> pendingIds = new ArrayList<>();
+        for (Integer id : ids) {
+            Inbound inbound = inboundById.get(id);
+            if (inbound == null) {
+                result.addFailure(id, "入库单不存在");
+            } else if (inbound.getApprovalStatus() != ApprovalStatus.PENDING) {
+                result.addFailure(id, "只有待审批状态的入库单可以审批");
+            } else {
+                String reason = decision == ApprovalStatus.APPROVED ? checkStockTarget(inbound) : null;
+                if (reason != null) {
+                    result.addFailure(id, reason);
+                } else {
+                    pendingIds.add(id);
+                }
+            }
+        }
+        if (pendingIds.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, ApprovalRecord> records = approvalService.decideAll(
+                pendingIds, BusinessType.INBOUND, decision, approvalRemark);
+
+        List<Inbound> decided = new ArrayList<>();
+        List<StockMutationService.StockDelta> deltas = new ArrayList<>();
+        List<Inbound> locatedInbounds = new ArrayList<>();
+        for (Integer id : pendingIds) {
+            ApprovalRecord record = records.get(id);
+            if (record == null) {
+                result.addFailure(id, "未找到待审批记录");
+                continue;
+            }
+            Inbound inbound = inboundById.get(id);
+            inbound.setApprovalStatus(decision);
+            inbound.setApprover(record.getApprover());
+            inbound.setApprovalTime(record.getApprovalTime());
+            inbound.setApprovalRemark(record.getApprovalRemark());
+            decided.add(inbound);
+
+            if (decision == ApprovalStatus.APPROVED) {
+                deltas.add(new StockMutationService.StockDelta(
+                        inbound.getProduct().getId(), inbound.getQuantity(), inbound.getId()));
+                if (inbound.getLocation() != null) {
+                    locatedInbounds.add(inbound);
+                }
+            }
+            result.addSuccess(id);
+        }
+
+        if (!deltas.isEmpty()) {
+            stockMutationService.increaseStockMerged(deltas, StockMovementType.INBOUND);
+        }
+        for (Inbound inbound : locatedInbounds) {
+            locationStockService.increaseStock(inbound.getLocation().getId(), inbound.getProduct().getId(),
+                    inbound.getQuantity());
+        }
+        inboundRepository.saveAll(decided);
+
+        logger.info("批量审批入库单：结果={}, 成功{}张, 失败{}张",
+                decision.getDescription(), result.getSucceeded().size(), result.getFailed().size());
+        return result;
+    }
+
+    /**
+     * 审批通过前校验入库目标，避免库存更新失败时整批回滚
+     * @return 失败原因；可以入库时返回null
+     */
+    private static String checkStockTarget(Inbound inbound) {
+        if (inbound.getProduct() == null || inbound.getProduct().isDeleted()) {
+            return "商品不存在或已删除";
+        }
+        WarehouseLocation location = inbound.getLocation();
+        if (location != null) {
+            if (location.isDeleted()) {
+                return "库位不存在";
+            }
+            if (!location.isAvailable()) {
+                return "库位 " + location.getFullLocation() + " 已禁用";
+            }
+        }
+        return null;
+    }
+
     /**
      * 取消审批
      */
     @Transactional
+    @CacheEvict(value = "inbounds", allEntries = true)
     public void cancelInboundApproval(Integer inboundId, String remark) {
         Inbound inbound = inboundRepository.findById(inboundId)
                 .orElseThrow(() -> new RuntimeException("入库单不存在"));
@@ -201,11 +341,15 @@ public class InboundService {
         logger.info("入库单 {} 取消审批", inboundId);
     }
 
-    public PageResult<Inbound> getInbounds(LocalDateTime startDate, LocalDateTime endDate,
-                                            Integer productId, Integer supplierId,
-                                            Integer page, Integer size) {
+    /**
+     * 入库列表：缓存列表投影，任一入库单变更时清空
+     */
+    @Cacheable(value = "inbounds", keyGenerator = "cacheKeyGenerator", condition = "#size <= 100")
+    public PageResult<InboundListDTO> getInbounds(LocalDateTime startDate, LocalDateTime endDate,
+                                                  Integer productId, Integer supplierId,
+                                                  Integer page, Integer size) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Inbound> inboundPage = inboundRepository.findActiveByConditions(
+        Page<InboundListDTO> inboundPage = inboundRepository.findActiveListByConditions(
                 startDate, endDate, productId, supplierId, pageable);
         return new PageResult<>(inboundPage.getTotalElements(), inboundPage.getContent());
     }
@@ -221,7 +365,7 @@ public class InboundService {
 
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
+    @CacheEvict(value = "inbounds", allEntries = true)
     public void deleteInbound(Integer id) {
         if (id == null) {
             throw new RuntimeException("入库单ID不能为空");
@@ -229,39 +373,48 @@ public class InboundService {
         Inbound inbound = inboundRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("入库单不存在"));
 
-        // 恢复库存
+        // 恢复库存：只有审批通过的入库单才实际入过库
         Product product = inbound.getProduct();
-        if (product != null) {
-            product.setStockQty(product.getStockQty() - inbound.getQuantity());
-            productRepository.save(product);
+        if (product != null && inbound.getApprovalStatus() == ApprovalStatus.APPROVED) {
+            if (stockMutationService.tryDecreaseStock(product.getId(), inbound.getQuantity(),
+                    StockMovementType.INBOUND_REVERSAL, inbound.getId()) == null) {
+                throw new RuntimeException("库存不足，无法删除该入库单");
+            }
+            if (inbound.getLocation() != null) {
+                locationStockService.decreaseStock(inbound.getLocation().getId(), product.getId(),
+                        inbound.getQuantity());
+            }
         }
 
         inboundRepository.deleteById(id);
     }
 
     /**
-     * 导出入库记录到Excel
+     * 导出入库记录到Excel，按ID分批读取并流式写入输出流
      */
-    public byte[] exportToExcel(LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        List<Inbound> inbounds;
-        if (startDate != null && endDate != null) {
-            inbounds = inboundRepository.findByInboundDateBetween(startDate, endDate);
-        } else {
-            inbounds = inboundRepository.findAll();
-        }
+    public void exportToExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream)
+            throws IOException {
+        // 起止时间都指定时才按时间过滤
+        boolean ranged = startDate != null && endDate != null;
+        LocalDateTime from = ranged ? startDate : null;
+        LocalDateTime to = ranged ? endDate : null;
+        Pageable batch = PageRequest.of(0, exportBatchSize);
+        Iterator<MovementExportRowDTO> rows = new BatchIterator<>(exportBatchSize,
+                last -> inboundRepository.findExportRowsAfter(last != null ? last.getId() : 0, from, to, batch));
 
         String[] headers = {"入库单号", "商品编号", "商品名称", "入库数量", "供应商", "入库日期", "操作员", "备注"};
 
-        return ExcelUtil.exportExcel(inbounds, headers,
-                Inbound::getInboundNo,
-                i -> i.getProduct() != null ? i.getProduct().getCode() : "",
-                i -> i.getProduct() != null ? i.getProduct().getName() : "",
-                Inbound::getQuantity,
-                i -> i.getSupplier() != null ? i.getSupplier().getName() : "",
-                Inbound::getInboundDate,
-                i -> i.getOperator() != null ? i.getOperator().getUsername() : "",
+        int count = ExcelUtil.exportExcel(rows, headers, outputStream,
+                MovementExportRowDTO::getDocumentNo,
+                i -> i.getProductCode() != null ? i.getProductCode() : "",
+                i -> i.getProductName() != null ? i.getProductName() : "",
+                MovementExportRowDTO::getQuantity,
+                i -> i.getPartnerName() != null ? i.getPartnerName() : "",
+                MovementExportRowDTO::getDate,
+                i -> i.getOperatorName() != null ? i.getOperatorName() : "",
                 i -> i.getRemark() != null ? i.getRemark() : ""
         );
+        logger.info("导出入库记录{}条", count);
     }
 }
 
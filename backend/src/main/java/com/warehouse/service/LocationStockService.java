@@ -0,0 +1,69 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.LocationStock;
+import com.warehouse.entity.WarehouseLocation;
+import com.warehouse.repository.LocationStockRepository;
+import com.warehouse.repository.WarehouseLocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 库位库存服务。与商品总库存在同一事务内按增量更新，不重新汇总。
+ */
+@Service
+public class LocationStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationStockService.class);
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private WarehouseLocationRepository warehouseLocationRepository;
+
+    /**
+     * 增加库位库存（入库上架）
+     */
+    @Transactional
+    public void increaseStock(Integer locationId, Integer productId, Integer quantity) {
+        WarehouseLocation location = warehouseLocationRepository.findActiveById(locationId)
+                .orElseThrow(() -> new RuntimeException("库位不存在"));
+        if (!location.isAvailable()) {
+            throw new RuntimeException("库位 " + location.getFullLocation() + " 已禁用");
+        }
+        locationStockRepository.increaseStock(locationId, productId, quantity);
+        logger.debug("库位库存增加：库位ID={}, 商品ID={}, 数量={}", locationId, productId, quantity);
+    }
+
+    /**
+     * 退回库位库存（撤销出库），不校验库位状态
+     */
+    @Transactional
+    public void returnStock(Integer locationId, Integer productId, Integer quantity) {
+        locationStockRepository.increaseStock(locationId, productId, quantity);
+    }
+
+    /**
+     * 扣减库位库存（出库拣货），库位上数量不足时抛出异常
+     */
+    @Transactional
+    public void decreaseStock(Integer locationId, Integer productId, Integer quantity) {
+        if (locationStockRepository.decreaseStockIfSufficient(locationId, productId, quantity) == 0) {
+            throw new RuntimeException("库位库存不足");
+        }
+        logger.debug("库位库存扣减：库位ID={}, 商品ID={}, 数量={}", locationId, productId, quantity);
+    }
+
+    public List<LocationStock> getStocksByLocation(Integer locationId) {
+        return locationStockRepository.findByLocationId(locationId);
+    }
+
+    public List<LocationStock> getStocksByProduct(Integer productId) {
+        return locationStockRepository.findByProductId(productId);
+    }
+}
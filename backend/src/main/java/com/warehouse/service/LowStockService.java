@@ -0,0 +1,64 @@
+package com.warehouse.service;
+
+import com.warehouse.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 低库存集合维护：库存变更时判断是否跨越最低库存阈值，
+ * 只在商品进入或离开低库存集合时更新标记并推送预警，查询时直接读取标记。
+ */
+@Service
+public class LowStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    /**
+     * 在库存变更的同一事务中调用（商品行已被本事务锁定）
+     * @param level 变更后的库存水位
+     */
+    public void onStockChanged(Integer productId, ProductRepository.StockLevel level) {
+        // 未设置最低库存的商品不计为低库存（与原库存预警查询一致）
+        boolean low = level.getMinStock() != null && level.getStockQty() <= level.getMinStock();
+        if (Boolean.TRUE.equals(level.getLowStock()) == low) {
+            return;
+        }
+
+        productRepository.updateLowStock(productId, low);
+        int stockQty = level.getStockQty();
+        int minStock = level.getMinStock() != null ? level.getMinStock() : 0;
+        logger.debug("商品{}低库存集合：商品ID={}, 库存={}, 最低库存={}", low ? "进入" : "离开", productId, stockQty, minStock);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    webSocketService.notifyLowStockChange(productId, stockQty, minStock, low);
+                }
+            });
+        }
+    }
+
+    /**
+     * 启动时校正全部商品的低库存标记（兼容新增字段前的历史数据）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildLowStockFlags() {
+        int updated = productRepository.rebuildLowStockFlags();
+        logger.info("低库存标记校正完成，更新商品数={}", updated);
+    }
+}
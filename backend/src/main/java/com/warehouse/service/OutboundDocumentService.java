@@ -0,0 +1,126 @@
+package com.warehouse.service;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.entity.OutboundDocument;
+import com.warehouse.entity.OutboundDocumentLine;
+import com.warehouse.entity.User;
+import com.warehouse.enums.ApprovalStatus;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.OutboundDocumentLineRepository;
+import com.warehouse.repository.OutboundDocumentRepository;
+import com.warehouse.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多行出库单服务：单据创建、审批与出库在同一事务内完成，
+ * 明细批量插入，库存按商品合并后每个商品只更新一次。
+ */
+@Service
+public class OutboundDocumentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundDocumentService.class);
+
+    @Autowired
+    private OutboundDocumentRepository outboundDocumentRepository;
+
+    @Autowired
+    private OutboundDocumentLineRepository outboundDocumentLineRepository;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Transactional
+    public OutboundDocument createOutboundDocument(OutboundDocument document) {
+        List<OutboundDocumentLine> lines = document.getLines();
+        if (lines == null || lines.isEmpty()) {
+            throw new RuntimeException("出库明细不能为空");
+        }
+
+        // 校验明细并按商品合并数量
+        Map<Integer, Integer> quantityByProduct = new HashMap<>();
+        int totalQuantity = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            OutboundDocumentLine line = lines.get(i);
+            if (line.getProductId() == null && line.getProduct() != null) {
+                line.setProductId(line.getProduct().getId());
+            }
+            if (line.getProductId() == null) {
+                throw new RuntimeException("第" + (i + 1) + "行：商品ID不能为空");
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new RuntimeException("第" + (i + 1) + "行：数量必须大于0");
+            }
+            line.setProduct(null);
+            line.setLineNo(i + 1);
+            quantityByProduct.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+            totalQuantity += line.getQuantity();
+        }
+
+        // 处理客户：如果 customer 为空对象（只有实例但没有 ID），则设为 null
+        if (document.getCustomer() != null && document.getCustomer().getId() == null) {
+            document.setCustomer(null);
+        }
+
+        // 操作员即审批人：单据创建时直接审批通过
+        User operator = null;
+        Integer currentUserId = UserContext.getCurrentUserId();
+        if (currentUserId != null && currentUserId > 0) {
+            operator = new User();
+            operator.setId(currentUserId);
+        }
+        document.setOperator(operator);
+        document.setApprover(operator);
+        document.setApprovalStatus(ApprovalStatus.APPROVED);
+        document.setApprovalTime(LocalDateTime.now());
+
+        document.setDocumentNo(documentNumberService.nextNumber("OUTD"));
+        document.setLineCount(lines.size());
+        document.setTotalQuantity(totalQuantity);
+
+        OutboundDocument saved = outboundDocumentRepository.save(document);
+
+        // 明细批量插入（在下一次库存更新前统一flush）
+        for (OutboundDocumentLine line : lines) {
+            line.setDocumentId(saved.getId());
+        }
+        outboundDocumentLineRepository.saveAll(lines);
+
+        // 每个商品一次合并后的条件扣减，任一商品库存不足则整张单据回滚
+        stockMutationService.decreaseStockBatch(quantityByProduct, StockMovementType.OUTBOUND_DOCUMENT, saved.getId());
+
+        saved.setLines(lines);
+        logger.info("多行出库单 {} 已创建并出库：明细{}行，涉及商品{}个，总数量{}",
+                saved.getDocumentNo(), lines.size(), quantityByProduct.size(), totalQuantity);
+        return saved;
+    }
+
+    public PageResult<OutboundDocument> getOutboundDocuments(LocalDateTime startDate, LocalDateTime endDate,
+                                                             Integer customerId, Integer page, Integer size) {
+        Pageable pageable = PageRequest.of(page - 1, size);
+        Page<OutboundDocument> documentPage = outboundDocumentRepository.findActiveByConditions(
+                startDate, endDate, customerId, pageable);
+        return new PageResult<>(documentPage.getTotalElements(), documentPage.getContent());
+    }
+
+    public OutboundDocument getOutboundDocumentById(Integer id) {
+        OutboundDocument document = outboundDocumentRepository.findActiveById(id)
+                .orElseThrow(() -> new RuntimeException("出库单不存在"));
+        document.setLines(outboundDocumentLineRepository.findByDocumentIdOrderByLineNo(id));
+        return document;
+    }
+}
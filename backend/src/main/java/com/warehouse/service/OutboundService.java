@@ -1,14 +1,24 @@
 package com.warehouse.service;
 
 import com.warehouse.common.PageResult;
+import com.warehouse.dto.MovementExportRowDTO;
+import com.warehouse.dto.OutboundListDTO;
+import com.warehouse.entity.ApprovalRecord;
 import com.warehouse.entity.Outbound;
-import com.warehouse.entity.Product;
+import com.warehouse.entity.StockReservation;
 import com.warehouse.entity.User;
+import com.warehouse.enums.ApprovalStatus;
+import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.StockMovementType;
 import com.warehouse.repository.OutboundRepository;
-import com.warehouse.repository.ProductRepository;
+import com.warehouse.util.BatchIterator;
 import com.warehouse.util.ExcelUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,39 +28,166 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.UUID;
+import java.util.Iterator;
 import java.util.function.Function;
 
 /**
  * 出库业务服务，负责出库单管理与库存扣减。
+ * 待审批出库单只预留库存，审批通过时才实际扣减。
  */
 @Service
 public class OutboundService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundService.class);
+
+    // Excel导出每批读取的行数
+    @Value("${app.export.batch-size:1000}")
+    private int exportBatchSize = 1000;
+
     @Autowired
     private OutboundRepository outboundRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private UserService userService;
+
+    @Autowired
+    private StockMutationService stockMutationService;
 
     @Autowired
-    private UserService userService;
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private LocationStockService locationStockService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ApprovalService approvalService;
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
+    @CacheEvict(value = "outbounds", allEntries = true)
     public Outbound createOutbound(Outbound outbound) {
-        Product product = productRepository.findById(outbound.getProduct().getId())
-                .orElseThrow(() -> new RuntimeException("商品不存在"));
+        Outbound saved = outboundRepository.save(prepareOutbound(outbound));
+
+        // 条件扣减库存（库存不足时抛出异常，整个出库事务回滚）
+        stockMutationService.decreaseStock(saved.getProduct().getId(), saved.getQuantity(),
+                StockMovementType.OUTBOUND, saved.getId());
+        if (saved.getLocation() != null) {
+            locationStockService.decreaseStock(saved.getLocation().getId(), saved.getProduct().getId(),
+                    saved.getQuantity());
+        }
+
+        return saved;
+    }
+
+    /**
+     * 创建待审批出库单：不扣减库存，只预留可用库存并提交审批，审批通过时才实际出库
+     */
+    @Transactional
+    @CacheEvict(value = "outbounds", allEntries = true)
+    public Outbound createPendingOutbound(Outbound outbound) {
+        prepareOutbound(outbound);
+        outbound.setApprovalStatus(ApprovalStatus.PENDING);
+        Outbound saved = outboundRepository.save(outbound);
+
+        // 预留库存（可用库存不足时抛出异常，整个事务回滚）
+        stockReservationService.reserve(saved.getProduct().getId(), saved.getQuantity(),
+                BusinessType.OUTBOUND, saved.getId());
+        approvalService.submitForApproval(saved.getId(), BusinessType.OUTBOUND, saved.getRemark());
+
+        logger.info("出库单 {} 已预留库存并提交审批", saved.getOutboundNo());
+        return saved;
+    }
 
-        if (product.getStockQty() < outbound.getQuantity()) {
+    /**
+     * 审批通过出库单：消耗预留并实际扣减库存。
+     * 预留已过期时按当前可用库存扣减，不足则审批失败。
+     */
+    @Transactional
+    @CacheEvict(value = "outbounds", allEntries = true)
+    public void approveOutbound(Integer outboundId, String approvalRemark) {
+        Outbound outbound = findPendingOutbound(outboundId);
+
+        ApprovalRecord approvalRecord = approvalService.approve(outboundId, BusinessType.OUTBOUND, approvalRemark);
+        outbound.setApprovalStatus(ApprovalStatus.APPROVED);
+        outbound.setApprover(approvalRecord.getApprover());
+        outbound.setApprovalTime(approvalRecord.getApprovalTime());
+        outbound.setApprovalRemark(approvalRecord.getApprovalRemark());
+
+        Integer productId = outbound.getProduct().getId();
+        StockReservation reservation = stockReservationService.findActive(BusinessType.OUTBOUND, outboundId);
+        if (stockMutationService.tryDecreaseStock(productId, outbound.getQuantity(),
+                StockMovementType.OUTBOUND, outboundId, reservation) == null) {
             throw new RuntimeException("库存不足");
         }
+        if (outbound.getLocation() != null) {
+            locationStockService.decreaseStock(outbound.getLocation().getId(), productId, outbound.getQuantity());
+        }
+        if (reservation != null) {
+            stockReservationService.consume(reservation);
+        }
+
+        outboundRepository.save(outbound);
+
+        logger.info("出库单 {} 审批通过并已执行出库", outboundId);
+    }
+
+    /**
+     * 审批拒绝出库单，释放预留
+     */
+    @Transactional
+    @CacheEvict(value = "outbounds", allEntries = true)
+    public void rejectOutbound(Integer outboundId, String approvalRemark) {
+        Outbound outbound = findPendingOutbound(outboundId);
+
+        ApprovalRecord approvalRecord = approvalService.reject(outboundId, BusinessType.OUTBOUND, approvalRemark);
+        outbound.setApprovalStatus(ApprovalStatus.REJECTED);
+        outbound.setApprover(approvalRecord.getApprover());
+        outbound.setApprovalTime(approvalRecord.getApprovalTime());
+        outbound.setApprovalRemark(approvalRecord.getApprovalRemark());
+        stockReservationService.release(BusinessType.OUTBOUND, outboundId);
+
+        outboundRepository.save(outbound);
+
+        logger.info("出库单 {} 审批拒绝", outboundId);
+    }
+
+    /**
+     * 取消出库审批，释放预留
+     */
+    @Transactional
+    @CacheEvict(value = "outbounds", allEntries = true)
+    public void cancelOutboundApproval(Integer outboundId, String remark) {
+        Outbound outbound = findPendingOutbound(outboundId);
+
+        approvalService.cancel(outboundId, BusinessType.OUTBOUND, remark);
+        outbound.setApprovalStatus(ApprovalStatus.CANCELLED);
+        stockReservationService.release(BusinessType.OUTBOUND, outboundId);
+
+        outboundRepository.save(outbound);
+
+        logger.info("出库单 {} 取消审批", outboundId);
+    }
+
+    private Outbound findPendingOutbound(Integer outboundId) {
+        Outbound outbound = outboundRepository.findById(outboundId)
+                .orElseThrow(() -> new RuntimeException("出库单不存在"));
+        if (outbound.getApprovalStatus() != ApprovalStatus.PENDING) {
+            throw new RuntimeException("只有待审批状态的出库单可以审批");
+        }
+        return outbound;
+    }
+
+    private Outbound prepareOutbound(Outbound outbound) {
+        if (outbound.getProduct() == null) {
+            throw new RuntimeException("商品信息不能为空");
+        }
 
         // 生成出库单号
-        String outboundNo = "OUT" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss")) +
-                           UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String outboundNo = documentNumberService.nextNumber("OUT");
         outbound.setOutboundNo(outboundNo);
 
         // 处理操作员信息 - 从当前登录用户获取，避免前端传入空对象导致Hibernate错误
@@ -62,18 +199,22 @@ public class OutboundService {
             outbound.setOperator(null);
         }
 
-        // 更新商品库存
-        product.setStockQty(product.getStockQty() - outbound.getQuantity());
-        productRepository.save(product);
-
-        return outboundRepository.save(outbound);
+        // 库位可选：前端传入空对象时设为null
+        if (outbound.getLocation() != null && outbound.getLocation().getId() == null) {
+            outbound.setLocation(null);
+        }
+        return outbound;
     }
 
-    public PageResult<Outbound> getOutbounds(LocalDateTime startDate, LocalDateTime endDate,
-                                             Integer productId, Integer customerId,
-                                             Integer page, Integer size) {
+    /**
+     * 出库列表：缓存列表投影，任一出库单变更时清空
+     */
+    @Cacheable(value = "outbounds", keyGenerator = "cacheKeyGenerator", condition = "#size <= 100")
+    public PageResult<OutboundListDTO> getOutbounds(LocalDateTime startDate, LocalDateTime endDate,
+                                                    Integer productId, Integer customerId,
+                                                    Integer page, Integer size) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Outbound> outboundPage = outboundRepository.findActiveByConditions(
+        Page<OutboundListDTO> outboundPage = outboundRepository.findActiveListByConditions(
                 startDate, endDate, productId, customerId, pageable);
         return new PageResult<>(outboundPage.getTotalElements(), outboundPage.getContent());
     }
@@ -84,42 +225,54 @@ public class OutboundService {
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
+    @CacheEvict(value = "outbounds", allEntries = true)
     public void deleteOutbound(Integer id) {
         Outbound outbound = outboundRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("出库单不存在"));
 
-        // 恢复库存
-        Product product = outbound.getProduct();
-        product.setStockQty(product.getStockQty() + outbound.getQuantity());
-        productRepository.save(product);
+        ApprovalStatus status = outbound.getApprovalStatus();
+        if (status == ApprovalStatus.PENDING) {
+            // 待审批的出库单尚未扣减库存，只需释放预留
+            stockReservationService.release(BusinessType.OUTBOUND, outbound.getId());
+        } else if (status != ApprovalStatus.REJECTED && status != ApprovalStatus.CANCELLED) {
+            // 恢复库存
+            stockMutationService.increaseStock(outbound.getProduct().getId(), outbound.getQuantity(),
+                    StockMovementType.OUTBOUND_REVERSAL, outbound.getId());
+            if (outbound.getLocation() != null) {
+                locationStockService.returnStock(outbound.getLocation().getId(), outbound.getProduct().getId(),
+                        outbound.getQuantity());
+            }
+        }
 
         outboundRepository.deleteById(id);
     }
 
     /**
-     * 导出出库记录到Excel
+     * 导出出库记录到Excel，按ID分批读取并流式写入输出流
      */
-    public byte[] exportToExcel(LocalDateTime startDate, LocalDateTime endDate) throws IOException {
-        List<Outbound> outbounds;
-        if (startDate != null && endDate != null) {
-            outbounds = outboundRepository.findByOutboundDateBetween(startDate, endDate);
-        } else {
-            outbounds = outboundRepository.findAll();
-        }
+    public void exportToExcel(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream)
+            throws IOException {
+        // 起止时间都指定时才按时间过滤
+        boolean ranged = startDate != null && endDate != null;
+        LocalDateTime from = ranged ? startDate : null;
+        LocalDateTime to = ranged ? endDate : null;
+        Pageable batch = PageRequest.of(0, exportBatchSize);
+        Iterator<MovementExportRowDTO> rows = new BatchIterator<>(exportBatchSize,
+                last -> outboundRepository.findExportRowsAfter(last != null ? last.getId() : 0, from, to, batch));
 
         String[] headers = {"出库单号", "商品编号", "商品名称", "出库数量", "客户", "出库日期", "操作员", "备注"};
 
-        return ExcelUtil.exportExcel(outbounds, headers,
-                Outbound::getOutboundNo,
-                o -> o.getProduct() != null ? o.getProduct().getCode() : "",
-                o -> o.getProduct() != null ? o.getProduct().getName() : "",
-                Outbound::getQuantity,
-                o -> o.getCustomer() != null ? o.getCustomer().getName() : "",
-                Outbound::getOutboundDate,
-                o -> o.getOperator() != null ? o.getOperator().getUsername() : "",
+        int count = ExcelUtil.exportExcel(rows, headers, outputStream,
+                MovementExportRowDTO::getDocumentNo,
+                o -> o.getProductCode() != null ? o.getProductCode() : "",
+                o -> o.getProductName() != null ? o.getProductName() : "",
+                MovementExportRowDTO::getQuantity,
+                o -> o.getPartnerName() != null ? o.getPartnerName() : "",
+                MovementExportRowDTO::getDate,
+                o -> o.getOperatorName() != null ? o.getOperatorName() : "",
                 o -> o.getRemark() != null ? o.getRemark() : ""
         );
+        logger.info("导出出库记录{}条", count);
     }
 }
 
@@ -0,0 +1,172 @@
+package com.warehouse.service;
+
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 商品编号过滤器：内存布隆过滤器记录已存在的商品编号，判定不存在的编号无需查询数据库。
+ * 启动后与定时从数据库重建，新建、修改编号时写入并广播给其他节点；
+ * 逻辑删除的商品仍占用编号唯一约束，删除时不移出。未完成首次重建前所有编号都视为可能存在。
+ */
+@Service
+public class ProductCodeFilter implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCodeFilter.class);
+
+    public static final String CODE_CHANNEL = "warehouse:product:codes";
+
+    // 单条广播最多携带的编号数
+    private static final int PUBLISH_BATCH = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired(required = false)
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired(required = false)
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.product-code-filter.min-capacity:10000}")
+    private long minCapacity;
+
+    @Value("${app.product-code-filter.fpp:0.01}")
+    private double fpp;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile BloomFilter filter;
+
+    // 重建期间同时写入新过滤器，避免重建查询之后新增的编号丢失
+    private volatile BloomFilter building;
+
+    @PostConstruct
+    public void init() {
+        if (listenerContainer != null) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CODE_CHANNEL));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * 定时重建：补上丢失的广播，并在编号数超出容量时按新容量扩容
+     */
+    @Scheduled(fixedDelayString = "${app.product-code-filter.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.product-code-filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            // 按当前编号数的两倍预留容量，留出重建间隔内新增的余量
+            BloomFilter next = new BloomFilter(Math.max(minCapacity, productRepository.count() * 2), fpp);
+            building = next;
+            List<String> codes = productRepository.findAllCodes();
+            for (String code : codes) {
+                if (code != null) {
+                    next.put(code);
+                }
+            }
+            filter = next;
+            logger.info("商品编号过滤器重建完成：{}个编号，容量{}，耗时{}ms",
+                    codes.size(), next.getExpectedInsertions(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // 保留旧过滤器；首次重建失败时所有编号仍走数据库校验
+            logger.warn("商品编号过滤器重建失败：{}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 编号是否可能已存在；返回false时一定不存在，可以跳过数据库校验
+     */
+    public boolean mightContain(String code) {
+        BloomFilter current = filter;
+        return current == null || code == null || current.mightContain(code);
+    }
+
+    /**
+     * 记录新增或修改后的编号，并通知其他节点
+     */
+    public void add(String code) {
+        addAll(Collections.singletonList(code));
+    }
+
+    public void addAll(Collection<String> codes) {
+        List<String> added = new ArrayList<>(codes.size());
+        for (String code : codes) {
+            if (code != null) {
+                putLocal(code);
+                added.add(code);
+            }
+        }
+        for (int from = 0; from < added.size(); from += PUBLISH_BATCH) {
+            publish(added.subList(from, Math.min(added.size(), from + PUBLISH_BATCH)));
+        }
+    }
+
+    /**
+     * 过滤器是否已完成首次重建
+     */
+    public boolean isReady() {
+        return filter != null;
+    }
+
+    private void putLocal(String code) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(code);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(code);
+        }
+    }
+
+    private void publish(List<String> codes) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CODE_CHANNEL, nodeId + "\n" + String.join("\n", codes));
+        } catch (Exception e) {
+            // 其他节点最迟在下次定时重建后包含这些编号，期间由数据库唯一约束兜底
+            logger.warn("商品编号广播发送失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        for (int i = 1; i < parts.length; i++) {
+            putLocal(parts[i]);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.warehouse.service;
 
+import com.warehouse.cache.ProductCacheInvalidator;
 import com.warehouse.common.PageResult;
+import com.warehouse.dto.ProductExportRowDTO;
+import com.warehouse.dto.ProductListDTO;
 import com.warehouse.entity.Category;
 import com.warehouse.entity.Product;
 import com.warehouse.entity.Supplier;
@@ -9,10 +12,12 @@ import com.warehouse.repository.CategoryRepository;
 import com.warehouse.repository.ProductRepository;
 import com.warehouse.repository.SupplierRepository;
 import com.warehouse.util.UserContext;
+import com.warehouse.util.BatchIterator;
 import com.warehouse.util.ExcelUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -23,14 +28,19 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -43,6 +53,10 @@ public class ProductService extends BaseService<Product, Integer> {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    // Excel导出每批读取的行数
+    @Value("${app.export.batch-size:1000}")
+    private int exportBatchSize = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
@@ -52,6 +66,12 @@ public class ProductService extends BaseService<Product, Integer> {
     @Autowired
     private SupplierRepository supplierRepository;
 
+    @Autowired
+    private ProductCacheInvalidator productCacheInvalidator;
+
+    @Autowired
+    private ProductCodeFilter productCodeFilter;
+
     @Override
     protected BaseRepository<Product, Integer> getRepository() {
         return productRepository;
@@ -65,12 +85,16 @@ public class ProductService extends BaseService<Product, Integer> {
         }
     }
 
-    @Cacheable(value = "products", keyGenerator = "cacheKeyGenerator", unless = "#result.records.size() > 1000")
-    public PageResult<Product> getProducts(String code, String name, Integer categoryId, Integer status,
-                                           Integer minStockQty, Integer maxStockQty,
-                                           Integer page, Integer size) {
+    /**
+     * 同步读取缓存：同一查询的并发未命中只查询一次数据库；sync模式不支持unless，改为按页大小限制缓存。
+     * 缓存与返回的是列表投影，不含分类、供应商的完整对象与审计字段
+     */
+    @Cacheable(value = "products", keyGenerator = "productPageKeyGenerator", sync = true, condition = "#size <= 1000")
+    public PageResult<ProductListDTO> getProducts(String code, String name, Integer categoryId, Integer status,
+                                                  Integer minStockQty, Integer maxStockQty,
+                                                  Integer page, Integer size) {
         Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Product> productPage = productRepository.findActiveByConditions(
+        Page<ProductListDTO> productPage = productRepository.findActiveListByConditions(
                 code, name, categoryId, status, pageable);
         return new PageResult<>(productPage.getTotalElements(), productPage.getContent());
     }
@@ -81,13 +105,14 @@ public class ProductService extends BaseService<Product, Integer> {
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public Product createProduct(Product product) {
         // 设置用户上下文
         UserContext.setCurrentUserId(getCurrentUserId());
 
         try {
-            if (productRepository.existsActiveByCode(product.getCode())) {
+            // 过滤器判定不存在的编号无需查询数据库
+            if (productCodeFilter.mightContain(product.getCode())
+                    && productRepository.existsActiveByCode(product.getCode())) {
                 throw new RuntimeException("商品编号已存在");
             }
             if (product.getCategory() != null && product.getCategory().getId() != null) {
@@ -98,14 +123,16 @@ public class ProductService extends BaseService<Product, Integer> {
                 product.setSupplier(supplierRepository.findActiveById(product.getSupplier().getId())
                         .orElseThrow(() -> new RuntimeException("供应商不存在")));
             }
-            return create(product); // 使用BaseService的create方法，自动设置审计字段
+            Product created = create(product); // 使用BaseService的create方法，自动设置审计字段
+            productCodeFilter.add(created.getCode());
+            productCacheInvalidator.evictProductScope(created.getId(), categoryIdOf(created));
+            return created;
         } finally {
             UserContext.clear();
         }
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public Product updateProduct(Integer id, Product product) {
         UserContext.setCurrentUserId(getCurrentUserId());
 
@@ -114,6 +141,7 @@ public class ProductService extends BaseService<Product, Integer> {
                     .orElseThrow(() -> new RuntimeException("商品不存在"));
 
             if (!existingProduct.getCode().equals(product.getCode()) &&
+                productCodeFilter.mightContain(product.getCode()) &&
                 productRepository.existsActiveByCode(product.getCode())) {
                 throw new RuntimeException("商品编号已存在");
             }
@@ -129,6 +157,12 @@ public class ProductService extends BaseService<Product, Integer> {
                     id, existingProduct.getVersion());
             }
 
+            // 记录影响查询结果成员的字段，用于确定缓存失效范围
+            Integer oldCategoryId = categoryIdOf(existingProduct);
+            boolean scopeChanged = !Objects.equals(existingProduct.getCode(), product.getCode())
+                    || !Objects.equals(existingProduct.getName(), product.getName())
+                    || !Objects.equals(existingProduct.getStatus(), product.getStatus());
+
             existingProduct.setName(product.getName());
             existingProduct.setCode(product.getCode());
             existingProduct.setPrice(product.getPrice());
@@ -147,72 +181,92 @@ public class ProductService extends BaseService<Product, Integer> {
                         .orElseThrow(() -> new RuntimeException("供应商不存在")));
             }
 
-            return update(existingProduct); // 使用BaseService的update方法
+            Product updated = update(existingProduct); // 使用BaseService的update方法
+            productCodeFilter.add(updated.getCode());
+            // 最低库存可能变化，按当前库存重新计算低库存标记
+            productRepository.refreshLowStock(id);
+
+            Integer newCategoryId = categoryIdOf(updated);
+            if (scopeChanged || !Objects.equals(oldCategoryId, newCategoryId)) {
+                productCacheInvalidator.evictProductScope(id, oldCategoryId, newCategoryId);
+            } else {
+                productCacheInvalidator.evictProduct(id);
+            }
+            return updated;
         } finally {
             UserContext.clear();
         }
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public void deleteProduct(Integer id) {
         UserContext.setCurrentUserId(getCurrentUserId());
 
         try {
-            if (!productRepository.existsActiveById(id)) {
-                throw new RuntimeException("商品不存在");
-            }
+            Product product = productRepository.findActiveById(id)
+                    .orElseThrow(() -> new RuntimeException("商品不存在"));
             softDelete(id); // 使用逻辑删除
+            productCacheInvalidator.evictProductScope(id, categoryIdOf(product));
         } finally {
             UserContext.clear();
         }
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public void restoreProduct(Integer id) {
         UserContext.setCurrentUserId(getCurrentUserId());
 
         try {
             restore(id); // 恢复删除的商品
+            productCacheInvalidator.evictProductScope(id,
+                    productRepository.findById(id).map(this::categoryIdOf).orElse(null));
         } finally {
             UserContext.clear();
         }
     }
 
-    @Cacheable(value = "lowStockProducts", unless = "#result.size() > 500")
+    private Integer categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+
+    /**
+     * 低库存商品：读取增量维护的低库存标记，耗时只与预警商品数量相关，无需缓存
+     */
     public List<Product> getLowStockProducts() {
         return productRepository.findActiveLowStockProducts();
     }
 
     /**
-     * 导出商品数据到Excel
+     * 导出商品数据到Excel，按ID分批读取并流式写入输出流
      */
-    public byte[] exportToExcel() throws IOException {
-        List<Product> products = productRepository.findAll();
+    public void exportToExcel(OutputStream outputStream) throws IOException {
+        Pageable batch = PageRequest.of(0, exportBatchSize);
+        Iterator<ProductExportRowDTO> rows = new BatchIterator<>(exportBatchSize,
+                last -> productRepository.findExportRowsAfter(last != null ? last.getId() : 0, batch));
 
         String[] headers = {"商品ID", "商品编号", "商品名称", "分类", "供应商", "单价", "库存数量", "最低库存", "单位", "条形码", "状态"};
 
-        return ExcelUtil.exportExcel(products, headers,
-                Product::getId,
-                Product::getCode,
-                Product::getName,
-                p -> p.getCategory() != null ? p.getCategory().getName() : "",
-                p -> p.getSupplier() != null ? p.getSupplier().getName() : "",
-                Product::getPrice,
-                Product::getStockQty,
-                Product::getMinStock,
-                Product::getUnit,
+        int count = ExcelUtil.exportExcel(rows, headers, outputStream,
+                ProductExportRowDTO::getId,
+                ProductExportRowDTO::getCode,
+                ProductExportRowDTO::getName,
+                p -> p.getCategoryName() != null ? p.getCategoryName() : "",
+                p -> p.getSupplierName() != null ? p.getSupplierName() : "",
+                ProductExportRowDTO::getPrice,
+                ProductExportRowDTO::getStockQty,
+                ProductExportRowDTO::getMinStock,
+                ProductExportRowDTO::getUnit,
                 p -> p.getBarcode() != null ? p.getBarcode() : "",
-                p -> p.getStatus() == 1 ? "启用" : "禁用"
+                p -> Integer.valueOf(1).equals(p.getStatus()) ? "启用" : "禁用"
         );
+        logger.info("导出商品{}条", count);
     }
 
     /**
      * 从Excel导入商品数据
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
+    @CacheEvict(value = "products", allEntries = true)
     public List<String> importFromExcel(MultipartFile file) throws IOException {
         List<String> errors = new ArrayList<>();
 
@@ -299,18 +353,23 @@ public class ProductService extends BaseService<Product, Integer> {
             }
         });
 
-        // 保存商品数据
+        // 保存商品数据：过滤器判定不存在的编号直接保存，只有可能存在的才查询数据库
+        Set<String> savedCodes = new LinkedHashSet<>();
         for (Product product : products) {
             try {
-                if (productRepository.existsByCode(product.getCode())) {
+                if (savedCodes.contains(product.getCode())
+                        || (productCodeFilter.mightContain(product.getCode())
+                            && productRepository.existsByCode(product.getCode()))) {
                     errors.add("商品编号 " + product.getCode() + " 已存在，跳过");
                 } else {
                     productRepository.save(product);
+                    savedCodes.add(product.getCode());
                 }
             } catch (Exception e) {
                 errors.add("商品 " + product.getCode() + " 保存失败：" + e.getMessage());
             }
         }
+        productCodeFilter.addAll(savedCodes);
 
         return errors;
     }
@@ -319,7 +378,6 @@ public class ProductService extends BaseService<Product, Integer> {
      * 上传商品图片
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public String uploadProductImage(Integer productId, MultipartFile file) throws IOException {
         // 检查商品是否存在
         Product product = productRepository.findById(productId)
@@ -358,6 +416,7 @@ public class ProductService extends BaseService<Product, Integer> {
         // 使用原生SQL更新图片URL，避免乐观锁版本号变化
         String imageUrl = "/api/files/products/" + filename;
         productRepository.updateImageUrl(productId, imageUrl);
+        productCacheInvalidator.evictProduct(productId);
 
         logger.info("商品图片更新成功：商品ID={}, 图片URL={}", productId, imageUrl);
 
@@ -368,7 +427,6 @@ public class ProductService extends BaseService<Product, Integer> {
      * 上传商品图片并返回更新后的商品信息（包含最新版本号）
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public Product uploadProductImageWithVersion(Integer productId, MultipartFile file) throws IOException {
         String imageUrl = uploadProductImage(productId, file);
 
@@ -389,7 +447,6 @@ public class ProductService extends BaseService<Product, Integer> {
      * 删除商品图片
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public void deleteProductImage(Integer productId) throws IOException {
         // 检查商品是否存在并获取图片URL
         Product product = productRepository.findById(productId)
@@ -406,6 +463,7 @@ public class ProductService extends BaseService<Product, Integer> {
 
         // 使用原生SQL清空图片URL，避免乐观锁版本号变化
         productRepository.updateImageUrl(productId, null);
+        productCacheInvalidator.evictProduct(productId);
 
         logger.info("商品图片删除成功：商品ID={}", productId);
     }
@@ -414,7 +472,6 @@ public class ProductService extends BaseService<Product, Integer> {
      * 删除商品图片并返回更新后的商品信息（包含最新版本号）
      */
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public Product deleteProductImageWithVersion(Integer productId) throws IOException {
         deleteProductImage(productId);
 
@@ -0,0 +1,324 @@
+package com.warehouse.service;
+
+import com.warehouse.dto.ReportJobDTO;
+import com.warehouse.enums.ReportJobStatus;
+import com.warehouse.enums.ReportType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 报表任务服务：提交后由独立的有界线程池生成PDF到磁盘，客户端轮询状态或通过WebSocket接收进度，
+ * 完成后下载文件。线程池与队列有上限，每个用户同时排队和生成中的任务数受限，报表生成不占用请求线程。
+ * 任务状态保存在本节点内存中，文件在保留时间后删除；重启后未下载的文件一并清理。
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final String FILE_SUFFIX = ".pdf";
+
+    private static final String PART_SUFFIX = ".part";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired(required = false)
+    private WebSocketService webSocketService;
+
+    @Value("${app.report.jobs.workers:2}")
+    private int workers;
+
+    @Value("${app.report.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${app.report.jobs.per-user-limit:2}")
+    private int perUserLimit;
+
+    @Value("${app.report.jobs.storage-dir:${user.dir}/reports}")
+    private String storageDir;
+
+    @Value("${app.report.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    @Value("${app.report.jobs.progress-interval-ms:1000}")
+    private long progressIntervalMs;
+
+    private ThreadPoolExecutor executor;
+
+    private Path storagePath;
+
+    // 任务ID -> 任务
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        storagePath = Paths.get(storageDir).toAbsolutePath().normalize();
+        Files.createDirectories(storagePath);
+        // 任务状态不跨重启保留，上次运行留下的文件无法再下载
+        String leftovers = "*{" + FILE_SUFFIX + "," + PART_SUFFIX + "}";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(storagePath, leftovers)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交报表任务
+     *
+     * @throws RuntimeException 用户任务数达到上限或队列已满
+     */
+    public ReportJobDTO submit(Integer userId, ReportType type, LocalDateTime startDate, LocalDateTime endDate) {
+        if (userId == null) {
+            throw new RuntimeException("用户未登录");
+        }
+        if (type == null) {
+            throw new RuntimeException("报表类型不能为空");
+        }
+        ReportJob job = new ReportJob(UUID.randomUUID().toString().replace("-", ""), userId, type,
+                type.isDateRanged() ? startDate : null, type.isDateRanged() ? endDate : null);
+
+        // 检查与登记需要原子完成，否则同一用户并发提交可能超出上限
+        synchronized (jobs) {
+            long active = jobs.values().stream()
+                    .filter(existing -> userId.equals(existing.userId) && !existing.status.isFinished())
+                    .count();
+            if (active >= perUserLimit) {
+                throw new RuntimeException("同时进行的报表任务最多" + perUserLimit + "个，请等待已提交的任务完成");
+            }
+            jobs.put(job.id, job);
+        }
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new RuntimeException("报表任务队列已满，请稍后再试");
+        }
+        logger.info("用户 {} 提交报表任务 {}：{}", userId, job.id, type.getDescription());
+        notifyProgress(job);
+        return job.toDTO();
+    }
+
+    /**
+     * 查询任务状态，只能查询自己提交的任务
+     */
+    public ReportJobDTO getJob(Integer userId, String jobId) {
+        return findOwnJob(userId, jobId).toDTO();
+    }
+
+    /**
+     * 当前用户的任务，按提交时间倒序
+     */
+    public List<ReportJobDTO> getJobs(Integer userId) {
+        List<ReportJobDTO> result = new ArrayList<>();
+        for (ReportJob job : jobs.values()) {
+            if (job.userId.equals(userId)) {
+                result.add(job.toDTO());
+            }
+        }
+        result.sort(Comparator.comparing(ReportJobDTO::getCreatedAt).reversed());
+        return result;
+    }
+
+    /**
+     * 已完成任务的文件
+     *
+     * @throws RuntimeException 任务未完成或文件已过期
+     */
+    public Path getJobFile(Integer userId, String jobId) {
+        ReportJob job = findOwnJob(userId, jobId);
+        if (job.status != ReportJobStatus.SUCCEEDED) {
+            throw new RuntimeException("报表尚未生成完成");
+        }
+        Path file = job.file;
+        if (file == null || !Files.exists(file)) {
+            throw new RuntimeException("报表文件已过期");
+        }
+        return file;
+    }
+
+    /**
+     * 删除过期的任务与文件
+     */
+    @Scheduled(fixedDelayString = "${app.report.jobs.cleanup-interval-ms:300000}")
+    public void cleanupExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Iterator<ReportJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            ReportJob job = iterator.next();
+            if (job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                iterator.remove();
+                deleteQuietly(job.file);
+                logger.debug("报表任务 {} 已过期，删除文件", job.id);
+            }
+        }
+    }
+
+    private ReportJob findOwnJob(Integer userId, String jobId) {
+        ReportJob job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null || !job.userId.equals(userId)) {
+            throw new RuntimeException("报表任务不存在或已过期");
+        }
+        return job;
+    }
+
+    private void run(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        Path part = storagePath.resolve(job.id + PART_SUFFIX);
+        Path target = storagePath.resolve(job.id + FILE_SUFFIX);
+        try {
+            job.totalRows = reportService.countRows(job.type, job.startDate, job.endDate);
+            notifyProgress(job);
+
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(part))) {
+                reportService.writeReport(job.type, job.startDate, job.endDate, outputStream,
+                        rows -> onProgress(job, rows));
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+
+            job.file = target;
+            job.fileSize = Files.size(target);
+            job.status = ReportJobStatus.SUCCEEDED;
+            logger.info("报表任务 {} 生成完成：{}行，{}字节，耗时{}ms", job.id, job.rowsWritten, job.fileSize,
+                    Duration.between(job.startedAt, LocalDateTime.now()).toMillis());
+        } catch (Exception e) {
+            deleteQuietly(part);
+            job.error = e.getMessage();
+            job.status = ReportJobStatus.FAILED;
+            logger.error("报表任务 {} 生成失败", job.id, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            job.expiresAt = job.finishedAt.plusMinutes(retentionMinutes);
+            notifyProgress(job);
+        }
+    }
+
+    /**
+     * 每批写出后更新进度，WebSocket通知按间隔限流
+     */
+    private void onProgress(ReportJob job, long rowsWritten) {
+        job.rowsWritten = rowsWritten;
+        long now = System.currentTimeMillis();
+        if (now - job.lastNotifiedAt >= progressIntervalMs) {
+            notifyProgress(job);
+        }
+    }
+
+    private void notifyProgress(ReportJob job) {
+        job.lastNotifiedAt = System.currentTimeMillis();
+        if (webSocketService == null) {
+            return;
+        }
+        try {
+            webSocketService.notifyReportJobProgress(job.userId, job.id, job.status.name(),
+                    job.rowsWritten, job.totalRows);
+        } catch (Exception e) {
+            logger.warn("报表任务 {} 进度通知失败：{}", job.id, e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("删除报表文件 {} 失败：{}", file, e.getMessage());
+        }
+    }
+
+    private static class ReportJob {
+        final String id;
+        final Integer userId;
+        final ReportType type;
+        final LocalDateTime startDate;
+        final LocalDateTime endDate;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        volatile long rowsWritten;
+        volatile long totalRows;
+        volatile long lastNotifiedAt;
+        volatile Path file;
+        volatile long fileSize;
+        volatile String error;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+        volatile LocalDateTime expiresAt;
+
+        ReportJob(String id, Integer userId, ReportType type, LocalDateTime startDate, LocalDateTime endDate) {
+            this.id = id;
+            this.userId = userId;
+            this.type = type;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        ReportJobDTO toDTO() {
+            ReportJobDTO dto = new ReportJobDTO();
+            dto.setJobId(id);
+            dto.setType(type);
+            dto.setStatus(status);
+            dto.setStartDate(startDate);
+            dto.setEndDate(endDate);
+            dto.setRowsWritten(rowsWritten);
+            dto.setTotalRows(totalRows);
+            if (status == ReportJobStatus.SUCCEEDED) {
+                dto.setProgress(100);
+            } else if (totalRows > 0) {
+                dto.setProgress((int) Math.min(99, rowsWritten * 100 / totalRows));
+            }
+            dto.setFileSize(fileSize);
+            dto.setError(error);
+            dto.setCreatedAt(createdAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setExpiresAt(expiresAt);
+            return dto;
+        }
+    }
+}
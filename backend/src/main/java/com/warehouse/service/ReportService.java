@@ -2,25 +2,42 @@ package com.warehouse.service;
 
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
-import com.warehouse.entity.Inbound;
-import com.warehouse.entity.Outbound;
-import com.warehouse.entity.Product;
+import com.warehouse.common.PageResult;
+import com.warehouse.dto.DailyStockRollupDTO;
+import com.warehouse.dto.MovementReportRowDTO;
+import com.warehouse.dto.MovementSummaryDTO;
+import com.warehouse.dto.StockReportRowDTO;
+import com.warehouse.enums.ReportGroupBy;
+import com.warehouse.enums.ReportType;
+import com.warehouse.repository.DailyMovementTotal;
+import com.warehouse.repository.DailyStockRollupRepository;
 import com.warehouse.repository.InboundRepository;
 import com.warehouse.repository.OutboundRepository;
 import com.warehouse.repository.ProductRepository;
 import com.warehouse.util.PdfUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
 
 /**
- * 报表服务，负责生成各类PDF报表
+ * 报表服务，负责生成各类PDF报表。
+ * 报表数据按ID分批读取为投影行，每批写入后即从表格中释放，PDF直接写入调用方的输出流，
+ * 内存占用与报表行数无关。
  */
 @Service
 public class ReportService {
@@ -34,28 +51,102 @@ public class ReportService {
     @Autowired
     private OutboundRepository outboundRepository;
 
+    @Autowired
+    private DailyStockRollupRepository dailyStockRollupRepository;
+
+    // 每批读取并写出的行数
+    @Value("${app.report.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.stock.rollup.max-range-days:366}")
+    private int maxRollupRangeDays = 366;
+
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final LongConsumer NO_PROGRESS = rows -> { };
+
+    /**
+     * 生成库存报表PDF并写入输出流
+     */
+    public void writeStockReport(OutputStream outputStream) throws DocumentException {
+        writeStockReport(outputStream, NO_PROGRESS);
+    }
+
+    /**
+     * 生成入库统计报表PDF并写入输出流
+     */
+    public void writeInboundReport(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream)
+            throws DocumentException {
+        writeInboundReport(startDate, endDate, outputStream, NO_PROGRESS);
+    }
+
+    /**
+     * 生成出库统计报表PDF并写入输出流
+     */
+    public void writeOutboundReport(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream)
+            throws DocumentException {
+        writeOutboundReport(startDate, endDate, outputStream, NO_PROGRESS);
+    }
+
+    /**
+     * 生成低库存报表PDF并写入输出流
+     */
+    public void writeLowStockReport(OutputStream outputStream) throws DocumentException {
+        writeLowStockReport(outputStream, NO_PROGRESS);
+    }
 
     /**
-     * 生成库存报表PDF
+     * 生成指定类型的报表并写入输出流，每写出一批后以已写出的行数回调 progress
      */
-    public byte[] generateStockReport() throws DocumentException, IOException {
-        return PdfUtil.generatePdf(document -> {
+    public void writeReport(ReportType type, LocalDateTime startDate, LocalDateTime endDate,
+                            OutputStream outputStream, LongConsumer progress) throws DocumentException {
+        switch (type) {
+            case STOCK:
+                writeStockReport(outputStream, progress);
+                break;
+            case INBOUND:
+                writeInboundReport(startDate, endDate, outputStream, progress);
+                break;
+            case OUTBOUND:
+                writeOutboundReport(startDate, endDate, outputStream, progress);
+                break;
+            case LOW_STOCK:
+                writeLowStockReport(outputStream, progress);
+                break;
+            default:
+                throw new RuntimeException("不支持的报表类型：" + type);
+        }
+    }
+
+    /**
+     * 报表的数据行数，用于计算生成进度
+     */
+    public long countRows(ReportType type, LocalDateTime startDate, LocalDateTime endDate) {
+        switch (type) {
+            case STOCK:
+                return productRepository.count();
+            case INBOUND:
+                return inboundRepository.countReportRows(rangeStart(startDate, endDate), rangeEnd(startDate, endDate));
+            case OUTBOUND:
+                return outboundRepository.countReportRows(rangeStart(startDate, endDate), rangeEnd(startDate, endDate));
+            case LOW_STOCK:
+                return productRepository.countActiveLowStockProducts();
+            default:
+                throw new RuntimeException("不支持的报表类型：" + type);
+        }
+    }
+
+    private void writeStockReport(OutputStream outputStream, LongConsumer progress) throws DocumentException {
+        PdfUtil.writePdf(outputStream, document -> {
             // 添加标题
             PdfUtil.addTitle(document, "库存报表");
             PdfUtil.addSubTitle(document, "生成时间：" + LocalDateTime.now().format(DATE_TIME_FORMATTER));
 
-            // 获取所有商品
-            List<Product> products = productRepository.findAll();
-
             // 创建表格
-            PdfPTable table = PdfUtil.createTable(8);
-            try {
-                table.setWidths(new float[]{1, 2, 2, 2, 2, 1.5f, 1.5f, 1.5f});
-            } catch (DocumentException e) {
-                throw new RuntimeException(e);
-            }
+            PdfPTable table = PdfUtil.createStreamingTable(8);
+            table.setWidths(new float[]{1, 2, 2, 2, 2, 1.5f, 1.5f, 1.5f});
 
             // 添加表头
             PdfUtil.addHeaderCell(table, "ID");
@@ -67,33 +158,45 @@ public class ReportService {
             PdfUtil.addHeaderCell(table, "库存");
             PdfUtil.addHeaderCell(table, "最低库存");
 
-            // 添加数据
-            int totalStock = 0;
+            // 分批添加数据
+            long productCount = 0;
+            long totalStock = 0;
             int lowStockCount = 0;
 
-            for (Product product : products) {
-                PdfUtil.addCell(table, String.valueOf(product.getId()));
-                PdfUtil.addCell(table, product.getCode() != null ? product.getCode() : "");
-                PdfUtil.addLeftAlignCell(table, product.getName() != null ? product.getName() : "");
-                PdfUtil.addCell(table, product.getCategory() != null ? product.getCategory().getName() : "");
-                PdfUtil.addCell(table, product.getSupplier() != null ? product.getSupplier().getName() : "");
-                PdfUtil.addCell(table, product.getPrice() != null ? product.getPrice().toString() : "0");
-                PdfUtil.addCell(table, String.valueOf(product.getStockQty() != null ? product.getStockQty() : 0));
-                PdfUtil.addCell(table, String.valueOf(product.getMinStock() != null ? product.getMinStock() : 0));
-
-                totalStock += product.getStockQty() != null ? product.getStockQty() : 0;
-                if (product.getStockQty() != null && product.getMinStock() != null && product.getStockQty() <= product.getMinStock()) {
-                    lowStockCount++;
+            Pageable batch = PageRequest.of(0, batchSize);
+            List<StockReportRowDTO> rows = productRepository.findStockReportRowsAfter(0, batch);
+            while (!rows.isEmpty()) {
+                for (StockReportRowDTO row : rows) {
+                    PdfUtil.addCell(table, String.valueOf(row.getId()));
+                    PdfUtil.addCell(table, row.getCode() != null ? row.getCode() : "");
+                    PdfUtil.addLeftAlignCell(table, row.getName() != null ? row.getName() : "");
+                    PdfUtil.addCell(table, row.getCategoryName() != null ? row.getCategoryName() : "");
+                    PdfUtil.addCell(table, row.getSupplierName() != null ? row.getSupplierName() : "");
+                    PdfUtil.addCell(table, row.getPrice() != null ? row.getPrice().toString() : "0");
+                    PdfUtil.addCell(table, String.valueOf(row.getStockQty() != null ? row.getStockQty() : 0));
+                    PdfUtil.addCell(table, String.valueOf(row.getMinStock() != null ? row.getMinStock() : 0));
+
+                    productCount++;
+                    totalStock += row.getStockQty() != null ? row.getStockQty() : 0;
+                    if (row.getStockQty() != null && row.getMinStock() != null && row.getStockQty() <= row.getMinStock()) {
+                        lowStockCount++;
+                    }
                 }
+                PdfUtil.flushTable(document, table);
+                progress.accept(productCount);
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                rows = productRepository.findStockReportRowsAfter(rows.get(rows.size() - 1).getId(), batch);
             }
 
-            document.add(table);
+            PdfUtil.completeTable(document, table);
 
             // 添加统计信息
             Paragraph summary = new Paragraph("\n统计信息：", PdfUtil.createSubTitleFont());
             document.add(summary);
 
-            Paragraph totalProducts = new Paragraph("商品总数：" + products.size(), PdfUtil.createTableFont());
+            Paragraph totalProducts = new Paragraph("商品总数：" + productCount, PdfUtil.createTableFont());
             totalProducts.setSpacingBefore(10);
             document.add(totalProducts);
 
@@ -105,85 +208,205 @@ public class ReportService {
         });
     }
 
+    private void writeInboundReport(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream,
+                                    LongConsumer progress) throws DocumentException {
+        writeMovementReport(outputStream, progress, "入库", "供应商", startDate, endDate,
+                (afterId, batch) -> inboundRepository.findReportRowsAfter(afterId, rangeStart(startDate, endDate),
+                        rangeEnd(startDate, endDate), batch));
+    }
+
+    private void writeOutboundReport(LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream,
+                                     LongConsumer progress) throws DocumentException {
+        writeMovementReport(outputStream, progress, "出库", "客户", startDate, endDate,
+                (afterId, batch) -> outboundRepository.findReportRowsAfter(afterId, rangeStart(startDate, endDate),
+                        rangeEnd(startDate, endDate), batch));
+    }
+
+    private void writeLowStockReport(OutputStream outputStream, LongConsumer progress) throws DocumentException {
+        PdfUtil.writePdf(outputStream, document -> {
+            // 添加标题
+            PdfUtil.addTitle(document, "低库存预警报表");
+            PdfUtil.addSubTitle(document, "生成时间：" + LocalDateTime.now().format(DATE_TIME_FORMATTER));
+
+            // 创建表格
+            PdfPTable table = PdfUtil.createStreamingTable(7);
+            table.setWidths(new float[]{1, 2, 3, 2, 1.5f, 1.5f, 1.5f});
+
+            // 添加表头
+            PdfUtil.addHeaderCell(table, "ID");
+            PdfUtil.addHeaderCell(table, "商品编号");
+            PdfUtil.addHeaderCell(table, "商品名称");
+            PdfUtil.addHeaderCell(table, "分类");
+            PdfUtil.addHeaderCell(table, "当前库存");
+            PdfUtil.addHeaderCell(table, "最低库存");
+            PdfUtil.addHeaderCell(table, "缺口");
+
+            // 分批添加数据
+            long lowStockCount = 0;
+            long totalGap = 0;
+
+            Pageable batch = PageRequest.of(0, batchSize);
+            List<StockReportRowDTO> rows = productRepository.findLowStockReportRowsAfter(0, batch);
+            while (!rows.isEmpty()) {
+                for (StockReportRowDTO row : rows) {
+                    int stockQty = row.getStockQty() != null ? row.getStockQty() : 0;
+                    int minStock = row.getMinStock() != null ? row.getMinStock() : 0;
+                    int gap = minStock - stockQty;
+
+                    PdfUtil.addCell(table, String.valueOf(row.getId()));
+                    PdfUtil.addCell(table, row.getCode() != null ? row.getCode() : "");
+                    PdfUtil.addLeftAlignCell(table, row.getName() != null ? row.getName() : "");
+                    PdfUtil.addCell(table, row.getCategoryName() != null ? row.getCategoryName() : "");
+                    PdfUtil.addCell(table, String.valueOf(stockQty));
+                    PdfUtil.addCell(table, String.valueOf(minStock));
+                    PdfUtil.addCell(table, String.valueOf(gap));
+
+                    lowStockCount++;
+                    totalGap += gap;
+                }
+                PdfUtil.flushTable(document, table);
+                progress.accept(lowStockCount);
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                rows = productRepository.findLowStockReportRowsAfter(rows.get(rows.size() - 1).getId(), batch);
+            }
+
+            PdfUtil.completeTable(document, table);
+
+            // 添加统计信息
+            Paragraph summary = new Paragraph("\n统计信息：", PdfUtil.createSubTitleFont());
+            document.add(summary);
+
+            Paragraph lowStockCountPara = new Paragraph("低库存商品数：" + lowStockCount, PdfUtil.createTableFont());
+            lowStockCountPara.setSpacingBefore(10);
+            document.add(lowStockCountPara);
+
+            Paragraph totalGapPara = new Paragraph("总缺口量：" + totalGap, PdfUtil.createTableFont());
+            document.add(totalGapPara);
+        });
+    }
+
     /**
-     * 生成入库统计报表PDF
+     * 库存日报：读取每日库存汇总，每个商品每天至多一行，不再汇总原始出入库记录
+     * @param productId 商品ID（可为空，为空时查询全部商品）
      */
-    public byte[] generateInboundReport(LocalDateTime startDate, LocalDateTime endDate) throws DocumentException, IOException {
-        Document document = PdfUtil.createDocument();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        PdfWriter.getInstance(document, outputStream);
-        document.open();
-
-        // 添加标题
-        PdfUtil.addTitle(document, "入库统计报表");
-
-        String dateRange;
-        if (startDate != null && endDate != null) {
-            dateRange = startDate.format(DATE_FORMATTER) + " 至 " + endDate.format(DATE_FORMATTER);
-        } else {
-            dateRange = "全部";
+    public PageResult<DailyStockRollupDTO> getDailyStock(Integer productId, LocalDate startDate, LocalDate endDate,
+                                                         Integer page, Integer size) {
+        if (startDate == null || endDate == null) {
+            throw new RuntimeException("开始日期和结束日期不能为空");
         }
-        PdfUtil.addSubTitle(document, "统计期间：" + dateRange);
-        PdfUtil.addSubTitle(document, "生成时间：" + LocalDateTime.now().format(DATE_TIME_FORMATTER));
-
-        // 获取入库记录
-        List<Inbound> inbounds;
-        if (startDate != null && endDate != null) {
-            inbounds = inboundRepository.findByInboundDateBetween(startDate, endDate);
-        } else {
-            inbounds = inboundRepository.findAll();
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("开始日期不能晚于结束日期");
         }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxRollupRangeDays) {
+            throw new RuntimeException("查询范围不能超过" + maxRollupRangeDays + "天");
+        }
+        Page<DailyStockRollupDTO> rows = dailyStockRollupRepository.findDailyRows(productId, startDate, endDate,
+                PageRequest.of(page - 1, size));
+        return new PageResult<>(rows.getTotalElements(), rows.getContent());
+    }
 
-        // 创建表格
-        PdfPTable table = PdfUtil.createTable(6);
-        table.setWidths(new float[]{2, 2, 3, 1.5f, 2, 3});
-
-        // 添加表头
-        PdfUtil.addHeaderCell(table, "入库单号");
-        PdfUtil.addHeaderCell(table, "商品编号");
-        PdfUtil.addHeaderCell(table, "商品名称");
-        PdfUtil.addHeaderCell(table, "数量");
-        PdfUtil.addHeaderCell(table, "入库日期");
-        PdfUtil.addHeaderCell(table, "供应商");
-
-        // 添加数据
-        int totalQuantity = 0;
-        for (Inbound inbound : inbounds) {
-            PdfUtil.addCell(table, inbound.getInboundNo() != null ? inbound.getInboundNo() : "");
-            PdfUtil.addCell(table, inbound.getProduct() != null ? inbound.getProduct().getCode() : "");
-            PdfUtil.addLeftAlignCell(table, inbound.getProduct() != null ? inbound.getProduct().getName() : "");
-            PdfUtil.addCell(table, String.valueOf(inbound.getQuantity()));
-            PdfUtil.addCell(table, inbound.getInboundDate() != null ? inbound.getInboundDate().format(DATE_FORMATTER) : "");
-            PdfUtil.addCell(table, inbound.getSupplier() != null ? inbound.getSupplier().getName() : "");
-            totalQuantity += inbound.getQuantity();
+    /**
+     * 入库汇总：按商品、供应商或时间段在数据库中分组汇总
+     */
+    public List<MovementSummaryDTO> summarizeInbound(ReportGroupBy groupBy, LocalDateTime startDate,
+                                                     LocalDateTime endDate) {
+        LocalDateTime from = rangeStart(startDate, endDate);
+        LocalDateTime to = rangeEnd(startDate, endDate);
+        switch (groupBy) {
+            case PRODUCT:
+                return inboundRepository.summarizeByProduct(from, to);
+            case PARTNER:
+                return labelUnassigned(inboundRepository.summarizeBySupplier(from, to));
+            default:
+                return rollUp(inboundRepository.summarizeByDay(from, to), groupBy);
         }
+    }
 
-        document.add(table);
+    /**
+     * 出库汇总：按商品、客户或时间段在数据库中分组汇总
+     */
+    public List<MovementSummaryDTO> summarizeOutbound(ReportGroupBy groupBy, LocalDateTime startDate,
+                                                      LocalDateTime endDate) {
+        LocalDateTime from = rangeStart(startDate, endDate);
+        LocalDateTime to = rangeEnd(startDate, endDate);
+        switch (groupBy) {
+            case PRODUCT:
+                return outboundRepository.summarizeByProduct(from, to);
+            case PARTNER:
+                return labelUnassigned(outboundRepository.summarizeByCustomer(from, to));
+            default:
+                return rollUp(outboundRepository.summarizeByDay(from, to), groupBy);
+        }
+    }
 
-        // 添加统计信息
-        Paragraph summary = new Paragraph("\n统计信息：", PdfUtil.createSubTitleFont());
-        document.add(summary);
+    /**
+     * 生成入库汇总报表PDF并写入输出流
+     */
+    public void writeInboundSummaryReport(ReportGroupBy groupBy, LocalDateTime startDate, LocalDateTime endDate,
+                                          OutputStream outputStream) throws DocumentException {
+        writeSummaryReport(outputStream, "入库", "供应商", groupBy, startDate, endDate,
+                summarizeInbound(groupBy, startDate, endDate));
+    }
 
-        Paragraph totalRecords = new Paragraph("入库单数：" + inbounds.size(), PdfUtil.createTableFont());
-        totalRecords.setSpacingBefore(10);
-        document.add(totalRecords);
+    /**
+     * 生成出库汇总报表PDF并写入输出流
+     */
+    public void writeOutboundSummaryReport(ReportGroupBy groupBy, LocalDateTime startDate, LocalDateTime endDate,
+                                           OutputStream outputStream) throws DocumentException {
+        writeSummaryReport(outputStream, "出库", "客户", groupBy, startDate, endDate,
+                summarizeOutbound(groupBy, startDate, endDate));
+    }
 
-        Paragraph totalQty = new Paragraph("入库总量：" + totalQuantity, PdfUtil.createTableFont());
-        document.add(totalQty);
+    /**
+     * 未关联往来单位的记录归为一组
+     */
+    private static List<MovementSummaryDTO> labelUnassigned(List<MovementSummaryDTO> rows) {
+        for (MovementSummaryDTO row : rows) {
+            if (row.getGroupId() == null) {
+                row.setGroupName("未指定");
+            }
+        }
+        return rows;
+    }
 
-        document.close();
-        return outputStream.toByteArray();
+    /**
+     * 按日汇总结果合并为按周（ISO周）或按月，按日时原样转换；按日结果已按日期排序
+     */
+    private static List<MovementSummaryDTO> rollUp(List<DailyMovementTotal> days, ReportGroupBy groupBy) {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (DailyMovementTotal day : days) {
+            LocalDate date = LocalDate.of(day.getPeriodYear(), day.getPeriodMonth(), day.getPeriodDay());
+            String period;
+            if (groupBy == ReportGroupBy.WEEK) {
+                period = String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR),
+                        date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            } else if (groupBy == ReportGroupBy.MONTH) {
+                period = date.format(MONTH_FORMATTER);
+            } else {
+                period = date.format(DATE_FORMATTER);
+            }
+            long[] total = totals.computeIfAbsent(period, key -> new long[2]);
+            total[0] += day.getRecordCount() != null ? day.getRecordCount() : 0;
+            total[1] += day.getTotalQuantity() != null ? day.getTotalQuantity() : 0;
+        }
+        List<MovementSummaryDTO> result = new ArrayList<>(totals.size());
+        totals.forEach((period, total) -> result.add(MovementSummaryDTO.ofPeriod(period, total[0], total[1])));
+        return result;
     }
 
     /**
-     * 生成出库统计报表PDF
+     * 出入库汇总报表的公共部分，每个汇总行一行
      */
-    public byte[] generateOutboundReport(LocalDateTime startDate, LocalDateTime endDate) throws DocumentException, IOException {
-        return PdfUtil.generatePdf(document -> {
+    private void writeSummaryReport(OutputStream outputStream, String type, String partnerTitle,
+                                    ReportGroupBy groupBy, LocalDateTime startDate, LocalDateTime endDate,
+                                    List<MovementSummaryDTO> rows) throws DocumentException {
+        PdfUtil.writePdf(outputStream, document -> {
             // 添加标题
-            PdfUtil.addTitle(document, "出库统计报表");
+            PdfUtil.addTitle(document, type + "汇总报表（" + groupBy.getDescription() + "）");
 
-            String dateRange = "";
+            String dateRange;
             if (startDate != null && endDate != null) {
                 dateRange = startDate.format(DATE_FORMATTER) + " 至 " + endDate.format(DATE_FORMATTER);
             } else {
@@ -192,42 +415,37 @@ public class ReportService {
             PdfUtil.addSubTitle(document, "统计期间：" + dateRange);
             PdfUtil.addSubTitle(document, "生成时间：" + LocalDateTime.now().format(DATE_TIME_FORMATTER));
 
-            // 获取出库记录
-            List<Outbound> outbounds;
-            if (startDate != null && endDate != null) {
-                outbounds = outboundRepository.findByOutboundDateBetween(startDate, endDate);
+            // 创建表格：分组列 + 单数 + 数量
+            PdfPTable table;
+            if (groupBy == ReportGroupBy.PRODUCT) {
+                table = PdfUtil.createTable(4);
+                table.setWidths(new float[]{2, 3, 1.5f, 1.5f});
+                PdfUtil.addHeaderCell(table, "商品编号");
+                PdfUtil.addHeaderCell(table, "商品名称");
             } else {
-                outbounds = outboundRepository.findAll();
-            }
-
-            // 创建表格
-            PdfPTable table = PdfUtil.createTable(6);
-            try {
-                table.setWidths(new float[]{2, 2, 3, 1.5f, 2, 3});
-            } catch (DocumentException e) {
-                throw new RuntimeException(e);
+                table = PdfUtil.createTable(3);
+                table.setWidths(new float[]{4, 1.5f, 1.5f});
+                PdfUtil.addHeaderCell(table, groupBy == ReportGroupBy.PARTNER ? partnerTitle : "时间段");
             }
+            PdfUtil.addHeaderCell(table, type + "单数");
+            PdfUtil.addHeaderCell(table, type + "数量");
+
+            long recordCount = 0;
+            long totalQuantity = 0;
+            for (MovementSummaryDTO row : rows) {
+                if (groupBy == ReportGroupBy.PRODUCT) {
+                    PdfUtil.addCell(table, row.getGroupCode() != null ? row.getGroupCode() : "");
+                    PdfUtil.addLeftAlignCell(table, row.getGroupName() != null ? row.getGroupName() : "");
+                } else if (groupBy == ReportGroupBy.PARTNER) {
+                    PdfUtil.addLeftAlignCell(table, row.getGroupName());
+                } else {
+                    PdfUtil.addCell(table, row.getPeriod());
+                }
+                PdfUtil.addCell(table, String.valueOf(row.getRecordCount()));
+                PdfUtil.addCell(table, String.valueOf(row.getTotalQuantity()));
 
-            // 添加表头
-            PdfUtil.addHeaderCell(table, "出库单号");
-            PdfUtil.addHeaderCell(table, "商品编号");
-            PdfUtil.addHeaderCell(table, "商品名称");
-            PdfUtil.addHeaderCell(table, "数量");
-            PdfUtil.addHeaderCell(table, "出库日期");
-            PdfUtil.addHeaderCell(table, "客户");
-
-            // 添加数据
-            int totalQuantity = 0;
-
-            for (Outbound outbound : outbounds) {
-                PdfUtil.addCell(table, outbound.getOutboundNo() != null ? outbound.getOutboundNo() : "");
-                PdfUtil.addCell(table, outbound.getProduct() != null ? outbound.getProduct().getCode() : "");
-                PdfUtil.addLeftAlignCell(table, outbound.getProduct() != null ? outbound.getProduct().getName() : "");
-                PdfUtil.addCell(table, String.valueOf(outbound.getQuantity()));
-                PdfUtil.addCell(table, outbound.getOutboundDate() != null ? outbound.getOutboundDate().format(DATE_FORMATTER) : "");
-                PdfUtil.addCell(table, outbound.getCustomer() != null ? outbound.getCustomer().getName() : "");
-
-                totalQuantity += outbound.getQuantity();
+                recordCount += row.getRecordCount();
+                totalQuantity += row.getTotalQuantity();
             }
 
             document.add(table);
@@ -236,75 +454,103 @@ public class ReportService {
             Paragraph summary = new Paragraph("\n统计信息：", PdfUtil.createSubTitleFont());
             document.add(summary);
 
-            Paragraph totalRecords = new Paragraph("出库单数：" + outbounds.size(), PdfUtil.createTableFont());
+            Paragraph totalRecords = new Paragraph(type + "单数：" + recordCount, PdfUtil.createTableFont());
             totalRecords.setSpacingBefore(10);
             document.add(totalRecords);
 
-            Paragraph totalQty = new Paragraph("出库总量：" + totalQuantity, PdfUtil.createTableFont());
+            Paragraph totalQty = new Paragraph(type + "总量：" + totalQuantity, PdfUtil.createTableFont());
             document.add(totalQty);
         });
     }
 
     /**
-     * 生成低库存报表PDF
+     * 出入库统计报表的公共部分，type 为"入库"或"出库"，partnerTitle 为往来方列名
      */
-    public byte[] generateLowStockReport() throws DocumentException, IOException {
-        return PdfUtil.generatePdf(document -> {
+    private void writeMovementReport(OutputStream outputStream, LongConsumer progress,
+                                     String type, String partnerTitle,
+                                     LocalDateTime startDate, LocalDateTime endDate,
+                                     MovementBatchLoader loader) throws DocumentException {
+        PdfUtil.writePdf(outputStream, document -> {
             // 添加标题
-            PdfUtil.addTitle(document, "低库存预警报表");
-            PdfUtil.addSubTitle(document, "生成时间：" + LocalDateTime.now().format(DATE_TIME_FORMATTER));
+            PdfUtil.addTitle(document, type + "统计报表");
 
-            // 获取低库存商品
-            List<Product> products = productRepository.findActiveLowStockProducts();
+            String dateRange;
+            if (startDate != null && endDate != null) {
+                dateRange = startDate.format(DATE_FORMATTER) + " 至 " + endDate.format(DATE_FORMATTER);
+            } else {
+                dateRange = "全部";
+            }
+            PdfUtil.addSubTitle(document, "统计期间：" + dateRange);
+            PdfUtil.addSubTitle(document, "生成时间：" + LocalDateTime.now().format(DATE_TIME_FORMATTER));
 
             // 创建表格
-            PdfPTable table = PdfUtil.createTable(7);
-            try {
-                table.setWidths(new float[]{1, 2, 3, 2, 1.5f, 1.5f, 1.5f});
-            } catch (DocumentException e) {
-                throw new RuntimeException(e);
-            }
+            PdfPTable table = PdfUtil.createStreamingTable(6);
+            table.setWidths(new float[]{2, 2, 3, 1.5f, 2, 3});
 
             // 添加表头
-            PdfUtil.addHeaderCell(table, "ID");
+            PdfUtil.addHeaderCell(table, type + "单号");
             PdfUtil.addHeaderCell(table, "商品编号");
             PdfUtil.addHeaderCell(table, "商品名称");
-            PdfUtil.addHeaderCell(table, "分类");
-            PdfUtil.addHeaderCell(table, "当前库存");
-            PdfUtil.addHeaderCell(table, "最低库存");
-            PdfUtil.addHeaderCell(table, "缺口");
-
-            // 添加数据
-            int totalGap = 0;
-
-            for (Product product : products) {
-                int stockQty = product.getStockQty() != null ? product.getStockQty() : 0;
-                int minStock = product.getMinStock() != null ? product.getMinStock() : 0;
-                int gap = minStock - stockQty;
-
-                PdfUtil.addCell(table, String.valueOf(product.getId()));
-                PdfUtil.addCell(table, product.getCode() != null ? product.getCode() : "");
-                PdfUtil.addLeftAlignCell(table, product.getName() != null ? product.getName() : "");
-                PdfUtil.addCell(table, product.getCategory() != null ? product.getCategory().getName() : "");
-                PdfUtil.addCell(table, String.valueOf(stockQty));
-                PdfUtil.addCell(table, String.valueOf(minStock));
-                PdfUtil.addCell(table, String.valueOf(gap));
-
-                totalGap += gap;
+            PdfUtil.addHeaderCell(table, "数量");
+            PdfUtil.addHeaderCell(table, type + "日期");
+            PdfUtil.addHeaderCell(table, partnerTitle);
+
+            // 分批添加数据
+            long recordCount = 0;
+            long totalQuantity = 0;
+
+            Pageable batch = PageRequest.of(0, batchSize);
+            List<MovementReportRowDTO> rows = loader.load(0, batch);
+            while (!rows.isEmpty()) {
+                for (MovementReportRowDTO row : rows) {
+                    int quantity = row.getQuantity() != null ? row.getQuantity() : 0;
+                    PdfUtil.addCell(table, row.getDocumentNo() != null ? row.getDocumentNo() : "");
+                    PdfUtil.addCell(table, row.getProductCode() != null ? row.getProductCode() : "");
+                    PdfUtil.addLeftAlignCell(table, row.getProductName() != null ? row.getProductName() : "");
+                    PdfUtil.addCell(table, String.valueOf(quantity));
+                    PdfUtil.addCell(table, row.getDate() != null ? row.getDate().format(DATE_FORMATTER) : "");
+                    PdfUtil.addCell(table, row.getPartnerName() != null ? row.getPartnerName() : "");
+
+                    recordCount++;
+                    totalQuantity += quantity;
+                }
+                PdfUtil.flushTable(document, table);
+                progress.accept(recordCount);
+                if (rows.size() < batchSize) {
+                    break;
+                }
+                rows = loader.load(rows.get(rows.size() - 1).getId(), batch);
             }
 
-            document.add(table);
+            PdfUtil.completeTable(document, table);
 
             // 添加统计信息
             Paragraph summary = new Paragraph("\n统计信息：", PdfUtil.createSubTitleFont());
             document.add(summary);
 
-            Paragraph lowStockCount = new Paragraph("低库存商品数：" + products.size(), PdfUtil.createTableFont());
-            lowStockCount.setSpacingBefore(10);
-            document.add(lowStockCount);
+            Paragraph totalRecords = new Paragraph(type + "单数：" + recordCount, PdfUtil.createTableFont());
+            totalRecords.setSpacingBefore(10);
+            document.add(totalRecords);
 
-            Paragraph totalGapPara = new Paragraph("总缺口量：" + totalGap, PdfUtil.createTableFont());
-            document.add(totalGapPara);
+            Paragraph totalQty = new Paragraph(type + "总量：" + totalQuantity, PdfUtil.createTableFont());
+            document.add(totalQty);
         });
     }
+
+    // 起止时间都指定时才按时间过滤，与原报表一致
+    private static LocalDateTime rangeStart(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate != null && endDate != null ? startDate : null;
+    }
+
+    private static LocalDateTime rangeEnd(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate != null && endDate != null ? endDate : null;
+    }
+
+    /**
+     * 按ID读取 afterId 之后的一批出入库报表行
+     */
+    @FunctionalInterface
+    private interface MovementBatchLoader {
+        List<MovementReportRowDTO> load(Integer afterId, Pageable batch);
+    }
 }
@@ -3,12 +3,13 @@ package com.warehouse.service;
 import com.warehouse.common.PageResult;
 import com.warehouse.entity.Product;
 import com.warehouse.entity.StockAdjustment;
+import com.warehouse.entity.StockMovement;
+import com.warehouse.enums.StockMovementType;
 import com.warehouse.repository.BaseRepository;
 import com.warehouse.repository.ProductRepository;
 import com.warehouse.repository.StockAdjustmentRepository;
 import com.warehouse.util.UserContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -29,6 +30,9 @@ public class StockAdjustmentService extends BaseService<StockAdjustment, Integer
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private StockMutationService stockMutationService;
+
     @Override
     protected BaseRepository<StockAdjustment, Integer> getRepository() {
         return stockAdjustmentRepository;
@@ -43,7 +47,6 @@ public class StockAdjustmentService extends BaseService<StockAdjustment, Integer
     }
 
     @Transactional
-    @CacheEvict(value = {"products", "lowStockProducts"}, allEntries = true)
     public StockAdjustment createAdjustment(StockAdjustment adjustment) {
         UserContext.setCurrentUserId(getCurrentUserId());
 
@@ -51,18 +54,6 @@ public class StockAdjustmentService extends BaseService<StockAdjustment, Integer
             Product product = productRepository.findActiveById(adjustment.getProduct().getId())
                     .orElseThrow(() -> new RuntimeException("商品不存在"));
 
-            int beforeQty = product.getStockQty();
-            int afterQty;
-
-            if (adjustment.getAdjustmentType() == StockAdjustment.AdjustmentType.INCREASE) {
-                afterQty = beforeQty + adjustment.getQuantity();
-            } else {
-                afterQty = beforeQty - adjustment.getQuantity();
-                if (afterQty < 0) {
-                    throw new RuntimeException("调整后库存不能为负数");
-                }
-            }
-
             // 处理 operator：如果 operator 为空对象（只有实例但没有 ID），则设为 null
             if (adjustment.getOperator() != null && adjustment.getOperator().getId() == null) {
                 adjustment.setOperator(null);
@@ -74,14 +65,28 @@ public class StockAdjustmentService extends BaseService<StockAdjustment, Integer
                 // 这里可以根据需要创建一个简单的User对象或者只设置ID
             }
 
-            adjustment.setBeforeQty(beforeQty);
-            adjustment.setAfterQty(afterQty);
+            // 先保存调整单以取得ID作为流水的业务单据ID，调整前后库存在同一事务内回写
+            adjustment.setBeforeQty(0);
+            adjustment.setAfterQty(0);
+            StockAdjustment savedAdjustment = create(adjustment);
 
-            // 更新商品库存
-            product.setStockQty(afterQty);
-            productRepository.save(product);
+            // 通过条件增量SQL更新库存，调整前库存由变更后库存反推
+            StockMovement movement;
+            if (adjustment.getAdjustmentType() == StockAdjustment.AdjustmentType.INCREASE) {
+                movement = stockMutationService.increaseStock(product.getId(), adjustment.getQuantity(),
+                        StockMovementType.ADJUSTMENT_INCREASE, savedAdjustment.getId());
+            } else {
+                movement = stockMutationService.tryDecreaseStock(product.getId(), adjustment.getQuantity(),
+                        StockMovementType.ADJUSTMENT_DECREASE, savedAdjustment.getId());
+                if (movement == null) {
+                    throw new RuntimeException("调整后库存不能为负数");
+                }
+            }
+            int afterQty = movement.getBalanceAfter();
+            int beforeQty = afterQty - movement.getQuantity();
 
-            StockAdjustment savedAdjustment = create(adjustment);
+            savedAdjustment.setBeforeQty(beforeQty);
+            savedAdjustment.setAfterQty(afterQty);
             return savedAdjustment;
         } finally {
             UserContext.clear();
@@ -0,0 +1,88 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockIntent;
+import com.warehouse.event.StockChangedEvent;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockIntentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 库存意图合并写入：在一个事务内把已提交的意图按商品合并更新库存、
+ * 逐条写入库存流水并删除意图，崩溃后重放不会重复应用。
+ */
+@Service
+public class StockIntentFlushService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockIntentFlushService.class);
+
+    @Autowired
+    private StockIntentRepository stockIntentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private LowStockService lowStockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 应用一批待处理的意图
+     * @return 本次应用的意图数量
+     */
+    @Transactional
+    public int flushPendingIntents() {
+        List<StockIntent> intents = stockIntentRepository.findTop1000ByOrderByIdAsc();
+        if (intents.isEmpty()) {
+            return 0;
+        }
+
+        // 按商品ID升序加锁，与其他库存变更保持一致的加锁顺序
+        Map<Integer, List<StockIntent>> intentsByProduct = new TreeMap<>();
+        List<Long> intentIds = new ArrayList<>(intents.size());
+        for (StockIntent intent : intents) {
+            intentsByProduct.computeIfAbsent(intent.getProductId(), k -> new ArrayList<>()).add(intent);
+            intentIds.add(intent.getId());
+        }
+
+        for (Map.Entry<Integer, List<StockIntent>> entry : intentsByProduct.entrySet()) {
+            Integer productId = entry.getKey();
+            int delta = 0;
+            for (StockIntent intent : entry.getValue()) {
+                delta += intent.getQuantity();
+            }
+
+            if (productRepository.applyStockDelta(productId, delta) == 0) {
+                logger.warn("库存意图对应的商品不存在，已丢弃：商品ID={}, 意图数={}", productId, entry.getValue().size());
+                continue;
+            }
+            ProductRepository.StockLevel level = productRepository.findStockLevelById(productId);
+            lowStockService.onStockChanged(productId, level);
+            eventPublisher.publishEvent(new StockChangedEvent(productId));
+            int balance = level.getStockQty() - delta;
+            for (StockIntent intent : entry.getValue()) {
+                balance += intent.getQuantity();
+                stockLedgerService.recordMovement(productId, intent.getMovementType(), intent.getQuantity(),
+                        balance, intent.getBusinessId(), intent.getOperatorId());
+            }
+        }
+
+        stockIntentRepository.deleteByIdIn(intentIds);
+        logger.debug("库存意图合并写入：意图数={}, 商品数={}", intents.size(), intentsByProduct.size());
+        return intents.size();
+    }
+}
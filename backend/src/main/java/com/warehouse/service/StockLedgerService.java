@@ -0,0 +1,129 @@
+package com.warehouse.service;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.entity.StockMovement;
+import com.warehouse.entity.StockSnapshot;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import com.warehouse.repository.StockSnapshotRepository;
+import com.warehouse.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 库存流水服务，维护只追加的库存流水及周期性库存快照。
+ * 历史时点库存 = 最近一次快照 + 快照之后的少量流水。
+ * 每条流水同时累加到商品每日库存汇总（{@link DailyStockRollupService}）。
+ */
+@Service
+public class StockLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLedgerService.class);
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private DailyStockRollupService dailyStockRollupService;
+
+    /**
+     * 记录一条库存流水，需在库存变更的同一事务中调用
+     * @param productId 商品ID
+     * @param type 流水类型
+     * @param quantity 带符号的变更数量
+     * @param balanceAfter 变更后库存
+     * @param businessId 业务单据ID（可为空）
+     */
+    @Transactional
+    public StockMovement recordMovement(Integer productId, StockMovementType type, int quantity,
+                                        int balanceAfter, Integer businessId) {
+        return recordMovement(productId, type, quantity, balanceAfter, businessId, UserContext.getCurrentUserId());
+    }
+
+    /**
+     * 记录一条库存流水，并指定操作人（后台合并写入热点商品库存时使用）
+     */
+    @Transactional
+    public StockMovement recordMovement(Integer productId, StockMovementType type, int quantity,
+                                        int balanceAfter, Integer businessId, Integer operatorId) {
+        StockMovement movement = new StockMovement();
+        movement.setProductId(productId);
+        movement.setMovementType(type);
+        movement.setQuantity(quantity);
+        movement.setBalanceAfter(balanceAfter);
+        movement.setBusinessType(type.getBusinessType());
+        movement.setBusinessId(businessId);
+        movement.setOperatorId(operatorId);
+        StockMovement saved = stockMovementRepository.save(movement);
+        dailyStockRollupService.apply(saved);
+        return saved;
+    }
+
+    /**
+     * 查询商品库存流水
+     */
+    public PageResult<StockMovement> getMovements(Integer productId, Integer page, Integer size) {
+        Page<StockMovement> movementPage = stockMovementRepository.findByProductIdOrderByIdDesc(
+                productId, PageRequest.of(page - 1, size));
+        return new PageResult<>(movementPage.getTotalElements(), movementPage.getContent());
+    }
+
+    /**
+     * 查询商品在指定时间点的库存
+     */
+    @Transactional(readOnly = true)
+    public Integer getStockAsOf(Integer productId, LocalDateTime asOf) {
+        if (productId == null || asOf == null) {
+            throw new RuntimeException("商品ID和查询时间不能为空");
+        }
+
+        Optional<StockSnapshot> snapshot = stockSnapshotRepository
+                .findFirstByProductIdAndSnapshotTimeLessThanEqualOrderBySnapshotTimeDesc(productId, asOf);
+        if (snapshot.isPresent()) {
+            Long tail = stockMovementRepository.sumQuantityAfter(
+                    productId, snapshot.get().getLastMovementId(), asOf);
+            return snapshot.get().getStockQty() + tail.intValue();
+        }
+
+        // 没有更早的快照：由第一条流水推算期初库存
+        Optional<StockMovement> first = stockMovementRepository.findFirstByProductIdOrderByIdAsc(productId);
+        if (!first.isPresent()) {
+            // 从未发生过库存变动，当前库存即历史库存
+            Integer current = productRepository.findStockQtyById(productId);
+            if (current == null) {
+                throw new RuntimeException("商品不存在");
+            }
+            return current;
+        }
+        int opening = first.get().getBalanceAfter() - first.get().getQuantity();
+        return opening + stockMovementRepository.sumQuantityAfter(productId, 0L, asOf).intValue();
+    }
+
+    /**
+     * 定时生成库存快照：只为上次快照后有变动的商品写入新快照。
+     * 同一商品的流水在行锁下按ID顺序提交，因此快照之后的尾部流水总能按ID完整取到。
+     */
+    @Scheduled(cron = "${app.stock.snapshot-cron:0 0 * * * ?}")
+    @Transactional
+    public void takeSnapshots() {
+        Long fromMovementId = stockSnapshotRepository.findMaxLastMovementId();
+        int count = stockSnapshotRepository.insertSnapshotsSince(fromMovementId, LocalDateTime.now());
+        logger.info("库存快照生成完成：起始流水ID={}, 快照数量={}", fromMovementId, count);
+    }
+}
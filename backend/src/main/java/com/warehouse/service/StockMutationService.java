@@ -0,0 +1,268 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockMovement;
+import com.warehouse.entity.StockReservation;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.event.StockChangedEvent;
+import com.warehouse.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 库存变更服务，所有库存增减统一通过条件增量SQL完成。
+ * 不在Java中读取-修改-保存库存，避免并发出入库时丢失更新或超卖；
+ * 每次变更在同一事务内写入库存流水。
+ * 热点商品交由 {@link HotStockService} 写后合并，流水由后台写入。
+ * 扣减时其他单据已预留的库存（{@link StockReservationService}）不可用，预留与扣减在同一把锁下校验。
+ */
+@Service
+public class StockMutationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockMutationService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private LowStockService lowStockService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 增加库存
+     * @param productId 商品ID
+     * @param quantity 增加数量
+     * @param type 流水类型
+     * @param businessId 业务单据ID（可为空）
+     * @return 写入的库存流水，balanceAfter 为变更后的库存数量（热点商品的流水尚未落库）
+     */
+    @Transactional
+    public StockMovement increaseStock(Integer productId, Integer quantity,
+                                       StockMovementType type, Integer businessId) {
+        validate(productId, quantity);
+        if (hotStockService.isHot(productId)) {
+            return hotStockService.increaseStock(productId, quantity, type, businessId);
+        }
+
+        if (productRepository.increaseStock(productId, quantity) == 0) {
+            throw new RuntimeException("商品不存在");
+        }
+        int afterQty = readBalance(productId);
+        logger.debug("库存增加：商品ID={}, 数量={}, 变更后库存={}", productId, quantity, afterQty);
+        return stockLedgerService.recordMovement(productId, type, quantity, afterQty, businessId);
+    }
+
+    /**
+     * 扣减库存，库存不足时抛出异常
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @param type 流水类型
+     * @param businessId 业务单据ID（可为空）
+     * @return 写入的库存流水，balanceAfter 为变更后的库存数量
+     */
+    @Transactional
+    public StockMovement decreaseStock(Integer productId, Integer quantity,
+                                       StockMovementType type, Integer businessId) {
+        StockMovement movement = tryDecreaseStock(productId, quantity, type, businessId);
+        if (movement == null) {
+            throw new RuntimeException("库存不足");
+        }
+        return movement;
+    }
+
+    /**
+     * 尝试扣减库存
+     * @param productId 商品ID
+     * @param quantity 扣减数量
+     * @param type 流水类型
+     * @param businessId 业务单据ID（可为空）
+     * @return 写入的库存流水；库存不足时返回null且不做任何修改
+     */
+    @Transactional
+    public StockMovement tryDecreaseStock(Integer productId, Integer quantity,
+                                          StockMovementType type, Integer businessId) {
+        return tryDecreaseStock(productId, quantity, type, businessId, null);
+    }
+
+    /**
+     * 尝试扣减库存，可消耗本单据自己的预留
+     * @param reservation 本单据生效中的预留（可为空），其数量不计入不可扣减的预留
+     * @return 写入的库存流水；库存不足时返回null且不做任何修改
+     */
+    @Transactional
+    public StockMovement tryDecreaseStock(Integer productId, Integer quantity, StockMovementType type,
+                                          Integer businessId, StockReservation reservation) {
+        validate(productId, quantity);
+        if (hotStockService.isHot(productId)) {
+            // 读取预留合计与扣减计数器在预留锁内完成，与并发预留互斥
+            return stockReservationService.callWithLock(productId, () -> hotStockService.tryDecreaseStock(
+                    productId, quantity, type, businessId, otherReservedQty(productId, reservation)));
+        }
+
+        // 先锁商品行再读取预留合计：并发预留同样先锁商品行，提交后其数量已计入索引
+        if (productRepository.lockStockQtyById(productId) == null) {
+            throw new RuntimeException("商品不存在");
+        }
+        int reservedQty = otherReservedQty(productId, reservation);
+        if (productRepository.decreaseStockIfSufficient(productId, quantity, reservedQty) == 0) {
+            return null;
+        }
+        int afterQty = readBalance(productId);
+        logger.debug("库存扣减：商品ID={}, 数量={}, 变更后库存={}", productId, quantity, afterQty);
+        return stockLedgerService.recordMovement(productId, type, -quantity, afterQty, businessId);
+    }
+
+    /**
+     * 按商品合并后批量增加库存，每个商品只执行一次增量更新。
+     * 按商品ID升序加锁，避免多张单据并发时互相死锁。
+     * @param quantities 商品ID -> 合并后的增加数量
+     * @return 每个商品对应的库存流水
+     */
+    @Transactional
+    public List<StockMovement> increaseStockBatch(Map<Integer, Integer> quantities,
+                                                  StockMovementType type, Integer businessId) {
+        List<StockMovement> movements = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            movements.add(increaseStock(entry.getKey(), entry.getValue(), type, businessId));
+        }
+        return movements;
+    }
+
+    /**
+     * 按商品合并后批量扣减库存，任一商品库存不足时抛出异常（整个事务回滚）。
+     * @param quantities 商品ID -> 合并后的扣减数量
+     * @return 每个商品对应的库存流水
+     */
+    @Transactional
+    public List<StockMovement> decreaseStockBatch(Map<Integer, Integer> quantities,
+                                                  StockMovementType type, Integer businessId) {
+        List<StockMovement> movements = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            StockMovement movement = tryDecreaseStock(entry.getKey(), entry.getValue(), type, businessId);
+            if (movement == null) {
+                throw new RuntimeException("商品ID=" + entry.getKey() + " 库存不足");
+            }
+            movements.add(movement);
+        }
+        return movements;
+    }
+
+    /**
+     * 多张单据合并增加库存：每个商品只执行一次合并后的增量更新，
+     * 但仍为每张单据各写一条流水（按顺序推算各自的变更后库存）。
+     * @param deltas 各单据的库存增量
+     * @return 每张单据对应的库存流水
+     */
+    @Transactional
+    public List<StockMovement> increaseStockMerged(List<StockDelta> deltas, StockMovementType type) {
+        Map<Integer, List<StockDelta>> deltasByProduct = new TreeMap<>();
+        for (StockDelta delta : deltas) {
+            validate(delta.getProductId(), delta.getQuantity());
+            deltasByProduct.computeIfAbsent(delta.getProductId(), k -> new ArrayList<>()).add(delta);
+        }
+
+        List<StockMovement> movements = new ArrayList<>(deltas.size());
+        for (Map.Entry<Integer, List<StockDelta>> entry : deltasByProduct.entrySet()) {
+            Integer productId = entry.getKey();
+            if (hotStockService.isHot(productId)) {
+                for (StockDelta delta : entry.getValue()) {
+                    movements.add(hotStockService.increaseStock(
+                            productId, delta.getQuantity(), type, delta.getBusinessId()));
+                }
+                continue;
+            }
+            int total = 0;
+            for (StockDelta delta : entry.getValue()) {
+                total += delta.getQuantity();
+            }
+
+            if (productRepository.increaseStock(productId, total) == 0) {
+                throw new RuntimeException("商品ID=" + productId + " 不存在");
+            }
+            int balance = readBalance(productId) - total;
+            for (StockDelta delta : entry.getValue()) {
+                balance += delta.getQuantity();
+                movements.add(stockLedgerService.recordMovement(
+                        productId, type, delta.getQuantity(), balance, delta.getBusinessId()));
+            }
+            logger.debug("合并库存增加：商品ID={}, 单据数={}, 合计数量={}", productId, entry.getValue().size(), total);
+        }
+        return movements;
+    }
+
+    /**
+     * 读取变更后的库存，在跨越最低库存阈值时更新低库存集合，并发布库存变更事件（提交后失效相关缓存）
+     */
+    private int readBalance(Integer productId) {
+        ProductRepository.StockLevel level = productRepository.findStockLevelById(productId);
+        lowStockService.onStockChanged(productId, level);
+        eventPublisher.publishEvent(new StockChangedEvent(productId));
+        return level.getStockQty();
+    }
+
+    /**
+     * 其他单据的预留合计（不含本单据自己的预留）
+     */
+    private int otherReservedQty(Integer productId, StockReservation reservation) {
+        int reservedQty = stockReservationService.getReservedQty(productId);
+        if (reservation != null && reservation.getProductId().equals(productId)) {
+            reservedQty = Math.max(0, reservedQty - reservation.getQuantity());
+        }
+        return reservedQty;
+    }
+
+    private void validate(Integer productId, Integer quantity) {
+        if (productId == null) {
+            throw new RuntimeException("商品ID不能为空");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("数量必须大于0");
+        }
+    }
+
+    /**
+     * 单据级库存增量
+     */
+    public static class StockDelta {
+        private final Integer productId;
+        private final Integer quantity;
+        private final Integer businessId;
+
+        public StockDelta(Integer productId, Integer quantity, Integer businessId) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.businessId = businessId;
+        }
+
+        public Integer getProductId() {
+            return productId;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public Integer getBusinessId() {
+            return businessId;
+        }
+    }
+}
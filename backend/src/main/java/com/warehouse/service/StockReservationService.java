@@ -0,0 +1,288 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockReservation;
+import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.ReservationStatus;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockReservationRepository;
+import com.warehouse.util.UserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 库存预留服务：可用库存 = 现有库存 - 生效中的预留。
+ * 生效中的预留保存在内存索引中（商品ID -> 预留合计），可用库存报价只读内存，不加锁；
+ * 预留与扣减在同一把锁下校验：普通商品锁商品行，热点商品持有本服务的条带锁，两者不会同时占用同一份库存。
+ * 预留同时持久化，启动时从数据库恢复索引，到期未处理的预留由定时任务过期。
+ * 索引只会提前向保守方向变化：新增预留立即计入（回滚时移除），消耗、释放与过期在提交后才移除。
+ * 内存索引只在本进程内有效，仅适用于单实例部署。
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Value("${app.stock.reservation-ttl-minutes:1440}")
+    private long reservationTtlMinutes;
+
+    // 生效中的预留：预留ID -> 预留
+    private final Map<Long, StockReservation> activeReservations = new ConcurrentHashMap<>();
+
+    // 商品ID -> 生效中的预留合计
+    private final Map<Integer, Integer> reservedByProduct = new ConcurrentHashMap<>();
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public StockReservationService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * 启动时从数据库恢复生效中的预留
+     */
+    @PostConstruct
+    public void loadActiveReservations() {
+        List<StockReservation> reservations = stockReservationRepository.findByStatus(ReservationStatus.ACTIVE);
+        for (StockReservation reservation : reservations) {
+            addToIndex(reservation);
+        }
+        logger.info("库存预留索引已加载：生效中预留{}条，涉及商品{}个", reservations.size(), reservedByProduct.size());
+    }
+
+    /**
+     * 商品已预留的数量
+     */
+    public int getReservedQty(Integer productId) {
+        return reservedByProduct.getOrDefault(productId, 0);
+    }
+
+    /**
+     * 商品现有库存（热点商品取内存计数器）
+     */
+    public int getOnHandQty(Integer productId) {
+        if (hotStockService.isHot(productId)) {
+            return hotStockService.getStockQty(productId);
+        }
+        Integer stockQty = productRepository.findStockQtyById(productId);
+        if (stockQty == null) {
+            throw new RuntimeException("商品不存在");
+        }
+        return stockQty;
+    }
+
+    /**
+     * 商品可用库存：现有库存减去生效中的预留
+     */
+    public int getAvailableQty(Integer productId) {
+        return getOnHandQty(productId) - getReservedQty(productId);
+    }
+
+    /**
+     * 商品生效中的预留
+     */
+    public List<StockReservation> getActiveReservations(Integer productId) {
+        return activeReservations.values().stream()
+                .filter(r -> r.getProductId().equals(productId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 为业务单据预留库存，可用库存不足时抛出异常
+     */
+    @Transactional
+    public StockReservation reserve(Integer productId, Integer quantity, BusinessType businessType, Integer businessId) {
+        if (productId == null) {
+            throw new RuntimeException("商品ID不能为空");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("数量必须大于0");
+        }
+
+        // 普通商品先锁商品行（在条带锁之外获取，避免Java锁与数据库锁交叉等待），进行中的扣减提交后再读库存
+        boolean hot = hotStockService.isHot(productId);
+        Integer lockedQty = null;
+        if (!hot) {
+            lockedQty = productRepository.lockStockQtyById(productId);
+            if (lockedQty == null) {
+                throw new RuntimeException("商品不存在");
+            }
+        }
+
+        StockReservation saved;
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            int onHand = hot ? hotStockService.getStockQty(productId) : lockedQty;
+            int available = onHand - getReservedQty(productId);
+            if (available < quantity) {
+                throw new RuntimeException("可用库存不足，当前可用" + available);
+            }
+
+            StockReservation reservation = new StockReservation();
+            reservation.setProductId(productId);
+            reservation.setQuantity(quantity);
+            reservation.setBusinessType(businessType);
+            reservation.setBusinessId(businessId);
+            reservation.setStatus(ReservationStatus.ACTIVE);
+            reservation.setExpiresAt(LocalDateTime.now().plusMinutes(reservationTtlMinutes));
+            reservation.setOperatorId(UserContext.getCurrentUserId());
+            saved = stockReservationRepository.save(reservation);
+            addToIndex(saved);
+        } finally {
+            lock.unlock();
+        }
+
+        final Long reservationId = saved.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        removeFromIndex(reservationId);
+                    }
+                }
+            });
+        }
+        logger.debug("库存预留：商品ID={}, 数量={}, 业务={}:{}", productId, quantity, businessType, businessId);
+        return saved;
+    }
+
+    /**
+     * 业务单据生效中的预留，没有时返回null
+     */
+    public StockReservation findActive(BusinessType businessType, Integer businessId) {
+        List<StockReservation> reservations = stockReservationRepository
+                .findByBusinessTypeAndBusinessIdAndStatus(businessType, businessId, ReservationStatus.ACTIVE);
+        return reservations.isEmpty() ? null : reservations.get(0);
+    }
+
+    /**
+     * 标记预留已出库。调用方需在同一事务内先按预留扣减库存。
+     */
+    @Transactional
+    public void consume(StockReservation reservation) {
+        close(reservation, ReservationStatus.CONSUMED);
+    }
+
+    /**
+     * 释放业务单据的预留（审批拒绝、取消或删除单据时）
+     */
+    @Transactional
+    public void release(BusinessType businessType, Integer businessId) {
+        StockReservation reservation = findActive(businessType, businessId);
+        if (reservation != null) {
+            close(reservation, ReservationStatus.RELEASED);
+        }
+    }
+
+    /**
+     * 定时过期到期未处理的预留，对应单据审批时按当时的可用库存重新校验
+     */
+    @Scheduled(fixedDelayString = "${app.stock.reservation-expire-check-ms:60000}")
+    @Transactional
+    public int expireReservations() {
+        List<StockReservation> expired = stockReservationRepository
+                .findByStatusAndExpiresAtBefore(ReservationStatus.ACTIVE, LocalDateTime.now());
+        for (StockReservation reservation : expired) {
+            close(reservation, ReservationStatus.EXPIRED);
+        }
+        if (!expired.isEmpty()) {
+            logger.info("过期库存预留{}条", expired.size());
+        }
+        return expired.size();
+    }
+
+    private void close(StockReservation reservation, ReservationStatus status) {
+        reservation.setStatus(status);
+        reservation.setClosedAt(LocalDateTime.now());
+        stockReservationRepository.save(reservation);
+
+        final Long reservationId = reservation.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeFromIndex(reservationId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeFromIndex(reservationId);
+            }
+        });
+    }
+
+    private void addToIndex(StockReservation reservation) {
+        withLock(reservation.getProductId(), () -> {
+            if (activeReservations.putIfAbsent(reservation.getId(), reservation) == null) {
+                reservedByProduct.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+        });
+    }
+
+    private void removeFromIndex(Long reservationId) {
+        StockReservation reservation = activeReservations.get(reservationId);
+        if (reservation == null) {
+            return;
+        }
+        withLock(reservation.getProductId(), () -> {
+            if (activeReservations.remove(reservationId) != null) {
+                reservedByProduct.computeIfPresent(reservation.getProductId(), (id, qty) -> {
+                    int remaining = qty - reservation.getQuantity();
+                    return remaining > 0 ? remaining : null;
+                });
+            }
+        });
+    }
+
+    /**
+     * 在商品的预留锁内执行，期间不会新增该商品的预留（热点商品扣减时使用）
+     */
+    public <T> T callWithLock(Integer productId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void withLock(Integer productId, Runnable action) {
+        callWithLock(productId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private ReentrantLock stripeFor(Integer productId) {
+        return stripes[(productId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+}
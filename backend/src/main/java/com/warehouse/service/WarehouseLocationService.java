@@ -2,6 +2,7 @@ package com.warehouse.service;
 
 import com.warehouse.common.PageResult;
 import com.warehouse.common.Result;
+import com.warehouse.dto.WarehouseLocationListDTO;
 import com.warehouse.dto.WarehouseLocationStatisticsDTO;
 import com.warehouse.entity.Warehouse;
 import com.warehouse.entity.WarehouseLocation;
@@ -56,50 +57,33 @@ public class WarehouseLocationService extends BaseService<WarehouseLocation, Int
     }
 
     /**
-     * 分页查询仓库位置
+     * 分页查询仓库位置：缓存列表投影而非响应包装，查询失败时抛出异常，不会缓存错误结果。
+     * 缓存值类型由 Result 改为列表投影后键加 v2 前缀，滚动发布期间不会读到旧版本写入的条目，旧条目按存活时间过期。
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "warehouseLocations", key = "'page:' + #page + ':size:' + #size + ':warehouseId:' + #warehouseId + ':status:' + #status + ':keyword:' + #keyword")
-    public Result<PageResult<WarehouseLocation>> getWarehouseLocations(Integer warehouseId, Integer status, String keyword, int page, int size) {
-        try {
-            Sort sort = Sort.by(Sort.Direction.DESC, "updatedAt");
-            Pageable pageable = PageRequest.of(page - 1, size, sort);
-
-            // 使用简单的查询方法
-            Page<WarehouseLocation> pageResult;
-            if (warehouseId != null) {
-                pageResult = warehouseLocationRepository.findActiveByWarehouseId(warehouseId, pageable);
-            } else {
-                pageResult = warehouseLocationRepository.findAll(pageable);
-            }
-
-            PageResult<WarehouseLocation> result = new PageResult<>(
-                pageResult.getContent(),
-                pageResult.getTotalElements(),
-                pageResult.getNumber() + 1,
-                pageResult.getSize()
-            );
-
-            return Result.success("查询仓库位置列表成功", result);
-        } catch (Exception e) {
-            logger.error("查询仓库位置列表失败: {}", e.getMessage(), e);
-            return Result.error("查询仓库位置列表失败：" + e.getMessage());
-        }
+    @Cacheable(value = "warehouseLocations", key = "'v2:page:' + #page + ':size:' + #size + ':warehouseId:' + #warehouseId + ':status:' + #status + ':keyword:' + #keyword")
+    public PageResult<WarehouseLocationListDTO> getWarehouseLocations(Integer warehouseId, Integer status, String keyword, int page, int size) {
+        Sort sort = Sort.by(Sort.Direction.DESC, "updatedAt");
+        Pageable pageable = PageRequest.of(page - 1, size, sort);
+
+        Page<WarehouseLocationListDTO> pageResult =
+                warehouseLocationRepository.findActiveListByWarehouseId(warehouseId, pageable);
+
+        return new PageResult<>(
+            pageResult.getContent(),
+            pageResult.getTotalElements(),
+            pageResult.getNumber() + 1,
+            pageResult.getSize()
+        );
     }
 
     /**
-     * 根据仓库ID获取位置列表
+     * 根据仓库ID获取可用位置列表
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "warehouseLocations", key = "'byWarehouse:' + #warehouseId")
-    public Result<List<WarehouseLocation>> getLocationsByWarehouse(Integer warehouseId) {
-        try {
-            List<WarehouseLocation> locations = warehouseLocationRepository.findByWarehouseIdAndStatus(warehouseId, 1);
-            return Result.success("获取仓库位置列表成功", locations);
-        } catch (Exception e) {
-            logger.error("获取仓库位置列表失败: {}", e.getMessage(), e);
-            return Result.error("获取仓库位置列表失败：" + e.getMessage());
-        }
+    @Cacheable(value = "warehouseLocations", key = "'v2:byWarehouse:' + #warehouseId")
+    public List<WarehouseLocationListDTO> getLocationsByWarehouse(Integer warehouseId) {
+        return warehouseLocationRepository.findActiveListByWarehouseIdAndStatus(warehouseId, 1);
     }
 
     /**
@@ -11,6 +11,7 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -83,6 +84,58 @@ public class WebSocketService {
         sendToUser(approvalRecord.getSubmitterId(), message);
     }
 
+    /**
+     * 批量审批结果通知：每个提交人只收到一条汇总消息
+     */
+    public void notifyBulkApprovalResult(List<ApprovalRecord> approvalRecords) {
+        if (approvalRecords == null || approvalRecords.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, List<ApprovalRecord>> recordsBySubmitter = approvalRecords.stream()
+                .filter(record -> record.getSubmitterId() != null)
+                .collect(Collectors.groupingBy(ApprovalRecord::getSubmitterId));
+
+        ApprovalRecord first = approvalRecords.get(0);
+        for (Map.Entry<Integer, List<ApprovalRecord>> entry : recordsBySubmitter.entrySet()) {
+            String businessIds = entry.getValue().stream()
+                    .map(record -> String.valueOf(record.getBusinessId()))
+                    .collect(Collectors.joining(","));
+            String message = String.format(
+                    "{\"type\":\"bulk_approval_result\",\"businessType\":\"%s\",\"approvalStatus\":\"%s\",\"approver\":\"%s\",\"approvalTime\":\"%s\",\"count\":%d,\"businessIds\":[%s]}",
+                    first.getBusinessType().getDescription(),
+                    first.getApprovalStatus().getDescription(),
+                    first.getApprover() != null ? first.getApprover().getRealName() : "未知用户",
+                    first.getApprovalTime(),
+                    entry.getValue().size(),
+                    businessIds
+            );
+            sendToUser(entry.getKey(), message);
+        }
+    }
+
+    /**
+     * 低库存预警：商品进入或离开低库存集合时通知仓库管理人员
+     */
+    public void notifyLowStockChange(Integer productId, int stockQty, int minStock, boolean lowStock) {
+        String message = String.format(
+                "{\"type\":\"low_stock_change\",\"productId\":%d,\"stockQty\":%d,\"minStock\":%d,\"lowStock\":%b}",
+                productId, stockQty, minStock, lowStock
+        );
+        sendToApprovers(message);
+    }
+
+    /**
+     * 报表任务状态与进度，只发送给提交人
+     */
+    public void notifyReportJobProgress(Integer userId, String jobId, String status, long rowsWritten, long totalRows) {
+        String message = String.format(
+                "{\"type\":\"report_job_progress\",\"jobId\":\"%s\",\"status\":\"%s\",\"rowsWritten\":%d,\"totalRows\":%d}",
+                jobId, status, rowsWritten, totalRows
+        );
+        sendToUser(userId, message);
+    }
+
     /**
      * 通知待审批数量变化
      */
@@ -0,0 +1,52 @@
+package com.warehouse.util;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * 分批读取的迭代器：当前批次用完后以上一批的最后一条为游标读取下一批，
+ * 任意时刻只持有一批数据。某一批不足 batchSize 条时视为已读完。
+ */
+public class BatchIterator<T> implements Iterator<T> {
+
+    private final int batchSize;
+
+    // 参数为上一批的最后一条，首批为null
+    private final Function<T, List<T>> loader;
+
+    private List<T> batch;
+
+    private int index;
+
+    private boolean exhausted;
+
+    public BatchIterator(int batchSize, Function<T, List<T>> loader) {
+        this.batchSize = batchSize;
+        this.loader = loader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (batch != null && index < batch.size()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        T previous = batch != null ? batch.get(batch.size() - 1) : null;
+        batch = loader.apply(previous);
+        index = 0;
+        exhausted = batch.size() < batchSize;
+        return !batch.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return batch.get(index++);
+    }
+}
@@ -0,0 +1,47 @@
+package com.warehouse.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.OutputStream;
+
+/**
+ * 文件下载工具类，文件边生成边写入响应流，不在内存中缓存整个文件
+ */
+public class DownloadUtil {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadUtil.class);
+
+    /**
+     * 以附件形式输出
+     */
+    public static void writeAttachment(HttpServletResponse response, String contentType, String filename,
+                                       ContentWriter writer) {
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder("attachment").filename(filename).build().toString());
+        try {
+            OutputStream outputStream = response.getOutputStream();
+            writer.write(outputStream);
+            outputStream.flush();
+        } catch (Exception e) {
+            logger.error("生成文件{}失败", filename, e);
+            // 尚未开始输出时返回500；已输出部分内容时只能中断，客户端收到的文件不完整
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    /**
+     * 文件内容生成器
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream outputStream) throws Exception;
+    }
+}
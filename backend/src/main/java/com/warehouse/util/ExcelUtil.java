@@ -1,14 +1,16 @@
 package com.warehouse.util;
 
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -20,6 +22,15 @@ public class ExcelUtil {
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // 流式导出时内存中保留的行数
+    private static final int STREAMING_WINDOW_SIZE = 100;
+
+    // 估算列宽时采样的数据行数
+    private static final int WIDTH_SAMPLE_ROWS = 200;
+
+    // 列宽上限（字符数）
+    private static final int MAX_COLUMN_CHARS = 60;
+
     /**
      * 创建Excel工作簿
      */
@@ -108,59 +119,86 @@ public class ExcelUtil {
     }
 
     /**
-     * 导出Excel
+     * 流式导出Excel：行数据从迭代器逐行读取，内存中只保留最近 STREAMING_WINDOW_SIZE 行，
+     * 其余行写入临时文件；列宽按表头与前 WIDTH_SAMPLE_ROWS 行估算，不逐行计算自适应列宽。
      *
-     * @param dataList 数据列表
+     * @param rows 行数据迭代器，可由分页读取支撑（见 BatchIterator）
      * @param headers 表头数组
+     * @param outputStream 输出流，由调用方关闭
      * @param columnExtractors 列数据提取器可变参数
-     * @return Excel文件字节数组
+     * @return 导出的数据行数
      */
     @SafeVarargs
-    public static <T> byte[] exportExcel(List<T> dataList, String[] headers,
-                                          Function<T, Object>... columnExtractors) throws IOException {
-        Workbook workbook = createWorkbook();
-        Sheet sheet = workbook.createSheet("Sheet1");
-
-        CellStyle headerStyle = createHeaderStyle(workbook);
-        CellStyle dataStyle = createDataStyle(workbook);
-
-        // 创建表头
-        Row headerRow = sheet.createRow(0);
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
-            sheet.setColumnWidth(i, 4000);
-        }
-
-        // 填充数据
-        for (int i = 0; i < dataList.size(); i++) {
-            Row row = sheet.createRow(i + 1);
-            T data = dataList.get(i);
+    public static <T> int exportExcel(Iterator<T> rows, String[] headers, OutputStream outputStream,
+                                      Function<T, Object>... columnExtractors) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(STREAMING_WINDOW_SIZE);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet("Sheet1");
+
+            CellStyle headerStyle = createHeaderStyle(workbook);
+            CellStyle dataStyle = createDataStyle(workbook);
+
+            // 各列的最大显示宽度（字符数）
+            int[] widths = new int[Math.max(headers.length, columnExtractors.length)];
+
+            // 创建表头
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers[i]);
+                cell.setCellStyle(headerStyle);
+                widths[i] = displayWidth(headers[i]);
+            }
 
-            for (int j = 0; j < columnExtractors.length; j++) {
-                Cell cell = row.createCell(j);
-                Object value = columnExtractors[j].apply(data);
-                setCellValue(cell, value);
-                cell.setCellStyle(dataStyle);
+            // 填充数据
+            int rowCount = 0;
+            while (rows.hasNext()) {
+                T data = rows.next();
+                Row row = sheet.createRow(++rowCount);
+
+                for (int j = 0; j < columnExtractors.length; j++) {
+                    Cell cell = row.createCell(j);
+                    Object value = columnExtractors[j].apply(data);
+                    setCellValue(cell, value);
+                    cell.setCellStyle(dataStyle);
+                    if (rowCount <= WIDTH_SAMPLE_ROWS) {
+                        widths[j] = Math.max(widths[j], displayWidth(value));
+                    }
+                }
             }
-        }
 
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
-            // 设置最小宽度
-            if (sheet.getColumnWidth(i) < 3000) {
-                sheet.setColumnWidth(i, 3000);
+            // 按估算宽度设置列宽，最小3000
+            for (int i = 0; i < widths.length; i++) {
+                int width = Math.min(MAX_COLUMN_CHARS, widths[i]) * 256 + 512;
+                sheet.setColumnWidth(i, Math.max(3000, width));
             }
-        }
 
-        // 转换为字节数组
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
+            workbook.write(outputStream);
+            return rowCount;
+        } finally {
+            // 删除窗口外行数据的临时文件
+            workbook.dispose();
+            workbook.close();
+        }
+    }
 
-        return outputStream.toByteArray();
+    /**
+     * 单元格内容的显示宽度，中文等全角字符按两个字符计
+     */
+    private static int displayWidth(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof LocalDateTime) {
+            return 19;
+        }
+        String text = value.toString();
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += text.charAt(i) >= 0x2E80 ? 2 : 1;
+        }
+        return width;
     }
 
     /**
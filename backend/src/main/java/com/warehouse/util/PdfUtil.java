@@ -5,6 +5,7 @@ import com.itextpdf.text.pdf.*;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -132,20 +133,53 @@ public class PdfUtil {
         table.addCell(cell);
     }
 
+    /**
+     * 创建分段输出的大表格：表头在每页重复，行数据由 flushTable 分批写出后释放
+     */
+    public static PdfPTable createStreamingTable(int columnCount) {
+        PdfPTable table = createTable(columnCount);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        return table;
+    }
+
+    /**
+     * 将大表格中已添加的行写入文档并从内存移除
+     */
+    public static void flushTable(Document document, PdfPTable table) throws DocumentException {
+        document.add(table);
+    }
+
+    /**
+     * 结束大表格，写出剩余的行
+     */
+    public static void completeTable(Document document, PdfPTable table) throws DocumentException {
+        table.setComplete(true);
+        document.add(table);
+    }
+
     /**
      * 生成PDF字节数组
      */
     public static byte[] generatePdf(PdfGenerator generator) throws DocumentException, IOException {
-        Document document = createDocument();
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writePdf(outputStream, generator);
+        return outputStream.toByteArray();
+    }
 
-        PdfWriter.getInstance(document, outputStream);
+    /**
+     * 生成PDF并直接写入输出流，已完成的页面随生成过程写出，不在内存中保留整个文件
+     */
+    public static void writePdf(OutputStream outputStream, PdfGenerator generator) throws DocumentException {
+        Document document = createDocument();
+        PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        // 关闭文档时不关闭调用方的输出流
+        writer.setCloseStream(false);
         document.open();
 
         generator.generate(document);
 
         document.close();
-        return outputStream.toByteArray();
     }
 
     /**
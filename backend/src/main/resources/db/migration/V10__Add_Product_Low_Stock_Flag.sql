@@ -0,0 +1,9 @@
+-- 商品增加低库存标记，库存变更跨越最低库存阈值时增量维护，库存预警查询直接按标记读取
+
+USE warehouse_management;
+
+ALTER TABLE `product` ADD COLUMN `low_stock` bit(1) DEFAULT b'0' COMMENT '低库存标记：库存小于等于最低库存' AFTER `min_stock`;
+
+UPDATE `product` SET `low_stock` = (`min_stock` IS NOT NULL AND `stock_qty` <= `min_stock`);
+
+CREATE INDEX `idx_product_low_stock` ON `product` (`low_stock`);
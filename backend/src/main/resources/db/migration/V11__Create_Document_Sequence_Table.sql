@@ -0,0 +1,9 @@
+-- 创建单据号序列表，各节点按块租用序列值后在内存中分配单号
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `document_sequence` (
+  `sequence_name` varchar(20) NOT NULL COMMENT '序列名（单号前缀）',
+  `next_value` bigint NOT NULL COMMENT '下一个未分配的序列值',
+  PRIMARY KEY (`sequence_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='单据号序列表';
@@ -0,0 +1,21 @@
+-- 创建库存预留表
+-- 待审批出库单预留库存，可用库存 = 现有库存 - 生效中的预留；生效中的预留在启动时加载到内存索引
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `stock_reservation` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '预留ID',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `quantity` int NOT NULL COMMENT '预留数量',
+  `business_type` varchar(30) NOT NULL COMMENT '业务类型',
+  `business_id` int NOT NULL COMMENT '业务单据ID',
+  `status` varchar(20) NOT NULL DEFAULT 'ACTIVE' COMMENT '状态：ACTIVE/CONSUMED/RELEASED/EXPIRED',
+  `expires_at` datetime NOT NULL COMMENT '过期时间',
+  `operator_id` int DEFAULT NULL COMMENT '操作人ID',
+  `created_at` datetime NOT NULL COMMENT '创建时间',
+  `closed_at` datetime DEFAULT NULL COMMENT '结束时间',
+  `version` bigint DEFAULT 0 COMMENT '版本号',
+  PRIMARY KEY (`id`),
+  KEY `idx_reservation_business` (`business_type`, `business_id`),
+  KEY `idx_reservation_status_expires` (`status`, `expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='库存预留表';
@@ -0,0 +1,20 @@
+-- 创建商品每日库存汇总表
+-- 每个商品每天一行：当日入库、出库、调整数量及日终库存，随库存流水在同一事务中增量维护；
+-- 已有流水由应用启动后的回填任务按商品分段并行生成
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `daily_stock_rollup` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '汇总ID',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `rollup_date` date NOT NULL COMMENT '日期',
+  `inbound_qty` int NOT NULL DEFAULT 0 COMMENT '当日入库数量（已扣除入库冲销）',
+  `outbound_qty` int NOT NULL DEFAULT 0 COMMENT '当日出库数量（已扣除出库冲销）',
+  `adjust_qty` int NOT NULL DEFAULT 0 COMMENT '当日调整数量（带符号）',
+  `closing_qty` int NOT NULL COMMENT '日终库存',
+  `last_movement_id` bigint NOT NULL COMMENT '已汇总的最后一条流水ID',
+  `updated_at` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_rollup_product_date` (`product_id`, `rollup_date`),
+  KEY `idx_rollup_date_product` (`rollup_date`, `product_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='商品每日库存汇总表';
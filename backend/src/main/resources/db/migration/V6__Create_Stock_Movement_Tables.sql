@@ -0,0 +1,31 @@
+-- 创建库存流水表与库存快照表
+-- 库存流水只追加，每次库存变更写入一条；快照按周期生成，用于快速查询历史时点库存
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `stock_movement` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '流水ID',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `movement_type` varchar(30) NOT NULL COMMENT '流水类型：INBOUND, INBOUND_REVERSAL, OUTBOUND, OUTBOUND_REVERSAL, ADJUSTMENT_INCREASE, ADJUSTMENT_DECREASE',
+  `quantity` int NOT NULL COMMENT '变更数量（带符号）',
+  `balance_after` int NOT NULL COMMENT '变更后库存',
+  `business_type` varchar(20) DEFAULT NULL COMMENT '业务类型',
+  `business_id` int DEFAULT NULL COMMENT '业务单据ID',
+  `operator_id` int DEFAULT NULL COMMENT '操作人ID',
+  `created_at` datetime NOT NULL COMMENT '发生时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_movement_product_id` (`product_id`, `id`),
+  KEY `idx_movement_product_time` (`product_id`, `created_at`),
+  KEY `idx_movement_business` (`business_type`, `business_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='库存流水表';
+
+CREATE TABLE IF NOT EXISTS `stock_snapshot` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '快照ID',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `stock_qty` int NOT NULL COMMENT '快照库存',
+  `last_movement_id` bigint NOT NULL COMMENT '快照包含的最后一条流水ID',
+  `snapshot_time` datetime NOT NULL COMMENT '快照时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_snapshot_product_time` (`product_id`, `snapshot_time`),
+  KEY `idx_snapshot_last_movement` (`last_movement_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='库存快照表';
@@ -0,0 +1,84 @@
+-- 创建多行入库单/出库单表（表头 + 明细）
+-- 明细主键由 id_generator 表按块分配，以支持JDBC批量插入
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `id_generator` (
+  `gen_name` varchar(255) NOT NULL COMMENT '生成器名称',
+  `gen_value` bigint NOT NULL COMMENT '已分配到的值',
+  PRIMARY KEY (`gen_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='主键块分配表';
+
+CREATE TABLE IF NOT EXISTS `inbound_document` (
+  `id` int NOT NULL AUTO_INCREMENT COMMENT '单据ID',
+  `document_no` varchar(50) NOT NULL COMMENT '单据编号',
+  `supplier_id` int DEFAULT NULL COMMENT '供应商ID',
+  `inbound_date` datetime NOT NULL COMMENT '入库日期',
+  `operator_id` int DEFAULT NULL COMMENT '操作员ID',
+  `remark` varchar(255) DEFAULT NULL COMMENT '备注',
+  `line_count` int NOT NULL DEFAULT 0 COMMENT '明细行数',
+  `total_quantity` int NOT NULL DEFAULT 0 COMMENT '总数量',
+  `approval_status` varchar(20) DEFAULT NULL COMMENT '审批状态',
+  `approver_id` int DEFAULT NULL COMMENT '审批人ID',
+  `approval_time` datetime DEFAULT NULL COMMENT '审批时间',
+  `created_at` datetime DEFAULT NULL COMMENT '创建时间',
+  `updated_at` datetime DEFAULT NULL COMMENT '修改时间',
+  `creator_id` int DEFAULT NULL COMMENT '创建人ID',
+  `updater_id` int DEFAULT NULL COMMENT '修改人ID',
+  `is_deleted` tinyint DEFAULT 0 COMMENT '是否删除：0-否，1-是',
+  `deleted_at` datetime DEFAULT NULL COMMENT '删除时间',
+  `deleter_id` int DEFAULT NULL COMMENT '删除人ID',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_inbound_document_no` (`document_no`),
+  KEY `idx_inbound_document_date` (`inbound_date`),
+  KEY `idx_inbound_document_supplier` (`supplier_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='多行入库单表头';
+
+CREATE TABLE IF NOT EXISTS `inbound_document_line` (
+  `id` bigint NOT NULL COMMENT '明细ID',
+  `document_id` int NOT NULL COMMENT '单据ID',
+  `line_no` int NOT NULL COMMENT '行号',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `quantity` int NOT NULL COMMENT '数量',
+  `remark` varchar(255) DEFAULT NULL COMMENT '备注',
+  PRIMARY KEY (`id`),
+  KEY `idx_inbound_line_document` (`document_id`, `line_no`),
+  KEY `idx_inbound_line_product` (`product_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='多行入库单明细';
+
+CREATE TABLE IF NOT EXISTS `outbound_document` (
+  `id` int NOT NULL AUTO_INCREMENT COMMENT '单据ID',
+  `document_no` varchar(50) NOT NULL COMMENT '单据编号',
+  `customer_id` int DEFAULT NULL COMMENT '客户ID',
+  `outbound_date` datetime NOT NULL COMMENT '出库日期',
+  `operator_id` int DEFAULT NULL COMMENT '操作员ID',
+  `remark` varchar(255) DEFAULT NULL COMMENT '备注',
+  `line_count` int NOT NULL DEFAULT 0 COMMENT '明细行数',
+  `total_quantity` int NOT NULL DEFAULT 0 COMMENT '总数量',
+  `approval_status` varchar(20) DEFAULT NULL COMMENT '审批状态',
+  `approver_id` int DEFAULT NULL COMMENT '审批人ID',
+  `approval_time` datetime DEFAULT NULL COMMENT '审批时间',
+  `created_at` datetime DEFAULT NULL COMMENT '创建时间',
+  `updated_at` datetime DEFAULT NULL COMMENT '修改时间',
+  `creator_id` int DEFAULT NULL COMMENT '创建人ID',
+  `updater_id` int DEFAULT NULL COMMENT '修改人ID',
+  `is_deleted` tinyint DEFAULT 0 COMMENT '是否删除：0-否，1-是',
+  `deleted_at` datetime DEFAULT NULL COMMENT '删除时间',
+  `deleter_id` int DEFAULT NULL COMMENT '删除人ID',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_outbound_document_no` (`document_no`),
+  KEY `idx_outbound_document_date` (`outbound_date`),
+  KEY `idx_outbound_document_customer` (`customer_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='多行出库单表头';
+
+CREATE TABLE IF NOT EXISTS `outbound_document_line` (
+  `id` bigint NOT NULL COMMENT '明细ID',
+  `document_id` int NOT NULL COMMENT '单据ID',
+  `line_no` int NOT NULL COMMENT '行号',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `quantity` int NOT NULL COMMENT '数量',
+  `remark` varchar(255) DEFAULT NULL COMMENT '备注',
+  PRIMARY KEY (`id`),
+  KEY `idx_outbound_line_document` (`document_id`, `line_no`),
+  KEY `idx_outbound_line_product` (`product_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='多行出库单明细';
@@ -0,0 +1,16 @@
+-- 创建库存变更意图表
+-- 热点商品的库存变更先随业务单据提交为意图，再由后台合并写入商品库存与库存流水；未应用的意图在重启后重放
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `stock_intent` (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '意图ID',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `movement_type` varchar(30) NOT NULL COMMENT '流水类型',
+  `quantity` int NOT NULL COMMENT '变更数量（带符号）',
+  `business_id` int DEFAULT NULL COMMENT '业务单据ID',
+  `operator_id` int DEFAULT NULL COMMENT '操作人ID',
+  `created_at` datetime NOT NULL COMMENT '提交时间',
+  PRIMARY KEY (`id`),
+  KEY `idx_intent_product_id` (`product_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='库存变更意图表';
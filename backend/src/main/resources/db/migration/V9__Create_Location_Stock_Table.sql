@@ -0,0 +1,18 @@
+-- 创建库位库存表，并为入库/出库记录增加可选库位
+-- 唯一索引 (location_id, product_id) 用于查询库位上的全部商品，(product_id, location_id) 用于查询商品所在库位
+
+USE warehouse_management;
+
+CREATE TABLE IF NOT EXISTS `location_stock` (
+  `id` int NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `location_id` int NOT NULL COMMENT '库位ID',
+  `product_id` int NOT NULL COMMENT '商品ID',
+  `quantity` int NOT NULL DEFAULT 0 COMMENT '库位上的数量',
+  `updated_at` datetime DEFAULT NULL COMMENT '最后变更时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_location_product` (`location_id`, `product_id`),
+  KEY `idx_location_stock_product` (`product_id`, `location_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='库位库存表';
+
+ALTER TABLE `inbound` ADD COLUMN `location_id` int DEFAULT NULL COMMENT '库位ID' AFTER `supplier_id`;
+ALTER TABLE `outbound` ADD COLUMN `location_id` int DEFAULT NULL COMMENT '库位ID' AFTER `customer_id`;
@@ -0,0 +1,170 @@
+package com.warehouse.cache;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.dto.ProductListDTO;
+import com.warehouse.entity.Category;
+import com.warehouse.entity.Product;
+import com.warehouse.entity.Supplier;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存值编码基准测试
+ * 以一页商品分页结果（含分类、供应商与审计字段）为样本，比较各编码的体积与编解码耗时，
+ * 并校验各编码与压缩组合都能完整还原缓存值；另比较实体分页与列表投影的体积。
+ */
+public class CacheCodecBenchmarkTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int WARMUP = 2_000;
+
+    private static final int ITERATIONS = 5_000;
+
+    // 一页商品数据编码后超过该阈值，压缩组合均走压缩路径
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    @Test
+    @Tag("benchmark")
+    public void compareCodecs() {
+        PageResult<Product> page = samplePage();
+
+        CodecRedisSerializer json = new CodecRedisSerializer(JacksonCacheCodec.json(), 0);
+        CodecRedisSerializer smile = new CodecRedisSerializer(JacksonCacheCodec.smile(), 0);
+        CodecRedisSerializer jsonGzip = new CodecRedisSerializer(JacksonCacheCodec.json(), COMPRESSION_THRESHOLD);
+        CodecRedisSerializer smileGzip = new CodecRedisSerializer(JacksonCacheCodec.smile(), COMPRESSION_THRESHOLD);
+
+        int jsonSize = run("json", json, page);
+        int smileSize = run("smile", smile, page);
+        int jsonGzipSize = run("json+gzip", jsonGzip, page);
+        int smileGzipSize = run("smile+gzip", smileGzip, page);
+
+        assertTrue(smileSize < jsonSize, "smile编码应小于json编码");
+        assertTrue(jsonGzipSize < jsonSize, "超过阈值的值应压缩存储");
+        assertTrue(smileGzipSize < smileSize, "超过阈值的值应压缩存储");
+    }
+
+    @Test
+    public void listProjectionIsSmallerThanEntityPage() {
+        PageResult<Product> entities = samplePage();
+        List<ProductListDTO> records = new ArrayList<>();
+        for (Product product : entities.getRecords()) {
+            records.add(new ProductListDTO(product.getId(), product.getCode(), product.getName(),
+                    product.getCategory().getId(), product.getCategory().getName(),
+                    product.getSupplier().getId(), product.getSupplier().getName(),
+                    product.getPrice(), product.getStockQty(), product.getMinStock(), product.getLowStock(),
+                    product.getUnit(), product.getBarcode(), product.getImageUrl(), product.getStatus(),
+                    product.getVersion()));
+        }
+        PageResult<ProductListDTO> projections = new PageResult<>(records, entities.getTotal(),
+                entities.getCurrentPage(), entities.getPageSize());
+
+        for (CacheValueCodec codec : new CacheValueCodec[]{JacksonCacheCodec.json(), JacksonCacheCodec.smile()}) {
+            CodecRedisSerializer serializer = new CodecRedisSerializer(codec, 0);
+            int entitySize = serializer.serialize(entities).length;
+            byte[] bytes = serializer.serialize(projections);
+            System.out.printf("[%-5s] 实体分页=%d字节, 列表投影=%d字节%n", codec.getName(), entitySize, bytes.length);
+            assertTrue(bytes.length < entitySize, "列表投影应小于实体分页");
+
+            @SuppressWarnings("unchecked")
+            PageResult<ProductListDTO> restored = (PageResult<ProductListDTO>) serializer.deserialize(bytes);
+            assertEquals(PAGE_SIZE, restored.getRecords().size());
+            assertEquals(records.get(0).getCategory().getName(), restored.getRecords().get(0).getCategory().getName());
+            assertEquals(records.get(0).getStockQty(), restored.getRecords().get(0).getStockQty());
+        }
+    }
+
+    @Test
+    public void undecodableValueIsTreatedAsMiss() {
+        CodecRedisSerializer smile = new CodecRedisSerializer(JacksonCacheCodec.smile(), 0);
+        byte[] legacyJson = new CodecRedisSerializer(JacksonCacheCodec.json(), 0).serialize(samplePage());
+
+        assertEquals(null, smile.deserialize(legacyJson));
+    }
+
+    private int run(String name, CodecRedisSerializer serializer, PageResult<Product> page) {
+        byte[] bytes = serializer.serialize(page);
+        assertRoundTrip(page, serializer.deserialize(bytes));
+
+        for (int i = 0; i < WARMUP; i++) {
+            serializer.deserialize(serializer.serialize(page));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.serialize(page);
+        }
+        long encodeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serializer.deserialize(bytes);
+        }
+        long decodeNanos = System.nanoTime() - start;
+
+        System.out.printf("[%-10s] 体积=%d字节, 编码=%.1fμs/次, 解码=%.1fμs/次%n",
+                name, bytes.length, encodeNanos / 1000.0 / ITERATIONS, decodeNanos / 1000.0 / ITERATIONS);
+        return bytes.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertRoundTrip(PageResult<Product> expected, Object actual) {
+        assertTrue(actual instanceof PageResult, "缓存值类型未还原");
+        PageResult<Product> page = (PageResult<Product>) actual;
+        assertEquals(expected.getTotal(), page.getTotal());
+        assertEquals(expected.getRecords().size(), page.getRecords().size());
+        for (int i = 0; i < expected.getRecords().size(); i++) {
+            Product source = expected.getRecords().get(i);
+            Product restored = page.getRecords().get(i);
+            assertEquals(source.getId(), restored.getId());
+            assertEquals(source.getCode(), restored.getCode());
+            assertEquals(source.getStockQty(), restored.getStockQty());
+            assertEquals(0, source.getPrice().compareTo(restored.getPrice()));
+            assertEquals(source.getCreatedAt(), restored.getCreatedAt());
+            assertEquals(source.getCategory().getName(), restored.getCategory().getName());
+            assertEquals(source.getSupplier().getName(), restored.getSupplier().getName());
+        }
+    }
+
+    private static PageResult<Product> samplePage() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Product> records = new ArrayList<>();
+        for (int id = 1; id <= PAGE_SIZE; id++) {
+            Category category = new Category();
+            category.setId(id % 4 + 1);
+            category.setName("分类" + (id % 4 + 1));
+            category.setDescription("常用物料");
+
+            Supplier supplier = new Supplier();
+            supplier.setId(id % 3 + 1);
+            supplier.setName("供应商" + (id % 3 + 1));
+            supplier.setContactPerson("张三");
+            supplier.setPhone("1380000000" + id % 10);
+
+            Product product = new Product();
+            product.setId(id);
+            product.setCode("P" + (10000 + id));
+            product.setName("商品" + id);
+            product.setCategory(category);
+            product.setSupplier(supplier);
+            product.setPrice(new BigDecimal("12.50").add(BigDecimal.valueOf(id)));
+            product.setStockQty(100 + id);
+            product.setMinStock(10);
+            product.setBarcode("69" + (1000000000L + id));
+            product.setDescription("商品" + id + "的说明");
+            product.setCreatedAt(now.minusDays(id));
+            product.setUpdatedAt(now);
+            product.setCreatorId(1);
+            records.add(product);
+        }
+        return new PageResult<>(records, 200L, 1, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,76 @@
+package com.warehouse.cache;
+
+import com.warehouse.config.ProductPageKeyGenerator;
+import com.warehouse.service.ProductService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存键生成基准测试
+ * 按两级缓存的使用方式（生成键后取字符串形式作为L1与Redis键）比较旧的拼接格式与结构化键的
+ * 单次耗时与分配字节数。分配字节数依赖 HotSpot 的线程分配统计，不支持时只输出耗时。
+ * 键的正确性由 {@link CacheKeyTest} 覆盖，本类只在 -Pbenchmark 时运行。
+ */
+@Tag("benchmark")
+public class CacheKeyBenchmarkTest {
+
+    private static final int WARMUP = 200_000;
+
+    private static final int ITERATIONS = 1_000_000;
+
+    @Test
+    public void compareKeyGeneration() throws Exception {
+        ProductPageKeyGenerator generator = CacheKeyTest.productPageKeyGenerator();
+        ProductService target = new ProductService();
+        Method method = CacheKeyTest.getProductsMethod();
+        List<Object[]> combinations = CacheKeyTest.combinations();
+
+        long legacySink = run("旧格式拼接", combinations, params ->
+                CacheKeyTest.legacyKey((Integer) params[2], params).length());
+        long structuredSink = run("结构化键", combinations, params ->
+                generator.generate(target, method, params).toString().length());
+
+        assertTrue(legacySink > 0 && structuredSink > 0);
+    }
+
+    private long run(String name, List<Object[]> combinations, KeyFunction function) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += function.apply(combinations.get(i % combinations.size()));
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += function.apply(combinations.get(i % combinations.size()));
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        if (allocatedBefore >= 0) {
+            System.out.printf("[%-6s] 耗时=%.1fns/次, 分配=%d字节/次%n",
+                    name, (double) nanos / ITERATIONS, allocated / ITERATIONS);
+        } else {
+            System.out.printf("[%-6s] 耗时=%.1fns/次%n", name, (double) nanos / ITERATIONS);
+        }
+        return sink;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private interface KeyFunction {
+        int apply(Object[] params);
+    }
+}
@@ -0,0 +1,164 @@
+package com.warehouse.cache;
+
+import com.warehouse.config.CacheKeyGenerator;
+import com.warehouse.config.ProductPageKeyGenerator;
+import com.warehouse.service.InboundService;
+import com.warehouse.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存键碰撞测试：遍历 getProducts 的参数组合（含null、字符串"null"、含分隔符的字符串），
+ * 不同参数的键与字符串编码都不相同，相同参数的键相等且编码稳定；商品分页键保留查询范围前缀。
+ */
+public class CacheKeyTest {
+
+    private static final String[] CODES = {null, "null", "", "~", "a", "a:b", "s1=a", "1"};
+
+    private static final String[] NAMES = {null, "null", "b", "b:c", "a:b:c"};
+
+    private static final Integer[] CATEGORY_IDS = {null, 1, 12};
+
+    private static final Integer[] STATUSES = {null, 0, 1};
+
+    private static final Integer[] STOCK_BOUNDS = {null, 1};
+
+    private static final Integer[] PAGES = {1, 11};
+
+    private static final Integer[] SIZES = {10, 110};
+
+    @Test
+    public void productPageParameterSpaceHasNoCollisions() throws Exception {
+        ProductPageKeyGenerator generator = productPageKeyGenerator();
+        ProductService target = new ProductService();
+        Method method = getProductsMethod();
+
+        List<Object[]> combinations = combinations();
+        Set<Object> keys = new HashSet<>();
+        Map<String, Object[]> encodings = new HashMap<>();
+        for (Object[] params : combinations) {
+            Object key = generator.generate(target, method, params);
+            Object again = generator.generate(target, method, params.clone());
+            assertEquals(key, again);
+            assertEquals(key.hashCode(), again.hashCode());
+            assertEquals(key.toString(), again.toString());
+
+            keys.add(key);
+            Object[] previous = encodings.put(key.toString(), params);
+            assertTrue(previous == null, "键编码冲突：" + Arrays.toString(previous) + " 与 " + Arrays.toString(params));
+        }
+        System.out.printf("[缓存键] 参数组合=%d, 不同键=%d, 不同编码=%d, 旧格式不同编码=%d%n",
+                combinations.size(), keys.size(), encodings.size(), legacyDistinct(combinations));
+        assertEquals(combinations.size(), keys.size());
+    }
+
+    @Test
+    public void productPageKeyKeepsScopePrefix() throws Exception {
+        Object key = productPageKeyGenerator().generate(new ProductService(), getProductsMethod(),
+                "a|b", null, 12, null, null, null, 1, 10);
+
+        assertEquals("category:12|ProductService:getProducts:s3=a|b:~:i12:~:~:~:i1:i10", key.toString());
+        assertEquals(Arrays.asList("category:12"), new ArrayList<>(ProductCacheInvalidator.tags(key, null)));
+        Object unscoped = productPageKeyGenerator().generate(new ProductService(), getProductsMethod(),
+                null, null, null, null, null, null, 1, 10);
+        assertTrue(unscoped.toString().startsWith(ProductCacheInvalidator.scopeTag(null)
+                + ProductCacheInvalidator.SCOPE_SEPARATOR));
+    }
+
+    @Test
+    public void parameterTypesAreDistinguished() {
+        assertNotEquals(CacheKey.of("t", 1), CacheKey.of("t", 1L));
+        assertNotEquals(CacheKey.of("t", 1).toString(), CacheKey.of("t", 1L).toString());
+        assertNotEquals(CacheKey.of("t", 1).toString(), CacheKey.of("t", "1").toString());
+        assertNotEquals(CacheKey.of("t", (Object) null).toString(), CacheKey.of("t", "null").toString());
+        assertNotEquals(CacheKey.of("t", "a:b", "c").toString(), CacheKey.of("t", "a", "b:c").toString());
+        assertNotEquals(CacheKey.of("t", "a", "b"), CacheKey.of("t2", "a", "b"));
+        assertNotEquals(CacheKey.of("x", "t", "a"), CacheKey.of(null, "t", "a"));
+        assertEquals(CacheKey.of("t", true, (short) 2), CacheKey.of("t", true, (short) 2));
+    }
+
+    @Test
+    public void inboundListKeyEncodesDatesAndNulls() throws Exception {
+        Method method = InboundService.class.getMethod("getInbounds", LocalDateTime.class, LocalDateTime.class,
+                Integer.class, Integer.class, Integer.class, Integer.class);
+        CacheKeyGenerator generator = new CacheKeyGenerator();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        Object key = generator.generate(new InboundService(), method, start, null, 5, null, 1, 20);
+        assertEquals("InboundService:getInbounds:ojava.time.LocalDateTime#16=2024-01-01T00:00:~:i5:~:i1:i20",
+                key.toString());
+        assertEquals(key, generator.generate(new InboundService(), method,
+                LocalDateTime.of(2024, 1, 1, 0, 0, 0), null, 5, null, 1, 20));
+        // 起止日期互换、空值位置不同时键不同
+        assertNotEquals(key, generator.generate(new InboundService(), method, null, start, 5, null, 1, 20));
+        assertNotEquals(key, generator.generate(new InboundService(), method, start, null, null, 5, 1, 20));
+    }
+
+    static ProductPageKeyGenerator productPageKeyGenerator() {
+        ProductPageKeyGenerator generator = new ProductPageKeyGenerator();
+        ReflectionTestUtils.setField(generator, "cacheKeyGenerator", new CacheKeyGenerator());
+        return generator;
+    }
+
+    static Method getProductsMethod() throws NoSuchMethodException {
+        return ProductService.class.getMethod("getProducts", String.class, String.class, Integer.class,
+                Integer.class, Integer.class, Integer.class, Integer.class, Integer.class);
+    }
+
+    static List<Object[]> combinations() {
+        List<Object[]> result = new ArrayList<>();
+        for (String code : CODES) {
+            for (String name : NAMES) {
+                for (Integer categoryId : CATEGORY_IDS) {
+                    for (Integer status : STATUSES) {
+                        for (Integer minStock : STOCK_BOUNDS) {
+                            for (Integer maxStock : STOCK_BOUNDS) {
+                                for (Integer page : PAGES) {
+                                    for (Integer size : SIZES) {
+                                        result.add(new Object[]{code, name, categoryId, status,
+                                                minStock, maxStock, page, size});
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 旧格式：参数toString后以冒号拼接
+     */
+    static String legacyKey(Integer categoryId, Object... params) {
+        StringBuilder sb = new StringBuilder("ProductService:getProducts:");
+        for (Object param : params) {
+            sb.append(param != null ? param : "null").append(":");
+        }
+        sb.setLength(sb.length() - 1);
+        return ProductCacheInvalidator.scopeTag(categoryId) + ProductCacheInvalidator.SCOPE_SEPARATOR + sb;
+    }
+
+    private static int legacyDistinct(List<Object[]> combinations) {
+        Set<String> keys = new HashSet<>();
+        for (Object[] params : combinations) {
+            keys.add(legacyKey((Integer) params[2], params));
+        }
+        return keys.size();
+    }
+}
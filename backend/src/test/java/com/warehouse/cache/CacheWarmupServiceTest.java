@@ -0,0 +1,117 @@
+package com.warehouse.cache;
+
+import com.warehouse.config.AppCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 缓存预热测试：关键任务全部成功后才就绪，失败的关键任务在下一轮成功后就绪，停用的任务不执行。
+ */
+public class CacheWarmupServiceTest {
+
+    private CacheWarmupService service;
+
+    @AfterEach
+    public void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void readyOnlyAfterCriticalTasksSucceed() throws Exception {
+        AtomicBoolean categoriesFail = new AtomicBoolean(true);
+        AtomicInteger productRuns = new AtomicInteger();
+        AtomicInteger disabledRuns = new AtomicInteger();
+        service = service(properties("categories", "suppliers"),
+                new CacheWarmupTask("categories", () -> {
+                    if (categoriesFail.get()) {
+                        throw new RuntimeException("数据库不可用");
+                    }
+                }),
+                new CacheWarmupTask("suppliers", () -> { }),
+                new CacheWarmupTask("products", productRuns::incrementAndGet),
+                new CacheWarmupTask("disabled", disabledRuns::incrementAndGet));
+        assertFalse(service.isCriticalWarm());
+
+        service.warmUp().get(10, TimeUnit.SECONDS);
+        assertFalse(service.isCriticalWarm(), "关键任务失败时不能就绪");
+        Map<String, Object> progress = service.getProgress();
+        assertEquals(3, progress.get("completed"));
+        assertEquals(3, progress.get("total"));
+        assertEquals("FAILED", task(progress, "categories").get("state"));
+        assertEquals("数据库不可用", task(progress, "categories").get("error"));
+
+        categoriesFail.set(false);
+        service.warmUp().get(10, TimeUnit.SECONDS);
+        assertTrue(service.isCriticalWarm());
+        assertEquals("SUCCEEDED", task(service.getProgress(), "categories").get("state"));
+        assertEquals(2, productRuns.get());
+        assertEquals(0, disabledRuns.get());
+
+        // 就绪后定时预热失败不影响就绪状态
+        categoriesFail.set(true);
+        service.warmUp().get(10, TimeUnit.SECONDS);
+        assertTrue(service.isCriticalWarm());
+    }
+
+    @Test
+    public void overlappingRunsAreSkipped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        service = service(properties(), new CacheWarmupTask("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(service.isCriticalWarm(), "没有关键任务时不阻塞就绪");
+
+        CompletableFuture<Void> first = service.warmUp();
+        assertNull(service.warmUp());
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        assertEquals(false, service.getProgress().get("running"));
+    }
+
+    private static AppCacheProperties properties(String... criticalTasks) {
+        AppCacheProperties properties = new AppCacheProperties();
+        for (String name : criticalTasks) {
+            AppCacheProperties.WarmupTaskSpec spec = new AppCacheProperties.WarmupTaskSpec();
+            spec.setCritical(true);
+            properties.getWarmup().getTasks().put(name, spec);
+        }
+        AppCacheProperties.WarmupTaskSpec disabled = new AppCacheProperties.WarmupTaskSpec();
+        disabled.setEnabled(false);
+        disabled.setCritical(true);
+        properties.getWarmup().getTasks().put("disabled", disabled);
+        return properties;
+    }
+
+    private static CacheWarmupService service(AppCacheProperties properties, CacheWarmupTask... tasks) {
+        CacheWarmupService service = new CacheWarmupService();
+        ReflectionTestUtils.setField(service, "cacheProperties", properties);
+        ReflectionTestUtils.setField(service, "tasks", Arrays.asList(tasks));
+        service.init();
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> task(Map<String, Object> progress, String name) {
+        return ((Map<String, Map<String, Object>>) progress.get("tasks")).get(name);
+    }
+}
@@ -0,0 +1,230 @@
+package com.warehouse.cache;
+
+import com.warehouse.common.PageResult;
+import com.warehouse.dto.ProductListDTO;
+import com.warehouse.event.StockChangedEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品分页缓存命中率基准测试
+ * 在读多写少的业务高峰负载下（95%分页查询、5%库存变更），比较每次库存变更清空整个缓存
+ * 与按商品标签定向失效两种方式的命中率，并校验定向失效不会读到旧库存，
+ * 包括回源与库存变更交错时的旧结果。
+ */
+public class ProductCacheHitRateBenchmarkTest {
+
+    private static final int PRODUCTS = 500;
+
+    private static final int CATEGORIES = 10;
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int OPERATIONS = 20_000;
+
+    private static final double WRITE_RATIO = 0.05;
+
+    private final int[] stock = new int[PRODUCTS + 1];
+
+    @Test
+    @Tag("benchmark")
+    public void targetedInvalidationKeepsUnaffectedPagesCached() {
+        Setup allEntries = new Setup();
+        double allEntriesHitRate = run(allEntries, productId -> allEntries.cache.clear());
+
+        Setup targeted = new Setup();
+        double targetedHitRate = run(targeted,
+                productId -> targeted.invalidator.onStockChanged(new StockChangedEvent(productId)));
+
+        System.out.printf("[全部清空] 操作数=%d, 写入比例=%.0f%%, 命中率=%.1f%%%n",
+                OPERATIONS, WRITE_RATIO * 100, allEntriesHitRate * 100);
+        System.out.printf("[定向失效] 操作数=%d, 写入比例=%.0f%%, 命中率=%.1f%%%n",
+                OPERATIONS, WRITE_RATIO * 100, targetedHitRate * 100);
+        assertTrue(targetedHitRate > allEntriesHitRate * 1.5, "定向失效的命中率应显著高于全部清空");
+    }
+
+    @Test
+    public void scopeInvalidationOnlyClearsAffectedCategories() {
+        Setup setup = new Setup();
+        Arrays.fill(stock, 10);
+        read(setup, null, 1);
+        read(setup, 1, 1);
+        read(setup, 2, 1);
+
+        // 新增分类1的商品：分类1与不限分类的页失效，分类2的页保留
+        setup.invalidator.evictProductScope(PRODUCTS + 1, 1);
+
+        assertEquals(null, setup.cache.get(key(null, 1)));
+        assertEquals(null, setup.cache.get(key(1, 1)));
+        assertTrue(setup.cache.get(key(2, 1)) != null);
+    }
+
+    @Test
+    public void loadOverlappingStockChangeIsNotCached() throws Exception {
+        Setup setup = new Setup();
+        Arrays.fill(stock, 10);
+        String key = key(null, 1);
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // 回源读到变更前的库存，库存变更提交并按标签失效后才写入缓存
+        Future<PageResult<ProductListDTO>> future = executor.submit(() -> setup.cache.get(key, () -> {
+            PageResult<ProductListDTO> page = loadPage(null, 1);
+            loaded.countDown();
+            changed.await();
+            return page;
+        }));
+        assertTrue(loaded.await(10, TimeUnit.SECONDS));
+        stock[1]--;
+        setup.invalidator.onStockChanged(new StockChangedEvent(1));
+        changed.countDown();
+
+        assertEquals(10, future.get(10, TimeUnit.SECONDS).getRecords().get(0).getStockQty().intValue());
+        executor.shutdown();
+        assertNull(setup.cache.get(key), "回源期间发生变更时结果不应写入缓存");
+        read(setup, null, 1);
+        read(setup, null, 1);
+    }
+
+    private double run(Setup setup, IntConsumer onStockChanged) {
+        Arrays.fill(stock, 100);
+        Random random = new Random(42);
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (random.nextDouble() < WRITE_RATIO) {
+                int productId = 1 + random.nextInt(PRODUCTS);
+                stock[productId]--;
+                onStockChanged.accept(productId);
+            } else {
+                // 约一半查询不限分类，前几页最常访问
+                Integer categoryId = random.nextBoolean() ? null : 1 + random.nextInt(CATEGORIES);
+                int page = 1 + Math.min(4, (int) (-Math.log(1 - random.nextDouble()) * 1.5));
+                read(setup, categoryId, page);
+            }
+        }
+        Map<String, Object> stats = setup.manager.getStatistics().get(ProductCacheInvalidator.CACHE_NAME);
+        return (Double) stats.get("hitRate");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void read(Setup setup, Integer categoryId, int page) {
+        String key = key(categoryId, page);
+        Cache.ValueWrapper cached = setup.cache.get(key);
+        if (cached == null) {
+            setup.cache.put(key, loadPage(categoryId, page));
+            return;
+        }
+        for (ProductListDTO product : ((PageResult<ProductListDTO>) cached.get()).getRecords()) {
+            assertEquals(stock[product.getId()], product.getStockQty().intValue(), "缓存页中的库存已过期");
+        }
+    }
+
+    private PageResult<ProductListDTO> loadPage(Integer categoryId, int page) {
+        List<ProductListDTO> matched = new ArrayList<>();
+        for (int id = 1; id <= PRODUCTS; id++) {
+            if (categoryId == null || id % CATEGORIES + 1 == categoryId) {
+                ProductListDTO product = new ProductListDTO();
+                product.setId(id);
+                product.setStockQty(stock[id]);
+                matched.add(product);
+            }
+        }
+        int from = Math.min(matched.size(), (page - 1) * PAGE_SIZE);
+        int to = Math.min(matched.size(), from + PAGE_SIZE);
+        return new PageResult<>((long) matched.size(), new ArrayList<>(matched.subList(from, to)));
+    }
+
+    private static String key(Integer categoryId, int page) {
+        return ProductCacheInvalidator.scopeTag(categoryId) + ProductCacheInvalidator.SCOPE_SEPARATOR
+                + "ProductService:getProducts:null:null:" + categoryId + ":null:null:null:" + page + ":" + PAGE_SIZE;
+    }
+
+    /**
+     * 两级缓存 + 标签索引，Redis由内存集合模拟
+     */
+    private static class Setup {
+        final TwoLevelCacheManager manager;
+        final ProductCacheInvalidator invalidator;
+        final Cache cache;
+
+        @SuppressWarnings("unchecked")
+        Setup() {
+            Map<String, Set<String>> sets = new HashMap<>();
+            StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+
+            StringRedisConnection connection = mock(StringRedisConnection.class);
+            when(connection.sAdd(anyString(), any(String[].class))).thenAnswer(invocation -> {
+                String[] members = Arrays.copyOfRange(invocation.getArguments(), 1,
+                        invocation.getArguments().length, String[].class);
+                sets.computeIfAbsent(invocation.getArgument(0), k -> new LinkedHashSet<>())
+                        .addAll(Arrays.asList(members));
+                return 1L;
+            });
+            doAnswer(invocation -> {
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+                return Collections.emptyList();
+            }).when(redisTemplate).executePipelined(any(RedisCallback.class));
+
+            SetOperations<String, String> setOperations = mock(SetOperations.class);
+            when(setOperations.pop(anyString(), anyLong())).thenAnswer(invocation -> {
+                Set<String> members = sets.getOrDefault(invocation.<String>getArgument(0), Collections.emptySet());
+                List<String> popped = new ArrayList<>();
+                Iterator<String> iterator = members.iterator();
+                while (iterator.hasNext() && popped.size() < invocation.<Long>getArgument(1)) {
+                    popped.add(iterator.next());
+                    iterator.remove();
+                }
+                return popped;
+            });
+            when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+            manager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(), redisTemplate, 1000, 60_000);
+            manager.afterPropertiesSet();
+
+            CacheTagIndex tagIndex = new CacheTagIndex();
+            ReflectionTestUtils.setField(tagIndex, "redisTemplate", redisTemplate);
+            ReflectionTestUtils.setField(tagIndex, "cacheManager", manager);
+            ReflectionTestUtils.setField(tagIndex, "tagTtlMinutes", 20L);
+
+            invalidator = new ProductCacheInvalidator();
+            ReflectionTestUtils.setField(invalidator, "cacheTagIndex", tagIndex);
+            invalidator.init();
+
+            cache = manager.getCache(ProductCacheInvalidator.CACHE_NAME);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.warehouse.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 两级缓存测试：两个节点共享同一个L2，失效广播使另一节点丢弃L1副本，分层命中、淘汰与回源分别统计；
+ * CacheKey命中L1时不生成编码；并发未命中只回源一次，热点key到期前提前刷新。
+ */
+public class TwoLevelCacheManagerTest {
+
+    private static final int THREADS = 16;
+
+    private final List<TwoLevelCacheManager> nodes = new ArrayList<>();
+
+    private TwoLevelCacheManager nodeA;
+
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        // 用内存缓存模拟共享的Redis缓存，广播投递给所有节点（模拟Redis发布/订阅）
+        ConcurrentMapCacheManager sharedL2 = new ConcurrentMapCacheManager();
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(invocation -> {
+            byte[] channel = TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8);
+            byte[] body = invocation.<String>getArgument(1).getBytes(StandardCharsets.UTF_8);
+            for (TwoLevelCacheManager node : nodes) {
+                node.onMessage(new DefaultMessage(channel, body), null);
+            }
+            return 1L;
+        }).when(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), anyString());
+
+        nodeA = node(sharedL2, redisTemplate, 100);
+        nodeB = node(sharedL2, redisTemplate, 100);
+    }
+
+    @Test
+    public void readsFallThroughTiersAndEvictionIsBroadcast() {
+        Cache cacheA = nodeA.getCache("products");
+        Cache cacheB = nodeB.getCache("products");
+
+        cacheA.put("page:1", "v1");
+        assertEquals("v1", cacheB.get("page:1").get());
+        assertEquals("v1", cacheB.get("page:1").get());
+
+        Map<String, Object> statsB = nodeB.getStatistics().get("products");
+        assertEquals(1L, statsB.get("l2Hits"));
+        assertEquals(1L, statsB.get("l1Hits"));
+
+        // 节点A更新后节点B不能再读到旧的L1副本
+        cacheA.put("page:1", "v2");
+        assertEquals("v2", cacheB.get("page:1").get());
+
+        cacheA.evict("page:1");
+        assertNull(cacheB.get("page:1"));
+        assertEquals(1L, nodeB.getStatistics().get("products").get("misses"));
+
+        cacheB.put("page:2", "v3");
+        assertEquals("v3", cacheA.get("page:2").get());
+        cacheB.clear();
+        assertNull(cacheA.get("page:2"));
+    }
+
+    @Test
+    public void structuredKeysHitLocalTierWithoutEncoding() {
+        Cache cacheA = nodeA.getCache("products");
+        Cache cacheB = nodeB.getCache("products");
+        CountingParam param = new CountingParam();
+
+        cacheA.put(CacheKey.of("t", param), "v1");
+        int encodings = param.encodings.get();
+        // 相等的新CacheKey实例按哈希命中L1，不再生成字符串编码
+        assertEquals("v1", cacheA.get(CacheKey.of("t", param)).get());
+        assertEquals(encodings, param.encodings.get());
+        assertEquals(1L, nodeA.getStatistics("products").get("l1Hits"));
+
+        // 其他节点的失效广播与按标签失效都只带字符串编码
+        assertEquals("v1", cacheB.get(CacheKey.of("t", param)).get());
+        cacheA.evict(CacheKey.of("t", param));
+        assertNull(cacheB.get(CacheKey.of("t", param)));
+
+        cacheA.put(CacheKey.of("t", param), "v2");
+        assertEquals(1, nodeA.getStatistics("products").get("l1Size"));
+        cacheA.evict(CacheKey.of("t", param).toString());
+        assertEquals(0, nodeA.getStatistics("products").get("l1Size"));
+    }
+
+    @Test
+    public void localTierIsBounded() {
+        ConcurrentMapCacheManager l2 = new ConcurrentMapCacheManager();
+        TwoLevelCacheManager manager = node(l2, mock(StringRedisTemplate.class), 2);
+        Cache cache = manager.getCache("categories");
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(2, manager.getStatistics().get("categories").get("l1Size"));
+        // 最久未访问的b被淘汰出L1，仍可从L2读取
+        assertEquals(2, cache.get("b").get());
+        assertEquals(1L, manager.getStatistics().get("categories").get("l2Hits"));
+    }
+
+    @Test
+    public void perCacheSpecAndStatistics() throws Exception {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(),
+                mock(StringRedisTemplate.class), 100, 60_000);
+        manager.setLocalCacheSpec("systemConfigs", 1, 30_000);
+        manager.afterPropertiesSet();
+        Cache cache = manager.getCache("systemConfigs");
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        // @Cacheable的调用方式：未命中后回源，再写入同一key
+        assertNull(cache.get("c"));
+        Thread.sleep(5);
+        cache.put("c", 3);
+        assertEquals(4, cache.get("d", () -> 4));
+        cache.evict("d");
+
+        Map<String, Object> stats = manager.getStatistics("systemConfigs");
+        assertEquals(1, stats.get("l1MaxEntries"));
+        assertEquals(30L, stats.get("l1TtlSeconds"));
+        assertEquals(3L, stats.get("evictions"));
+        assertEquals(1L, stats.get("invalidations"));
+        assertEquals(2L, stats.get("loads"));
+        assertTrue((Double) stats.get("maxLoadMillis") >= 5.0);
+
+        // 未单独设置的缓存使用默认容量
+        manager.getCache("products");
+        assertEquals(100, manager.getStatistics("products").get("l1MaxEntries"));
+    }
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        Cache cache = nodeA.getCache("products");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<String>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                return cache.get("page:1", () -> {
+                    loads.incrementAndGet();
+                    Thread.sleep(100);
+                    return "v1";
+                });
+            }));
+        }
+        startGate.countDown();
+        for (Future<String> future : futures) {
+            assertEquals("v1", future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, loads.get());
+        assertEquals(1L, nodeA.getStatistics("products").get("loads"));
+    }
+
+    @Test
+    public void loadInvalidatedWhileInFlightIsNotCached() throws Exception {
+        Cache cache = nodeA.getCache("products");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Future<String> future = executor.submit(() -> cache.get("page:1", () -> {
+            loading.countDown();
+            evicted.await();
+            return "stale";
+        }));
+        loading.await();
+        cache.evict("page:1");
+        evicted.countDown();
+
+        assertEquals("stale", future.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertNull(cache.get("page:1"));
+    }
+
+    @Test
+    public void hotKeyIsRefreshedBeforeExpiry() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(),
+                mock(StringRedisTemplate.class), 100, 60_000);
+        // 系数足够大时，回源耗时的若干倍即覆盖整个存活时间，下一次读取几乎必然提前刷新
+        manager.setEarlyRefresh("products", 1_000_000_000);
+        manager.afterPropertiesSet();
+        Cache cache = manager.getCache("products");
+        AtomicInteger version = new AtomicInteger();
+        Callable<Integer> loader = () -> {
+            Thread.sleep(2);
+            return version.incrementAndGet();
+        };
+
+        assertEquals(1, cache.get("page:1", loader));
+        assertEquals(2, cache.get("page:1", loader));
+        assertEquals(2, cache.get("page:1").get());
+        assertEquals(1L, manager.getStatistics("products").get("earlyRefreshes"));
+
+        // 未开启提前刷新的缓存在到期前一直返回缓存值
+        Cache categories = manager.getCache("categories");
+        assertEquals(3, categories.get("all", loader));
+        assertEquals(3, categories.get("all", loader));
+    }
+
+    /**
+     * 统计字符串编码次数的参数
+     */
+    private static class CountingParam {
+        final AtomicInteger encodings = new AtomicInteger();
+
+        @Override
+        public String toString() {
+            encodings.incrementAndGet();
+            return "p";
+        }
+    }
+
+    private TwoLevelCacheManager node(ConcurrentMapCacheManager l2, StringRedisTemplate redisTemplate, int maxEntries) {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(l2, redisTemplate, maxEntries, 60_000);
+        manager.afterPropertiesSet();
+        nodes.add(manager);
+        return manager;
+    }
+}
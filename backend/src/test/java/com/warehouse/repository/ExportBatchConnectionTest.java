@@ -0,0 +1,98 @@
+package com.warehouse.repository;
+
+import com.warehouse.dto.MovementExportRowDTO;
+import com.warehouse.entity.Inbound;
+import com.warehouse.entity.Product;
+import com.warehouse.util.BatchIterator;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 导出分批读取测试：未绑定请求级EntityManager时（报表与导出接口不启用OpenEntityManagerInView），
+ * 每批查询结束即归还连接，两批之间不占用连接池。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ExportBatchConnectionTest {
+
+    private static final int BATCH_SIZE = 5;
+
+    private static final int INBOUNDS = 12;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InboundRepository inboundRepository;
+
+    @BeforeEach
+    public void setUp() {
+        Product product = new Product();
+        product.setCode("EXP-P-1");
+        product.setName("EXP-P-1");
+        product = productRepository.save(product);
+
+        for (int i = 1; i <= INBOUNDS; i++) {
+            Inbound inbound = new Inbound();
+            inbound.setInboundNo("EXP-IN-" + i);
+            inbound.setProduct(product);
+            inbound.setQuantity(i);
+            inbound.setInboundDate(LocalDateTime.now());
+            inboundRepository.save(inbound);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        inboundRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void batchesDoNotHoldConnection() throws SQLException {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        Pageable batch = PageRequest.of(0, BATCH_SIZE);
+        List<Integer> activeBeforeBatch = new ArrayList<>();
+        Iterator<MovementExportRowDTO> rows = new BatchIterator<>(BATCH_SIZE, last -> {
+            activeBeforeBatch.add(pool.getActiveConnections());
+            return inboundRepository.findExportRowsAfter(last != null ? last.getId() : 0, null, null, batch);
+        });
+
+        int count = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            count++;
+            // 写出当前批次的行时不占用连接
+            assertEquals(0, pool.getActiveConnections());
+        }
+
+        assertEquals(INBOUNDS, count);
+        assertEquals(3, activeBeforeBatch.size());
+        activeBeforeBatch.forEach(active -> assertEquals(0, active.intValue()));
+    }
+}
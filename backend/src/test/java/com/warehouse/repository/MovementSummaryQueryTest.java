@@ -0,0 +1,149 @@
+package com.warehouse.repository;
+
+import com.warehouse.dto.MovementSummaryDTO;
+import com.warehouse.entity.Inbound;
+import com.warehouse.entity.Product;
+import com.warehouse.entity.Supplier;
+import com.warehouse.enums.ReportGroupBy;
+import com.warehouse.service.ReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 出入库汇总查询测试：按商品、供应商、日/周/月在数据库中分组后的单数与数量。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MovementSummaryQueryTest {
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InboundRepository inboundRepository;
+
+    private ReportService reportService;
+
+    private Product apple;
+
+    private Product pear;
+
+    private Supplier supplier;
+
+    @BeforeEach
+    public void setUp() {
+        supplier = new Supplier();
+        supplier.setName("SUM-SUP");
+        supplier = supplierRepository.save(supplier);
+
+        apple = saveProduct("SUM-P-1");
+        pear = saveProduct("SUM-P-2");
+
+        // 2024-01-01、01-02 属于ISO第1周，01-08 属于第2周，02-05 属于2月
+        saveInbound("SUM-IN-1", apple, supplier, 10, LocalDateTime.of(2024, 1, 1, 9, 0));
+        saveInbound("SUM-IN-2", apple, supplier, 5, LocalDateTime.of(2024, 1, 1, 15, 30));
+        saveInbound("SUM-IN-3", pear, null, 7, LocalDateTime.of(2024, 1, 2, 10, 0));
+        saveInbound("SUM-IN-4", pear, supplier, 20, LocalDateTime.of(2024, 1, 8, 8, 0));
+        saveInbound("SUM-IN-5", apple, null, 3, LocalDateTime.of(2024, 2, 5, 8, 0));
+
+        reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "inboundRepository", inboundRepository);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        inboundRepository.deleteAll();
+        productRepository.deleteAll();
+        supplierRepository.deleteAll();
+    }
+
+    @Test
+    public void summarizeByProductAndSupplier() {
+        List<MovementSummaryDTO> byProduct = reportService.summarizeInbound(ReportGroupBy.PRODUCT, null, null);
+        assertEquals(2, byProduct.size());
+        // 按数量倒序
+        assertSummary(byProduct.get(0), pear.getId(), 2, 27);
+        assertEquals("SUM-P-2", byProduct.get(0).getGroupCode());
+        assertSummary(byProduct.get(1), apple.getId(), 3, 18);
+
+        List<MovementSummaryDTO> bySupplier = reportService.summarizeInbound(ReportGroupBy.PARTNER, null, null);
+        assertEquals(2, bySupplier.size());
+        assertSummary(bySupplier.get(0), supplier.getId(), 3, 35);
+        assertEquals("SUM-SUP", bySupplier.get(0).getGroupName());
+        assertSummary(bySupplier.get(1), null, 2, 10);
+        assertEquals("未指定", bySupplier.get(1).getGroupName());
+    }
+
+    @Test
+    public void summarizeByPeriod() {
+        List<MovementSummaryDTO> byDay = reportService.summarizeInbound(ReportGroupBy.DAY, null, null);
+        assertEquals(4, byDay.size());
+        assertPeriod(byDay.get(0), "2024-01-01", 2, 15);
+        assertPeriod(byDay.get(1), "2024-01-02", 1, 7);
+        assertPeriod(byDay.get(3), "2024-02-05", 1, 3);
+
+        List<MovementSummaryDTO> byWeek = reportService.summarizeInbound(ReportGroupBy.WEEK, null, null);
+        assertEquals(3, byWeek.size());
+        assertPeriod(byWeek.get(0), "2024-W01", 3, 22);
+        assertPeriod(byWeek.get(1), "2024-W02", 1, 20);
+        assertPeriod(byWeek.get(2), "2024-W06", 1, 3);
+
+        List<MovementSummaryDTO> byMonth = reportService.summarizeInbound(ReportGroupBy.MONTH, null, null);
+        assertEquals(2, byMonth.size());
+        assertPeriod(byMonth.get(0), "2024-01", 4, 42);
+        assertPeriod(byMonth.get(1), "2024-02", 1, 3);
+
+        // 日期范围在数据库中过滤
+        List<MovementSummaryDTO> january = reportService.summarizeInbound(ReportGroupBy.MONTH,
+                LocalDateTime.of(2024, 1, 2, 0, 0), LocalDateTime.of(2024, 1, 31, 0, 0));
+        assertEquals(1, january.size());
+        assertPeriod(january.get(0), "2024-01", 2, 27);
+    }
+
+    private Product saveProduct(String code) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setName(code);
+        return productRepository.save(product);
+    }
+
+    private void saveInbound(String no, Product product, Supplier supplier, int quantity, LocalDateTime date) {
+        Inbound inbound = new Inbound();
+        inbound.setInboundNo(no);
+        inbound.setProduct(product);
+        inbound.setSupplier(supplier);
+        inbound.setQuantity(quantity);
+        inbound.setInboundDate(date);
+        inboundRepository.save(inbound);
+    }
+
+    private static void assertSummary(MovementSummaryDTO row, Integer groupId, long count, long quantity) {
+        assertEquals(groupId, row.getGroupId());
+        assertEquals(count, row.getRecordCount());
+        assertEquals(quantity, row.getTotalQuantity());
+    }
+
+    private static void assertPeriod(MovementSummaryDTO row, String period, long count, long quantity) {
+        assertEquals(period, row.getPeriod());
+        assertEquals(count, row.getRecordCount());
+        assertEquals(quantity, row.getTotalQuantity());
+    }
+}
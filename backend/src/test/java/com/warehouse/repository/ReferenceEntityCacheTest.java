@@ -0,0 +1,173 @@
+package com.warehouse.repository;
+
+import com.warehouse.entity.Category;
+import com.warehouse.entity.Product;
+import com.warehouse.entity.Supplier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基础资料二级缓存测试：统计商品详情与库存预警列表加载分类、供应商时的SQL条数，
+ * 并校验实体更新、逻辑删除后缓存失效，库存等原生SQL写入不会清空基础资料缓存。
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReferenceEntityCacheTest {
+
+    private static final int CATEGORIES = 4;
+
+    private static final int SUPPLIERS = 3;
+
+    private static final int PRODUCTS = 20;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+
+    private final List<Category> categories = new ArrayList<>();
+
+    private final List<Supplier> suppliers = new ArrayList<>();
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 1; i <= CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName("L2-CAT-" + i);
+            categories.add(categoryRepository.save(category));
+        }
+        for (int i = 1; i <= SUPPLIERS; i++) {
+            Supplier supplier = new Supplier();
+            supplier.setName("L2-SUP-" + i);
+            suppliers.add(supplierRepository.save(supplier));
+        }
+        // 库存0、最低库存0，全部进入库存预警列表
+        for (int i = 1; i <= PRODUCTS; i++) {
+            Product product = new Product();
+            product.setCode("L2-P-" + i);
+            product.setName("L2-P-" + i);
+            product.setCategory(categories.get(i % CATEGORIES));
+            product.setSupplier(suppliers.get(i % SUPPLIERS));
+            products.add(productRepository.save(product));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        supplierRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    public void productLoadsReuseCachedReferenceEntities() {
+        long detailsCold = countStatements(this::loadProductDetails, true);
+        long detailsWarm = countStatements(this::loadProductDetails, false);
+        long lowStockCold = countStatements(this::loadLowStockProducts, true);
+        long lowStockWarm = countStatements(this::loadLowStockProducts, false);
+
+        System.out.printf("[商品详情] 无缓存=%d条SQL, 二级缓存=%d条SQL%n", detailsCold, detailsWarm);
+        System.out.printf("[库存预警] 无缓存=%d条SQL, 二级缓存=%d条SQL%n", lowStockCold, lowStockWarm);
+        // 商品本身仍逐个查询，分类与供应商不再逐个查询
+        assertEquals(PRODUCTS, detailsWarm);
+        assertTrue(detailsCold >= PRODUCTS + CATEGORIES + SUPPLIERS);
+        assertEquals(1, lowStockWarm);
+        assertTrue(lowStockCold >= 1 + CATEGORIES + SUPPLIERS);
+    }
+
+    @Test
+    public void updateAndSoftDeleteInvalidateCachedEntities() {
+        loadLowStockProducts();
+        Integer categoryId = categories.get(0).getId();
+        Integer supplierId = suppliers.get(0).getId();
+
+        Category category = categoryRepository.findById(categoryId).get();
+        category.setName("L2-CAT-RENAMED");
+        categoryRepository.save(category);
+        assertEquals("L2-CAT-RENAMED", categoryRepository.findById(categoryId).get().getName());
+        assertTrue(loadLowStockProducts().stream()
+                .filter(p -> p.getCategory().getId().equals(categoryId))
+                .allMatch(p -> "L2-CAT-RENAMED".equals(p.getCategory().getName())));
+
+        // 逻辑删除为批量更新语句，Hibernate清空对应实体的缓存区域
+        supplierRepository.softDelete(supplierId, 1, LocalDateTime.now());
+        assertTrue(supplierRepository.findById(supplierId).get().isDeleted());
+    }
+
+    @Test
+    public void nativeStockUpdatesKeepReferenceCache() {
+        loadProductDetails();
+        new TransactionTemplate(transactionManager).execute(status ->
+                productRepository.increaseStock(products.get(0).getId(), 5));
+
+        assertEquals(PRODUCTS, countStatements(this::loadProductDetails, false));
+    }
+
+    /**
+     * 与商品详情接口相同，逐个按ID读取商品
+     */
+    private List<Product> loadProductDetails() {
+        List<Product> loaded = new ArrayList<>(products.size());
+        for (Product product : products) {
+            loaded.add(productRepository.findActiveById(product.getId()).get());
+        }
+        return loaded;
+    }
+
+    /**
+     * 与库存预警接口相同，读取带低库存标记的商品
+     */
+    private List<Product> loadLowStockProducts() {
+        return productRepository.findActiveLowStockProducts();
+    }
+
+    private long countStatements(Runnable query, boolean evictFirst) {
+        if (evictFirst) {
+            entityManagerFactory.getCache().evictAll();
+        }
+        statistics.clear();
+        query.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,101 @@
+package com.warehouse.service;
+
+import com.warehouse.repository.DocumentSequenceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 单据号生成并发测试：多线程、多节点同时生成单号时不重复，且同一线程内单调递增。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({DocumentNumberService.class, DocumentSequenceService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DocumentNumberServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final int NUMBERS_PER_THREAD = 500;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private DocumentSequenceService documentSequenceService;
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    @AfterEach
+    public void cleanup() {
+        documentSequenceRepository.deleteAll();
+    }
+
+    @Test
+    public void numbersAreUniqueAndOrderedAcrossThreadsAndNodes() throws Exception {
+        // 第二个实例模拟另一个节点，与第一个共享同一张序列表
+        DocumentNumberService otherNode = new DocumentNumberService();
+        ReflectionTestUtils.setField(otherNode, "documentSequenceService", documentSequenceService);
+        ReflectionTestUtils.setField(otherNode, "blockSize", 100L);
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            DocumentNumberService node = t % 2 == 0 ? documentNumberService : otherNode;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                String previous = null;
+                for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                    String number = node.nextNumber("OUT");
+                    assertTrue(numbers.add(number), "单号重复：" + number);
+                    assertTrue(previous == null || number.compareTo(previous) > 0, "同一线程内单号应递增");
+                    previous = number;
+                }
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int total = THREADS * NUMBERS_PER_THREAD;
+        assertEquals(total, numbers.size());
+        // 每个节点最多浪费一个未用完的块
+        long leased = documentSequenceRepository.findNextValue("OUT") - 1;
+        assertTrue(leased >= total && leased <= total + 2 * 100, "租用的序列值数量异常：" + leased);
+
+        System.out.printf("[单据号生成] 线程数=%d, 单号数=%d, 耗时=%.3fs%n",
+                THREADS, total, elapsed / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,263 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockIntent;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockIntentRepository;
+import com.warehouse.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 热点商品写后合并基准测试
+ * 同一商品的并发出库分别走逐笔提交与写后合并两种模式，比较吞吐量并校验最终库存与流水一致；
+ * 事务状态未知时，进行中的预占结束前不重新加载计数器。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(StockTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class HotStockWriteBehindBenchmarkTest {
+
+    private static final int THREADS = 16;
+
+    private static final int OPS_PER_THREAD = 50;
+
+    // 模拟出库事务中扣减库存之后的其余业务耗时，逐笔模式下这段时间一直持有商品行锁
+    private static final long BUSINESS_WORK_MILLIS = 1;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockIntentRepository stockIntentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanup() {
+        hotStockService.flush();
+        stockIntentRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void writeBehindOutperformsPerRequestCommits() throws Exception {
+        int initialStock = THREADS * OPS_PER_THREAD;
+        Integer normalProductId = productFixture.create("BENCH-NORMAL", initialStock).getId();
+        Integer hotProductId = productFixture.create("BENCH-HOT", initialStock).getId();
+        hotStockService.registerHotProduct(hotProductId);
+
+        long perRequest = runOutbounds(normalProductId);
+        long writeBehind = runOutbounds(hotProductId);
+        hotStockService.flush();
+
+        assertEquals(0, productRepository.findStockQtyById(normalProductId).intValue());
+        assertEquals(0, productRepository.findStockQtyById(hotProductId).intValue());
+        assertEquals(0, stockIntentRepository.count(), "意图应全部应用");
+        assertEquals(2 * initialStock, stockMovementRepository.count(), "每次扣减都应写入一条流水");
+
+        printThroughput("逐笔提交", perRequest);
+        printThroughput("写后合并", writeBehind);
+    }
+
+    @Test
+    public void hotProductNeverOversellsAndRollbackReleasesStock() {
+        Integer productId = productFixture.create("BENCH-ROLLBACK", 10).getId();
+        hotStockService.registerHotProduct(productId);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        try {
+            transaction.execute(status -> {
+                stockMutationService.decreaseStock(productId, 10, StockMovementType.OUTBOUND, null);
+                throw new IllegalStateException("业务失败");
+            });
+        } catch (IllegalStateException expected) {
+            // 事务回滚后预占的库存应归还
+        }
+
+        assertEquals(0, stockMutationService.tryDecreaseStock(productId, 10, StockMovementType.OUTBOUND, null)
+                .getBalanceAfter().intValue());
+        assertNull(stockMutationService.tryDecreaseStock(productId, 1, StockMovementType.OUTBOUND, null));
+
+        // 未提交的入库不能被扣减
+        transaction.execute(status -> {
+            stockMutationService.increaseStock(productId, 5, StockMovementType.INBOUND, null);
+            assertNull(stockMutationService.tryDecreaseStock(productId, 5, StockMovementType.OUTBOUND, null));
+            return null;
+        });
+
+        hotStockService.flush();
+        assertEquals(5, productRepository.findStockQtyById(productId).intValue());
+    }
+
+    @Test
+    public void unknownOutcomeDoesNotReloadCounterWhileOthersInFlight() throws Exception {
+        Integer productId = productFixture.create("BENCH-UNKNOWN", 10).getId();
+        hotStockService.registerHotProduct(productId);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // 一个已预占6件、尚未提交的出库事务
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> inFlight = executor.submit(() -> transaction.execute(status -> {
+            stockMutationService.decreaseStock(productId, 6, StockMovementType.OUTBOUND, null);
+            reserved.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(reserved.await(10, TimeUnit.SECONDS));
+
+        // 另一笔扣减1件，意图已写入但事务结果未知
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            hotStockService.tryDecreaseStock(productId, 1, StockMovementType.OUTBOUND, null, 0);
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_UNKNOWN));
+
+        // 此时由数据库重新加载会得到 10-1=9，漏掉进行中的6件；核对完成前拒绝扣减
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> stockMutationService.tryDecreaseStock(productId, 4, StockMovementType.OUTBOUND, null));
+        assertTrue(error.getMessage().contains("核对"));
+
+        release.countDown();
+        inFlight.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // 进行中的事务结束后重新加载：10-6-1=3
+        assertNull(stockMutationService.tryDecreaseStock(productId, 4, StockMovementType.OUTBOUND, null));
+        assertEquals(0, stockMutationService.tryDecreaseStock(productId, 3, StockMovementType.OUTBOUND, null)
+                .getBalanceAfter().intValue());
+        hotStockService.flush();
+        assertEquals(0, productRepository.findStockQtyById(productId).intValue());
+    }
+
+    @Test
+    public void committedIntentsAreReplayedAfterCrash() {
+        Integer productId = productFixture.create("BENCH-RECOVERY", 20).getId();
+
+        // 模拟崩溃前已随业务单据提交、但尚未合并写入的意图
+        stockIntentRepository.save(intent(productId, StockMovementType.OUTBOUND, -8));
+        stockIntentRepository.save(intent(productId, StockMovementType.INBOUND, 3));
+
+        // 后台刷写任务可能先一步应用，这里只校验最终状态
+        hotStockService.flush();
+        assertEquals(15, productRepository.findStockQtyById(productId).intValue());
+        assertEquals(0, stockIntentRepository.count());
+        assertEquals(2, stockMovementRepository.count());
+        assertEquals(0, hotStockService.flush(), "重放不能重复应用");
+    }
+
+    private long runOutbounds(Integer productId) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    transaction.execute(status -> {
+                        stockMutationService.decreaseStock(productId, 1, StockMovementType.OUTBOUND, null);
+                        sleep(BUSINESS_WORK_MILLIS);
+                        return null;
+                    });
+                    succeeded.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(THREADS * OPS_PER_THREAD, succeeded.get());
+        return elapsed;
+    }
+
+    private StockIntent intent(Integer productId, StockMovementType type, int quantity) {
+        StockIntent intent = new StockIntent();
+        intent.setProductId(productId);
+        intent.setMovementType(type);
+        intent.setQuantity(quantity);
+        return intent;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printThroughput(String scenario, long elapsedNanos) {
+        int operations = THREADS * OPS_PER_THREAD;
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("[%s] 线程数=%d, 操作数=%d, 耗时=%.3fs, 吞吐量=%.0f ops/s%n",
+                scenario, THREADS, operations, seconds, operations / seconds);
+    }
+}
@@ -0,0 +1,60 @@
+package com.warehouse.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 幂等键存储测试：Redis 不可用时使用有上限的本地存储。
+ */
+public class IdempotencyServiceTest {
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("down"));
+        when(redisTemplate.delete("idempotency:k1")).thenThrow(new RedisConnectionFailureException("down"));
+
+        idempotencyService = new IdempotencyService();
+        ReflectionTestUtils.setField(idempotencyService, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(idempotencyService, "ttlHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "pendingTimeoutSeconds", 30L);
+        ReflectionTestUtils.setField(idempotencyService, "localMaxEntries", 2);
+    }
+
+    @Test
+    public void fallsBackToLocalStoreWhenRedisIsDown() {
+        assertNull(idempotencyService.find("k1"));
+        assertTrue(idempotencyService.tryClaim("k1"));
+        assertFalse(idempotencyService.tryClaim("k1"), "处理中的键不能被再次占用");
+        assertEquals(IdempotencyService.PENDING, idempotencyService.find("k1"));
+
+        idempotencyService.complete("k1", "{\"code\":200}");
+        assertEquals("{\"code\":200}", idempotencyService.find("k1"));
+
+        idempotencyService.release("k1");
+        assertNull(idempotencyService.find("k1"));
+    }
+
+    @Test
+    public void localStoreIsBounded() {
+        idempotencyService.complete("a", "1");
+        idempotencyService.complete("b", "2");
+        idempotencyService.complete("c", "3");
+
+        assertNull(idempotencyService.find("a"), "超出上限时淘汰最久未使用的键");
+        assertEquals("3", idempotencyService.find("c"));
+    }
+}
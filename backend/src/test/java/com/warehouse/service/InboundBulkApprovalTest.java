@@ -0,0 +1,211 @@
+package com.warehouse.service;
+
+import com.warehouse.dto.BulkApprovalResult;
+import com.warehouse.entity.ApprovalRecord;
+import com.warehouse.entity.Inbound;
+import com.warehouse.entity.Product;
+import com.warehouse.entity.StockMovement;
+import com.warehouse.entity.User;
+import com.warehouse.entity.Warehouse;
+import com.warehouse.entity.WarehouseLocation;
+import com.warehouse.enums.ApprovalStatus;
+import com.warehouse.enums.BusinessType;
+import com.warehouse.repository.ApprovalRecordRepository;
+import com.warehouse.repository.DailyStockRollupRepository;
+import com.warehouse.repository.InboundRepository;
+import com.warehouse.repository.LocationStockRepository;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import com.warehouse.repository.UserRepository;
+import com.warehouse.repository.WarehouseLocationRepository;
+import com.warehouse.repository.WarehouseRepository;
+import com.warehouse.util.UserContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 批量审批入库单测试：逐单返回成功或失败，商品已删除、库位已禁用的单据在更新库存前记为失败，
+ * 同一商品的多张入库单合并为一次库存更新，审批结果只推送一条汇总通知。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({InboundService.class, ApprovalService.class, LocationStockService.class, DocumentNumberService.class,
+        DocumentSequenceService.class, StockTestConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InboundBulkApprovalTest {
+
+    private static final int MISSING_ID = 999_999;
+
+    @MockBean
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private InboundService inboundService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseLocationRepository warehouseLocationRepository;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private InboundRepository inboundRepository;
+
+    @Autowired
+    private ApprovalRecordRepository approvalRecordRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private DailyStockRollupRepository dailyStockRollupRepository;
+
+    private User submitter;
+
+    private Product merged;
+
+    private Product single;
+
+    private Product deleted;
+
+    private WarehouseLocation disabledLocation;
+
+    @BeforeEach
+    public void setUp() {
+        User approver = saveUser("bulk-approver");
+        submitter = saveUser("bulk-submitter");
+        UserContext.setCurrentUserId(approver.getId());
+
+        merged = productFixture.create("BULK-P-1", 0);
+        single = productFixture.create("BULK-P-2", 0);
+        deleted = productFixture.create("BULK-P-3", 0);
+        productRepository.softDelete(deleted.getId(), approver.getId(), LocalDateTime.now());
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName("BULK-WH");
+        warehouse.setAddress("BULK");
+        warehouse = warehouseRepository.save(warehouse);
+        disabledLocation = new WarehouseLocation();
+        disabledLocation.setWarehouse(warehouse);
+        disabledLocation.setRackNumber("A");
+        disabledLocation.setShelfLevel("1");
+        disabledLocation.setStatus(0);
+        disabledLocation = warehouseLocationRepository.save(disabledLocation);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        UserContext.clear();
+        approvalRecordRepository.deleteAll();
+        inboundRepository.deleteAll();
+        locationStockRepository.deleteAll();
+        dailyStockRollupRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        warehouseLocationRepository.deleteAll();
+        warehouseRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void bulkApproveReportsEachInboundAndMergesStock() {
+        Integer first = saveInbound("BULK-IN-1", merged, 5, ApprovalStatus.PENDING, null);
+        Integer second = saveInbound("BULK-IN-2", merged, 7, ApprovalStatus.PENDING, null);
+        Integer third = saveInbound("BULK-IN-3", single, 3, ApprovalStatus.PENDING, null);
+        Integer draft = saveInbound("BULK-IN-4", merged, 9, ApprovalStatus.DRAFT, null);
+        Integer deletedProduct = saveInbound("BULK-IN-5", deleted, 2, ApprovalStatus.PENDING, null);
+        Integer disabled = saveInbound("BULK-IN-6", single, 4, ApprovalStatus.PENDING, disabledLocation);
+
+        BulkApprovalResult result = inboundService.bulkApproveInbounds(
+                Arrays.asList(first, second, third, draft, deletedProduct, disabled, MISSING_ID),
+                ApprovalStatus.APPROVED, "批量通过");
+
+        assertEquals(Arrays.asList(first, second, third), result.getSucceeded());
+        assertEquals(Arrays.asList(draft, deletedProduct, disabled, MISSING_ID), result.getFailed().stream()
+                .map(BulkApprovalResult.Failure::getBusinessId).collect(Collectors.toList()));
+        assertEquals("商品不存在或已删除", result.getFailed().get(1).getReason());
+        assertEquals("库位 " + disabledLocation.getFullLocation() + " 已禁用", result.getFailed().get(2).getReason());
+
+        // 同一商品两张入库单合并为一次更新，仍各写一条流水
+        assertEquals(12, productRepository.findStockQtyById(merged.getId()).intValue());
+        assertEquals(3, productRepository.findStockQtyById(single.getId()).intValue());
+        List<StockMovement> movements = stockMovementRepository
+                .findByProductIdOrderByIdDesc(merged.getId(), PageRequest.of(0, 10)).getContent();
+        assertEquals(2, movements.size());
+        assertEquals(12, movements.get(0).getBalanceAfter().intValue());
+        assertEquals(5, movements.get(1).getBalanceAfter().intValue());
+
+        assertStatus(first, ApprovalStatus.APPROVED);
+        assertStatus(draft, ApprovalStatus.DRAFT);
+        assertStatus(deletedProduct, ApprovalStatus.PENDING);
+        assertStatus(disabled, ApprovalStatus.PENDING);
+        assertEquals(0, locationStockRepository.count());
+
+        verify(webSocketService, times(1)).notifyBulkApprovalResult(argThat(records -> records.size() == 3));
+    }
+
+    private Integer saveInbound(String no, Product product, int quantity, ApprovalStatus status,
+                                WarehouseLocation location) {
+        Inbound inbound = new Inbound();
+        inbound.setInboundNo(no);
+        inbound.setProduct(product);
+        inbound.setQuantity(quantity);
+        inbound.setLocation(location);
+        inbound.setApprovalStatus(status);
+        Integer id = inboundRepository.save(inbound).getId();
+
+        if (status == ApprovalStatus.PENDING) {
+            ApprovalRecord record = new ApprovalRecord();
+            record.setBusinessId(id);
+            record.setBusinessType(BusinessType.INBOUND);
+            record.setApprovalStatus(ApprovalStatus.PENDING);
+            record.setSubmitterId(submitter.getId());
+            approvalRecordRepository.save(record);
+        }
+        return id;
+    }
+
+    private void assertStatus(Integer inboundId, ApprovalStatus expected) {
+        assertEquals(expected, inboundRepository.findById(inboundId).get().getApprovalStatus());
+    }
+
+    private User saveUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,230 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.ApprovalRecord;
+import com.warehouse.entity.Inbound;
+import com.warehouse.entity.LocationStock;
+import com.warehouse.entity.Outbound;
+import com.warehouse.entity.Product;
+import com.warehouse.entity.User;
+import com.warehouse.entity.Warehouse;
+import com.warehouse.entity.WarehouseLocation;
+import com.warehouse.enums.ApprovalStatus;
+import com.warehouse.enums.BusinessType;
+import com.warehouse.repository.ApprovalRecordRepository;
+import com.warehouse.repository.DailyStockRollupRepository;
+import com.warehouse.repository.DocumentSequenceRepository;
+import com.warehouse.repository.InboundRepository;
+import com.warehouse.repository.LocationStockRepository;
+import com.warehouse.repository.OutboundRepository;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import com.warehouse.repository.UserRepository;
+import com.warehouse.repository.WarehouseLocationRepository;
+import com.warehouse.repository.WarehouseRepository;
+import com.warehouse.util.UserContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 库位库存测试：入库审批按库位累加同一行（upsert），出库扣减库位库存，
+ * 出库数量超过库位库存时整单回滚，商品总库存与各库位库存之和保持一致。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({InboundService.class, OutboundService.class, ApprovalService.class, LocationStockService.class,
+        DocumentNumberService.class, DocumentSequenceService.class, StockTestConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LocationStockServiceTest {
+
+    @MockBean
+    private WebSocketService webSocketService;
+
+    @MockBean
+    private UserService userService;
+
+    @Autowired
+    private InboundService inboundService;
+
+    @Autowired
+    private OutboundService outboundService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseLocationRepository warehouseLocationRepository;
+
+    @Autowired
+    private LocationStockRepository locationStockRepository;
+
+    @Autowired
+    private InboundRepository inboundRepository;
+
+    @Autowired
+    private OutboundRepository outboundRepository;
+
+    @Autowired
+    private ApprovalRecordRepository approvalRecordRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private DailyStockRollupRepository dailyStockRollupRepository;
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    private User approver;
+
+    private Product product;
+
+    private WarehouseLocation binA;
+
+    private WarehouseLocation binB;
+
+    @BeforeEach
+    public void setUp() {
+        approver = new User();
+        approver.setUsername("loc-approver");
+        approver.setPassword("x");
+        approver = userRepository.save(approver);
+        UserContext.setCurrentUserId(approver.getId());
+
+        product = productFixture.create("LOC-P-1", 0);
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName("LOC-WH");
+        warehouse.setAddress("LOC");
+        warehouse = warehouseRepository.save(warehouse);
+        binA = saveLocation(warehouse, "A");
+        binB = saveLocation(warehouse, "B");
+    }
+
+    @AfterEach
+    public void cleanup() {
+        UserContext.clear();
+        approvalRecordRepository.deleteAll();
+        inboundRepository.deleteAll();
+        outboundRepository.deleteAll();
+        locationStockRepository.deleteAll();
+        dailyStockRollupRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        warehouseLocationRepository.deleteAll();
+        warehouseRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        documentSequenceRepository.deleteAll();
+    }
+
+    @Test
+    public void inboundUpsertsLocationStockAndOutboundDecreasesIt() {
+        approveInbound("LOC-IN-1", binA, 10);
+        approveInbound("LOC-IN-2", binA, 5);
+        approveInbound("LOC-IN-3", binB, 3);
+
+        // 同一库位同一商品只有一行，数量累加
+        assertEquals(2, locationStockRepository.count());
+        assertEquals(15, quantityAt(binA));
+        assertEquals(3, quantityAt(binB));
+        assertInStep(18);
+
+        outboundService.createOutbound(outbound(binA, 6));
+
+        assertEquals(9, quantityAt(binA));
+        assertEquals(3, quantityAt(binB));
+        assertInStep(12);
+    }
+
+    @Test
+    public void outboundBeyondBinQuantityIsRejected() {
+        approveInbound("LOC-IN-1", binA, 10);
+        approveInbound("LOC-IN-2", binB, 3);
+        long movements = stockMovementRepository.count();
+
+        // 商品总库存13足够，但库位B只有3
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> outboundService.createOutbound(outbound(binB, 5)));
+        assertEquals("库位库存不足", error.getMessage());
+
+        // 已扣减的商品库存随出库单一并回滚
+        assertEquals(0, outboundRepository.count());
+        assertEquals(movements, stockMovementRepository.count());
+        assertEquals(10, quantityAt(binA));
+        assertEquals(3, quantityAt(binB));
+        assertInStep(13);
+    }
+
+    private void approveInbound(String no, WarehouseLocation location, int quantity) {
+        Inbound inbound = new Inbound();
+        inbound.setInboundNo(no);
+        inbound.setProduct(product);
+        inbound.setQuantity(quantity);
+        inbound.setLocation(location);
+        inbound.setApprovalStatus(ApprovalStatus.PENDING);
+        Integer id = inboundRepository.save(inbound).getId();
+
+        ApprovalRecord record = new ApprovalRecord();
+        record.setBusinessId(id);
+        record.setBusinessType(BusinessType.INBOUND);
+        record.setApprovalStatus(ApprovalStatus.PENDING);
+        record.setSubmitterId(approver.getId());
+        approvalRecordRepository.save(record);
+
+        inboundService.approveInbound(id, "通过");
+    }
+
+    private Outbound outbound(WarehouseLocation location, int quantity) {
+        Outbound outbound = new Outbound();
+        outbound.setProduct(product);
+        outbound.setLocation(location);
+        outbound.setQuantity(quantity);
+        return outbound;
+    }
+
+    private int quantityAt(WarehouseLocation location) {
+        return locationStockRepository.findByLocationId(location.getId()).stream()
+                .filter(stock -> stock.getProductId().equals(product.getId()))
+                .mapToInt(LocationStock::getQuantity)
+                .sum();
+    }
+
+    private void assertInStep(int expected) {
+        List<LocationStock> stocks = locationStockRepository.findByProductId(product.getId());
+        assertEquals(expected, stocks.stream().mapToInt(LocationStock::getQuantity).sum());
+        assertEquals(expected, productRepository.findStockQtyById(product.getId()).intValue());
+    }
+
+    private WarehouseLocation saveLocation(Warehouse warehouse, String rack) {
+        WarehouseLocation location = new WarehouseLocation();
+        location.setWarehouse(warehouse);
+        location.setRackNumber(rack);
+        location.setShelfLevel("1");
+        location.setStatus(1);
+        return warehouseLocationRepository.save(location);
+    }
+}
@@ -0,0 +1,90 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.Product;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 低库存集合测试：库存跨越最低库存阈值时商品进入或离开集合，未设置最低库存的商品不计为低库存。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(StockTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LowStockServiceTest {
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private LowStockService lowStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @AfterEach
+    public void cleanup() {
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void productEntersAndLeavesLowStockSetOnCrossing() {
+        Integer productId = productFixture.create("LOW-1", 12, 10).getId();
+        Integer otherId = productFixture.create("LOW-2", 3, 5).getId();
+        assertEquals(Collections.singletonList(otherId), lowStockIds());
+
+        stockMutationService.decreaseStock(productId, 1, StockMovementType.OUTBOUND, null);
+        assertFalse(lowStockIds().contains(productId), "未跨越阈值时不应进入集合");
+
+        stockMutationService.decreaseStock(productId, 1, StockMovementType.OUTBOUND, null);
+        assertTrue(lowStockIds().contains(productId), "库存等于最低库存时应进入集合");
+
+        stockMutationService.increaseStock(productId, 5, StockMovementType.INBOUND, null);
+        assertFalse(lowStockIds().contains(productId), "补货后应离开集合");
+        assertTrue(lowStockIds().contains(otherId));
+    }
+
+    @Test
+    public void productWithoutMinStockIsNeverLow() {
+        Integer productId = productFixture.create("LOW-NULL", 1, null).getId();
+        assertFalse(lowStockIds().contains(productId));
+
+        stockMutationService.decreaseStock(productId, 1, StockMovementType.OUTBOUND, null);
+        assertFalse(lowStockIds().contains(productId), "未设置最低库存时库存为0也不算低库存");
+
+        lowStockService.rebuildLowStockFlags();
+        assertFalse(lowStockIds().contains(productId));
+    }
+
+    private List<Integer> lowStockIds() {
+        return productRepository.findActiveLowStockProducts().stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+    }
+}
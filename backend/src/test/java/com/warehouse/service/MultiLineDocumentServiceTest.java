@@ -0,0 +1,206 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.InboundDocument;
+import com.warehouse.entity.InboundDocumentLine;
+import com.warehouse.entity.OutboundDocument;
+import com.warehouse.entity.OutboundDocumentLine;
+import com.warehouse.entity.Product;
+import com.warehouse.entity.StockMovement;
+import com.warehouse.repository.DailyStockRollupRepository;
+import com.warehouse.repository.DocumentSequenceRepository;
+import com.warehouse.repository.InboundDocumentLineRepository;
+import com.warehouse.repository.InboundDocumentRepository;
+import com.warehouse.repository.OutboundDocumentLineRepository;
+import com.warehouse.repository.OutboundDocumentRepository;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多行单据测试：重复商品的明细按商品合并后每个商品只更新一次库存；
+ * 出库单任一商品库存不足时整张单据回滚；明细使用表生成器主键，批量插入。
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({InboundDocumentService.class, OutboundDocumentService.class, DocumentNumberService.class,
+        DocumentSequenceService.class, StockTestConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MultiLineDocumentServiceTest {
+
+    private static final int LINES = 200;
+
+    @Autowired
+    private InboundDocumentService inboundDocumentService;
+
+    @Autowired
+    private OutboundDocumentService outboundDocumentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private DailyStockRollupRepository dailyStockRollupRepository;
+
+    @Autowired
+    private InboundDocumentRepository inboundDocumentRepository;
+
+    @Autowired
+    private InboundDocumentLineRepository inboundDocumentLineRepository;
+
+    @Autowired
+    private OutboundDocumentRepository outboundDocumentRepository;
+
+    @Autowired
+    private OutboundDocumentLineRepository outboundDocumentLineRepository;
+
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+
+    private Product first;
+
+    private Product second;
+
+    @BeforeEach
+    public void setUp() {
+        first = productFixture.create("DOC-P-1", 100);
+        second = productFixture.create("DOC-P-2", 4);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        inboundDocumentLineRepository.deleteAll();
+        inboundDocumentRepository.deleteAll();
+        outboundDocumentLineRepository.deleteAll();
+        outboundDocumentRepository.deleteAll();
+        dailyStockRollupRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+        documentSequenceRepository.deleteAll();
+    }
+
+    @Test
+    public void inboundDocumentGroupsStockByProductAndBatchesLines() {
+        InboundDocument document = new InboundDocument();
+        for (int i = 0; i < LINES; i++) {
+            InboundDocumentLine line = new InboundDocumentLine();
+            line.setProductId(i % 2 == 0 ? first.getId() : second.getId());
+            line.setQuantity(1);
+            document.getLines().add(line);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        InboundDocument saved = inboundDocumentService.createInboundDocument(document);
+        long statements = statistics.getPrepareStatementCount();
+
+        System.out.printf("[多行入库单] 明细=%d行, 商品=2个, SQL语句=%d条%n", LINES, statements);
+        assertEquals(LINES, inboundDocumentLineRepository.findByDocumentIdOrderByLineNo(saved.getId()).size());
+        // 明细批量插入：语句数与明细行数无关
+        assertTrue(statements < LINES / 4, "明细应批量插入，实际SQL语句数：" + statements);
+
+        assertSingleMovement(first.getId(), saved.getId(), LINES / 2);
+        assertSingleMovement(second.getId(), saved.getId(), LINES / 2);
+        assertEquals(100 + LINES / 2, productRepository.findStockQtyById(first.getId()).intValue());
+        assertEquals(4 + LINES / 2, productRepository.findStockQtyById(second.getId()).intValue());
+    }
+
+    @Test
+    public void outboundDocumentGroupsStockByProduct() {
+        OutboundDocument saved = outboundDocumentService.createOutboundDocument(outbound(
+                first.getId(), 10, second.getId(), 1, first.getId(), 5, second.getId(), 2));
+
+        assertEquals(4, saved.getLineCount().intValue());
+        assertSingleMovement(first.getId(), saved.getId(), -15);
+        assertSingleMovement(second.getId(), saved.getId(), -3);
+        assertEquals(85, productRepository.findStockQtyById(first.getId()).intValue());
+        assertEquals(1, productRepository.findStockQtyById(second.getId()).intValue());
+    }
+
+    @Test
+    public void outboundDocumentLinesAreBatched() {
+        Product stocked = productFixture.create("DOC-P-3", LINES);
+        int[] pairs = new int[LINES * 2];
+        for (int i = 0; i < LINES; i++) {
+            pairs[i * 2] = stocked.getId();
+            pairs[i * 2 + 1] = 1;
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        OutboundDocument saved = outboundDocumentService.createOutboundDocument(outbound(pairs));
+        long statements = statistics.getPrepareStatementCount();
+
+        System.out.printf("[多行出库单] 明细=%d行, 商品=1个, SQL语句=%d条%n", LINES, statements);
+        assertEquals(LINES, outboundDocumentLineRepository.findByDocumentIdOrderByLineNo(saved.getId()).size());
+        assertTrue(statements < LINES / 4, "明细应批量插入，实际SQL语句数：" + statements);
+        assertSingleMovement(stocked.getId(), saved.getId(), -LINES);
+        assertEquals(0, productRepository.findStockQtyById(stocked.getId()).intValue());
+    }
+
+    @Test
+    public void shortLineRollsBackWholeOutboundDocument() {
+        // 第二个商品合并后需要5，库存只有4；第一个商品ID更小，先被扣减
+        RuntimeException error = assertThrows(RuntimeException.class, () ->
+                outboundDocumentService.createOutboundDocument(outbound(
+                        first.getId(), 10, second.getId(), 3, first.getId(), 5, second.getId(), 2)));
+        assertTrue(error.getMessage().contains("库存不足"));
+
+        assertEquals(0, outboundDocumentRepository.count(), "单据及单号应一并回滚");
+        assertEquals(0, outboundDocumentLineRepository.count());
+        assertEquals(0, stockMovementRepository.count());
+        assertEquals(0, dailyStockRollupRepository.count());
+        assertEquals(100, productRepository.findStockQtyById(first.getId()).intValue());
+        assertEquals(4, productRepository.findStockQtyById(second.getId()).intValue());
+    }
+
+    private OutboundDocument outbound(int... productQuantityPairs) {
+        OutboundDocument document = new OutboundDocument();
+        List<OutboundDocumentLine> lines = new ArrayList<>();
+        for (int i = 0; i < productQuantityPairs.length; i += 2) {
+            OutboundDocumentLine line = new OutboundDocumentLine();
+            line.setProductId(productQuantityPairs[i]);
+            line.setQuantity(productQuantityPairs[i + 1]);
+            lines.add(line);
+        }
+        document.setLines(lines);
+        return document;
+    }
+
+    private void assertSingleMovement(Integer productId, Integer documentId, int quantity) {
+        List<StockMovement> movements = stockMovementRepository
+                .findByProductIdOrderByIdDesc(productId, PageRequest.of(0, 10)).getContent();
+        assertEquals(1, movements.size(), "同一商品的多行明细应合并为一次库存更新");
+        assertEquals(documentId, movements.get(0).getBusinessId());
+        assertEquals(quantity, movements.get(0).getQuantity().intValue());
+    }
+}
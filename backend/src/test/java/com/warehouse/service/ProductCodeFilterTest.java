@@ -0,0 +1,84 @@
+package com.warehouse.service;
+
+import com.warehouse.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 商品编号过滤器测试：已存在的编号不会漏判，5万个新编号中需要查询数据库的比例不超过误判率。
+ */
+public class ProductCodeFilterTest {
+
+    private static final int EXISTING = 20_000;
+
+    private static final int IMPORTED = 50_000;
+
+    @Test
+    public void newCodesSkipDatabaseCheck() {
+        List<String> codes = new ArrayList<>();
+        for (int i = 0; i < EXISTING; i++) {
+            codes.add("P" + i);
+        }
+        ProductCodeFilter filter = filter(codes);
+        assertTrue(filter.mightContain("P1"), "首次重建前所有编号都应视为可能存在");
+
+        filter.rebuild();
+        assertTrue(filter.isReady());
+        for (String code : codes) {
+            assertTrue(filter.mightContain(code), "已存在的编号不能判定为不存在");
+        }
+
+        int databaseChecks = 0;
+        for (int i = 0; i < IMPORTED; i++) {
+            if (filter.mightContain("IMP-" + i)) {
+                databaseChecks++;
+            }
+        }
+        System.out.printf("[商品编号过滤器] 已有编号=%d, 导入新编号=%d, 需查询数据库=%d次%n",
+                EXISTING, IMPORTED, databaseChecks);
+        assertTrue(databaseChecks < IMPORTED * 0.02, "误判率超出预期");
+    }
+
+    @Test
+    public void addedAndBroadcastCodesAreVisible() {
+        ProductCodeFilter filter = filter(new ArrayList<>());
+        filter.rebuild();
+        assertFalse(filter.mightContain("NEW-1"));
+
+        filter.add("NEW-1");
+        assertTrue(filter.mightContain("NEW-1"));
+
+        // 其他节点新增的编号
+        filter.onMessage(new DefaultMessage(new byte[0],
+                "other-node\nREMOTE-1\nREMOTE-2".getBytes(StandardCharsets.UTF_8)), null);
+        assertTrue(filter.mightContain("REMOTE-1"));
+        assertTrue(filter.mightContain("REMOTE-2"));
+
+        // 空编号忽略
+        filter.addAll(Arrays.asList("NEW-2", null));
+        assertTrue(filter.mightContain("NEW-2"));
+    }
+
+    private static ProductCodeFilter filter(List<String> codes) {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.count()).thenReturn((long) codes.size());
+        when(repository.findAllCodes()).thenReturn(codes);
+
+        ProductCodeFilter filter = new ProductCodeFilter();
+        ReflectionTestUtils.setField(filter, "productRepository", repository);
+        ReflectionTestUtils.setField(filter, "minCapacity", 10_000L);
+        ReflectionTestUtils.setField(filter, "fpp", 0.01);
+        return filter;
+    }
+}
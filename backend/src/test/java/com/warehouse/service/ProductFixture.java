@@ -0,0 +1,38 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.Product;
+import com.warehouse.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 测试商品数据：编码与名称相同
+ */
+public class ProductFixture {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * 最低库存使用实体默认值
+     */
+    public Product create(String code, int stockQty) {
+        return productRepository.save(product(code, stockQty));
+    }
+
+    /**
+     * @param minStock 最低库存（可为空，表示未设置）
+     */
+    public Product create(String code, int stockQty, Integer minStock) {
+        Product product = product(code, stockQty);
+        product.setMinStock(minStock);
+        return productRepository.save(product);
+    }
+
+    private static Product product(String code, int stockQty) {
+        Product product = new Product();
+        product.setCode(code);
+        product.setName(code);
+        product.setStockQty(stockQty);
+        return product;
+    }
+}
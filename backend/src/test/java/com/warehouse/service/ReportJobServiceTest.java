@@ -0,0 +1,126 @@
+package com.warehouse.service;
+
+import com.warehouse.dto.ReportJobDTO;
+import com.warehouse.enums.ReportJobStatus;
+import com.warehouse.enums.ReportType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 报表任务测试：每个用户同时进行的任务数受限，完成后文件可下载，过期后删除。
+ */
+public class ReportJobServiceTest {
+
+    private static final byte[] CONTENT = "%PDF-test".getBytes(StandardCharsets.ISO_8859_1);
+
+    @TempDir
+    Path storageDir;
+
+    private ReportJobService jobService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void shutdown() {
+        release.countDown();
+        if (jobService != null) {
+            jobService.shutdown();
+        }
+    }
+
+    @Test
+    public void perUserLimitAndDownload() throws Exception {
+        jobService = jobService();
+
+        ReportJobDTO first = jobService.submit(1, ReportType.STOCK, null, null);
+        jobService.submit(1, ReportType.STOCK, null, null);
+        RuntimeException limited = assertThrows(RuntimeException.class,
+                () -> jobService.submit(1, ReportType.STOCK, null, null));
+        assertTrue(limited.getMessage().contains("最多2个"));
+
+        // 其他用户不受影响，也看不到别人的任务
+        ReportJobDTO other = jobService.submit(2, ReportType.STOCK, null, null);
+        assertThrows(RuntimeException.class, () -> jobService.getJob(2, first.getJobId()));
+        assertThrows(RuntimeException.class, () -> jobService.getJobFile(1, first.getJobId()), "未完成时不能下载");
+
+        release.countDown();
+        ReportJobDTO done = awaitFinished(1, first.getJobId());
+        assertEquals(ReportJobStatus.SUCCEEDED, done.getStatus());
+        assertEquals(100, done.getProgress());
+        assertEquals(10, done.getTotalRows());
+        assertEquals(10, done.getRowsWritten());
+        assertArrayEquals(CONTENT, Files.readAllBytes(jobService.getJobFile(1, first.getJobId())));
+        awaitFinished(2, other.getJobId());
+
+        // 完成后名额释放
+        jobService.submit(1, ReportType.STOCK, null, null);
+    }
+
+    @Test
+    public void expiredJobsAreRemoved() throws Exception {
+        jobService = jobService();
+        ReflectionTestUtils.setField(jobService, "retentionMinutes", -1L);
+        release.countDown();
+
+        ReportJobDTO job = jobService.submit(1, ReportType.STOCK, null, null);
+        awaitFinished(1, job.getJobId());
+        Path file = storageDir.resolve(job.getJobId() + ".pdf");
+        assertTrue(Files.exists(file));
+
+        jobService.cleanupExpired();
+        assertTrue(Files.notExists(file));
+        assertThrows(RuntimeException.class, () -> jobService.getJob(1, job.getJobId()));
+    }
+
+    private ReportJobService jobService() throws Exception {
+        ReportService reportService = mock(ReportService.class);
+        when(reportService.countRows(any(), any(), any())).thenReturn(10L);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            invocation.<OutputStream>getArgument(3).write(CONTENT);
+            invocation.<LongConsumer>getArgument(4).accept(10);
+            return null;
+        }).when(reportService).writeReport(eq(ReportType.STOCK), any(), any(), any(), any());
+
+        ReportJobService service = new ReportJobService();
+        ReflectionTestUtils.setField(service, "reportService", reportService);
+        ReflectionTestUtils.setField(service, "workers", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "perUserLimit", 2);
+        ReflectionTestUtils.setField(service, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(service, "retentionMinutes", 60L);
+        service.init();
+        return service;
+    }
+
+    private ReportJobDTO awaitFinished(Integer userId, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        ReportJobDTO job = jobService.getJob(userId, jobId);
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(userId, jobId);
+        }
+        assertTrue(job.getStatus().isFinished(), "任务未在期限内完成");
+        return job;
+    }
+}
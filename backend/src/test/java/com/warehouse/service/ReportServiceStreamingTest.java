@@ -0,0 +1,70 @@
+package com.warehouse.service;
+
+import com.warehouse.dto.MovementReportRowDTO;
+import com.warehouse.repository.InboundRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 流式报表测试：按ID分批读取全部行，读取最后一批前已有页面写入输出流。
+ */
+public class ReportServiceStreamingTest {
+
+    private static final int ROWS = 5_000;
+
+    private static final int BATCH_SIZE = 500;
+
+    @Test
+    public void inboundReportIsWrittenIncrementally() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicLong batches = new AtomicLong();
+        AtomicLong bytesBeforeLastBatch = new AtomicLong(-1);
+
+        InboundRepository inboundRepository = mock(InboundRepository.class);
+        when(inboundRepository.findReportRowsAfter(anyInt(), isNull(), isNull(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    int afterId = invocation.getArgument(0);
+                    int size = invocation.<Pageable>getArgument(3).getPageSize();
+                    batches.incrementAndGet();
+                    if (afterId + size >= ROWS) {
+                        bytesBeforeLastBatch.compareAndSet(-1, out.size());
+                    }
+                    List<MovementReportRowDTO> rows = new ArrayList<>();
+                    for (int id = afterId + 1; id <= Math.min(ROWS, afterId + size); id++) {
+                        rows.add(new MovementReportRowDTO(id, "IN" + id, "P" + id, "商品" + id, 1,
+                                LocalDateTime.of(2024, 1, 1, 0, 0), "供应商"));
+                    }
+                    return rows;
+                });
+
+        ReportService reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "inboundRepository", inboundRepository);
+        ReflectionTestUtils.setField(reportService, "batchSize", BATCH_SIZE);
+
+        reportService.writeInboundReport(null, null, out);
+
+        String pdf = new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+        System.out.printf("[流式报表] 行数=%d, 批次=%d, 文件大小=%dKB, 最后一批前已写出=%dKB%n",
+                ROWS, batches.get(), out.size() / 1024, bytesBeforeLastBatch.get() / 1024);
+        assertTrue(pdf.startsWith("%PDF"));
+        assertTrue(pdf.trim().endsWith("%%EOF"));
+        assertEquals(ROWS / BATCH_SIZE + 1, batches.get(), "每批读取后应从上一批最后的ID继续");
+        assertTrue(bytesBeforeLastBatch.get() > out.size() / 2, "已生成的页面应在读取后续数据前写出");
+    }
+}
@@ -0,0 +1,137 @@
+package com.warehouse.service;
+
+import com.warehouse.dto.DailyStockRollupDTO;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.DailyStockRollupRepository;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import com.warehouse.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 库存流水与快照测试：验证历史时点库存由快照加尾部流水正确推算，
+ * 每日库存汇总的增量结果与由流水回填的结果一致。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(StockTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StockLedgerServiceTest {
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private DailyStockRollupService dailyStockRollupService;
+
+    @Autowired
+    private DailyStockRollupRepository dailyStockRollupRepository;
+
+    @AfterEach
+    public void cleanup() {
+        stockSnapshotRepository.deleteAll();
+        dailyStockRollupRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void stockAsOfCombinesSnapshotAndTail() throws Exception {
+        Integer productId = productFixture.create("LEDGER-1", 50).getId();
+
+        LocalDateTime beforeAnyMovement = LocalDateTime.now();
+        Thread.sleep(5);
+
+        stockMutationService.increaseStock(productId, 20, StockMovementType.INBOUND, null);
+        stockMutationService.decreaseStock(productId, 5, StockMovementType.OUTBOUND, null);
+        stockLedgerService.takeSnapshots();
+        Thread.sleep(5);
+        LocalDateTime afterSnapshot = LocalDateTime.now();
+        Thread.sleep(5);
+
+        stockMutationService.decreaseStock(productId, 30, StockMovementType.OUTBOUND, null);
+        stockMutationService.increaseStock(productId, 1, StockMovementType.ADJUSTMENT_INCREASE, null);
+
+        assertEquals(1, stockSnapshotRepository.count());
+        assertEquals(50, stockLedgerService.getStockAsOf(productId, beforeAnyMovement).intValue());
+        assertEquals(65, stockLedgerService.getStockAsOf(productId, afterSnapshot).intValue());
+        assertEquals(36, stockLedgerService.getStockAsOf(productId, LocalDateTime.now()).intValue());
+
+        // 没有新流水时不重复生成快照
+        stockLedgerService.takeSnapshots();
+        stockLedgerService.takeSnapshots();
+        assertEquals(2, stockSnapshotRepository.count());
+    }
+
+    @Test
+    public void dailyRollupMatchesBackfill() throws Exception {
+        Integer productId = productFixture.create("LEDGER-2", 50).getId();
+
+        stockMutationService.increaseStock(productId, 20, StockMovementType.INBOUND, null);
+        stockMutationService.decreaseStock(productId, 5, StockMovementType.OUTBOUND, null);
+        stockMutationService.increaseStock(productId, 3, StockMovementType.OUTBOUND_REVERSAL, null);
+        stockMutationService.decreaseStock(productId, 2, StockMovementType.ADJUSTMENT_DECREASE, null);
+        stockMutationService.decreaseStock(productId, 4, StockMovementType.INBOUND_REVERSAL, null);
+
+        // 五条流水只累加到当天的一行：冲销抵减对应方向，日终库存取最后一条流水
+        LocalDate today = LocalDate.now();
+        DailyStockRollupDTO incremental = loadSingleRow(productId, today);
+        assertRollup(incremental, 16, 2, -2, 62);
+
+        dailyStockRollupRepository.deleteAll();
+        assertTrue(dailyStockRollupService.backfill().get(10, TimeUnit.SECONDS) >= 1);
+        assertRollup(loadSingleRow(productId, today), 16, 2, -2, 62);
+
+        // 回填后的流水继续增量累加
+        stockMutationService.increaseStock(productId, 1, StockMovementType.ADJUSTMENT_INCREASE, null);
+        assertRollup(loadSingleRow(productId, today), 16, 2, -1, 63);
+    }
+
+    private DailyStockRollupDTO loadSingleRow(Integer productId, LocalDate date) {
+        List<DailyStockRollupDTO> rows = dailyStockRollupRepository.findDailyRows(productId, date, date,
+                PageRequest.of(0, 10)).getContent();
+        assertEquals(1, rows.size());
+        assertEquals("LEDGER-2", rows.get(0).getProductCode());
+        return rows.get(0);
+    }
+
+    private static void assertRollup(DailyStockRollupDTO row, int inbound, int outbound, int adjust, int closing) {
+        assertEquals(inbound, row.getInboundQty().intValue());
+        assertEquals(outbound, row.getOutboundQty().intValue());
+        assertEquals(adjust, row.getAdjustQty().intValue());
+        assertEquals(closing, row.getClosingQty().intValue());
+    }
+}
@@ -0,0 +1,159 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.Product;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 库存原子增量并发压力测试
+ * 多线程同时对同一商品出入库，验证没有丢失更新和超卖，并输出竞争下的吞吐量。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(StockTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StockMutationServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @AfterEach
+    public void cleanup() {
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void concurrentOutboundsNeverOversell() throws Exception {
+        int initialStock = 1000;
+        int attemptsPerThread = 100;
+        Integer productId = productFixture.create("STRESS-OUT", initialStock).getId();
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long elapsed = runConcurrently(attemptsPerThread, i -> {
+            if (stockMutationService.tryDecreaseStock(productId, 1, StockMovementType.OUTBOUND, null) != null) {
+                succeeded.incrementAndGet();
+            } else {
+                rejected.incrementAndGet();
+            }
+        });
+
+        int totalAttempts = THREADS * attemptsPerThread;
+        assertEquals(initialStock, succeeded.get(), "成功扣减次数应等于初始库存");
+        assertEquals(totalAttempts - initialStock, rejected.get());
+        assertEquals(0, productRepository.findStockQtyById(productId).intValue(), "库存不能为负数");
+        assertEquals(initialStock, stockMovementRepository.count(), "每次成功扣减都应写入一条流水");
+
+        printThroughput("并发出库(超额请求)", totalAttempts, elapsed);
+    }
+
+    @Test
+    public void concurrentInboundsAndOutboundsLoseNoUpdates() throws Exception {
+        int initialStock = 100000;
+        int opsPerThread = 200;
+        Integer productId = productFixture.create("STRESS-MIX", initialStock).getId();
+
+        long elapsed = runConcurrently(opsPerThread, i -> {
+            if (i % 2 == 0) {
+                stockMutationService.increaseStock(productId, 3, StockMovementType.INBOUND, null);
+            } else {
+                stockMutationService.decreaseStock(productId, 2, StockMovementType.OUTBOUND, null);
+            }
+        });
+
+        // 每个线程 opsPerThread/2 次 +3 与 opsPerThread/2 次 -2
+        int expected = initialStock + THREADS * (opsPerThread / 2) * (3 - 2);
+        assertEquals(expected, productRepository.findStockQtyById(productId).intValue(), "存在丢失的库存更新");
+        assertEquals(THREADS * opsPerThread, stockMovementRepository.count(), "流水条数与变更次数不一致");
+
+        printThroughput("并发出入库混合", THREADS * opsPerThread, elapsed);
+    }
+
+    @Test
+    public void productSaveDoesNotOverwriteStock() {
+        Integer productId = productFixture.create("STRESS-SAVE", 10).getId();
+        Product loaded = productRepository.findById(productId).orElseThrow(IllegalStateException::new);
+
+        stockMutationService.increaseStock(productId, 5, StockMovementType.ADJUSTMENT_INCREASE, null);
+
+        // 旧实体再次保存时不应覆盖库存列
+        loaded.setName("renamed");
+        productRepository.save(loaded);
+
+        assertEquals(15, productRepository.findStockQtyById(productId).intValue());
+    }
+
+    private long runConcurrently(int opsPerThread, StockOperation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    operation.apply(i);
+                }
+                return null;
+            }));
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return elapsed;
+    }
+
+    private void printThroughput(String scenario, int operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("[%s] 线程数=%d, 操作数=%d, 耗时=%.3fs, 吞吐量=%.0f ops/s%n",
+                scenario, THREADS, operations, seconds, operations / seconds);
+    }
+
+    @FunctionalInterface
+    private interface StockOperation {
+        void apply(int index);
+    }
+}
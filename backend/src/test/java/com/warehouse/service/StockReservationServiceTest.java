@@ -0,0 +1,241 @@
+package com.warehouse.service;
+
+import com.warehouse.entity.StockReservation;
+import com.warehouse.enums.BusinessType;
+import com.warehouse.enums.ReservationStatus;
+import com.warehouse.enums.StockMovementType;
+import com.warehouse.repository.ProductRepository;
+import com.warehouse.repository.StockMovementRepository;
+import com.warehouse.repository.StockReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 库存预留测试：并发预留不超过现有库存，扣减不能占用其他单据的预留，
+ * 并发的预留与扣减不会同时占用同一份库存，过期后预留自动释放。
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(StockTestConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class StockReservationServiceTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private StockMutationService stockMutationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductFixture productFixture;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void cleanup() {
+        for (StockReservation reservation : stockReservationRepository.findByStatus(ReservationStatus.ACTIVE)) {
+            stockReservationService.release(reservation.getBusinessType(), reservation.getBusinessId());
+        }
+        hotStockService.flush();
+        stockReservationRepository.deleteAll();
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    public void concurrentReservationsNeverExceedOnHand() throws Exception {
+        Integer productId = productFixture.create("RSV-CONCURRENT", 10).getId();
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int businessId = t + 1;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                try {
+                    stockReservationService.reserve(productId, 1, BusinessType.OUTBOUND, businessId);
+                    succeeded.incrementAndGet();
+                } catch (RuntimeException expected) {
+                    // 可用库存不足
+                }
+                return null;
+            }));
+        }
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10, succeeded.get());
+        assertEquals(10, stockReservationService.getReservedQty(productId));
+        assertEquals(0, stockReservationService.getAvailableQty(productId));
+        assertEquals(10, productRepository.findStockQtyById(productId).intValue(), "预留不扣减现有库存");
+    }
+
+    @Test
+    public void decreaseCannotTakeOtherReservations() {
+        Integer productId = productFixture.create("RSV-DECREASE", 10).getId();
+        StockReservation reservation = stockReservationService.reserve(productId, 6, BusinessType.OUTBOUND, 1);
+
+        assertNull(stockMutationService.tryDecreaseStock(productId, 5, StockMovementType.OUTBOUND, 2));
+        assertNotNull(stockMutationService.tryDecreaseStock(productId, 4, StockMovementType.OUTBOUND, 2));
+
+        // 消耗本单预留时可以扣减预留的库存
+        assertNotNull(stockMutationService.tryDecreaseStock(productId, 6, StockMovementType.OUTBOUND, 1, reservation));
+        stockReservationService.consume(stockReservationService.findActive(BusinessType.OUTBOUND, 1));
+
+        assertEquals(0, stockReservationService.getReservedQty(productId));
+        assertEquals(0, productRepository.findStockQtyById(productId).intValue());
+        assertEquals(ReservationStatus.CONSUMED,
+                stockReservationRepository.findById(reservation.getId()).get().getStatus());
+    }
+
+    @Test
+    public void reserveWaitsForUncommittedDecrease() throws Exception {
+        Integer productId = productFixture.create("RSV-RACE", 10).getId();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch decreased = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Future<?> outbound = executor.submit(() -> transaction.execute(status -> {
+            stockMutationService.decreaseStock(productId, 10, StockMovementType.OUTBOUND, 1);
+            decreased.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertTrue(decreased.await(30, TimeUnit.SECONDS));
+
+        // 扣减尚未提交，预留等待商品行锁而不是按已提交的旧库存放行
+        Future<StockReservation> reservation = executor.submit(() ->
+                stockReservationService.reserve(productId, 10, BusinessType.OUTBOUND, 2));
+        assertThrows(TimeoutException.class, () -> reservation.get(500, TimeUnit.MILLISECONDS));
+
+        commit.countDown();
+        outbound.get(30, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> reservation.get(30, TimeUnit.SECONDS));
+        assertTrue(error.getCause().getMessage().startsWith("可用库存不足"));
+        executor.shutdown();
+
+        assertEquals(0, stockReservationService.getReservedQty(productId));
+        assertEquals(0, productRepository.findStockQtyById(productId).intValue());
+    }
+
+    @Test
+    public void concurrentReserveAndDecreaseNeverOversell() throws Exception {
+        Integer productId = productFixture.create("RSV-MIXED", 10).getId();
+        Integer hotProductId = productFixture.create("RSV-MIXED-HOT", 10).getId();
+        hotStockService.registerHotProduct(hotProductId);
+
+        assertReserveAndDecreaseShareStock(productId);
+        assertReserveAndDecreaseShareStock(hotProductId);
+    }
+
+    /**
+     * 一半线程预留、一半线程扣减，成功的预留与扣减合计不超过现有库存
+     */
+    private void assertReserveAndDecreaseShareStock(Integer productId) throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger decreased = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int businessId = t + 1;
+            futures.add(executor.submit(() -> {
+                startGate.await();
+                if (businessId % 2 == 0) {
+                    try {
+                        stockReservationService.reserve(productId, 1, BusinessType.OUTBOUND, businessId);
+                        reserved.incrementAndGet();
+                    } catch (RuntimeException expected) {
+                        // 可用库存不足
+                    }
+                } else if (stockMutationService.tryDecreaseStock(
+                        productId, 1, StockMovementType.OUTBOUND, businessId) != null) {
+                    decreased.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        startGate.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10, reserved.get() + decreased.get());
+        assertEquals(reserved.get(), stockReservationService.getReservedQty(productId));
+        assertEquals(10 - decreased.get(), stockReservationService.getOnHandQty(productId));
+        assertEquals(0, stockReservationService.getAvailableQty(productId));
+    }
+
+    @Test
+    public void expiredReservationsAreReleased() {
+        Integer productId = productFixture.create("RSV-EXPIRE", 5).getId();
+        StockReservation reservation = stockReservationService.reserve(productId, 5, BusinessType.OUTBOUND, 1);
+        assertThrows(RuntimeException.class,
+                () -> stockReservationService.reserve(productId, 1, BusinessType.OUTBOUND, 2));
+
+        StockReservation stored = stockReservationRepository.findById(reservation.getId()).get();
+        stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        stockReservationRepository.save(stored);
+
+        assertEquals(1, stockReservationService.expireReservations());
+        assertEquals(0, stockReservationService.getReservedQty(productId));
+        assertEquals(5, stockReservationService.getAvailableQty(productId));
+        assertNull(stockReservationService.findActive(BusinessType.OUTBOUND, 1));
+    }
+}
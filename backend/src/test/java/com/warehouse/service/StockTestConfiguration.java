@@ -0,0 +1,15 @@
+package com.warehouse.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 库存相关测试的公共配置：库存变更链路上的全部服务，以及测试商品数据。
+ * 需要校验通知的测试可用 @MockBean 替换其中的 WebSocketService。
+ */
+@TestConfiguration
+@Import({StockMutationService.class, StockLedgerService.class, HotStockService.class, StockIntentFlushService.class,
+        LowStockService.class, StockReservationService.class, WebSocketService.class,
+        DailyStockRollupService.class, ProductFixture.class})
+public class StockTestConfiguration {
+}
@@ -165,7 +165,7 @@ configure_environment() {
 MYSQL_ROOT_PASSWORD=warehouse_secure_2024
 MYSQL_USER=warehouse_user
 MYSQL_PASSWORD=warehouse_pass_2024
-DATABASE_URL=jdbc:mysql://mysql:3306/warehouse_management?useUnicode=true&characterEncoding=utf8&useSSL=false&serverTimezone=Asia/Shanghai&allowPublicKeyRetrieval=true
+DATABASE_URL=jdbc:mysql://mysql:3306/warehouse_management?useUnicode=true&characterEncoding=utf8&useSSL=false&serverTimezone=Asia/Shanghai&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true
 
 # JWT配置
 JWT_SECRET=warehouse_management_jwt_secret_2024_secure_key